@@ -0,0 +1,168 @@
+package com.softwareverde.database.mysql.embedded;
+
+import com.softwareverde.database.DatabaseException;
+import com.softwareverde.database.mysql.MysqlDatabaseConnection;
+import com.softwareverde.database.mysql.MysqlDatabaseConnectionFactory;
+import com.softwareverde.database.mysql.embedded.properties.EmbeddedDatabaseProperties;
+import com.softwareverde.database.properties.DatabaseCredentials;
+import com.softwareverde.database.query.Query;
+import com.softwareverde.logging.Logger;
+import com.softwareverde.util.Util;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+
+/**
+ * <p>Determines which root credentials authenticate against the server and reuses them for every lifecycle phase.</p>
+ *
+ * <p>Depending on the state of the installation, root may have an empty password (immediately after the data directory
+ * is bootstrapped) or the configured root password.  The candidates are only tried until one succeeds; afterwards the
+ * resolved credentials (and their connection factories) are reused until authentication actually changes, either via
+ * setRootCredentials or because a connection was rejected with an authentication failure.</p>
+ */
+public class DatabaseCredentialResolver {
+    public static final String ROOT_USERNAME = "root";
+    protected static final String AUTHENTICATION_FAILURE_SQL_STATE = "28000";
+    protected static final Integer MAX_CAUSE_DEPTH = 16;
+
+    /**
+     * Returns true if the exception (or one of its causes) indicates that the server rejected the credentials.
+     */
+    public static Boolean isAuthenticationFailure(final Throwable exception) {
+        Throwable cause = exception;
+        int depth = 0;
+        while ( (cause != null) && (depth < MAX_CAUSE_DEPTH) ) {
+            if (cause instanceof SQLException) {
+                final SQLException sqlException = (SQLException) cause;
+                if (Util.areEqual(AUTHENTICATION_FAILURE_SQL_STATE, sqlException.getSQLState())) { return true; }
+            }
+
+            cause = cause.getCause();
+            depth += 1;
+        }
+        return false;
+    }
+
+    protected final EmbeddedDatabaseProperties _databaseProperties;
+    protected final HashMap<String, MysqlDatabaseConnectionFactory> _rootDatabaseConnectionFactories = new HashMap<>();
+    protected DatabaseCredentials _rootCredentials;
+    protected MysqlDatabaseConnectionFactory _databaseConnectionFactory;
+
+    protected MysqlDatabaseConnectionFactory _newDatabaseConnectionFactory(final DatabaseCredentials databaseCredentials, final String schema) {
+        final String hostname = _databaseProperties.getHostname();
+        final Integer port = _databaseProperties.getPort();
+        return new MysqlDatabaseConnectionFactory(hostname, port, schema, databaseCredentials.username, databaseCredentials.password, _databaseProperties.getConnectionProperties());
+    }
+
+    protected Boolean _canConnect(final MysqlDatabaseConnectionFactory databaseConnectionFactory) {
+        try (final MysqlDatabaseConnection databaseConnection = databaseConnectionFactory.newConnection()) {
+            databaseConnection.query(new Query("SELECT 1"));
+            return true;
+        }
+        catch (final DatabaseException exception) {
+            return false;
+        }
+    }
+
+    protected void _clearRootCredentials() {
+        _rootCredentials = null;
+        _rootDatabaseConnectionFactories.clear();
+    }
+
+    public DatabaseCredentialResolver(final EmbeddedDatabaseProperties databaseProperties) {
+        _databaseProperties = databaseProperties;
+    }
+
+    /**
+     * Returns true if root's credentials have already been resolved.
+     */
+    public synchronized Boolean hasRootCredentials() {
+        return (_rootCredentials != null);
+    }
+
+    /**
+     * Returns the root credentials that authenticate against the server, or null if neither candidate could connect.
+     *  The empty root password (the default post-installation state) is tried before the configured root password.
+     *  Once resolved, the credentials are returned without connecting again.
+     */
+    public synchronized DatabaseCredentials getRootCredentials() {
+        if (_rootCredentials != null) { return _rootCredentials; }
+
+        final String emptySchema = "";
+        final DatabaseCredentials[] candidateCredentials = new DatabaseCredentials[] {
+            new DatabaseCredentials(ROOT_USERNAME, ""),
+            new DatabaseCredentials(ROOT_USERNAME, _databaseProperties.getRootPassword())
+        };
+
+        for (final DatabaseCredentials databaseCredentials : candidateCredentials) {
+            final MysqlDatabaseConnectionFactory databaseConnectionFactory = _newDatabaseConnectionFactory(databaseCredentials, emptySchema);
+            if (_canConnect(databaseConnectionFactory)) {
+                _rootCredentials = databaseCredentials;
+                _rootDatabaseConnectionFactories.put(emptySchema, databaseConnectionFactory);
+                Logger.trace("Resolved root credentials. (Empty password: " + Util.isBlank(databaseCredentials.password) + ")");
+                return _rootCredentials;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns a root-user ConnectionFactory without a default schema, or null if root's credentials could not be resolved.
+     */
+    public synchronized MysqlDatabaseConnectionFactory getRootDatabaseConnectionFactory() {
+        return this.getRootDatabaseConnectionFactory("");
+    }
+
+    /**
+     * Returns a root-user ConnectionFactory for the provided schema, or null if root's credentials could not be resolved.
+     */
+    public synchronized MysqlDatabaseConnectionFactory getRootDatabaseConnectionFactory(final String schema) {
+        final DatabaseCredentials rootCredentials = this.getRootCredentials();
+        if (rootCredentials == null) { return null; }
+
+        final MysqlDatabaseConnectionFactory cachedDatabaseConnectionFactory = _rootDatabaseConnectionFactories.get(schema);
+        if (cachedDatabaseConnectionFactory != null) { return cachedDatabaseConnectionFactory; }
+
+        final MysqlDatabaseConnectionFactory databaseConnectionFactory = _newDatabaseConnectionFactory(rootCredentials, schema);
+        _rootDatabaseConnectionFactories.put(schema, databaseConnectionFactory);
+        return databaseConnectionFactory;
+    }
+
+    /**
+     * Returns the ConnectionFactory for the configured (non-root) user and schema.
+     */
+    public synchronized MysqlDatabaseConnectionFactory getDatabaseConnectionFactory() {
+        if (_databaseConnectionFactory == null) {
+            _databaseConnectionFactory = _newDatabaseConnectionFactory(_databaseProperties.getCredentials(), _databaseProperties.getSchema());
+        }
+        return _databaseConnectionFactory;
+    }
+
+    /**
+     * Records that root's credentials were changed (ex: after the root account is initialized).
+     */
+    public synchronized void setRootCredentials(final DatabaseCredentials rootCredentials) {
+        _clearRootCredentials();
+        _rootCredentials = rootCredentials;
+    }
+
+    /**
+     * Discards the resolved root credentials if the exception indicates that authentication failed, so that they are
+     *  resolved again on next use.  Other failures (ex: the server being offline) do not affect the resolved credentials.
+     */
+    public synchronized void onConnectionFailure(final Exception exception) {
+        if (! DatabaseCredentialResolver.isAuthenticationFailure(exception)) { return; }
+
+        Logger.debug("Authentication failed; resolving root credentials again.");
+        _clearRootCredentials();
+    }
+
+    /**
+     * Discards all resolved credentials and factories (ex: after the server's port changes).
+     */
+    public synchronized void reset() {
+        _clearRootCredentials();
+        _databaseConnectionFactory = null;
+    }
+}
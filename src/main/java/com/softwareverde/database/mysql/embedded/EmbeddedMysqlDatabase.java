@@ -5,22 +5,40 @@ import com.softwareverde.database.DatabaseInitializer;
 import com.softwareverde.database.mysql.MysqlDatabase;
 import com.softwareverde.database.mysql.MysqlDatabaseConnection;
 import com.softwareverde.database.mysql.MysqlDatabaseConnectionFactory;
+import com.softwareverde.database.mysql.embedded.fixture.FixtureReset;
+import com.softwareverde.database.mysql.embedded.fixture.SchemaCloner;
+import com.softwareverde.database.mysql.embedded.installation.DataDirectorySnapshots;
+import com.softwareverde.database.mysql.embedded.installation.InstallationDrift;
+import com.softwareverde.database.mysql.embedded.installation.InstallationLock;
+import com.softwareverde.database.mysql.embedded.load.StreamingImporter;
 import com.softwareverde.database.mysql.embedded.os.OperatingSystemSpecificMysqlDatabase;
 import com.softwareverde.database.mysql.embedded.os.OperatingSystemSpecificMysqlDatabaseFactory;
 import com.softwareverde.database.mysql.embedded.os.OperatingSystemType;
 import com.softwareverde.database.mysql.embedded.os.UnixMysqlDatabase;
 import com.softwareverde.database.mysql.embedded.os.WindowsMysqlDatabase;
+import com.softwareverde.database.mysql.embedded.pool.ConnectionPoolMetrics;
+import com.softwareverde.database.mysql.embedded.pool.MysqlConnectionPool;
 import com.softwareverde.database.mysql.embedded.properties.EmbeddedDatabaseProperties;
+import com.softwareverde.database.mysql.embedded.properties.MemoryBudgetEstimator;
+import com.softwareverde.database.mysql.embedded.properties.MemoryBudgetMode;
+import com.softwareverde.database.mysql.embedded.properties.ServerVariables;
 import com.softwareverde.database.properties.DatabaseCredentials;
 import com.softwareverde.database.properties.DatabaseProperties;
 import com.softwareverde.database.query.Query;
+import com.softwareverde.database.row.Row;
 import com.softwareverde.logging.Logger;
 import com.softwareverde.util.Util;
 import com.softwareverde.util.Version;
 import com.softwareverde.util.timer.NanoTimer;
 
 import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.regex.Pattern;
 
 public class EmbeddedMysqlDatabase extends MysqlDatabase {
     protected static final OperatingSystemSpecificMysqlDatabaseFactory DEFAULT_DATABASE_FACTORY = new OperatingSystemSpecificMysqlDatabaseFactory() {
@@ -43,9 +61,70 @@ public class EmbeddedMysqlDatabase extends MysqlDatabase {
         throw new DatabaseException(exception);
     }
 
+    protected static final Integer MAX_START_ATTEMPT_COUNT = 5;
+    protected static final Pattern SYSTEM_VARIABLE_NAME_PATTERN = Pattern.compile("[a-z0-9_]+");
+    protected static final Long BUFFER_POOL_RESIZE_POLL_INTERVAL_MS = 100L;
+    protected static final Long BULK_INGEST_IO_CAPACITY = 2000L;
+    protected static final String MARIADB_LOCAL_INFILE_CONNECTION_PROPERTY = "allowLocalInfile";
+    protected static final String MYSQL_LOCAL_INFILE_CONNECTION_PROPERTY = "allowLoadLocalInfile";
+
+    /**
+     * Normalizes a configured or reported variable value for comparison: boolean values become "1" or "0", and numeric
+     *  values (including those with a K/M/G/T suffix) become their canonical decimal form.  Flags are configured as "ON"
+     *  (see ServerVariables::parse); an empty value remains empty.
+     */
+    protected static String _normalizeVariableValue(final String value) {
+        final String upperCaseValue = value.trim().toUpperCase();
+        if (Util.areEqual("ON", upperCaseValue) || Util.areEqual("TRUE", upperCaseValue)) { return "1"; }
+        if (Util.areEqual("OFF", upperCaseValue) || Util.areEqual("FALSE", upperCaseValue)) { return "0"; }
+
+        final Long longValue = ServerVariables.parseLong(upperCaseValue);
+        if (longValue != null) { return longValue.toString(); }
+
+        try {
+            return Double.toString(Double.parseDouble(upperCaseValue));
+        }
+        catch (final NumberFormatException exception) {
+            return upperCaseValue;
+        }
+    }
+
+    /**
+     * Returns the typed value used to set the variable; numeric variables reject string values, so boolean and numeric
+     *  values are converted to numbers.  Other values (including empty values) are passed through unchanged.
+     */
+    protected static Object _getVariableParameter(final String value) {
+        final String trimmedValue = value.trim();
+        final String normalizedValue = _normalizeVariableValue(trimmedValue);
+        final Long longValue = ServerVariables.parseLong(normalizedValue);
+        if (longValue != null) { return longValue; }
+
+        try {
+            return Double.parseDouble(normalizedValue);
+        }
+        catch (final NumberFormatException exception) {
+            return trimmedValue;
+        }
+    }
+
     protected final OperatingSystemSpecificMysqlDatabase _delegate;
     protected final EmbeddedDatabaseProperties _databaseProperties;
     protected final DatabaseInitializer<Connection> _databaseInitializer;
+    protected Double _installationLockWaitMs = 0D;
+
+    protected Boolean _connectionPoolIsEnabled = false;
+    protected Integer _connectionPoolSize;
+    protected Long _connectionPoolIdleTimeoutMs = MysqlConnectionPool.DEFAULT_IDLE_TIMEOUT_MS;
+    protected volatile MysqlConnectionPool _connectionPool;
+
+    protected MemoryBudgetMode _memoryBudgetMode;
+    protected Long _memoryBudgetByteCount;
+
+    protected final Map<String, String> _appliedVariableValues = new HashMap<>();
+
+    protected final LinkedHashMap<String, String> _bulkIngestPreviousValues = new LinkedHashMap<>();
+    protected Boolean _isInBulkIngestMode = false;
+    protected NanoTimer _bulkIngestTimer;
 
     protected void _deleteTestDatabase(final MysqlDatabaseConnection databaseConnection) throws Exception {
         databaseConnection.executeDdl("DROP DATABASE IF EXISTS `test`");
@@ -90,23 +169,24 @@ public class EmbeddedMysqlDatabase extends MysqlDatabase {
     /**
      * Attempts to obtain the stored database version via the root connection and uses the user credential as failover.
      *  Returns 0 if the database has not been setup or if connections could not be established.
+     *  The root credentials are provided by the DatabaseCredentialResolver, so no additional authentications are attempted.
      */
     protected Integer _getDatabaseVersionNumber() {
-        final DatabaseCredentials rootDatabaseCredentials = new DatabaseCredentials("root", _databaseProperties.getRootPassword());
-        final DatabaseCredentials databaseCredentials = _databaseProperties.getCredentials();
-
-        final MysqlDatabaseConnectionFactory rootDatabaseConnectionFactory = new MysqlDatabaseConnectionFactory(_databaseProperties.getHostname(), _port, _databaseProperties.getSchema(), rootDatabaseCredentials.username, rootDatabaseCredentials.password, _connectionProperties);
-        final MysqlDatabaseConnectionFactory databaseConnectionFactory = new MysqlDatabaseConnectionFactory(_databaseProperties.getHostname(), _port, _databaseProperties.getSchema(), databaseCredentials.username, databaseCredentials.password, _connectionProperties);
+        final DatabaseCredentialResolver credentialResolver = _delegate.getCredentialResolver();
+        final MysqlDatabaseConnectionFactory rootDatabaseConnectionFactory = credentialResolver.getRootDatabaseConnectionFactory(_databaseProperties.getSchema());
+        final MysqlDatabaseConnectionFactory databaseConnectionFactory = credentialResolver.getDatabaseConnectionFactory();
 
         Integer databaseVersionNumber = 0;
 
-        try {
+        if (rootDatabaseConnectionFactory != null) {
             // Attempt to connect via root first since it should always have credentials (but may have been removed)...
             try (final MysqlDatabaseConnection databaseConnection = rootDatabaseConnectionFactory.newConnection()) {
                 databaseVersionNumber = _databaseInitializer.getDatabaseVersionNumber(databaseConnection);
             }
+            catch (final DatabaseException exception) {
+                credentialResolver.onConnectionFailure(exception);
+            }
         }
-        catch (final DatabaseException ignoredException) { }
 
         if (databaseVersionNumber == 0) {
             // If a root connect cannot be established, attempt to connect via user credentials...
@@ -123,36 +203,11 @@ public class EmbeddedMysqlDatabase extends MysqlDatabase {
      * Returns a root-user ConnectionFactory that has been tested for validity.
      *  Due to various possible states of database installation, the root user may be insecure or already configured
      *  with a root password; this function returns the appropriate ConnectionFactory for either case.
+     *  The working credentials are resolved once by the DatabaseCredentialResolver and reused thereafter.
      */
     protected MysqlDatabaseConnectionFactory _getRootDatabaseConnectionFactory(final DatabaseProperties databaseProperties, final Properties connectionProperties) {
-        final String username = "root";
-        final String hostname = databaseProperties.getHostname();
-        final Integer port = databaseProperties.getPort();
-        final String schema = "";
-
-        final Query testQuery = new Query("SELECT 1");
-
-        { // Attempt to connect via an empty root password...
-            final DatabaseCredentials rootCredentials = new DatabaseCredentials(username, "");
-            final MysqlDatabaseConnectionFactory emptyRootDatabaseConnectionFactory = new MysqlDatabaseConnectionFactory(hostname, port, schema, rootCredentials.username, rootCredentials.password, connectionProperties);
-            try (final MysqlDatabaseConnection databaseConnection = emptyRootDatabaseConnectionFactory.newConnection()) {
-                databaseConnection.query(testQuery);
-                return emptyRootDatabaseConnectionFactory;
-            }
-            catch (final DatabaseException exception) { }
-        }
-
-        { // Attempt to connect via the configured root password...
-            final DatabaseCredentials rootCredentials = new DatabaseCredentials(username, databaseProperties.getRootPassword());
-            final MysqlDatabaseConnectionFactory rootDatabaseConnectionFactory = new MysqlDatabaseConnectionFactory(hostname, port, schema, rootCredentials.username, rootCredentials.password, connectionProperties);
-            try (final MysqlDatabaseConnection databaseConnection = rootDatabaseConnectionFactory.newConnection()) {
-                databaseConnection.query(testQuery);
-                return rootDatabaseConnectionFactory;
-            }
-            catch (final DatabaseException exception) { }
-        }
-
-        return null;
+        final DatabaseCredentialResolver credentialResolver = _delegate.getCredentialResolver();
+        return credentialResolver.getRootDatabaseConnectionFactory();
     }
 
     /**
@@ -170,6 +225,7 @@ public class EmbeddedMysqlDatabase extends MysqlDatabase {
                 final DatabaseCredentials rootCredentials = new DatabaseCredentials("root", databaseProperties.getRootPassword());
 
                 _initializeRootAccount(rootDatabaseConnection, rootCredentials);
+                _delegate.getCredentialResolver().setRootCredentials(rootCredentials);
                 _deleteTestDatabase(rootDatabaseConnection);
                 _removeAnonymousAccounts(rootDatabaseConnection);
                 databaseInitializer.initializeSchema(rootDatabaseConnection, databaseProperties);
@@ -196,10 +252,140 @@ public class EmbeddedMysqlDatabase extends MysqlDatabase {
         }
     }
 
+    protected void _openConnectionPool() {
+        final Integer maxConnectionCount = (_connectionPoolSize != null ? _connectionPoolSize : MysqlConnectionPool.calculateMaxConnectionCount(_databaseProperties));
+        final MysqlDatabaseConnectionFactory databaseConnectionFactory = new MysqlDatabaseConnectionFactory(_hostname, _port, _schema, _username, _password, _connectionProperties);
+
+        final MysqlConnectionPool connectionPool = new MysqlConnectionPool(databaseConnectionFactory, maxConnectionCount);
+        connectionPool.setIdleTimeout(_connectionPoolIdleTimeoutMs);
+        _connectionPool = connectionPool;
+
+        Logger.debug("Opened connection pool with " + maxConnectionCount + " connections.");
+    }
+
+    protected void _closeConnectionPool() {
+        final MysqlConnectionPool connectionPool = _connectionPool;
+        if (connectionPool == null) { return; }
+
+        _connectionPool = null;
+        Logger.debug("Closing connection pool: " + connectionPool.getMetrics());
+        connectionPool.close();
+    }
+
+    protected void _enforceMemoryBudget() throws Exception {
+        if (_memoryBudgetMode == null) { return; }
+
+        final MemoryBudgetEstimator memoryBudgetEstimator = new MemoryBudgetEstimator();
+        if (_memoryBudgetByteCount != null) {
+            memoryBudgetEstimator.enforce(_databaseProperties, _memoryBudgetByteCount, _memoryBudgetMode);
+        }
+        else {
+            memoryBudgetEstimator.enforce(_databaseProperties, _memoryBudgetMode);
+        }
+    }
+
+    protected void _recordAppliedVariableValues() {
+        synchronized (_appliedVariableValues) {
+            _appliedVariableValues.clear();
+
+            final ServerVariables serverVariables = ServerVariables.parse(_databaseProperties.getCommandlineArguments());
+            for (final String variableName : serverVariables.getNames()) {
+                _appliedVariableValues.put(variableName, serverVariables.getString(variableName));
+            }
+        }
+    }
+
+    /**
+     * Returns the server's current global value of the variable, or null if the variable is not a system variable.
+     */
+    protected String _getGlobalVariableValue(final MysqlDatabaseConnection databaseConnection, final String variableName) {
+        try {
+            final List<Row> rows = databaseConnection.query(new Query("SELECT @@GLOBAL." + variableName + " AS value"));
+            if (rows.isEmpty()) { return null; }
+
+            final String value = rows.get(0).getString("value");
+            return (value != null ? value : "");
+        }
+        catch (final DatabaseException exception) {
+            return null;
+        }
+    }
+
+    /**
+     * Waits for an online buffer pool resize to complete; resizing is performed by the server in the background.
+     */
+    protected void _waitForBufferPoolResize(final MysqlDatabaseConnection databaseConnection) throws Exception {
+        final NanoTimer nanoTimer = new NanoTimer();
+        nanoTimer.start();
+
+        String resizeStatus = null;
+        while (true) {
+            final List<Row> rows = databaseConnection.query(new Query("SHOW GLOBAL STATUS LIKE 'Innodb_buffer_pool_resize_status'"));
+            resizeStatus = (rows.isEmpty() ? "" : Util.coalesce(rows.get(0).getString("Value"), ""));
+            if (resizeStatus.isEmpty() || resizeStatus.startsWith("Completed") || resizeStatus.toLowerCase().contains("fail")) { break; }
+
+            nanoTimer.stop();
+            if (nanoTimer.getMillisecondsElapsed() >= _delegate.getTimeoutMs()) {
+                Logger.warn("Buffer pool resize has not completed: " + resizeStatus);
+                return;
+            }
+
+            Thread.sleep(BUFFER_POOL_RESIZE_POLL_INTERVAL_MS);
+        }
+
+        nanoTimer.stop();
+        Logger.debug("Buffer pool resize finished after " + nanoTimer.getMillisecondsElapsed() + "ms: " + resizeStatus);
+    }
+
+    /**
+     * Returns the ingest-friendly global values, in the order they are applied; they are restored in reverse order.
+     *  innodb_io_capacity_max is raised before innodb_io_capacity since the capacity may not exceed its maximum.
+     */
+    protected LinkedHashMap<String, Long> _getBulkIngestVariableValues(final MysqlDatabaseConnection databaseConnection) {
+        final LinkedHashMap<String, Long> variableValues = new LinkedHashMap<>();
+        variableValues.put("innodb_flush_log_at_trx_commit", 2L); // Write the redo log at commit, but flush it once per second.
+        variableValues.put("sync_binlog", 0L);
+        variableValues.put("innodb_doublewrite", 0L); // Only dynamic as of MariaDB 10.11; skipped otherwise.
+
+        final String ioCapacityValue = _getGlobalVariableValue(databaseConnection, "innodb_io_capacity");
+        final String ioCapacityMaxValue = _getGlobalVariableValue(databaseConnection, "innodb_io_capacity_max");
+        final Long ioCapacity = (ioCapacityValue != null ? ServerVariables.parseLong(ioCapacityValue) : null);
+        final Long ioCapacityMax = (ioCapacityMaxValue != null ? ServerVariables.parseLong(ioCapacityMaxValue) : null);
+        if ( (ioCapacity != null) && (ioCapacityMax != null) ) {
+            final Long bulkIngestIoCapacity = Math.max(ioCapacity, BULK_INGEST_IO_CAPACITY);
+            variableValues.put("innodb_io_capacity_max", Math.max(ioCapacityMax, (bulkIngestIoCapacity * 2L)));
+            variableValues.put("innodb_io_capacity", bulkIngestIoCapacity);
+        }
+
+        return variableValues;
+    }
+
+    /**
+     * Restores the global values recorded when bulk-ingest mode was entered, in the reverse order they were changed.
+     */
+    protected void _restoreBulkIngestPreviousValues(final MysqlDatabaseConnection databaseConnection) throws DatabaseException {
+        final List<String> variableNames = new ArrayList<>(_bulkIngestPreviousValues.keySet());
+        for (int i = (variableNames.size() - 1); i >= 0; --i) {
+            final String variableName = variableNames.get(i);
+            final String previousValue = _bulkIngestPreviousValues.get(variableName);
+            databaseConnection.executeSql(
+                new Query("SET GLOBAL " + variableName + " = ?")
+                    .setParameter(_getVariableParameter(previousValue))
+            );
+            _bulkIngestPreviousValues.remove(variableName);
+        }
+    }
+
     protected void _start() throws Exception {
         final NanoTimer nanoTimer = new NanoTimer();
         nanoTimer.start();
 
+        _recordAppliedVariableValues();
+        synchronized (_bulkIngestPreviousValues) { // A (re)started server uses its configured values...
+            _bulkIngestPreviousValues.clear();
+            _isInBulkIngestMode = false;
+        }
+
         _delegate.start();
 
         final Version installationDirectoryVersion = _delegate.getInstallationDirectoryVersion();
@@ -209,7 +395,28 @@ public class EmbeddedMysqlDatabase extends MysqlDatabase {
         final boolean willUpgrade = (! Util.areEqual(installationDirectoryVersion, dataDirectoryVersion));
 
         final Long timeoutMs = (willUpgrade ? _delegate.getUpgradeTimeoutMs() : _delegate.getTimeoutMs());
-        _delegate.waitForDatabaseToComeOnline(timeoutMs);
+        int startAttemptCount = 1;
+        while (true) {
+            try {
+                _delegate.waitForDatabaseToComeOnline(timeoutMs);
+                break;
+            }
+            catch (final PortConflictException exception) {
+                // The data directory (and any snapshots) must survive the retry, even if the database is ephemeral.
+                _delegate.stopServer();
+
+                // When the port is selected automatically, another process may have bound it since it was selected.
+                final boolean shouldRetry = (_databaseProperties.isPortAutomatic() && (startAttemptCount < MAX_START_ATTEMPT_COUNT));
+                if (! shouldRetry) { throw exception; }
+
+                final Integer port = _delegate.selectAutomaticPort();
+                Logger.info("Port " + exception.getPort() + " is in use; restarting database on port " + port + ".");
+
+                _delegate.start();
+                startAttemptCount += 1;
+            }
+        }
+        _port = _databaseProperties.getPort();
 
         if (willUpgrade) {
             _delegate.upgrade();
@@ -217,8 +424,12 @@ public class EmbeddedMysqlDatabase extends MysqlDatabase {
 
         _initializeDatabase(_databaseProperties, _databaseInitializer, _connectionProperties);
 
+        if (_connectionPoolIsEnabled) {
+            _openConnectionPool();
+        }
+
         nanoTimer.stop();
-        Logger.debug("Database came online after " + nanoTimer.getMillisecondsElapsed() + "ms.");
+        Logger.debug("Database came online after " + nanoTimer.getMillisecondsElapsed() + "ms. (Installation lock wait: " + _installationLockWaitMs + "ms)");
     }
 
     protected EmbeddedMysqlDatabase(final EmbeddedDatabaseProperties databaseProperties, final DatabaseInitializer<Connection> databaseInitializer, final OperatingSystemSpecificMysqlDatabaseFactory databaseFactory) {
@@ -248,13 +459,104 @@ public class EmbeddedMysqlDatabase extends MysqlDatabase {
         _delegate.setUpgradeTimeout(timeoutMs);
     }
 
+    /**
+     * Sets the number of threads used to extract the packaged binaries during installation.
+     */
+    public void setInstallationThreadCount(final Integer installationThreadCount) {
+        _delegate.setInstallationThreadCount(installationThreadCount);
+    }
+
+    /**
+     * When disabled, the packaged binaries are extracted through the classloader instead of directly from their jar.
+     *  Enabled by default; primarily useful for comparing extraction timings (see ManifestExtractor::setDirectJarAccessEnabled).
+     */
+    public void setInstallationDirectJarAccessEnabled(final Boolean directJarAccessIsEnabled) {
+        _delegate.setInstallationDirectJarAccessEnabled(directJarAccessIsEnabled);
+    }
+
+    /**
+     * Disables the shutdown hook that stops the database when the JVM exits, for when the database is stopped by a
+     *  shared hook instead (ex: EmbeddedMysqlDatabaseFleet).  Must be set before the database is started.
+     */
+    public void setShutdownHookEnabled(final Boolean shutdownHookIsEnabled) {
+        _delegate.setShutdownHookEnabled(shutdownHookIsEnabled);
+    }
+
+    /**
+     * Enables the built-in connection pool, which is used by newConnection once the database has started.
+     *  Closing a pooled connection returns it to the pool.  Must be set before the database is started.
+     */
+    public void setConnectionPoolEnabled(final Boolean connectionPoolIsEnabled) {
+        _connectionPoolIsEnabled = connectionPoolIsEnabled;
+    }
+
+    /**
+     * Sets the maximum number of pooled connections.  If not set, the pool is sized from the server's max_connections
+     *  (see MutableEmbeddedDatabaseProperties::setMaxConnectionCount), less the connections reserved for maintenance.
+     */
+    public void setConnectionPoolSize(final Integer connectionPoolSize) {
+        _connectionPoolSize = connectionPoolSize;
+    }
+
+    /**
+     * Sets the duration after which an idle pooled connection is closed.
+     */
+    public void setConnectionPoolIdleTimeout(final Long idleTimeoutMs) {
+        _connectionPoolIdleTimeoutMs = idleTimeoutMs;
+
+        final MysqlConnectionPool connectionPool = _connectionPool;
+        if (connectionPool != null) {
+            connectionPool.setIdleTimeout(idleTimeoutMs);
+        }
+    }
+
+    /**
+     * Checks the configuration's worst-case memory against the budget whenever the database is installed or started
+     *  (see MemoryBudgetEstimator).  If the budget is null, the memory available to the server is detected (accounting
+     *  for container limits and this JVM).  Setting the mode to null disables the check.
+     */
+    public void setMemoryBudget(final Long budgetByteCount, final MemoryBudgetMode mode) {
+        _memoryBudgetByteCount = budgetByteCount;
+        _memoryBudgetMode = mode;
+    }
+
+    /**
+     * Returns a snapshot of the connection pool's metrics, or null if the pool is not open.
+     */
+    public ConnectionPoolMetrics getConnectionPoolMetrics() {
+        final MysqlConnectionPool connectionPool = _connectionPool;
+        if (connectionPool == null) { return null; }
+
+        return connectionPool.getMetrics();
+    }
+
+    /**
+     * Returns a connection from the connection pool if it is enabled and open; otherwise a new connection is established.
+     */
+    @Override
+    public MysqlDatabaseConnection newConnection() throws DatabaseException {
+        final MysqlConnectionPool connectionPool = _connectionPool;
+        if (connectionPool != null) {
+            return connectionPool.borrow();
+        }
+
+        return super.newConnection();
+    }
+
     /**
      * Attempts to install the database binaries and data files.
      *  Install will also write/update the configuration files and version files.
      */
     public void install() throws DatabaseException {
+        _delegate.validateTransport();
+
         try {
-            _delegate.install();
+            _enforceMemoryBudget();
+
+            try (final InstallationLock installationLock = _delegate.lockInstallation()) {
+                _installationLockWaitMs = installationLock.getWaitMs();
+                _delegate.install();
+            }
         }
         catch (final Exception exception) {
             EmbeddedMysqlDatabase.rethrowException(exception);
@@ -271,11 +573,22 @@ public class EmbeddedMysqlDatabase extends MysqlDatabase {
     }
 
     public void start(final Boolean skipInstall) throws DatabaseException {
+        _delegate.validateTransport();
+
         try {
+            _enforceMemoryBudget();
+
             if (! skipInstall) {
                 final Boolean isInstalled = _delegate.isInstalled();
                 if (! isInstalled) {
-                    _delegate.install();
+                    try (final InstallationLock installationLock = _delegate.lockInstallation()) {
+                        _installationLockWaitMs = installationLock.getWaitMs();
+
+                        // Another process may have completed the installation while this process waited for the lock.
+                        if (! _delegate.isInstalled()) {
+                            _delegate.install();
+                        }
+                    }
                 }
             }
 
@@ -288,9 +601,11 @@ public class EmbeddedMysqlDatabase extends MysqlDatabase {
 
     /**
      * Shuts the database down and blocks until the database has gone offline or until the timeout is reached.
+     *  If the database is ephemeral (see MutableEmbeddedDatabaseProperties::enableEphemeralMode), its data directory is deleted.
      */
     public void stop() throws DatabaseException {
         try {
+            _closeConnectionPool();
             _delegate.stop();
         }
         catch (final Exception exception) {
@@ -298,6 +613,335 @@ public class EmbeddedMysqlDatabase extends MysqlDatabase {
         }
     }
 
+    /**
+     * Restarts the server without deleting an ephemeral data directory, blocking until the database is online.
+     */
+    public void restart() throws DatabaseException {
+        try {
+            _closeConnectionPool();
+            _delegate.stopServer();
+            _start();
+        }
+        catch (final Exception exception) {
+            EmbeddedMysqlDatabase.rethrowException(exception);
+        }
+    }
+
+    /**
+     * <p>Captures the data directory as the named snapshot, replacing any existing snapshot with the same name.</p>
+     *
+     * <p>A running server is shut down cleanly (flushing InnoDB) before the data directory is copied, and is then
+     * restarted; copies of a running server's files are not consistent.  Snapshots are stored alongside the data
+     * directory and are deleted with an ephemeral data directory.</p>
+     */
+    public void takeSnapshot(final String name) throws DatabaseException {
+        final DataDirectorySnapshots dataDirectorySnapshots = _delegate.getDataDirectorySnapshots();
+        try {
+            final Boolean wasRunning = _delegate.isRunning();
+            if (wasRunning) {
+                _closeConnectionPool();
+                _delegate.stopServer();
+            }
+
+            dataDirectorySnapshots.takeSnapshot(name);
+
+            if (wasRunning) {
+                _start();
+            }
+        }
+        catch (final Exception exception) {
+            EmbeddedMysqlDatabase.rethrowException(exception);
+        }
+    }
+
+    /**
+     * <p>Replaces the data directory with the named snapshot and (re)starts the server, blocking until it is online.</p>
+     *
+     * <p>A copy of each snapshot is prepared in the background after it is taken or restored, so a restore is typically
+     * only a directory rename plus the server's restart; the replaced data directory is deleted in the background.
+     * Any open connections are invalidated.</p>
+     */
+    public void restoreSnapshot(final String name) throws DatabaseException {
+        final DataDirectorySnapshots dataDirectorySnapshots = _delegate.getDataDirectorySnapshots();
+        if (! dataDirectorySnapshots.hasSnapshot(name)) {
+            throw new DatabaseException("Snapshot not found: " + name);
+        }
+
+        try {
+            final NanoTimer nanoTimer = new NanoTimer();
+            nanoTimer.start();
+
+            _closeConnectionPool();
+            _delegate.stopServer();
+            dataDirectorySnapshots.restoreSnapshot(name);
+            _start();
+
+            nanoTimer.stop();
+            Logger.debug("Restored snapshot " + name + " after " + nanoTimer.getMillisecondsElapsed() + "ms.");
+        }
+        catch (final Exception exception) {
+            EmbeddedMysqlDatabase.rethrowException(exception);
+        }
+    }
+
+    public Boolean hasSnapshot(final String name) {
+        final DataDirectorySnapshots dataDirectorySnapshots = _delegate.getDataDirectorySnapshots();
+        return dataDirectorySnapshots.hasSnapshot(name);
+    }
+
+    public void deleteSnapshot(final String name) throws DatabaseException {
+        final DataDirectorySnapshots dataDirectorySnapshots = _delegate.getDataDirectorySnapshots();
+        try {
+            dataDirectorySnapshots.deleteSnapshot(name);
+        }
+        catch (final Exception exception) {
+            EmbeddedMysqlDatabase.rethrowException(exception);
+        }
+    }
+
+    /**
+     * <p>Applies changes made to the database properties since the database was started, without restarting it.</p>
+     *
+     * <p>Each variable whose configured value changed is compared against the running server; dynamic variables that
+     * differ are set via SET GLOBAL (including innodb_buffer_pool_size, which is resized online), and variables that were
+     * removed are reset via SET GLOBAL ... = DEFAULT.  Read-only variables and startup options are reported as requiring
+     * a restart.  The configuration file is rewritten either way, so the changes persist across restarts.  Changes only
+     * affect new sessions for variables that also have a session scope.  The memory budget, if set, is enforced first.</p>
+     */
+    public ReconfigurationResult applyChanges() throws DatabaseException {
+        if (! _delegate.isRunning()) {
+            throw new DatabaseException("Database must be running to apply changes.");
+        }
+
+        try {
+            _enforceMemoryBudget();
+        }
+        catch (final Exception exception) {
+            EmbeddedMysqlDatabase.rethrowException(exception);
+        }
+
+        final ReconfigurationResult reconfigurationResult = new ReconfigurationResult();
+        final ServerVariables serverVariables = ServerVariables.parse(_databaseProperties.getCommandlineArguments());
+        final MysqlDatabaseConnectionFactory rootDatabaseConnectionFactory = _getRootDatabaseConnectionFactory(_databaseProperties, _connectionProperties);
+        if (rootDatabaseConnectionFactory == null) { throw new DatabaseException("Unable to connect to database via root."); }
+
+        synchronized (_appliedVariableValues) {
+            try (final MysqlDatabaseConnection databaseConnection = rootDatabaseConnectionFactory.newConnection()) {
+                boolean bufferPoolWasResized = false;
+
+                for (final String variableName : serverVariables.getNames()) {
+                    final String value = serverVariables.getString(variableName);
+                    final String appliedValue = _appliedVariableValues.get(variableName);
+                    if ( (appliedValue != null) && Util.areEqual(_normalizeVariableValue(appliedValue), _normalizeVariableValue(value)) ) { continue; }
+
+                    final String runningValue = (SYSTEM_VARIABLE_NAME_PATTERN.matcher(variableName).matches() ? _getGlobalVariableValue(databaseConnection, variableName) : null);
+                    if (runningValue == null) { // Startup options (ex: skip_grant_tables) are not system variables...
+                        reconfigurationResult._addRestartRequiredVariable(variableName);
+                        continue;
+                    }
+
+                    if (! Util.areEqual(_normalizeVariableValue(runningValue), _normalizeVariableValue(value))) {
+                        try {
+                            databaseConnection.executeSql(
+                                new Query("SET GLOBAL " + variableName + " = ?")
+                                    .setParameter(_getVariableParameter(value))
+                            );
+                        }
+                        catch (final DatabaseException exception) {
+                            Logger.debug("Unable to set " + variableName + " online.", exception);
+                            reconfigurationResult._addRestartRequiredVariable(variableName);
+                            continue;
+                        }
+
+                        if (Util.areEqual("innodb_buffer_pool_size", variableName)) {
+                            bufferPoolWasResized = true;
+                        }
+                    }
+
+                    _appliedVariableValues.put(variableName, value);
+                    reconfigurationResult._addAppliedVariable(variableName);
+                }
+
+                for (final String variableName : new ArrayList<>(_appliedVariableValues.keySet())) {
+                    if (serverVariables.contains(variableName)) { continue; }
+
+                    try {
+                        if (! SYSTEM_VARIABLE_NAME_PATTERN.matcher(variableName).matches()) {
+                            throw new DatabaseException("Invalid variable name: " + variableName);
+                        }
+                        databaseConnection.executeSql(new Query("SET GLOBAL " + variableName + " = DEFAULT"));
+                    }
+                    catch (final DatabaseException exception) {
+                        Logger.debug("Unable to reset " + variableName + " online.", exception);
+                        reconfigurationResult._addRestartRequiredVariable(variableName);
+                        continue;
+                    }
+
+                    _appliedVariableValues.remove(variableName);
+                    reconfigurationResult._addAppliedVariable(variableName);
+                }
+
+                if (bufferPoolWasResized) {
+                    _waitForBufferPoolResize(databaseConnection);
+                }
+            }
+            catch (final Exception exception) {
+                EmbeddedMysqlDatabase.rethrowException(exception);
+            }
+        }
+
+        _delegate.writeConfigFile();
+
+        Logger.debug("Applied configuration changes: " + reconfigurationResult);
+        return reconfigurationResult;
+    }
+
+    /**
+     * <p>Switches the running server's global settings to ingest-friendly values for loading large amounts of data:
+     * the redo log is flushed once per second rather than at every commit, binlog syncing and (where the server allows it
+     * online) the doublewrite buffer are disabled, and the InnoDB IO capacity is raised.</p>
+     *
+     * <p>The prior values are recorded and are restored exactly by exitBulkIngestMode.  A crash of the host (but not of
+     * the server process alone) while in bulk-ingest mode may lose up to one second of committed transactions.  Restarting
+     * the server also leaves bulk-ingest mode.  Has no effect if the server is already in bulk-ingest mode.</p>
+     */
+    public void enterBulkIngestMode() throws DatabaseException {
+        final MysqlDatabaseConnectionFactory rootDatabaseConnectionFactory = _getRootDatabaseConnectionFactory(_databaseProperties, _connectionProperties);
+        if (rootDatabaseConnectionFactory == null) { throw new DatabaseException("Unable to connect to database via root."); }
+
+        synchronized (_bulkIngestPreviousValues) {
+            if (_isInBulkIngestMode) { return; }
+
+            try (final MysqlDatabaseConnection databaseConnection = rootDatabaseConnectionFactory.newConnection()) {
+                final LinkedHashMap<String, Long> variableValues = _getBulkIngestVariableValues(databaseConnection);
+                try {
+                    for (final String variableName : variableValues.keySet()) {
+                        final String previousValue = _getGlobalVariableValue(databaseConnection, variableName);
+                        if (previousValue == null) { continue; }
+
+                        try {
+                            databaseConnection.executeSql(
+                                new Query("SET GLOBAL " + variableName + " = ?")
+                                    .setParameter(variableValues.get(variableName))
+                            );
+                        }
+                        catch (final DatabaseException exception) {
+                            Logger.debug("Unable to set " + variableName + " for bulk ingest.", exception);
+                            continue;
+                        }
+
+                        _bulkIngestPreviousValues.put(variableName, previousValue);
+                    }
+                }
+                catch (final Exception exception) {
+                    _restoreBulkIngestPreviousValues(databaseConnection);
+                    throw exception;
+                }
+            }
+            catch (final Exception exception) {
+                EmbeddedMysqlDatabase.rethrowException(exception);
+            }
+
+            _isInBulkIngestMode = true;
+            _bulkIngestTimer = new NanoTimer();
+            _bulkIngestTimer.start();
+            Logger.debug("Entered bulk-ingest mode: " + _bulkIngestPreviousValues.keySet());
+        }
+    }
+
+    /**
+     * Restores the global settings recorded by enterBulkIngestMode.  Has no effect if the server is not in bulk-ingest mode.
+     */
+    public void exitBulkIngestMode() throws DatabaseException {
+        final MysqlDatabaseConnectionFactory rootDatabaseConnectionFactory = _getRootDatabaseConnectionFactory(_databaseProperties, _connectionProperties);
+        if (rootDatabaseConnectionFactory == null) { throw new DatabaseException("Unable to connect to database via root."); }
+
+        synchronized (_bulkIngestPreviousValues) {
+            if (! _isInBulkIngestMode) { return; }
+
+            try (final MysqlDatabaseConnection databaseConnection = rootDatabaseConnectionFactory.newConnection()) {
+                _restoreBulkIngestPreviousValues(databaseConnection);
+            }
+            catch (final Exception exception) {
+                EmbeddedMysqlDatabase.rethrowException(exception);
+            }
+
+            _isInBulkIngestMode = false;
+            _bulkIngestTimer.stop();
+            Logger.debug("Exited bulk-ingest mode after " + _bulkIngestTimer.getMillisecondsElapsed() + "ms.");
+        }
+    }
+
+    public Boolean isInBulkIngestMode() {
+        synchronized (_bulkIngestPreviousValues) {
+            return _isInBulkIngestMode;
+        }
+    }
+
+    /**
+     * Returns a new, unpooled connection whose session skips unique-index and foreign-key checks, for loading data that
+     *  is already known to be consistent.  The relaxation ends when the connection is closed.
+     */
+    public MysqlDatabaseConnection newBulkIngestConnection() throws DatabaseException {
+        final MysqlDatabaseConnection databaseConnection = super.newConnection();
+        try {
+            databaseConnection.executeSql(new Query("SET SESSION unique_checks = 0, foreign_key_checks = 0"));
+        }
+        catch (final DatabaseException exception) {
+            databaseConnection.close();
+            throw exception;
+        }
+        return databaseConnection;
+    }
+
+    /**
+     * Returns a StreamingImporter that loads rows into this database's schema via LOAD DATA, without temporary files.
+     *  Local-infile is enabled for the importer's connections only; FIFOs (used when the JDBC driver cannot stream from
+     *  memory) are created within the data directory.
+     */
+    public StreamingImporter newStreamingImporter() throws DatabaseException {
+        final Properties connectionProperties = new Properties();
+        connectionProperties.putAll(_databaseProperties.getConnectionProperties());
+        connectionProperties.put(MARIADB_LOCAL_INFILE_CONNECTION_PROPERTY, "true");
+        connectionProperties.put(MYSQL_LOCAL_INFILE_CONNECTION_PROPERTY, "true");
+
+        final String hostname = _databaseProperties.getHostname();
+        final Integer port = _databaseProperties.getPort();
+        final String schema = _databaseProperties.getSchema();
+        final MysqlDatabaseConnectionFactory databaseConnectionFactory = new MysqlDatabaseConnectionFactory(hostname, port, schema, _databaseProperties.getUsername(), _databaseProperties.getPassword(), connectionProperties);
+
+        final DatabaseCredentialResolver credentialResolver = _delegate.getCredentialResolver();
+        final MysqlDatabaseConnectionFactory rootDatabaseConnectionFactory = credentialResolver.getRootDatabaseConnectionFactory(schema);
+        if (rootDatabaseConnectionFactory == null) { throw new DatabaseException("Unable to connect to database via root."); }
+
+        return new StreamingImporter(databaseConnectionFactory, rootDatabaseConnectionFactory, _databaseProperties.getDataDirectory());
+    }
+
+    /**
+     * Returns a FixtureReset for this database's schema, which restores only the tables changed since its baseline.
+     *  The baseline must be recorded (via FixtureReset::recordBaseline) while the database is running.
+     */
+    public FixtureReset newFixtureReset() throws DatabaseException {
+        final DatabaseCredentialResolver credentialResolver = _delegate.getCredentialResolver();
+        final String schema = _databaseProperties.getSchema();
+        final MysqlDatabaseConnectionFactory rootDatabaseConnectionFactory = credentialResolver.getRootDatabaseConnectionFactory(schema);
+        if (rootDatabaseConnectionFactory == null) { throw new DatabaseException("Unable to connect to database via root."); }
+        return new FixtureReset(rootDatabaseConnectionFactory, schema);
+    }
+
+    /**
+     * Returns a SchemaCloner that copies this database's (initialized) schema into sibling schemas, whose connection
+     *  factories use this database's credentials and connection properties.
+     */
+    public SchemaCloner newSchemaCloner() throws DatabaseException {
+        final DatabaseCredentialResolver credentialResolver = _delegate.getCredentialResolver();
+        final MysqlDatabaseConnectionFactory rootDatabaseConnectionFactory = credentialResolver.getRootDatabaseConnectionFactory();
+        if (rootDatabaseConnectionFactory == null) { throw new DatabaseException("Unable to connect to database via root."); }
+
+        final DatabaseCredentials credentials = new DatabaseCredentials(_databaseProperties.getUsername(), _databaseProperties.getPassword());
+        return new SchemaCloner(rootDatabaseConnectionFactory, _databaseProperties.getSchema(), _databaseProperties.getHostname(), _databaseProperties.getPort(), credentials, _databaseProperties.getConnectionProperties());
+    }
+
     /**
      * Returns true if the database binaries and database data files have been installed with the packaged version.
      */
@@ -306,6 +950,44 @@ public class EmbeddedMysqlDatabase extends MysqlDatabase {
         return (! isInstalled);
     }
 
+    /**
+     * Compares the installed database binaries against the digests recorded during installation and reports any
+     *  missing, changed, or corrupted files.  No files are extracted; install re-extracts any file whose size or
+     *  modification time no longer matches the index.
+     */
+    public InstallationDrift verifyInstallation() {
+        return _delegate.verifyInstallation();
+    }
+
+    /**
+     * Returns the number of milliseconds the most recent install spent waiting for another process's installation to complete.
+     */
+    public Double getInstallationLockWaitMs() {
+        return _installationLockWaitMs;
+    }
+
+    /**
+     * Returns true if the server process has been started and has not exited.
+     */
+    public Boolean isRunning() {
+        return _delegate.isRunning();
+    }
+
+    /**
+     * Returns a ConnectionFactory whose connections are obtained via newConnection.
+     */
+    public EmbeddedMysqlDatabaseConnectionFactory getDatabaseConnectionFactory() {
+        return new EmbeddedMysqlDatabaseConnectionFactory(this, _databaseProperties);
+    }
+
+    /**
+     * Returns the port the server listens on.  When automatic ports are enabled, this is the port that was selected
+     *  (which may change when the database is started if the previously selected port is no longer free).
+     */
+    public Integer getPort() {
+        return _databaseProperties.getPort();
+    }
+
     /**
      * Returns the Version of the installed database binaries or null if an installation was not found.
      */
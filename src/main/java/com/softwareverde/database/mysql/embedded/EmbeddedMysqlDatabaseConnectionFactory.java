@@ -0,0 +1,25 @@
+package com.softwareverde.database.mysql.embedded;
+
+import com.softwareverde.database.DatabaseException;
+import com.softwareverde.database.mysql.MysqlDatabaseConnection;
+import com.softwareverde.database.mysql.MysqlDatabaseConnectionFactory;
+import com.softwareverde.database.mysql.embedded.properties.EmbeddedDatabaseProperties;
+
+/**
+ * A ConnectionFactory for an EmbeddedMysqlDatabase.
+ *  Connections are obtained via EmbeddedMysqlDatabase::newConnection, so they are made to the server's current port
+ *  (which may be selected automatically) and are borrowed from its connection pool when the pool is enabled.
+ */
+public class EmbeddedMysqlDatabaseConnectionFactory extends MysqlDatabaseConnectionFactory {
+    protected final EmbeddedMysqlDatabase _database;
+
+    public EmbeddedMysqlDatabaseConnectionFactory(final EmbeddedMysqlDatabase database, final EmbeddedDatabaseProperties databaseProperties) {
+        super(databaseProperties, databaseProperties.getCredentials(), databaseProperties.getConnectionProperties());
+        _database = database;
+    }
+
+    @Override
+    public MysqlDatabaseConnection newConnection() throws DatabaseException {
+        return _database.newConnection();
+    }
+}
@@ -0,0 +1,281 @@
+package com.softwareverde.database.mysql.embedded;
+
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.mutable.MutableList;
+import com.softwareverde.database.DatabaseException;
+import com.softwareverde.database.DatabaseInitializer;
+import com.softwareverde.database.mysql.embedded.os.OperatingSystemSpecificMysqlDatabase;
+import com.softwareverde.database.mysql.embedded.properties.MutableEmbeddedDatabaseProperties;
+import com.softwareverde.logging.Logger;
+import com.softwareverde.util.timer.NanoTimer;
+
+import java.io.File;
+import java.sql.Connection;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Manages many independent EmbeddedMysqlDatabase instances that share a single installation.</p>
+ *
+ * <p>The packaged binaries are extracted once into the fleet's installation directory, and each instance is configured
+ * to use it as a read-only installation (see MutableEmbeddedDatabaseProperties::setInstallationDirectoryReadOnly), so
+ * each instance only requires its own data directory and port.  Instances without an explicit port have their port
+ * selected automatically.  Instances are started and stopped concurrently via a bounded executor, are stopped by a
+ * single shared shutdown hook, and are supervised by a single thread that reports (and optionally restarts) instances
+ * whose server exited unexpectedly.</p>
+ */
+public class EmbeddedMysqlDatabaseFleet {
+    protected interface InstanceTask {
+        void run(EmbeddedMysqlDatabase instance) throws Exception;
+    }
+
+    public static final Integer DEFAULT_THREAD_COUNT = Math.max(2, Runtime.getRuntime().availableProcessors());
+    public static final Long DEFAULT_SUPERVISION_INTERVAL_MS = 5000L;
+
+    protected final MutableEmbeddedDatabaseProperties _installationProperties;
+    protected final Integer _threadCount;
+    protected final MutableList<EmbeddedMysqlDatabase> _instances = new MutableList<>();
+
+    protected Long _supervisionIntervalMs = DEFAULT_SUPERVISION_INTERVAL_MS;
+    protected Boolean _automaticRestartIsEnabled = false;
+    protected Thread _shutdownHook;
+    protected ScheduledExecutorService _supervisor;
+    protected volatile Boolean _isStarted = false;
+
+    protected ExecutorService _createExecutorService(final String threadName, final Integer threadCount) {
+        return Executors.newFixedThreadPool(threadCount, new NamedThreadFactory(threadName));
+    }
+
+    /**
+     * Executes the task for each instance concurrently, and throws the first failure once every task has completed.
+     */
+    protected void _forEachInstance(final String threadName, final List<EmbeddedMysqlDatabase> instances, final InstanceTask instanceTask) throws DatabaseException {
+        if (instances.isEmpty()) { return; }
+
+        final ExecutorService executorService = _createExecutorService(threadName, Math.min(_threadCount, instances.getCount()));
+        try {
+            final MutableList<Future<Void>> futures = new MutableList<>(instances.getCount());
+            for (final EmbeddedMysqlDatabase instance : instances) {
+                futures.add(executorService.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        instanceTask.run(instance);
+                        return null;
+                    }
+                }));
+            }
+
+            Throwable firstException = null;
+            for (final Future<Void> future : futures) {
+                try {
+                    future.get();
+                }
+                catch (final ExecutionException exception) {
+                    final Throwable cause = exception.getCause();
+                    Logger.debug(cause);
+                    if (firstException == null) {
+                        firstException = cause;
+                    }
+                }
+            }
+
+            if (firstException != null) {
+                throw new DatabaseException("Fleet operation failed.", firstException);
+            }
+        }
+        catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseException(exception);
+        }
+        finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    protected synchronized List<EmbeddedMysqlDatabase> _getInstances() {
+        return new MutableList<>(_instances);
+    }
+
+    protected void _installShutdownHook() {
+        if (_shutdownHook != null) { return; }
+
+        _shutdownHook = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    _stop();
+                }
+                catch (final Exception exception) {
+                    Logger.debug(exception);
+                }
+            }
+        });
+        Runtime.getRuntime().addShutdownHook(_shutdownHook);
+    }
+
+    protected void _startSupervisor() {
+        if (_supervisor != null) { return; }
+
+        _supervisor = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("Fleet Supervisor"));
+
+        _supervisor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                _supervise();
+            }
+        }, _supervisionIntervalMs, _supervisionIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    protected void _supervise() {
+        if (! _isStarted) { return; }
+
+        for (final EmbeddedMysqlDatabase instance : _getInstances()) {
+            if (instance.isRunning()) { continue; }
+
+            Logger.warn("Fleet instance exited unexpectedly. (Port: " + instance.getPort() + ")");
+            if (! _automaticRestartIsEnabled) { continue; }
+
+            try {
+                instance.restart(); // A stop would delete an ephemeral instance's data directory...
+                Logger.info("Restarted fleet instance. (Port: " + instance.getPort() + ")");
+            }
+            catch (final Exception exception) {
+                Logger.warn("Unable to restart fleet instance.", exception);
+            }
+        }
+    }
+
+    protected void _stop() throws DatabaseException {
+        _isStarted = false;
+
+        final ScheduledExecutorService supervisor = _supervisor;
+        if (supervisor != null) {
+            supervisor.shutdownNow();
+            _supervisor = null;
+        }
+
+        _forEachInstance("Fleet Stop", _getInstances(), new InstanceTask() {
+            @Override
+            public void run(final EmbeddedMysqlDatabase instance) throws Exception {
+                instance.stop();
+            }
+        });
+    }
+
+    public EmbeddedMysqlDatabaseFleet(final File installationDirectory) {
+        this(installationDirectory, DEFAULT_THREAD_COUNT);
+    }
+
+    /**
+     * @param threadCount The maximum number of instances that are started or stopped concurrently.
+     */
+    public EmbeddedMysqlDatabaseFleet(final File installationDirectory, final Integer threadCount) {
+        _installationProperties = new MutableEmbeddedDatabaseProperties();
+        _installationProperties.setInstallationDirectory(installationDirectory);
+        _threadCount = threadCount;
+    }
+
+    /**
+     * Returns the properties used to install the shared binaries (ex: to set the binary cache directory or manifest
+     *  groups).  Only the installation-related properties are used.
+     */
+    public MutableEmbeddedDatabaseProperties getInstallationProperties() {
+        return _installationProperties;
+    }
+
+    public void setSupervisionInterval(final Long supervisionIntervalMs) {
+        _supervisionIntervalMs = supervisionIntervalMs;
+    }
+
+    /**
+     * Enables restarting instances whose server exited unexpectedly.
+     */
+    public void setAutomaticRestartEnabled(final Boolean automaticRestartIsEnabled) {
+        _automaticRestartIsEnabled = automaticRestartIsEnabled;
+    }
+
+    /**
+     * Adds an instance to the fleet.  The instance's installation directory is replaced with the fleet's shared
+     *  installation, and a port is selected automatically if one was not set.  Each instance must have its own data directory.
+     */
+    public synchronized EmbeddedMysqlDatabase addInstance(final MutableEmbeddedDatabaseProperties databaseProperties, final DatabaseInitializer<Connection> databaseInitializer) {
+        databaseProperties.setOperatingSystemType(_installationProperties.getOperatingSystemType());
+        databaseProperties.setInstallationDirectory(_installationProperties.getInstallationDirectory());
+        databaseProperties.setInstallationDirectoryReadOnly(true);
+        if ( (! databaseProperties.isPortAutomatic()) && (databaseProperties.getPort() == null) ) {
+            databaseProperties.enableAutomaticPort();
+        }
+
+        final EmbeddedMysqlDatabase instance = new EmbeddedMysqlDatabase(databaseProperties, databaseInitializer);
+        instance.setShutdownHookEnabled(false);
+        _instances.add(instance);
+        return instance;
+    }
+
+    public List<EmbeddedMysqlDatabase> getInstances() {
+        return _getInstances();
+    }
+
+    /**
+     * Extracts the packaged binaries into the shared installation directory.
+     */
+    public void install() throws DatabaseException {
+        final OperatingSystemSpecificMysqlDatabase installer = EmbeddedMysqlDatabase.DEFAULT_DATABASE_FACTORY.newInstance(_installationProperties);
+        try {
+            installer.installBinaries();
+        }
+        catch (final Exception exception) {
+            EmbeddedMysqlDatabase.rethrowException(exception);
+        }
+    }
+
+    /**
+     * Installs the shared binaries and starts every instance concurrently, blocking until every instance is online.
+     *  If any instance fails to start, every instance is stopped and the failure is thrown.
+     */
+    public void start() throws DatabaseException {
+        final NanoTimer nanoTimer = new NanoTimer();
+        nanoTimer.start();
+
+        this.install();
+
+        _installShutdownHook();
+
+        final List<EmbeddedMysqlDatabase> instances = _getInstances();
+        try {
+            _forEachInstance("Fleet Start", instances, new InstanceTask() {
+                @Override
+                public void run(final EmbeddedMysqlDatabase instance) throws Exception {
+                    instance.start();
+                }
+            });
+        }
+        catch (final DatabaseException exception) {
+            try {
+                _stop();
+            }
+            catch (final Exception stopException) {
+                Logger.debug(stopException);
+            }
+            throw exception;
+        }
+
+        _isStarted = true;
+        _startSupervisor();
+
+        nanoTimer.stop();
+        Logger.debug("Started " + instances.getCount() + " fleet instances in " + nanoTimer.getMillisecondsElapsed() + "ms.");
+    }
+
+    /**
+     * Stops every instance concurrently.
+     */
+    public void stop() throws DatabaseException {
+        _stop();
+    }
+}
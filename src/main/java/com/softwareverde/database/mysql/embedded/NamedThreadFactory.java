@@ -0,0 +1,24 @@
+package com.softwareverde.database.mysql.embedded;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates daemon threads named after their pool and numbered from one (ex: "Schema Cloner 1", "Schema Cloner 2").
+ */
+public class NamedThreadFactory implements ThreadFactory {
+    protected final String _name;
+    protected final AtomicInteger _threadNumber = new AtomicInteger(0);
+
+    public NamedThreadFactory(final String name) {
+        _name = name;
+    }
+
+    @Override
+    public Thread newThread(final Runnable runnable) {
+        final Thread thread = new Thread(runnable);
+        thread.setName(_name + " " + _threadNumber.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -0,0 +1,19 @@
+package com.softwareverde.database.mysql.embedded;
+
+import com.softwareverde.database.DatabaseException;
+
+/**
+ * Thrown when the server fails to start because its port is already in use.
+ */
+public class PortConflictException extends DatabaseException {
+    protected final Integer _port;
+
+    public PortConflictException(final Integer port) {
+        super("Server was unable to bind port " + port + "; the port is already in use.");
+        _port = port;
+    }
+
+    public Integer getPort() {
+        return _port;
+    }
+}
@@ -0,0 +1,13 @@
+package com.softwareverde.database.mysql.embedded;
+
+public interface ProcessOutputListener {
+    /**
+     * Invoked by the ProcessOutputLogger thread for each line of process output.
+     */
+    void onLine(String line);
+
+    /**
+     * Invoked once the process's output has closed.
+     */
+    void onEndOfOutput();
+}
@@ -9,6 +9,13 @@ import java.io.InputStreamReader;
 
 public class ProcessOutputLogger extends Thread {
     public ProcessOutputLogger(final InputStream inputStream, final LoggerInstance loggerInstance) {
+        this(inputStream, loggerInstance, null);
+    }
+
+    /**
+     * Logs each line of the process's output and forwards it to the processOutputListener, if provided.
+     */
+    public ProcessOutputLogger(final InputStream inputStream, final LoggerInstance loggerInstance, final ProcessOutputListener processOutputListener) {
         super(new Runnable() {
             @Override
             public void run() {
@@ -19,10 +26,17 @@ public class ProcessOutputLogger extends Thread {
                     String line;
                     while ((line = contentReader.readLine()) != null) {
                         loggerInstance.trace(line);
+
+                        if (processOutputListener != null) {
+                            processOutputListener.onLine(line);
+                        }
                     }
                 }
                 catch (final Exception exception) { }
                 finally {
+                    if (processOutputListener != null) {
+                        processOutputListener.onEndOfOutput();
+                    }
                     loggerInstance.trace("ProcessOutputLogger exiting.");
                 }
             }
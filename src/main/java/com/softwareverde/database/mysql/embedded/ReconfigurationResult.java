@@ -0,0 +1,39 @@
+package com.softwareverde.database.mysql.embedded;
+
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.mutable.MutableList;
+
+/**
+ * Describes the outcome of EmbeddedMysqlDatabase::applyChanges.
+ *  Applied variables were changed on the running server; restart-required variables are read-only (or are startup
+ *  options rather than system variables) and take effect the next time the server is started.
+ */
+public class ReconfigurationResult {
+    protected final MutableList<String> _appliedVariables = new MutableList<>();
+    protected final MutableList<String> _restartRequiredVariables = new MutableList<>();
+
+    protected void _addAppliedVariable(final String variableName) {
+        _appliedVariables.add(variableName);
+    }
+
+    protected void _addRestartRequiredVariable(final String variableName) {
+        _restartRequiredVariables.add(variableName);
+    }
+
+    public List<String> getAppliedVariables() {
+        return _appliedVariables;
+    }
+
+    public List<String> getRestartRequiredVariables() {
+        return _restartRequiredVariables;
+    }
+
+    public Boolean isRestartRequired() {
+        return (! _restartRequiredVariables.isEmpty());
+    }
+
+    @Override
+    public String toString() {
+        return ("applied=" + _appliedVariables.getCount() + " restartRequired=" + _restartRequiredVariables.getCount());
+    }
+}
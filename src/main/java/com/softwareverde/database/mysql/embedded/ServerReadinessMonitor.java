@@ -0,0 +1,61 @@
+package com.softwareverde.database.mysql.embedded;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the server's output for the marker logged once the server accepts connections, and for port conflicts.
+ *  The marker is only observed if the run script forwards the server's log to its output; callers must not rely on it
+ *  being seen and should fall back to probing the server.
+ */
+public class ServerReadinessMonitor implements ProcessOutputListener {
+    public static final String READY_MARKER = "ready for connections";
+    public static final String[] PORT_CONFLICT_MARKERS = { "Bind on TCP/IP port", "Address already in use" };
+
+    protected final CountDownLatch _readyLatch = new CountDownLatch(1);
+    protected volatile Boolean _outputHasEnded = false;
+    protected volatile Boolean _portConflictWasDetected = false;
+
+    @Override
+    public void onLine(final String line) {
+        if (line.contains(READY_MARKER)) {
+            _readyLatch.countDown();
+        }
+
+        for (final String portConflictMarker : PORT_CONFLICT_MARKERS) {
+            if (line.contains(portConflictMarker)) {
+                _portConflictWasDetected = true;
+            }
+        }
+    }
+
+    @Override
+    public void onEndOfOutput() {
+        _outputHasEnded = true;
+    }
+
+    public Boolean isReady() {
+        return (_readyLatch.getCount() == 0L);
+    }
+
+    /**
+     * Returns true if the server reported that its port is already in use.
+     */
+    public Boolean wasPortConflictDetected() {
+        return _portConflictWasDetected;
+    }
+
+    /**
+     * Returns true if the process's output has closed, after which the marker can no longer be observed.
+     */
+    public Boolean hasOutputEnded() {
+        return _outputHasEnded;
+    }
+
+    /**
+     * Blocks until the marker has been observed or the timeout elapses, and returns true if the marker was observed.
+     */
+    public Boolean waitUntilReady(final Long timeoutMs) throws InterruptedException {
+        return _readyLatch.await(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,51 @@
+package com.softwareverde.database.mysql.embedded;
+
+import com.softwareverde.constable.list.List;
+
+/**
+ * Quotes identifiers and string literals for statements that cannot be parameterized (ex: DDL and LOAD DATA).
+ */
+public class SqlUtil {
+    /**
+     * Quotes the identifier with backticks.  The identifier is quoted as a single name, so a "." is part of the name.
+     */
+    public static String quoteIdentifier(final String identifier) {
+        return ("`" + identifier.replace("`", "``") + "`");
+    }
+
+    /**
+     * Quotes the name qualified by its schema (ex: `schema`.`table`).
+     */
+    public static String quoteIdentifier(final String schema, final String name) {
+        return (SqlUtil.quoteIdentifier(schema) + "." + SqlUtil.quoteIdentifier(name));
+    }
+
+    /**
+     * Quotes a name that may be qualified by its schema (ex: "table" or "schema.table"); the schema is separated at
+     *  the first ".".
+     */
+    public static String quoteQualifiedIdentifier(final String qualifiedName) {
+        final int separatorIndex = qualifiedName.indexOf('.');
+        if (separatorIndex < 0) { return SqlUtil.quoteIdentifier(qualifiedName); }
+
+        return SqlUtil.quoteIdentifier(qualifiedName.substring(0, separatorIndex), qualifiedName.substring(separatorIndex + 1));
+    }
+
+    public static String quoteString(final String value) {
+        return ("'" + value.replace("\\", "\\\\").replace("'", "\\'") + "'");
+    }
+
+    /**
+     * Returns the quoted column names, separated by commas.
+     */
+    public static String getColumnList(final List<String> columnNames) {
+        final StringBuilder stringBuilder = new StringBuilder();
+        for (int i = 0; i < columnNames.getCount(); ++i) {
+            if (i > 0) {
+                stringBuilder.append(", ");
+            }
+            stringBuilder.append(SqlUtil.quoteIdentifier(columnNames.get(i)));
+        }
+        return stringBuilder.toString();
+    }
+}
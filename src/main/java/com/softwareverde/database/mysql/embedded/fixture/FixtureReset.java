@@ -0,0 +1,433 @@
+package com.softwareverde.database.mysql.embedded.fixture;
+
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.mutable.MutableList;
+import com.softwareverde.database.DatabaseException;
+import com.softwareverde.database.mysql.MysqlDatabaseConnection;
+import com.softwareverde.database.mysql.MysqlDatabaseConnectionFactory;
+import com.softwareverde.database.mysql.embedded.SqlUtil;
+import com.softwareverde.database.query.Query;
+import com.softwareverde.database.row.Row;
+import com.softwareverde.logging.Logger;
+import com.softwareverde.util.Util;
+import com.softwareverde.util.timer.NanoTimer;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+
+/**
+ * <p>Resets a schema to a recorded baseline by restoring only the tables that changed since the baseline (or since the
+ * previous reset).</p>
+ *
+ * <p>Recording the baseline copies every table of the schema into a separate baseline schema (ex: "app__baseline"),
+ * records each table's row count and checksum, and installs AFTER INSERT/UPDATE/DELETE triggers that record the name of
+ * the modified table.  A reset reads the recorded names, restores each of those tables from its copy (and its
+ * AUTO_INCREMENT value), and clears the record.  TRUNCATE, ALTER TABLE, and DROP/CREATE do not invoke triggers, so
+ * each table is also identified by its InnoDB table id (which changes whenever the table is recreated) and a digest of
+ * its columns (which changes when columns are altered in place); tables whose identity differs from the baseline are
+ * recreated, and tables created since the baseline are dropped.  The cost of a reset is therefore proportional to the
+ * changed tables rather than to the schema.</p>
+ *
+ * <p>Resets must not run concurrently with other writes to the schema.  Changes that are rolled back still mark their
+ * table as changed.  Changes to indexes alone (which do not alter rows) are not detected.  Tables that are not InnoDB
+ * tables (or whose names InnoDB encodes) are identified by their CREATE_TIME instead, which has a resolution of one
+ * second, so recreating such a table within the same second as the baseline (or previous reset) is not detected.
+ * Triggers defined by the application are not restored when a table is recreated.</p>
+ */
+public class FixtureReset {
+    public static final String BASELINE_SCHEMA_SUFFIX = "__baseline";
+    protected static final String CHANGE_LOG_TABLE_NAME = "changed_tables";
+    protected static final String TRIGGER_NAME_PREFIX = "fixture_reset_";
+    protected static final String[] TRIGGER_EVENTS = { "INSERT", "UPDATE", "DELETE" };
+    protected static final String INNODB_SYS_TABLES_VIEW_NAME = "INNODB_SYS_TABLES";
+    protected static final String INNODB_TABLES_VIEW_NAME = "INNODB_TABLES";
+    protected static final Long GROUP_CONCAT_MAX_LENGTH = (1024L * 1024L);
+
+    protected final MysqlDatabaseConnectionFactory _rootDatabaseConnectionFactory;
+    protected final String _schema;
+    protected final String _baselineSchema;
+    protected final LinkedHashMap<String, TableBaseline> _tableBaselines = new LinkedHashMap<>();
+    protected String _innodbTablesViewName = INNODB_SYS_TABLES_VIEW_NAME;
+
+    protected String _getQualifiedTableName(final String schema, final String tableName) {
+        return SqlUtil.quoteIdentifier(schema, tableName);
+    }
+
+    protected String _getChangeLogTableName() {
+        return _getQualifiedTableName(_baselineSchema, CHANGE_LOG_TABLE_NAME);
+    }
+
+    /**
+     * Returns the InnoDB table id of each of the schema's InnoDB tables, or an empty map if the server does not expose
+     *  InnoDB's data dictionary (INNODB_SYS_TABLES on MariaDB, INNODB_TABLES on MySQL 8).  A table receives a new id
+     *  whenever it is recreated, including via TRUNCATE and rebuilding ALTER TABLE statements.
+     */
+    protected HashMap<String, String> _getInnodbTableIds(final MysqlDatabaseConnection databaseConnection) {
+        if (_innodbTablesViewName == null) { return new HashMap<>(); }
+
+        final String tableNamePrefix = (_schema + "/");
+        final java.util.List<Row> rows;
+        try {
+            rows = databaseConnection.query(
+                new Query("SELECT NAME AS name, TABLE_ID AS table_id FROM information_schema." + _innodbTablesViewName + " WHERE NAME LIKE ?")
+                    .setParameter(tableNamePrefix.replace("\\", "\\\\").replace("_", "\\_").replace("%", "\\%") + "%")
+            );
+        }
+        catch (final DatabaseException exception) {
+            if (Util.areEqual(_innodbTablesViewName, INNODB_SYS_TABLES_VIEW_NAME)) {
+                _innodbTablesViewName = INNODB_TABLES_VIEW_NAME;
+            }
+            else {
+                Logger.debug("InnoDB table ids are unavailable; detecting recreated tables via CREATE_TIME.", exception);
+                _innodbTablesViewName = null;
+            }
+            return _getInnodbTableIds(databaseConnection);
+        }
+
+        final HashMap<String, String> tableIds = new HashMap<>();
+        for (final Row row : rows) {
+            final String name = row.getString("name");
+            tableIds.put(name.substring(tableNamePrefix.length()), row.getString("table_id"));
+        }
+        return tableIds;
+    }
+
+    /**
+     * Returns a digest of each table's column definitions, which detects ALTER TABLE statements that InnoDB applies
+     *  instantly (without recreating the table).
+     */
+    protected HashMap<String, String> _getColumnDigests(final MysqlDatabaseConnection databaseConnection) throws DatabaseException {
+        databaseConnection.executeSql(new Query("SET SESSION group_concat_max_len = " + GROUP_CONCAT_MAX_LENGTH));
+        final java.util.List<Row> rows = databaseConnection.query(
+            new Query(
+                "SELECT TABLE_NAME AS table_name, MD5(GROUP_CONCAT(CONCAT_WS(' ', COLUMN_NAME, COLUMN_TYPE, IS_NULLABLE, COALESCE(COLUMN_DEFAULT, 'NULL'), EXTRA) ORDER BY ORDINAL_POSITION SEPARATOR ',')) AS column_digest " +
+                "FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = ? GROUP BY TABLE_NAME"
+            ).setParameter(_schema)
+        );
+
+        final HashMap<String, String> columnDigests = new HashMap<>();
+        for (final Row row : rows) {
+            columnDigests.put(row.getString("table_name"), row.getString("column_digest"));
+        }
+        return columnDigests;
+    }
+
+    /**
+     * Returns the schema's base tables, mapped to their identity (see TableBaseline::getTableIdentity).
+     *  Tables that are not InnoDB tables are identified by their CREATE_TIME, which has a resolution of one second.
+     */
+    protected LinkedHashMap<String, String> _getTableIdentities(final MysqlDatabaseConnection databaseConnection) throws DatabaseException {
+        final java.util.List<Row> rows = databaseConnection.query(
+            new Query("SELECT TABLE_NAME AS table_name, CREATE_TIME AS create_time FROM information_schema.TABLES WHERE TABLE_SCHEMA = ? AND TABLE_TYPE = 'BASE TABLE' ORDER BY TABLE_NAME")
+                .setParameter(_schema)
+        );
+        final HashMap<String, String> innodbTableIds = _getInnodbTableIds(databaseConnection);
+        final HashMap<String, String> columnDigests = _getColumnDigests(databaseConnection);
+
+        final LinkedHashMap<String, String> tableIdentities = new LinkedHashMap<>();
+        for (final Row row : rows) {
+            final String tableName = row.getString("table_name");
+            final String innodbTableId = innodbTableIds.get(tableName);
+            final String tableIdentity = (innodbTableId != null ? ("id=" + innodbTableId) : ("created=" + row.getString("create_time")));
+            tableIdentities.put(tableName, tableIdentity + " columns=" + columnDigests.get(tableName));
+        }
+        return tableIdentities;
+    }
+
+    /**
+     * Returns the names of the tables recorded by the change-tracking triggers.
+     */
+    protected HashSet<String> _getLoggedTableNames(final MysqlDatabaseConnection databaseConnection) throws DatabaseException {
+        final java.util.List<Row> rows = databaseConnection.query(new Query("SELECT table_name FROM " + _getChangeLogTableName()));
+
+        final HashSet<String> tableNames = new HashSet<>();
+        for (final Row row : rows) {
+            tableNames.add(row.getString("table_name"));
+        }
+        return tableNames;
+    }
+
+    protected List<String> _getColumnNames(final MysqlDatabaseConnection databaseConnection, final String tableName) throws DatabaseException {
+        final java.util.List<Row> rows = databaseConnection.query(
+            new Query("SELECT COLUMN_NAME AS column_name FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = ? AND TABLE_NAME = ? AND EXTRA NOT LIKE '%GENERATED%' ORDER BY ORDINAL_POSITION")
+                .setParameter(_schema)
+                .setParameter(tableName)
+        );
+
+        final MutableList<String> columnNames = new MutableList<>();
+        for (final Row row : rows) {
+            columnNames.add(row.getString("column_name"));
+        }
+        return columnNames;
+    }
+
+    protected Long _getRowCount(final MysqlDatabaseConnection databaseConnection, final String tableName) throws DatabaseException {
+        final java.util.List<Row> rows = databaseConnection.query(new Query("SELECT COUNT(*) AS row_count FROM " + _getQualifiedTableName(_schema, tableName)));
+        return rows.get(0).getLong("row_count");
+    }
+
+    protected Long _getChecksum(final MysqlDatabaseConnection databaseConnection, final String tableName) throws DatabaseException {
+        final java.util.List<Row> rows = databaseConnection.query(new Query("CHECKSUM TABLE " + _getQualifiedTableName(_schema, tableName)));
+        return rows.get(0).getLong("Checksum");
+    }
+
+    protected Long _getAutoIncrement(final MysqlDatabaseConnection databaseConnection, final String tableName) throws DatabaseException {
+        final java.util.List<Row> rows = databaseConnection.query(
+            new Query("SELECT AUTO_INCREMENT AS auto_increment FROM information_schema.TABLES WHERE TABLE_SCHEMA = ? AND TABLE_NAME = ?")
+                .setParameter(_schema)
+                .setParameter(tableName)
+        );
+        if (rows.isEmpty()) { return null; }
+        return rows.get(0).getLong("auto_increment");
+    }
+
+    protected String _getTriggerName(final String tableName, final String event) {
+        int tableIndex = 0;
+        for (final String baselineTableName : _tableBaselines.keySet()) {
+            if (Util.areEqual(baselineTableName, tableName)) { break; }
+            tableIndex += 1;
+        }
+        return (TRIGGER_NAME_PREFIX + tableIndex + "_" + event.toLowerCase());
+    }
+
+    protected void _createTriggers(final MysqlDatabaseConnection databaseConnection, final String tableName) throws DatabaseException {
+        for (final String event : TRIGGER_EVENTS) {
+            final String triggerName = _getQualifiedTableName(_schema, _getTriggerName(tableName, event));
+            databaseConnection.executeSql(new Query(
+                "CREATE TRIGGER " + triggerName + " AFTER " + event + " ON " + _getQualifiedTableName(_schema, tableName) + " FOR EACH ROW " +
+                "INSERT IGNORE INTO " + _getChangeLogTableName() + " (table_name) VALUES (" + SqlUtil.quoteString(tableName) + ")"
+            ));
+        }
+    }
+
+    protected void _dropTriggers(final MysqlDatabaseConnection databaseConnection) throws DatabaseException {
+        final java.util.List<Row> rows = databaseConnection.query(
+            new Query("SELECT TRIGGER_NAME AS trigger_name FROM information_schema.TRIGGERS WHERE TRIGGER_SCHEMA = ? AND TRIGGER_NAME LIKE ?")
+                .setParameter(_schema)
+                .setParameter(TRIGGER_NAME_PREFIX.replace("_", "\\_") + "%")
+        );
+
+        for (final Row row : rows) {
+            final String triggerName = row.getString("trigger_name");
+            databaseConnection.executeSql(new Query("DROP TRIGGER IF EXISTS " + _getQualifiedTableName(_schema, triggerName)));
+        }
+    }
+
+    protected void _copyRows(final MysqlDatabaseConnection databaseConnection, final String sourceSchema, final String destinationSchema, final TableBaseline tableBaseline) throws DatabaseException {
+        final String tableName = tableBaseline.getTableName();
+        final String columnList = SqlUtil.getColumnList(tableBaseline.getColumnNames());
+        databaseConnection.executeSql(new Query(
+            "INSERT INTO " + _getQualifiedTableName(destinationSchema, tableName) + " (" + columnList + ") " +
+            "SELECT " + columnList + " FROM " + _getQualifiedTableName(sourceSchema, tableName)
+        ));
+    }
+
+    /**
+     * Replaces the table's rows with the baseline's rows and restores its AUTO_INCREMENT value.
+     */
+    protected void _restoreRows(final MysqlDatabaseConnection databaseConnection, final TableBaseline tableBaseline) throws DatabaseException {
+        final String qualifiedTableName = _getQualifiedTableName(_schema, tableBaseline.getTableName());
+        databaseConnection.executeSql(new Query("DELETE FROM " + qualifiedTableName));
+        _copyRows(databaseConnection, _baselineSchema, _schema, tableBaseline);
+
+        final Long autoIncrement = tableBaseline.getAutoIncrement();
+        if (autoIncrement != null) {
+            databaseConnection.executeSql(new Query("ALTER TABLE " + qualifiedTableName + " AUTO_INCREMENT = " + autoIncrement));
+        }
+    }
+
+    /**
+     * Drops and recreates the table from its baseline definition, rows, and change-tracking triggers.
+     */
+    protected void _recreateTable(final MysqlDatabaseConnection databaseConnection, final TableBaseline tableBaseline) throws DatabaseException {
+        final String tableName = tableBaseline.getTableName();
+        databaseConnection.executeSql(new Query("DROP TABLE IF EXISTS " + _getQualifiedTableName(_schema, tableName)));
+        databaseConnection.executeSql(new Query("USE " + SqlUtil.quoteIdentifier(_schema)));
+        databaseConnection.executeSql(new Query(tableBaseline.getCreateTableStatement()));
+        _copyRows(databaseConnection, _baselineSchema, _schema, tableBaseline);
+        _createTriggers(databaseConnection, tableName);
+    }
+
+    protected List<String> _getChangedTableNames(final MysqlDatabaseConnection databaseConnection, final HashMap<String, String> tableIdentities) throws DatabaseException {
+        final HashSet<String> loggedTableNames = _getLoggedTableNames(databaseConnection);
+
+        final MutableList<String> changedTableNames = new MutableList<>();
+        for (final TableBaseline tableBaseline : _tableBaselines.values()) {
+            final String tableName = tableBaseline.getTableName();
+            final boolean wasRecreated = ( (! tableIdentities.containsKey(tableName)) || (! Util.areEqual(tableIdentities.get(tableName), tableBaseline.getTableIdentity())) );
+            if (wasRecreated || loggedTableNames.contains(tableName)) {
+                changedTableNames.add(tableName);
+            }
+        }
+
+        for (final String tableName : tableIdentities.keySet()) {
+            if (! _tableBaselines.containsKey(tableName)) {
+                changedTableNames.add(tableName);
+            }
+        }
+
+        return changedTableNames;
+    }
+
+    /**
+     * @param rootDatabaseConnectionFactory - the factory used to copy tables and manage triggers, which requires the
+     *                                        privileges to create the baseline schema and triggers.
+     * @param schema                        - the schema to reset.
+     */
+    public FixtureReset(final MysqlDatabaseConnectionFactory rootDatabaseConnectionFactory, final String schema) {
+        _rootDatabaseConnectionFactory = rootDatabaseConnectionFactory;
+        _schema = schema;
+        _baselineSchema = (schema + BASELINE_SCHEMA_SUFFIX);
+    }
+
+    /**
+     * Records the schema's current contents as the baseline, replacing any previous baseline.
+     */
+    public void recordBaseline() throws DatabaseException {
+        final NanoTimer nanoTimer = new NanoTimer();
+        nanoTimer.start();
+
+        try (final MysqlDatabaseConnection databaseConnection = _rootDatabaseConnectionFactory.newConnection()) {
+            databaseConnection.executeSql(new Query("SET SESSION foreign_key_checks = 0"));
+
+            _dropTriggers(databaseConnection);
+            _tableBaselines.clear();
+
+            databaseConnection.executeSql(new Query("DROP DATABASE IF EXISTS " + SqlUtil.quoteIdentifier(_baselineSchema)));
+            databaseConnection.executeSql(new Query("CREATE DATABASE " + SqlUtil.quoteIdentifier(_baselineSchema)));
+            databaseConnection.executeSql(new Query("CREATE TABLE " + _getChangeLogTableName() + " (table_name VARCHAR(64) NOT NULL PRIMARY KEY) ENGINE=MEMORY"));
+
+            final LinkedHashMap<String, String> tableIdentities = _getTableIdentities(databaseConnection);
+            for (final String tableName : tableIdentities.keySet()) {
+                final java.util.List<Row> rows = databaseConnection.query(new Query("SHOW CREATE TABLE " + _getQualifiedTableName(_schema, tableName)));
+                final String createTableStatement = rows.get(0).getString("Create Table");
+
+                final List<String> columnNames = _getColumnNames(databaseConnection, tableName);
+                final Long rowCount = _getRowCount(databaseConnection, tableName);
+                final Long checksum = _getChecksum(databaseConnection, tableName);
+                final Long autoIncrement = _getAutoIncrement(databaseConnection, tableName);
+
+                final TableBaseline tableBaseline = new TableBaseline(tableName, createTableStatement, columnNames, rowCount, checksum, autoIncrement, tableIdentities.get(tableName));
+                _tableBaselines.put(tableName, tableBaseline);
+
+                databaseConnection.executeSql(new Query("CREATE TABLE " + _getQualifiedTableName(_baselineSchema, tableName) + " LIKE " + _getQualifiedTableName(_schema, tableName)));
+                _copyRows(databaseConnection, _schema, _baselineSchema, tableBaseline);
+            }
+
+            for (final String tableName : _tableBaselines.keySet()) {
+                _createTriggers(databaseConnection, tableName);
+            }
+        }
+
+        nanoTimer.stop();
+        Logger.debug("Recorded baseline of " + _tableBaselines.size() + " tables in " + nanoTimer.getMillisecondsElapsed() + "ms.");
+    }
+
+    public Boolean hasBaseline() {
+        return (! _tableBaselines.isEmpty());
+    }
+
+    public TableBaseline getTableBaseline(final String tableName) {
+        return _tableBaselines.get(tableName);
+    }
+
+    /**
+     * Returns the names of the tables that changed since the baseline was recorded (or since the previous reset),
+     *  including tables that were created since the baseline.
+     */
+    public List<String> getChangedTableNames() throws DatabaseException {
+        try (final MysqlDatabaseConnection databaseConnection = _rootDatabaseConnectionFactory.newConnection()) {
+            final LinkedHashMap<String, String> tableIdentities = _getTableIdentities(databaseConnection);
+            return _getChangedTableNames(databaseConnection, tableIdentities);
+        }
+    }
+
+    /**
+     * Restores the tables that changed since the baseline was recorded (or since the previous reset) and drops tables
+     *  created since the baseline.  Returns the names of the tables that were restored or dropped.
+     */
+    public List<String> reset() throws DatabaseException {
+        if (_tableBaselines.isEmpty()) {
+            throw new DatabaseException("A baseline must be recorded before the schema can be reset.");
+        }
+
+        final NanoTimer nanoTimer = new NanoTimer();
+        nanoTimer.start();
+
+        final List<String> changedTableNames;
+        try (final MysqlDatabaseConnection databaseConnection = _rootDatabaseConnectionFactory.newConnection()) {
+            databaseConnection.executeSql(new Query("SET SESSION foreign_key_checks = 0"));
+
+            final LinkedHashMap<String, String> tableIdentities = _getTableIdentities(databaseConnection);
+            changedTableNames = _getChangedTableNames(databaseConnection, tableIdentities);
+
+            for (final String tableName : changedTableNames) {
+                final TableBaseline tableBaseline = _tableBaselines.get(tableName);
+                if (tableBaseline == null) {
+                    databaseConnection.executeSql(new Query("DROP TABLE IF EXISTS " + _getQualifiedTableName(_schema, tableName)));
+                }
+                else if (Util.areEqual(tableIdentities.get(tableName), tableBaseline.getTableIdentity())) {
+                    _restoreRows(databaseConnection, tableBaseline);
+                }
+                else {
+                    _recreateTable(databaseConnection, tableBaseline);
+                }
+            }
+
+            // Restoring the rows invokes the triggers, so the log is cleared afterwards.
+            databaseConnection.executeSql(new Query("DELETE FROM " + _getChangeLogTableName()));
+
+            if (! changedTableNames.isEmpty()) { // Restoring may recreate or alter a table (ex: to restore its AUTO_INCREMENT value)...
+                final LinkedHashMap<String, String> restoredTableIdentities = _getTableIdentities(databaseConnection);
+                for (final String tableName : changedTableNames) {
+                    final TableBaseline tableBaseline = _tableBaselines.get(tableName);
+                    if (tableBaseline != null) {
+                        tableBaseline._setTableIdentity(restoredTableIdentities.get(tableName));
+                    }
+                }
+            }
+        }
+
+        nanoTimer.stop();
+        Logger.debug("Reset " + changedTableNames.getCount() + " tables in " + nanoTimer.getMillisecondsElapsed() + "ms.");
+        return changedTableNames;
+    }
+
+    /**
+     * Compares every table's row count and checksum against the baseline and returns the names of the tables that
+     *  differ (or are missing).  Unlike reset, this reads every table, so it is intended for diagnosing changes that
+     *  bypass the change-tracking triggers rather than for use between every test.
+     */
+    public List<String> verify() throws DatabaseException {
+        final MutableList<String> mismatchedTableNames = new MutableList<>();
+        try (final MysqlDatabaseConnection databaseConnection = _rootDatabaseConnectionFactory.newConnection()) {
+            final LinkedHashMap<String, String> tableIdentities = _getTableIdentities(databaseConnection);
+            for (final TableBaseline tableBaseline : _tableBaselines.values()) {
+                final String tableName = tableBaseline.getTableName();
+                if (! tableIdentities.containsKey(tableName)) {
+                    mismatchedTableNames.add(tableName);
+                    continue;
+                }
+
+                final Long rowCount = _getRowCount(databaseConnection, tableName);
+                final Long checksum = _getChecksum(databaseConnection, tableName);
+                if ( (! Util.areEqual(rowCount, tableBaseline.getRowCount())) || (! Util.areEqual(checksum, tableBaseline.getChecksum())) ) {
+                    mismatchedTableNames.add(tableName);
+                }
+            }
+        }
+        return mismatchedTableNames;
+    }
+
+    /**
+     * Removes the change-tracking triggers and the baseline schema.
+     */
+    public void dropBaseline() throws DatabaseException {
+        try (final MysqlDatabaseConnection databaseConnection = _rootDatabaseConnectionFactory.newConnection()) {
+            _dropTriggers(databaseConnection);
+            databaseConnection.executeSql(new Query("DROP DATABASE IF EXISTS " + SqlUtil.quoteIdentifier(_baselineSchema)));
+        }
+        _tableBaselines.clear();
+    }
+}
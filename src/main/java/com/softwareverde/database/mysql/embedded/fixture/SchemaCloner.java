@@ -0,0 +1,377 @@
+package com.softwareverde.database.mysql.embedded.fixture;
+
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.mutable.MutableList;
+import com.softwareverde.database.DatabaseException;
+import com.softwareverde.database.mysql.MysqlDatabaseConnection;
+import com.softwareverde.database.mysql.MysqlDatabaseConnectionFactory;
+import com.softwareverde.database.mysql.embedded.NamedThreadFactory;
+import com.softwareverde.database.mysql.embedded.SqlUtil;
+import com.softwareverde.database.properties.DatabaseCredentials;
+import com.softwareverde.database.query.Query;
+import com.softwareverde.database.row.Row;
+import com.softwareverde.logging.Logger;
+import com.softwareverde.util.timer.NanoTimer;
+
+import java.util.LinkedHashMap;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * <p>Clones an initialized template schema into sibling schemas, so that parallel tests may each use their own copy
+ * without running the DatabaseInitializer per copy.</p>
+ *
+ * <p>Every table is copied server-side (its "SHOW CREATE TABLE" statement, followed by INSERT ... SELECT), so no data
+ * is transferred to the client; each table of each clone is copied by a separate task, in parallel.  Views and
+ * triggers are created once every table has been copied, and the template's schema-level grants (ex: for the
+ * application account) are repeated for each clone.  Stored routines and events are not cloned.  The template must
+ * not be modified while it is being cloned.</p>
+ */
+public class SchemaCloner {
+    public static final Integer DEFAULT_THREAD_COUNT = Math.max(1, Runtime.getRuntime().availableProcessors());
+
+    protected static class TableDefinition {
+        public final String tableName;
+        public final String createTableStatement;
+        public final List<String> columnNames;
+
+        public TableDefinition(final String tableName, final String createTableStatement, final List<String> columnNames) {
+            this.tableName = tableName;
+            this.createTableStatement = createTableStatement;
+            this.columnNames = columnNames;
+        }
+    }
+
+    protected final MysqlDatabaseConnectionFactory _rootDatabaseConnectionFactory;
+    protected final String _templateSchema;
+    protected final String _hostname;
+    protected final Integer _port;
+    protected final DatabaseCredentials _credentials;
+    protected final Properties _connectionProperties;
+    protected Integer _threadCount = DEFAULT_THREAD_COUNT;
+
+    protected ExecutorService _createExecutorService(final Integer taskCount) {
+        return Executors.newFixedThreadPool(Math.max(1, Math.min(_threadCount, taskCount)), new NamedThreadFactory("Schema Cloner"));
+    }
+
+    protected void _runTasks(final List<Callable<Void>> tasks) throws DatabaseException {
+        if (tasks.isEmpty()) { return; }
+
+        final ExecutorService executorService = _createExecutorService(tasks.getCount());
+        try {
+            final MutableList<Future<Void>> futures = new MutableList<>(tasks.getCount());
+            for (final Callable<Void> task : tasks) {
+                futures.add(executorService.submit(task));
+            }
+
+            for (final Future<Void> future : futures) {
+                try {
+                    future.get();
+                }
+                catch (final ExecutionException exception) {
+                    final Throwable cause = exception.getCause();
+                    if (cause instanceof DatabaseException) {
+                        throw (DatabaseException) cause;
+                    }
+                    throw new DatabaseException("Unable to clone schema: " + _templateSchema, cause);
+                }
+                catch (final InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    throw new DatabaseException("Schema cloning interrupted.", exception);
+                }
+            }
+        }
+        finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Replaces references to the template schema (ex: within a view's definition) with the clone schema.
+     */
+    protected String _replaceSchemaReferences(final String statement, final String cloneSchema) {
+        return statement.replace(SqlUtil.quoteIdentifier(_templateSchema) + ".", SqlUtil.quoteIdentifier(cloneSchema) + ".");
+    }
+
+    protected List<TableDefinition> _getTableDefinitions(final MysqlDatabaseConnection databaseConnection) throws DatabaseException {
+        final java.util.List<Row> rows = databaseConnection.query(
+            new Query("SELECT TABLE_NAME AS table_name FROM information_schema.TABLES WHERE TABLE_SCHEMA = ? AND TABLE_TYPE = 'BASE TABLE' ORDER BY TABLE_NAME")
+                .setParameter(_templateSchema)
+        );
+
+        final MutableList<TableDefinition> tableDefinitions = new MutableList<>();
+        for (final Row row : rows) {
+            final String tableName = row.getString("table_name");
+            final String qualifiedTableName = SqlUtil.quoteIdentifier(_templateSchema, tableName);
+
+            final java.util.List<Row> createTableRows = databaseConnection.query(new Query("SHOW CREATE TABLE " + qualifiedTableName));
+            final String createTableStatement = createTableRows.get(0).getString("Create Table");
+
+            final java.util.List<Row> columnRows = databaseConnection.query(
+                new Query("SELECT COLUMN_NAME AS column_name FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = ? AND TABLE_NAME = ? AND EXTRA NOT LIKE '%GENERATED%' ORDER BY ORDINAL_POSITION")
+                    .setParameter(_templateSchema)
+                    .setParameter(tableName)
+            );
+            final MutableList<String> columnNames = new MutableList<>();
+            for (final Row columnRow : columnRows) {
+                columnNames.add(columnRow.getString("column_name"));
+            }
+
+            tableDefinitions.add(new TableDefinition(tableName, createTableStatement, columnNames));
+        }
+        return tableDefinitions;
+    }
+
+    protected List<String> _getViewStatements(final MysqlDatabaseConnection databaseConnection) throws DatabaseException {
+        final java.util.List<Row> rows = databaseConnection.query(
+            new Query("SELECT TABLE_NAME AS view_name FROM information_schema.VIEWS WHERE TABLE_SCHEMA = ? ORDER BY TABLE_NAME")
+                .setParameter(_templateSchema)
+        );
+
+        final MutableList<String> viewStatements = new MutableList<>();
+        for (final Row row : rows) {
+            final String qualifiedViewName = SqlUtil.quoteIdentifier(_templateSchema, row.getString("view_name"));
+            final java.util.List<Row> createViewRows = databaseConnection.query(new Query("SHOW CREATE VIEW " + qualifiedViewName));
+            viewStatements.add(createViewRows.get(0).getString("Create View"));
+        }
+        return viewStatements;
+    }
+
+    /**
+     * Returns the template's trigger statements, excluding the change-tracking triggers installed by FixtureReset.
+     */
+    protected List<String> _getTriggerStatements(final MysqlDatabaseConnection databaseConnection) throws DatabaseException {
+        final java.util.List<Row> rows = databaseConnection.query(
+            new Query("SELECT TRIGGER_NAME AS trigger_name FROM information_schema.TRIGGERS WHERE TRIGGER_SCHEMA = ? ORDER BY EVENT_OBJECT_TABLE, ACTION_ORDER")
+                .setParameter(_templateSchema)
+        );
+
+        final MutableList<String> triggerStatements = new MutableList<>();
+        for (final Row row : rows) {
+            final String triggerName = row.getString("trigger_name");
+            if (triggerName.startsWith(FixtureReset.TRIGGER_NAME_PREFIX)) { continue; }
+
+            final String qualifiedTriggerName = SqlUtil.quoteIdentifier(_templateSchema, triggerName);
+            final java.util.List<Row> createTriggerRows = databaseConnection.query(new Query("SHOW CREATE TRIGGER " + qualifiedTriggerName));
+            triggerStatements.add(createTriggerRows.get(0).getString("SQL Original Statement"));
+        }
+        return triggerStatements;
+    }
+
+    /**
+     * Returns the template's schema-level privileges, mapped by grantee (ex: "'user'@'localhost'").
+     */
+    protected LinkedHashMap<String, MutableList<String>> _getSchemaPrivileges(final MysqlDatabaseConnection databaseConnection) throws DatabaseException {
+        // Grants store the schema as a pattern, within which underscores may be escaped.
+        final java.util.List<Row> rows = databaseConnection.query(
+            new Query("SELECT GRANTEE AS grantee, PRIVILEGE_TYPE AS privilege_type FROM information_schema.SCHEMA_PRIVILEGES WHERE TABLE_SCHEMA = ? OR TABLE_SCHEMA = ?")
+                .setParameter(_templateSchema)
+                .setParameter(_templateSchema.replace("_", "\\_"))
+        );
+
+        final LinkedHashMap<String, MutableList<String>> schemaPrivileges = new LinkedHashMap<>();
+        for (final Row row : rows) {
+            final String grantee = row.getString("grantee");
+            if (! schemaPrivileges.containsKey(grantee)) {
+                schemaPrivileges.put(grantee, new MutableList<String>());
+            }
+            schemaPrivileges.get(grantee).add(row.getString("privilege_type"));
+        }
+        return schemaPrivileges;
+    }
+
+    /**
+     * (Re)creates the empty clone schema with the template's character set and grants.
+     */
+    protected void _createSchema(final MysqlDatabaseConnection databaseConnection, final String cloneSchema, final LinkedHashMap<String, MutableList<String>> schemaPrivileges) throws DatabaseException {
+        final java.util.List<Row> rows = databaseConnection.query(
+            new Query("SELECT DEFAULT_CHARACTER_SET_NAME AS character_set, DEFAULT_COLLATION_NAME AS collation FROM information_schema.SCHEMATA WHERE SCHEMA_NAME = ?")
+                .setParameter(_templateSchema)
+        );
+        if (rows.isEmpty()) {
+            throw new DatabaseException("Template schema not found: " + _templateSchema);
+        }
+        final Row row = rows.get(0);
+
+        databaseConnection.executeSql(new Query("DROP DATABASE IF EXISTS " + SqlUtil.quoteIdentifier(cloneSchema)));
+        databaseConnection.executeSql(new Query("CREATE DATABASE " + SqlUtil.quoteIdentifier(cloneSchema) + " CHARACTER SET " + row.getString("character_set") + " COLLATE " + row.getString("collation")));
+
+        for (final String grantee : schemaPrivileges.keySet()) {
+            final MutableList<String> privileges = schemaPrivileges.get(grantee);
+            final StringBuilder stringBuilder = new StringBuilder();
+            for (int i = 0; i < privileges.getCount(); ++i) {
+                if (i > 0) {
+                    stringBuilder.append(", ");
+                }
+                stringBuilder.append(privileges.get(i));
+            }
+            databaseConnection.executeSql(new Query("GRANT " + stringBuilder + " ON " + SqlUtil.quoteIdentifier(cloneSchema) + ".* TO " + grantee));
+        }
+    }
+
+    protected void _copyTable(final String cloneSchema, final TableDefinition tableDefinition) throws DatabaseException {
+        final String columnList = SqlUtil.getColumnList(tableDefinition.columnNames);
+        try (final MysqlDatabaseConnection databaseConnection = _rootDatabaseConnectionFactory.newConnection()) {
+            // Referenced tables may not have been created yet, and the copied rows are already consistent.
+            databaseConnection.executeSql(new Query("SET SESSION foreign_key_checks = 0, unique_checks = 0"));
+            databaseConnection.executeSql(new Query("USE " + SqlUtil.quoteIdentifier(cloneSchema)));
+            databaseConnection.executeSql(new Query(tableDefinition.createTableStatement));
+            databaseConnection.executeSql(new Query(
+                "INSERT INTO " + SqlUtil.quoteIdentifier(cloneSchema, tableDefinition.tableName) + " (" + columnList + ") " +
+                "SELECT " + columnList + " FROM " + SqlUtil.quoteIdentifier(_templateSchema, tableDefinition.tableName)
+            ));
+        }
+    }
+
+    /**
+     * Creates the views and triggers of the clone; views that depend upon other views are retried until each is created.
+     */
+    protected void _createViewsAndTriggers(final String cloneSchema, final List<String> viewStatements, final List<String> triggerStatements) throws DatabaseException {
+        try (final MysqlDatabaseConnection databaseConnection = _rootDatabaseConnectionFactory.newConnection()) {
+            databaseConnection.executeSql(new Query("USE " + SqlUtil.quoteIdentifier(cloneSchema)));
+
+            final MutableList<String> remainingViewStatements = new MutableList<>(viewStatements);
+            while (! remainingViewStatements.isEmpty()) {
+                final MutableList<String> failedViewStatements = new MutableList<>();
+                DatabaseException lastException = null;
+                for (final String viewStatement : remainingViewStatements) {
+                    try {
+                        databaseConnection.executeSql(new Query(_replaceSchemaReferences(viewStatement, cloneSchema)));
+                    }
+                    catch (final DatabaseException exception) {
+                        failedViewStatements.add(viewStatement);
+                        lastException = exception;
+                    }
+                }
+
+                if (failedViewStatements.getCount() == remainingViewStatements.getCount()) {
+                    throw lastException;
+                }
+
+                remainingViewStatements.clear();
+                remainingViewStatements.addAll(failedViewStatements);
+            }
+
+            for (final String triggerStatement : triggerStatements) {
+                databaseConnection.executeSql(new Query(_replaceSchemaReferences(triggerStatement, cloneSchema)));
+            }
+        }
+    }
+
+    /**
+     * @param rootDatabaseConnectionFactory - the factory used to create and populate the clones, which requires the
+     *                                        privileges to create schemas and grant the template's privileges.
+     * @param templateSchema                - the initialized schema to clone.
+     * @param credentials                   - the credentials of the connection factories returned for each clone.
+     */
+    public SchemaCloner(final MysqlDatabaseConnectionFactory rootDatabaseConnectionFactory, final String templateSchema, final String hostname, final Integer port, final DatabaseCredentials credentials, final Properties connectionProperties) {
+        _rootDatabaseConnectionFactory = rootDatabaseConnectionFactory;
+        _templateSchema = templateSchema;
+        _hostname = hostname;
+        _port = port;
+        _credentials = credentials;
+        _connectionProperties = connectionProperties;
+    }
+
+    /**
+     * Sets the maximum number of tables copied concurrently.
+     */
+    public void setThreadCount(final Integer threadCount) {
+        _threadCount = Math.max(1, (threadCount != null ? threadCount : DEFAULT_THREAD_COUNT));
+    }
+
+    public String getTemplateSchema() {
+        return _templateSchema;
+    }
+
+    /**
+     * Clones the template into cloneCount schemas named "&lt;template&gt;_clone_&lt;n&gt;" (starting at 1); see cloneSchemas(List).
+     */
+    public List<MysqlDatabaseConnectionFactory> cloneSchemas(final Integer cloneCount) throws DatabaseException {
+        final MutableList<String> cloneSchemas = new MutableList<>(cloneCount);
+        for (int i = 1; i <= cloneCount; ++i) {
+            cloneSchemas.add(_templateSchema + "_clone_" + i);
+        }
+        return this.cloneSchemas(cloneSchemas);
+    }
+
+    /**
+     * Clones the template into each of the provided schemas, replacing any existing schema with the same name, and
+     *  returns a connection factory bound to each clone (in the same order).
+     */
+    public List<MysqlDatabaseConnectionFactory> cloneSchemas(final List<String> cloneSchemas) throws DatabaseException {
+        final NanoTimer nanoTimer = new NanoTimer();
+        nanoTimer.start();
+
+        final List<TableDefinition> tableDefinitions;
+        final List<String> viewStatements;
+        final List<String> triggerStatements;
+        try (final MysqlDatabaseConnection databaseConnection = _rootDatabaseConnectionFactory.newConnection()) {
+            tableDefinitions = _getTableDefinitions(databaseConnection);
+            viewStatements = _getViewStatements(databaseConnection);
+            triggerStatements = _getTriggerStatements(databaseConnection);
+
+            final LinkedHashMap<String, MutableList<String>> schemaPrivileges = _getSchemaPrivileges(databaseConnection);
+            for (final String cloneSchema : cloneSchemas) {
+                _createSchema(databaseConnection, cloneSchema, schemaPrivileges);
+            }
+        }
+
+        { // Copy every table of every clone in parallel...
+            final MutableList<Callable<Void>> tasks = new MutableList<>();
+            for (final String cloneSchema : cloneSchemas) {
+                for (final TableDefinition tableDefinition : tableDefinitions) {
+                    tasks.add(new Callable<Void>() {
+                        @Override
+                        public Void call() throws Exception {
+                            _copyTable(cloneSchema, tableDefinition);
+                            return null;
+                        }
+                    });
+                }
+            }
+            _runTasks(tasks);
+        }
+
+        { // Triggers are created after the rows are copied so that copying does not invoke them...
+            final MutableList<Callable<Void>> tasks = new MutableList<>();
+            if ( (! viewStatements.isEmpty()) || (! triggerStatements.isEmpty()) ) {
+                for (final String cloneSchema : cloneSchemas) {
+                    tasks.add(new Callable<Void>() {
+                        @Override
+                        public Void call() throws Exception {
+                            _createViewsAndTriggers(cloneSchema, viewStatements, triggerStatements);
+                            return null;
+                        }
+                    });
+                }
+            }
+            _runTasks(tasks);
+        }
+
+        final MutableList<MysqlDatabaseConnectionFactory> databaseConnectionFactories = new MutableList<>(cloneSchemas.getCount());
+        for (final String cloneSchema : cloneSchemas) {
+            databaseConnectionFactories.add(new MysqlDatabaseConnectionFactory(_hostname, _port, cloneSchema, _credentials.username, _credentials.password, _connectionProperties));
+        }
+
+        nanoTimer.stop();
+        Logger.debug("Cloned " + _templateSchema + " (" + tableDefinitions.getCount() + " tables) into " + cloneSchemas.getCount() + " schemas in " + nanoTimer.getMillisecondsElapsed() + "ms using " + _threadCount + " threads.");
+
+        return databaseConnectionFactories;
+    }
+
+    /**
+     * Drops the provided clone schemas.
+     */
+    public void dropSchemas(final List<String> cloneSchemas) throws DatabaseException {
+        try (final MysqlDatabaseConnection databaseConnection = _rootDatabaseConnectionFactory.newConnection()) {
+            for (final String cloneSchema : cloneSchemas) {
+                databaseConnection.executeSql(new Query("DROP DATABASE IF EXISTS " + SqlUtil.quoteIdentifier(cloneSchema)));
+            }
+        }
+    }
+}
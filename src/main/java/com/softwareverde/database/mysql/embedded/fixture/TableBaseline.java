@@ -0,0 +1,73 @@
+package com.softwareverde.database.mysql.embedded.fixture;
+
+import com.softwareverde.constable.list.List;
+
+/**
+ * The state of a single table when its baseline was recorded.
+ *  The column names exclude generated columns, which cannot be copied.
+ */
+public class TableBaseline {
+    protected final String _tableName;
+    protected final String _createTableStatement;
+    protected final List<String> _columnNames;
+    protected final Long _rowCount;
+    protected final Long _checksum;
+    protected final Long _autoIncrement;
+    protected String _tableIdentity;
+
+    public TableBaseline(final String tableName, final String createTableStatement, final List<String> columnNames, final Long rowCount, final Long checksum, final Long autoIncrement, final String tableIdentity) {
+        _tableName = tableName;
+        _createTableStatement = createTableStatement;
+        _columnNames = columnNames;
+        _rowCount = rowCount;
+        _checksum = checksum;
+        _autoIncrement = autoIncrement;
+        _tableIdentity = tableIdentity;
+    }
+
+    public String getTableName() {
+        return _tableName;
+    }
+
+    /**
+     * Returns the table's "SHOW CREATE TABLE" statement, which is used to recreate the table if it is dropped or altered.
+     */
+    public String getCreateTableStatement() {
+        return _createTableStatement;
+    }
+
+    public List<String> getColumnNames() {
+        return _columnNames;
+    }
+
+    public Long getRowCount() {
+        return _rowCount;
+    }
+
+    /**
+     * Returns the table's "CHECKSUM TABLE" value, or null if the storage engine does not support checksums.
+     */
+    public Long getChecksum() {
+        return _checksum;
+    }
+
+    /**
+     * Returns the table's next AUTO_INCREMENT value, or null if the table has no AUTO_INCREMENT column.
+     */
+    public Long getAutoIncrement() {
+        return _autoIncrement;
+    }
+
+    /**
+     * Returns the table's identity: its InnoDB table id (or CREATE_TIME, for other engines) and a digest of its columns.
+     *  A different identity indicates the table was recreated or altered (ex: via ALTER TABLE or TRUNCATE), which is not
+     *  visible to the change-tracking triggers.
+     */
+    public String getTableIdentity() {
+        return _tableIdentity;
+    }
+
+    protected void _setTableIdentity(final String tableIdentity) {
+        _tableIdentity = tableIdentity;
+    }
+}
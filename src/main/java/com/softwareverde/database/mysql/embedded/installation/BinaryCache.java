@@ -0,0 +1,167 @@
+package com.softwareverde.database.mysql.embedded.installation;
+
+import com.softwareverde.constable.list.List;
+import com.softwareverde.logging.Logger;
+import com.softwareverde.util.Util;
+import com.softwareverde.util.timer.NanoTimer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * <p>A content-addressed cache of extracted manifest files that may be shared by many installations on the same host.</p>
+ *
+ * <p>Each file is extracted once into `objects/&lt;sha256&gt;`, and the InstallationIndex for each packaged version is stored
+ * within `versions/&lt;version&gt;/`.  Installations are then populated via hard links to the cached objects (or copies, if
+ * the installation is on a different filesystem), which makes installing an already-cached version a metadata-only
+ * operation.  Since the objects are shared, cached files must never be modified in place.</p>
+ */
+public class BinaryCache {
+    public static final String OBJECT_DIRECTORY_NAME = "objects";
+    public static final String VERSION_DIRECTORY_NAME = "versions";
+
+    protected static String toDirectoryName(final String version) {
+        return version.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    protected final File _cacheDirectory;
+    protected final Integer _threadCount;
+    protected Boolean _hardLinksAreSupported = true;
+
+    protected File _getObjectDirectory() {
+        return new File(_cacheDirectory.getPath() + "/" + OBJECT_DIRECTORY_NAME);
+    }
+
+    protected File _getVersionDirectory(final String version) {
+        return new File(_cacheDirectory.getPath() + "/" + VERSION_DIRECTORY_NAME + "/" + BinaryCache.toDirectoryName(version));
+    }
+
+    protected File _getObjectFile(final String digest) {
+        return new File(_getObjectDirectory().getPath() + "/" + digest);
+    }
+
+    protected void _linkFile(final File objectFile, final File destination) throws IOException {
+        final File parentDirectory = destination.getParentFile();
+        if (parentDirectory != null) {
+            parentDirectory.mkdirs();
+        }
+
+        Files.deleteIfExists(destination.toPath());
+
+        if (_hardLinksAreSupported) {
+            try {
+                Files.createLink(destination.toPath(), objectFile.toPath());
+                return;
+            }
+            catch (final IOException | UnsupportedOperationException exception) {
+                Logger.debug("Unable to create hard link to binary cache; falling back to copying: " + exception.getMessage());
+                _hardLinksAreSupported = false;
+            }
+        }
+
+        Files.copy(objectFile.toPath(), destination.toPath(), StandardCopyOption.COPY_ATTRIBUTES);
+    }
+
+    public BinaryCache(final File cacheDirectory) {
+        this(cacheDirectory, ManifestExtractor.DEFAULT_THREAD_COUNT);
+    }
+
+    public BinaryCache(final File cacheDirectory, final Integer threadCount) {
+        _cacheDirectory = cacheDirectory;
+        _threadCount = threadCount;
+    }
+
+    protected File _getVersionLockFile(final String version) {
+        return new File(_getVersionDirectory(version).getPath() + "/.lock");
+    }
+
+    /**
+     * Extracts any of the manifest's files that are not yet cached and returns the cache's index for the version.
+     *  Holds the version's lock while the cache's index is loaded, extended, and saved, so that processes populating
+     *  the same version do not overwrite each other's index.
+     */
+    public InstallationIndex populate(final List<ManifestEntry> manifestEntries, final String version) throws IOException {
+        final File versionDirectory = _getVersionDirectory(version);
+
+        final InstallationLock installationLock;
+        try {
+            installationLock = InstallationLock.acquire(_getVersionLockFile(version));
+        }
+        catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for binary cache lock: " + versionDirectory, exception);
+        }
+
+        try (final InstallationLock versionLock = installationLock) {
+            final InstallationIndex previousCacheIndex = InstallationIndex.load(versionDirectory, version);
+
+            final BinaryCacheExtractor binaryCacheExtractor = new BinaryCacheExtractor(_getObjectDirectory(), _threadCount);
+            final InstallationIndex cacheIndex = binaryCacheExtractor.extract(manifestEntries, version, previousCacheIndex);
+
+            // Retain the cached entries of any groups that were not requested.
+            if (previousCacheIndex != null) {
+                for (final InstallationIndexEntry previousCacheIndexEntry : previousCacheIndex.getEntries()) {
+                    if (cacheIndex.get(previousCacheIndexEntry.getRelativePath()) == null) {
+                        cacheIndex.put(previousCacheIndexEntry);
+                    }
+                }
+            }
+
+            versionDirectory.mkdirs();
+            cacheIndex.save(versionDirectory);
+
+            return cacheIndex;
+        }
+    }
+
+    /**
+     * Populates the installation directory from the cache (populating the cache first, if necessary) and returns the
+     *  installation's new index.  Files that are already linked from the previousInstallationIndex (which may be null)
+     *  are left untouched.
+     */
+    public InstallationIndex install(final List<ManifestEntry> manifestEntries, final String version, final File installationDirectory, final InstallationIndex previousInstallationIndex) throws IOException {
+        final InstallationIndex cacheIndex = this.populate(manifestEntries, version);
+
+        final NanoTimer nanoTimer = new NanoTimer();
+        nanoTimer.start();
+
+        final ManifestExtractor installationExtractor = new ManifestExtractor(installationDirectory, _threadCount);
+        final InstallationIndex installationIndex = new InstallationIndex(version);
+
+        int linkedFileCount = 0;
+        for (final ManifestEntry manifestEntry : manifestEntries) {
+            if (manifestEntry.isSymbolicLink()) { continue; }
+
+            final String relativePath = manifestEntry.getRelativePath();
+            final InstallationIndexEntry cacheIndexEntry = cacheIndex.get(relativePath);
+            final String digest = cacheIndexEntry.getDigest();
+
+            final InstallationIndexEntry previousIndexEntry = (previousInstallationIndex != null ? previousInstallationIndex.get(relativePath) : null);
+            if ( (previousIndexEntry != null) && Util.areEqual(digest, previousIndexEntry.getDigest()) && installationExtractor._isFileCurrent(manifestEntry, previousIndexEntry) ) {
+                installationIndex.put(previousIndexEntry);
+                continue;
+            }
+
+            final File destination = installationExtractor._getDestination(manifestEntry);
+            _linkFile(_getObjectFile(digest), destination);
+            installationIndex.put(new InstallationIndexEntry(relativePath, destination.length(), destination.lastModified(), digest));
+            linkedFileCount += 1;
+        }
+
+        int symbolicLinkCount = 0;
+        for (final ManifestEntry manifestEntry : manifestEntries) {
+            if (! manifestEntry.isSymbolicLink()) { continue; }
+            if (installationExtractor._isSymbolicLinkCurrent(manifestEntry)) { continue; }
+
+            installationExtractor._createSymbolicLink(manifestEntry);
+            symbolicLinkCount += 1;
+        }
+
+        nanoTimer.stop();
+        Logger.debug("Installed " + linkedFileCount + " files and " + symbolicLinkCount + " links from binary cache " + _cacheDirectory + " in " + nanoTimer.getMillisecondsElapsed() + "ms" + (_hardLinksAreSupported ? "." : " (copied)."));
+
+        return installationIndex;
+    }
+}
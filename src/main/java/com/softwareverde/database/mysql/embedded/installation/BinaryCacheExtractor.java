@@ -0,0 +1,73 @@
+package com.softwareverde.database.mysql.embedded.installation;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+
+/**
+ * Extracts manifest resources into a BinaryCache's object directory, naming each file by the digest of its contents.
+ *  Objects are written to a temporary file and then moved into place, so concurrent populations never observe a
+ *  partially written object.  Symbolic links are not cached; they are created within each installation instead.
+ */
+public class BinaryCacheExtractor extends ManifestExtractor {
+    protected File _getObjectFile(final String digest) {
+        return new File(_installationDirectory.getPath() + "/" + digest);
+    }
+
+    @Override
+    protected InstallationIndexEntry _extractFile(final ManifestEntry manifestEntry, final ResourceLoader resourceLoader) throws IOException {
+        _installationDirectory.mkdirs();
+
+        final File temporaryFile = new File(_installationDirectory.getPath() + "/.tmp-" + UUID.randomUUID());
+        try {
+            final InstallationIndexEntry extractedIndexEntry = _extractFile(manifestEntry, temporaryFile, resourceLoader);
+            final String digest = extractedIndexEntry.getDigest();
+
+            final File objectFile = _getObjectFile(digest);
+            final boolean objectAlreadyExists = (objectFile.isFile() && (objectFile.length() == extractedIndexEntry.getByteCount()));
+            if (! objectAlreadyExists) {
+                Files.move(temporaryFile.toPath(), objectFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+
+            if (manifestEntry.isExecutable()) {
+                if (! objectFile.setExecutable(true, true)) {
+                    throw new IOException("Unable to set file flags: " + objectFile);
+                }
+            }
+
+            return new InstallationIndexEntry(manifestEntry.getRelativePath(), objectFile.length(), objectFile.lastModified(), digest);
+        }
+        finally {
+            Files.deleteIfExists(temporaryFile.toPath());
+        }
+    }
+
+    @Override
+    protected Boolean _isFileCurrent(final ManifestEntry manifestEntry, final InstallationIndexEntry previousIndexEntry) {
+        final File objectFile = _getObjectFile(previousIndexEntry.getDigest());
+        if (! objectFile.isFile()) { return false; }
+        if (objectFile.length() != previousIndexEntry.getByteCount()) { return false; }
+        return ( (! manifestEntry.isExecutable()) || objectFile.canExecute() );
+    }
+
+    @Override
+    protected Boolean _isSymbolicLinkCurrent(final ManifestEntry manifestEntry) {
+        return true;
+    }
+
+    @Override
+    protected void _setExecutable(final ManifestEntry manifestEntry) {
+        // Executable flags are applied to the object as it is moved into place.
+    }
+
+    @Override
+    protected void _createSymbolicLink(final ManifestEntry manifestEntry) {
+        // Symbolic links are created within each installation.
+    }
+
+    public BinaryCacheExtractor(final File objectDirectory, final Integer threadCount) {
+        super(objectDirectory, threadCount);
+    }
+}
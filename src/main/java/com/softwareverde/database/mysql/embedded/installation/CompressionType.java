@@ -0,0 +1,60 @@
+package com.softwareverde.database.mysql.embedded.installation;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * The compression applied to a packaged resource.
+ *  Compressed manifest entries are designated via the `z` flag; the format of a compressed resource (gzip or zlib
+ *  deflate) is detected from its header, so both may be used interchangeably within the same manifest.
+ */
+public enum CompressionType {
+    NONE, GZIP, DEFLATE;
+
+    public static final char COMPRESSED_FLAG = 'z';
+    protected static final Integer DECOMPRESSION_BUFFER_BYTE_COUNT = (64 * 1024);
+
+    /**
+     * Detects the compression format of the stream from its first two bytes without consuming them.
+     *  The provided stream must support mark/reset.
+     */
+    public static CompressionType detect(final InputStream inputStream) throws IOException {
+        inputStream.mark(2);
+        final int byte0 = inputStream.read();
+        final int byte1 = inputStream.read();
+        inputStream.reset();
+
+        if ( (byte0 == 0x1F) && (byte1 == 0x8B) ) {
+            return GZIP;
+        }
+
+        // The zlib header's first byte declares deflate (0x08) in its low nibble, and the header is a multiple of 31.
+        if ( (byte0 >= 0) && (byte1 >= 0) && ((byte0 & 0x0F) == 0x08) && ((((byte0 << 8) | byte1) % 31) == 0) ) {
+            return DEFLATE;
+        }
+
+        return NONE;
+    }
+
+    /**
+     * Wraps the compressed stream with the appropriate decompression stream, detecting the format from its header.
+     */
+    public static InputStream newDecompressionStream(final InputStream compressedInputStream) throws IOException {
+        final BufferedInputStream bufferedInputStream = new BufferedInputStream(compressedInputStream, DECOMPRESSION_BUFFER_BYTE_COUNT);
+        final CompressionType compressionType = CompressionType.detect(bufferedInputStream);
+        switch (compressionType) {
+            case GZIP: {
+                return new GZIPInputStream(bufferedInputStream, DECOMPRESSION_BUFFER_BYTE_COUNT);
+            }
+            case DEFLATE: {
+                return new InflaterInputStream(bufferedInputStream);
+            }
+            default: {
+                throw new IOException("Unsupported compression format.");
+            }
+        }
+    }
+}
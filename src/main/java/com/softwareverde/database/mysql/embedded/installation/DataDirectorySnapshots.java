@@ -0,0 +1,199 @@
+package com.softwareverde.database.mysql.embedded.installation;
+
+import com.softwareverde.logging.Logger;
+import com.softwareverde.util.timer.NanoTimer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.regex.Pattern;
+
+/**
+ * <p>Named copies of a data directory, taken and restored while the server is stopped.</p>
+ *
+ * <p>Each snapshot is stored as "&lt;name&gt;" within the snapshot directory.  To make restores fast, a second copy of
+ * the snapshot ("&lt;name&gt;.staged") is prepared in the background; restoring a staged snapshot only renames
+ * directories, after which the next staged copy is prepared.  Copies are made via "cp --reflink=auto" on Linux, which
+ * shares blocks on copy-on-write filesystems (ex: btrfs, XFS), and are otherwise copied file by file.</p>
+ */
+public class DataDirectorySnapshots {
+    protected static final Pattern SNAPSHOT_NAME_PATTERN = Pattern.compile("[A-Za-z0-9_\\-]+");
+    protected static final String STAGED_SUFFIX = ".staged";
+    protected static final String TEMPORARY_SUFFIX = ".tmp";
+
+    protected final File _dataDirectory;
+    protected final File _snapshotDirectory;
+    protected final Boolean _reflinkCopyIsSupported;
+    protected final HashMap<String, Thread> _stagingThreads = new HashMap<>();
+
+    protected static void _validateName(final String name) {
+        if ( (name == null) || (! SNAPSHOT_NAME_PATTERN.matcher(name).matches()) ) {
+            throw new RuntimeException("Invalid snapshot name: " + name);
+        }
+    }
+
+    /**
+     * Copies the directory, preferring a copy-on-write (reflink) copy when supported.
+     */
+    protected void _copyDirectory(final File sourceDirectory, final File destinationDirectory) throws IOException {
+        if (_reflinkCopyIsSupported) {
+            try {
+                final Process process = new ProcessBuilder("cp", "-a", "--reflink=auto", sourceDirectory.getPath(), destinationDirectory.getPath()).redirectErrorStream(true).start();
+                if (process.waitFor() == 0) { return; }
+
+                Logger.debug("Unable to copy " + sourceDirectory + " via cp; copying directly.");
+            }
+            catch (final InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new IOException(exception);
+            }
+            catch (final IOException exception) {
+                Logger.debug("Unable to copy " + sourceDirectory + " via cp; copying directly.", exception);
+            }
+
+            DirectoryUtil.deleteDirectory(destinationDirectory);
+        }
+
+        DirectoryUtil.copyDirectory(sourceDirectory, destinationDirectory);
+    }
+
+    /**
+     * Copies the source to a temporary directory and then moves it into place, so that a partial copy is never used.
+     */
+    protected void _copyDirectoryAtomically(final File sourceDirectory, final File destinationDirectory) throws IOException {
+        final File temporaryDirectory = new File(destinationDirectory.getPath() + TEMPORARY_SUFFIX);
+        DirectoryUtil.deleteDirectory(temporaryDirectory);
+        _copyDirectory(sourceDirectory, temporaryDirectory);
+
+        DirectoryUtil.deleteDirectory(destinationDirectory);
+        Files.move(temporaryDirectory.toPath(), destinationDirectory.toPath(), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    protected File _getStagedDirectory(final String name) {
+        return new File(_snapshotDirectory.getPath() + "/" + name + STAGED_SUFFIX);
+    }
+
+    /**
+     * Prepares the staged copy of the snapshot in the background, after deleting the discarded data directory (if any).
+     */
+    protected void _stageInBackground(final String name, final File discardedDirectory) {
+        final File snapshot = this.getSnapshotDirectory(name);
+        final File stagedDirectory = _getStagedDirectory(name);
+
+        final Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    if (discardedDirectory != null) {
+                        DirectoryUtil.deleteDirectory(discardedDirectory);
+                    }
+
+                    final NanoTimer nanoTimer = new NanoTimer();
+                    nanoTimer.start();
+                    _copyDirectoryAtomically(snapshot, stagedDirectory);
+                    nanoTimer.stop();
+                    Logger.debug("Staged snapshot " + name + " in " + nanoTimer.getMillisecondsElapsed() + "ms.");
+                }
+                catch (final IOException exception) {
+                    Logger.debug("Unable to stage snapshot: " + name, exception);
+                }
+            }
+        });
+        thread.setName("Data Directory Snapshot Stager");
+        thread.setDaemon(true);
+        _stagingThreads.put(name, thread);
+        thread.start();
+    }
+
+    protected void _waitForStaging(final String name) {
+        final Thread thread = _stagingThreads.remove(name);
+        if (thread == null) { return; }
+
+        try {
+            thread.join();
+        }
+        catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public DataDirectorySnapshots(final File dataDirectory, final File snapshotDirectory, final Boolean reflinkCopyIsSupported) {
+        _dataDirectory = dataDirectory;
+        _snapshotDirectory = snapshotDirectory;
+        _reflinkCopyIsSupported = reflinkCopyIsSupported;
+    }
+
+    public File getSnapshotDirectory(final String name) {
+        return new File(_snapshotDirectory.getPath() + "/" + name);
+    }
+
+    public synchronized Boolean hasSnapshot(final String name) {
+        _validateName(name);
+        return this.getSnapshotDirectory(name).isDirectory();
+    }
+
+    /**
+     * Copies the data directory to the named snapshot, replacing any existing snapshot with the same name.
+     *  The server must be stopped.
+     */
+    public synchronized void takeSnapshot(final String name) throws IOException {
+        _validateName(name);
+        _waitForStaging(name);
+
+        final NanoTimer nanoTimer = new NanoTimer();
+        nanoTimer.start();
+
+        _snapshotDirectory.mkdirs();
+        DirectoryUtil.deleteDirectory(_getStagedDirectory(name));
+        _copyDirectoryAtomically(_dataDirectory, this.getSnapshotDirectory(name));
+
+        nanoTimer.stop();
+        Logger.debug("Took snapshot " + name + " in " + nanoTimer.getMillisecondsElapsed() + "ms.");
+
+        _stageInBackground(name, null);
+    }
+
+    /**
+     * Replaces the data directory with the named snapshot.  The server must be stopped.
+     *  If the staged copy is ready (or is being prepared), the data directory is swapped with it; otherwise the snapshot
+     *  is copied.  The replaced data directory is deleted in the background while the next staged copy is prepared.
+     */
+    public synchronized void restoreSnapshot(final String name) throws IOException {
+        _validateName(name);
+
+        final File snapshot = this.getSnapshotDirectory(name);
+        if (! snapshot.isDirectory()) {
+            throw new IOException("Snapshot not found: " + name);
+        }
+
+        final NanoTimer nanoTimer = new NanoTimer();
+        nanoTimer.start();
+
+        _waitForStaging(name);
+        final File stagedDirectory = _getStagedDirectory(name);
+        if (! stagedDirectory.isDirectory()) {
+            _copyDirectoryAtomically(snapshot, stagedDirectory);
+        }
+
+        final File discardedDirectory = new File(_snapshotDirectory.getPath() + "/.discarded-" + System.nanoTime());
+        if (_dataDirectory.exists()) {
+            Files.move(_dataDirectory.toPath(), discardedDirectory.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        }
+        Files.move(stagedDirectory.toPath(), _dataDirectory.toPath(), StandardCopyOption.ATOMIC_MOVE);
+
+        nanoTimer.stop();
+        Logger.debug("Restored snapshot " + name + " in " + nanoTimer.getMillisecondsElapsed() + "ms.");
+
+        _stageInBackground(name, (discardedDirectory.exists() ? discardedDirectory : null));
+    }
+
+    public synchronized void deleteSnapshot(final String name) throws IOException {
+        _validateName(name);
+        _waitForStaging(name);
+
+        DirectoryUtil.deleteDirectory(_getStagedDirectory(name));
+        DirectoryUtil.deleteDirectory(this.getSnapshotDirectory(name));
+    }
+}
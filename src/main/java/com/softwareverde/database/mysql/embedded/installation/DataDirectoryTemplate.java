@@ -0,0 +1,77 @@
+package com.softwareverde.database.mysql.embedded.installation;
+
+import com.softwareverde.util.HexUtil;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * <p>A pristine, freshly initialized data directory that is cloned instead of bootstrapping every new data directory.</p>
+ *
+ * <p>Templates are stored within `&lt;templateRootDirectory&gt;/&lt;fingerprint&gt;/`, where the fingerprint is derived
+ * from the packaged version, the configuration file contents (excluding connection-only settings such as the port),
+ * and the root password, since the bootstrap stores the root password within the system tables.</p>
+ */
+public class DataDirectoryTemplate {
+    /**
+     * Configuration keys that do not affect the contents of an initialized data directory.
+     */
+    protected static final String[] EXCLUDED_CONFIGURATION_KEYS = { "port", "bind-address", "bind_address", "socket", "skip-networking", "skip_networking" };
+
+    protected static Boolean isExcludedConfigurationLine(final String line) {
+        final int separatorIndex = line.indexOf('=');
+        final String key = (separatorIndex < 0 ? line : line.substring(0, separatorIndex)).trim();
+        for (final String excludedKey : EXCLUDED_CONFIGURATION_KEYS) {
+            if (excludedKey.equals(key)) { return true; }
+        }
+        return false;
+    }
+
+    public static String calculateFingerprint(final String version, final String configurationFileContents, final String rootPassword) {
+        final MessageDigest messageDigest = InstallationIndex.newMessageDigest();
+        messageDigest.update(String.valueOf(version).getBytes(StandardCharsets.UTF_8));
+        messageDigest.update((byte) 0x00);
+
+        for (final String line : configurationFileContents.split("\\r?\\n")) {
+            if (DataDirectoryTemplate.isExcludedConfigurationLine(line)) { continue; }
+
+            messageDigest.update(line.getBytes(StandardCharsets.UTF_8));
+            messageDigest.update((byte) '\n');
+        }
+        messageDigest.update((byte) 0x00);
+
+        messageDigest.update(String.valueOf(rootPassword).getBytes(StandardCharsets.UTF_8));
+        return HexUtil.toHexString(messageDigest.digest());
+    }
+
+    protected final File _templateRootDirectory;
+    protected final String _fingerprint;
+
+    public DataDirectoryTemplate(final File templateRootDirectory, final String fingerprint) {
+        _templateRootDirectory = templateRootDirectory;
+        _fingerprint = fingerprint;
+    }
+
+    public String getFingerprint() {
+        return _fingerprint;
+    }
+
+    /**
+     * Returns the directory containing the template's data files.
+     */
+    public File getDirectory() {
+        return new File(_templateRootDirectory.getPath() + "/" + _fingerprint);
+    }
+
+    /**
+     * Returns the directory the template is initialized within before being moved into place.
+     */
+    public File getTemporaryDirectory() {
+        return new File(_templateRootDirectory.getPath() + "/.tmp-" + _fingerprint);
+    }
+
+    public File getLockFile() {
+        return new File(_templateRootDirectory.getPath() + "/" + _fingerprint + ".lock");
+    }
+}
@@ -0,0 +1,65 @@
+package com.softwareverde.database.mysql.embedded.installation;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+public class DirectoryUtil {
+    /**
+     * Recursively copies the source directory to the destination, preserving file attributes and symbolic links.
+     *  The destination directory is created if it does not exist; existing files within the destination are replaced.
+     */
+    public static void copyDirectory(final File sourceDirectory, final File destinationDirectory) throws IOException {
+        final Path sourcePath = sourceDirectory.toPath();
+        final Path destinationPath = destinationDirectory.toPath();
+
+        Files.walkFileTree(sourcePath, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(final Path directory, final BasicFileAttributes attributes) throws IOException {
+                final Path targetDirectory = destinationPath.resolve(sourcePath.relativize(directory));
+                Files.createDirectories(targetDirectory);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attributes) throws IOException {
+                final Path targetFile = destinationPath.resolve(sourcePath.relativize(file));
+                Files.copy(file, targetFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES, LinkOption.NOFOLLOW_LINKS);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Recursively deletes the directory and its contents.  Symbolic links are deleted, but not followed.
+     *  Does nothing if the directory does not exist.
+     */
+    public static void deleteDirectory(final File directory) throws IOException {
+        final Path path = directory.toPath();
+        if (! Files.exists(path, LinkOption.NOFOLLOW_LINKS)) { return; }
+
+        Files.walkFileTree(path, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attributes) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(final Path directory, final IOException exception) throws IOException {
+                if (exception != null) { throw exception; }
+
+                Files.delete(directory);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    protected DirectoryUtil() { }
+}
@@ -0,0 +1,93 @@
+package com.softwareverde.database.mysql.embedded.installation;
+
+import com.softwareverde.constable.list.List;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads a list of ResourceFragments as a single contiguous stream.
+ *  Fragments are opened lazily and closed as soon as they are exhausted, so at most one fragment is open at a time.
+ */
+public class FragmentInputStream extends InputStream {
+    protected final List<ResourceFragment> _resourceFragments;
+    protected int _fragmentIndex = 0;
+    protected InputStream _currentInputStream;
+    protected long _byteCount = 0L;
+
+    /**
+     * Returns the current fragment's stream, advancing to the next fragment if necessary.
+     *  Returns null once every fragment has been read.
+     */
+    protected InputStream _getInputStream() throws IOException {
+        if (_currentInputStream != null) { return _currentInputStream; }
+        if (_fragmentIndex >= _resourceFragments.getCount()) { return null; }
+
+        final ResourceFragment resourceFragment = _resourceFragments.get(_fragmentIndex);
+        _currentInputStream = resourceFragment.open();
+        _fragmentIndex += 1;
+        return _currentInputStream;
+    }
+
+    protected void _closeCurrentInputStream() throws IOException {
+        if (_currentInputStream == null) { return; }
+
+        try {
+            _currentInputStream.close();
+        }
+        finally {
+            _currentInputStream = null;
+        }
+    }
+
+    public FragmentInputStream(final List<ResourceFragment> resourceFragments) {
+        _resourceFragments = resourceFragments;
+    }
+
+    /**
+     * Returns the number of bytes read from the fragments so far.
+     */
+    public Long getByteCount() {
+        return _byteCount;
+    }
+
+    @Override
+    public int read() throws IOException {
+        while (true) {
+            final InputStream inputStream = _getInputStream();
+            if (inputStream == null) { return -1; }
+
+            final int value = inputStream.read();
+            if (value >= 0) {
+                _byteCount += 1L;
+                return value;
+            }
+
+            _closeCurrentInputStream();
+        }
+    }
+
+    @Override
+    public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+        if (length == 0) { return 0; }
+
+        while (true) {
+            final InputStream inputStream = _getInputStream();
+            if (inputStream == null) { return -1; }
+
+            final int readByteCount = inputStream.read(buffer, offset, length);
+            if (readByteCount >= 0) {
+                _byteCount += readByteCount;
+                return readByteCount;
+            }
+
+            _closeCurrentInputStream();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        _closeCurrentInputStream();
+        _fragmentIndex = _resourceFragments.getCount();
+    }
+}
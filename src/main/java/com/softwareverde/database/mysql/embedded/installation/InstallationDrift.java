@@ -0,0 +1,48 @@
+package com.softwareverde.database.mysql.embedded.installation;
+
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.mutable.MutableList;
+
+/**
+ * Describes the differences between an installation directory and its InstallationIndex.
+ *  Missing files do not exist on disk, changed files are unindexed or differ in size, and corrupted files have the
+ *  indexed size but a different digest.  Paths are relative to the installation directory.
+ */
+public class InstallationDrift {
+    protected final MutableList<String> _missingFiles = new MutableList<>();
+    protected final MutableList<String> _changedFiles = new MutableList<>();
+    protected final MutableList<String> _corruptedFiles = new MutableList<>();
+
+    protected synchronized void _addMissingFile(final String relativePath) {
+        _missingFiles.add(relativePath);
+    }
+
+    protected synchronized void _addChangedFile(final String relativePath) {
+        _changedFiles.add(relativePath);
+    }
+
+    protected synchronized void _addCorruptedFile(final String relativePath) {
+        _corruptedFiles.add(relativePath);
+    }
+
+    public List<String> getMissingFiles() {
+        return _missingFiles;
+    }
+
+    public List<String> getChangedFiles() {
+        return _changedFiles;
+    }
+
+    public List<String> getCorruptedFiles() {
+        return _corruptedFiles;
+    }
+
+    public Boolean hasDrift() {
+        return (! (_missingFiles.isEmpty() && _changedFiles.isEmpty() && _corruptedFiles.isEmpty()));
+    }
+
+    @Override
+    public String toString() {
+        return ("missing=" + _missingFiles.getCount() + " changed=" + _changedFiles.getCount() + " corrupted=" + _corruptedFiles.getCount());
+    }
+}
@@ -0,0 +1,170 @@
+package com.softwareverde.database.mysql.embedded.installation;
+
+import com.softwareverde.logging.Logger;
+import com.softwareverde.util.HexUtil;
+import com.softwareverde.util.IoUtil;
+import com.softwareverde.util.StringUtil;
+import com.softwareverde.util.Util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>Records the size, modification time, and digest of every file extracted from the manifest.</p>
+ *
+ * <p>The index is stored within the installation directory as `.index` and is keyed by the packaged `.version`; an
+ * index written for a different version is ignored.  The first line contains the version, and each subsequent line
+ * has the format: "&lt;byteCount&gt; &lt;lastModified&gt; &lt;sha256&gt; &lt;relativePath&gt;".</p>
+ */
+public class InstallationIndex {
+    public static final String FILE_NAME = ".index";
+    public static final String DIGEST_ALGORITHM = "SHA-256";
+    protected static final String VERSION_PREFIX = "version=";
+
+    public static MessageDigest newMessageDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        }
+        catch (final NoSuchAlgorithmException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+
+    public static String calculateDigest(final File file) throws IOException {
+        final MessageDigest messageDigest = InstallationIndex.newMessageDigest();
+        final byte[] buffer = new byte[64 * 1024];
+        try (final InputStream inputStream = Files.newInputStream(file.toPath())) {
+            int byteCount;
+            while ((byteCount = inputStream.read(buffer)) >= 0) {
+                messageDigest.update(buffer, 0, byteCount);
+            }
+        }
+        return HexUtil.toHexString(messageDigest.digest());
+    }
+
+    /**
+     * Loads the index from the provided directory.
+     *  Returns null if the index does not exist, cannot be parsed, or was written for a different version.
+     */
+    public static InstallationIndex load(final File directory, final String version) {
+        final File indexFile = new File(directory.getPath() + "/" + FILE_NAME);
+        final byte[] indexBytes = IoUtil.getFileContents(indexFile);
+        if (indexBytes == null) { return null; }
+
+        final String[] lines = StringUtil.bytesToString(indexBytes).split("\n");
+        if ( (lines.length < 1) || (! lines[0].startsWith(VERSION_PREFIX)) ) { return null; }
+
+        final String indexVersion = lines[0].substring(VERSION_PREFIX.length());
+        if (! Util.areEqual(indexVersion, version)) {
+            Logger.debug("Ignoring installation index for version: " + indexVersion);
+            return null;
+        }
+
+        final InstallationIndex installationIndex = new InstallationIndex(version);
+        for (int i = 1; i < lines.length; ++i) {
+            final String[] fields = lines[i].split(" ", 4);
+            if (fields.length != 4) {
+                Logger.debug("Malformed installation index entry: " + lines[i]);
+                return null;
+            }
+
+            try {
+                final Long byteCount = Long.parseLong(fields[0]);
+                final Long lastModified = Long.parseLong(fields[1]);
+                installationIndex.put(new InstallationIndexEntry(fields[3], byteCount, lastModified, fields[2]));
+            }
+            catch (final NumberFormatException exception) {
+                Logger.debug("Malformed installation index entry: " + lines[i]);
+                return null;
+            }
+        }
+
+        return installationIndex;
+    }
+
+    /**
+     * Removes the index from the provided directory.
+     *  The index is removed while an extraction is in progress so that a partially extracted installation is never
+     *  mistaken for a complete one.
+     */
+    public static void delete(final File directory) throws IOException {
+        final File indexFile = new File(directory.getPath() + "/" + FILE_NAME);
+        Files.deleteIfExists(indexFile.toPath());
+    }
+
+    protected final String _version;
+    protected final Map<String, InstallationIndexEntry> _entries = new ConcurrentHashMap<>();
+
+    public InstallationIndex(final String version) {
+        _version = version;
+    }
+
+    public String getVersion() {
+        return _version;
+    }
+
+    public void put(final InstallationIndexEntry installationIndexEntry) {
+        _entries.put(installationIndexEntry.getRelativePath(), installationIndexEntry);
+    }
+
+    /**
+     * Adds every entry of the provided index, replacing any existing entries with the same path.
+     */
+    public void putAll(final InstallationIndex installationIndex) {
+        _entries.putAll(installationIndex._entries);
+    }
+
+    public InstallationIndexEntry get(final String relativePath) {
+        return _entries.get(relativePath);
+    }
+
+    public Collection<InstallationIndexEntry> getEntries() {
+        return _entries.values();
+    }
+
+    /**
+     * Writes the index to the provided directory.
+     *  The index is written to a uniquely named temporary file and then moved into place so that a partially written index
+     *  is never read.
+     */
+    public void save(final File directory) throws IOException {
+        final String newline = "\n";
+        final StringBuilder stringBuilder = new StringBuilder();
+        stringBuilder.append(VERSION_PREFIX);
+        stringBuilder.append(_version);
+        stringBuilder.append(newline);
+
+        final TreeMap<String, InstallationIndexEntry> sortedEntries = new TreeMap<>(_entries);
+        for (final InstallationIndexEntry installationIndexEntry : sortedEntries.values()) {
+            stringBuilder.append(installationIndexEntry.getByteCount());
+            stringBuilder.append(" ");
+            stringBuilder.append(installationIndexEntry.getLastModified());
+            stringBuilder.append(" ");
+            stringBuilder.append(installationIndexEntry.getDigest());
+            stringBuilder.append(" ");
+            stringBuilder.append(installationIndexEntry.getRelativePath());
+            stringBuilder.append(newline);
+        }
+
+        final File indexFile = new File(directory.getPath() + "/" + FILE_NAME);
+        final Path temporaryIndexFile = Files.createTempFile(directory.toPath(), FILE_NAME + "-", ".tmp"); // Unique, so concurrent writers never share it...
+        try {
+            Files.write(temporaryIndexFile, stringBuilder.toString().getBytes(StandardCharsets.UTF_8));
+            Files.move(temporaryIndexFile, indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        finally {
+            Files.deleteIfExists(temporaryIndexFile);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.softwareverde.database.mysql.embedded.installation;
+
+import com.softwareverde.util.Util;
+
+import java.io.File;
+
+/**
+ * The size, modification time, and SHA-256 digest of an extracted manifest file, as recorded within the InstallationIndex.
+ */
+public class InstallationIndexEntry {
+    protected final String _relativePath;
+    protected final Long _byteCount;
+    protected final Long _lastModified;
+    protected final String _digest;
+
+    public InstallationIndexEntry(final String relativePath, final Long byteCount, final Long lastModified, final String digest) {
+        _relativePath = relativePath;
+        _byteCount = byteCount;
+        _lastModified = lastModified;
+        _digest = digest;
+    }
+
+    public String getRelativePath() {
+        return _relativePath;
+    }
+
+    public Long getByteCount() {
+        return _byteCount;
+    }
+
+    public Long getLastModified() {
+        return _lastModified;
+    }
+
+    public String getDigest() {
+        return _digest;
+    }
+
+    /**
+     * Returns true if the file's size and modification time match the indexed values.
+     *  This check does not read the file's contents; see ManifestExtractor::verify for a digest comparison.
+     */
+    public Boolean matchesMetadata(final File file) {
+        if (! file.isFile()) { return false; }
+        if (! Util.areEqual(_byteCount, file.length())) { return false; }
+        return Util.areEqual(_lastModified, file.lastModified());
+    }
+}
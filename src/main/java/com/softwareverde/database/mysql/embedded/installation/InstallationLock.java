@@ -0,0 +1,120 @@
+package com.softwareverde.database.mysql.embedded.installation;
+
+import com.softwareverde.logging.Logger;
+import com.softwareverde.util.timer.NanoTimer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <p>An exclusive lock used to coordinate installation across threads and processes.</p>
+ *
+ * <p>File locks are held on behalf of the entire JVM, so threads within the same JVM are first serialized by an in-process
+ * lock for the same file.  The lock is reentrant for the owning thread; nested acquisitions do not lock the file again.
+ * The lock must be released by the thread that acquired it.</p>
+ */
+public class InstallationLock implements AutoCloseable {
+    protected static final ConcurrentHashMap<String, ReentrantLock> PROCESS_LOCKS = new ConcurrentHashMap<>();
+
+    protected static ReentrantLock getProcessLock(final String lockFilePath) {
+        final ReentrantLock newLock = new ReentrantLock();
+        final ReentrantLock existingLock = PROCESS_LOCKS.putIfAbsent(lockFilePath, newLock);
+        return (existingLock != null ? existingLock : newLock);
+    }
+
+    /**
+     * Blocks until the lock for the provided file is acquired by the current thread.
+     *  The lock file (and its parent directories) are created if they do not exist.
+     */
+    public static InstallationLock acquire(final File lockFile) throws IOException, InterruptedException {
+        final NanoTimer nanoTimer = new NanoTimer();
+        nanoTimer.start();
+
+        final File parentDirectory = lockFile.getAbsoluteFile().getParentFile();
+        if (parentDirectory != null) {
+            parentDirectory.mkdirs();
+        }
+
+        final String lockFilePath = lockFile.getCanonicalPath();
+        final ReentrantLock processLock = InstallationLock.getProcessLock(lockFilePath);
+        processLock.lockInterruptibly();
+
+        if (processLock.getHoldCount() > 1) {
+            nanoTimer.stop();
+            return new InstallationLock(lockFile, processLock, null, null, nanoTimer.getMillisecondsElapsed());
+        }
+
+        FileChannel fileChannel = null;
+        try {
+            fileChannel = FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            final FileLock fileLock = fileChannel.lock();
+
+            nanoTimer.stop();
+            return new InstallationLock(lockFile, processLock, fileChannel, fileLock, nanoTimer.getMillisecondsElapsed());
+        }
+        catch (final IOException | RuntimeException exception) {
+            if (fileChannel != null) {
+                try {
+                    fileChannel.close();
+                }
+                catch (final IOException closeException) {
+                    Logger.debug(closeException);
+                }
+            }
+            processLock.unlock();
+            throw exception;
+        }
+    }
+
+    protected final File _lockFile;
+    protected final ReentrantLock _processLock;
+    protected final FileChannel _fileChannel;
+    protected final FileLock _fileLock;
+    protected final Double _waitMs;
+    protected Boolean _isReleased = false;
+
+    protected InstallationLock(final File lockFile, final ReentrantLock processLock, final FileChannel fileChannel, final FileLock fileLock, final Double waitMs) {
+        _lockFile = lockFile;
+        _processLock = processLock;
+        _fileChannel = fileChannel;
+        _fileLock = fileLock;
+        _waitMs = waitMs;
+    }
+
+    public File getLockFile() {
+        return _lockFile;
+    }
+
+    /**
+     * Returns the number of milliseconds spent waiting for the lock to be acquired.
+     */
+    public Double getWaitMs() {
+        return _waitMs;
+    }
+
+    @Override
+    public void close() {
+        if (_isReleased) { return; }
+        _isReleased = true;
+
+        try {
+            if (_fileLock != null) {
+                _fileLock.release();
+            }
+            if (_fileChannel != null) {
+                _fileChannel.close();
+            }
+        }
+        catch (final IOException exception) {
+            Logger.debug(exception);
+        }
+        finally {
+            _processLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.softwareverde.database.mysql.embedded.installation;
+
+import com.softwareverde.util.Util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * <p>A writable directory that mirrors a (possibly read-only) installation directory via symbolic links.</p>
+ *
+ * <p>The run/init/upgrade scripts locate the data directory via the `.datadir` file within their own directory.  A view
+ * links every top-level entry of the installation except its mutable files, so that scripts executed from the view
+ * read the view's own `.datadir`.  This allows a single read-only installation to back many data directories.</p>
+ */
+public class InstallationView {
+    public static final String DATA_DIRECTORY_HELPER_FILE_NAME = ".datadir";
+    protected static final String[] EXCLUDED_FILE_NAMES = { DATA_DIRECTORY_HELPER_FILE_NAME, ".lock", InstallationIndex.FILE_NAME };
+
+    protected static Boolean isExcluded(final String fileName) {
+        for (final String excludedFileName : EXCLUDED_FILE_NAMES) {
+            if (Util.areEqual(excludedFileName, fileName)) { return true; }
+        }
+        return false;
+    }
+
+    /**
+     * Creates (or updates) the view of the installation directory.  Existing links that are already current are left untouched.
+     */
+    public static void create(final File installationDirectory, final File viewDirectory) throws IOException {
+        final File[] files = installationDirectory.getAbsoluteFile().listFiles();
+        if (files == null) {
+            throw new IOException("Unable to read installation directory: " + installationDirectory);
+        }
+
+        viewDirectory.mkdirs();
+
+        for (final File file : files) {
+            final String fileName = file.getName();
+            if (InstallationView.isExcluded(fileName)) { continue; }
+
+            final Path link = new File(viewDirectory.getPath() + "/" + fileName).toPath();
+            final Path target = file.toPath();
+            if (Files.isSymbolicLink(link) && Util.areEqual(target, Files.readSymbolicLink(link))) { continue; }
+
+            Files.deleteIfExists(link);
+            Files.createSymbolicLink(link, target);
+        }
+    }
+
+    protected InstallationView() { }
+}
@@ -0,0 +1,111 @@
+package com.softwareverde.database.mysql.embedded.installation;
+
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.mutable.MutableList;
+import com.softwareverde.util.Util;
+
+/**
+ * The parsed contents of the packaged `manifest` resource.
+ *  Each line contains the resource path and optionally a set of flags, separated by the last space within the line.
+ *  A line of the format "[group]" begins an optional group; the entries that follow it (until the next group header)
+ *  are only installed when their group is selected.  Entries before the first group header are always installed.
+ */
+public class Manifest {
+    /**
+     * The group containing the tooling used to upgrade the data directory, which is extracted on first use.
+     */
+    public static final String UPGRADE_GROUP = "upgrade";
+
+    public static Manifest parse(final String manifestContents, final String resourcePrefix) {
+        final MutableList<ManifestEntry> manifestEntries = new MutableList<>();
+
+        String group = null;
+        for (final String manifestEntry : manifestContents.split("\n")) {
+            if (Util.isBlank(manifestEntry)) { continue; }
+
+            final String trimmedManifestEntry = manifestEntry.trim();
+            if (trimmedManifestEntry.startsWith("[") && trimmedManifestEntry.endsWith("]")) {
+                group = trimmedManifestEntry.substring(1, trimmedManifestEntry.length() - 1).trim();
+                if (group.isEmpty()) {
+                    throw new RuntimeException("Invalid manifest group: " + trimmedManifestEntry);
+                }
+                continue;
+            }
+
+            final String flags;
+            final String resource;
+            {
+                final int spaceIndex = manifestEntry.lastIndexOf(' ');
+                if (spaceIndex < 0) {
+                    resource = manifestEntry;
+                    flags = "";
+                }
+                else {
+                    resource = manifestEntry.substring(0, spaceIndex);
+                    flags = manifestEntry.substring(spaceIndex + 1);
+                }
+            }
+
+            if (flags.contains("l")) {
+                if (! resource.contains(ManifestEntry.SYMBOLIC_LINK_DELIMITER)) {
+                    throw new RuntimeException("Invalid symbolic link manifest entry: " + resource);
+                }
+
+                final int delimiterIndex = resource.indexOf(ManifestEntry.SYMBOLIC_LINK_DELIMITER);
+                final String manifestEntryLink = resource.substring(0, delimiterIndex);
+
+                final int targetIndex = (delimiterIndex + ManifestEntry.SYMBOLIC_LINK_DELIMITER.length());
+                final String manifestEntryTarget = resource.substring(targetIndex);
+
+                final String relativePath = manifestEntryLink.substring(resourcePrefix.length() - 1);
+                manifestEntries.add(new ManifestEntry(manifestEntryLink, relativePath, manifestEntryTarget, flags, group));
+                continue;
+            }
+
+            final String relativePath = resource.substring(resourcePrefix.length() - 1);
+            manifestEntries.add(new ManifestEntry(resource, relativePath, null, flags, group));
+        }
+
+        return new Manifest(manifestEntries);
+    }
+
+    protected final List<ManifestEntry> _entries;
+
+    protected Manifest(final List<ManifestEntry> entries) {
+        _entries = entries;
+    }
+
+    public List<ManifestEntry> getEntries() {
+        return _entries;
+    }
+
+    /**
+     * Returns the entries that are always installed along with the entries of the provided groups.
+     *  If groups is null, every entry is returned.
+     */
+    public List<ManifestEntry> getEntries(final List<String> groups) {
+        if (groups == null) { return _entries; }
+
+        final MutableList<ManifestEntry> manifestEntries = new MutableList<>();
+        for (final ManifestEntry manifestEntry : _entries) {
+            final String group = manifestEntry.getGroup();
+            if ( (group == null) || groups.contains(group) ) {
+                manifestEntries.add(manifestEntry);
+            }
+        }
+        return manifestEntries;
+    }
+
+    /**
+     * Returns the entries belonging to the provided group.
+     */
+    public List<ManifestEntry> getGroupEntries(final String group) {
+        final MutableList<ManifestEntry> manifestEntries = new MutableList<>();
+        for (final ManifestEntry manifestEntry : _entries) {
+            if (Util.areEqual(group, manifestEntry.getGroup())) {
+                manifestEntries.add(manifestEntry);
+            }
+        }
+        return manifestEntries;
+    }
+}
@@ -0,0 +1,81 @@
+package com.softwareverde.database.mysql.embedded.installation;
+
+/**
+ * A single line of the packaged manifest.
+ *  Regular entries reference a resource that is extracted to the installation directory; symbolic-link entries
+ *  (designated via `l`) reference a link path and its target, with the format: "&lt;link&gt; -&gt; &lt;target&gt; l".
+ *  Entries listed beneath a "[group]" header belong to that optional group; all other entries are always installed.
+ */
+public class ManifestEntry {
+    public static final String SYMBOLIC_LINK_DELIMITER = " -> ";
+
+    protected final String _resource;
+    protected final String _relativePath;
+    protected final String _linkTarget;
+    protected final String _flags;
+    protected final String _group;
+
+    public ManifestEntry(final String resource, final String relativePath, final String linkTarget, final String flags) {
+        this(resource, relativePath, linkTarget, flags, null);
+    }
+
+    public ManifestEntry(final String resource, final String relativePath, final String linkTarget, final String flags, final String group) {
+        _resource = resource;
+        _relativePath = relativePath;
+        _linkTarget = linkTarget;
+        _flags = flags;
+        _group = group;
+    }
+
+    /**
+     * Returns the classpath resource of the entry, or the manifest's link path if the entry is a symbolic link.
+     */
+    public String getResource() {
+        return _resource;
+    }
+
+    /**
+     * Returns the entry's path relative to the installation directory, with a leading slash (ex: "/base/bin/mysqld").
+     */
+    public String getRelativePath() {
+        return _relativePath;
+    }
+
+    /**
+     * Returns the target of the symbolic link, or null if the entry is not a symbolic link.
+     */
+    public String getLinkTarget() {
+        return _linkTarget;
+    }
+
+    /**
+     * Returns the optional group the entry belongs to, or null if the entry is always installed.
+     */
+    public String getGroup() {
+        return _group;
+    }
+
+    public String getFlags() {
+        return _flags;
+    }
+
+    public Boolean isExecutable() {
+        return _flags.contains("x");
+    }
+
+    public Boolean isSymbolicLink() {
+        return _flags.contains("l");
+    }
+
+    /**
+     * Returns true if the resource is stored compressed and must be decompressed during extraction.
+     */
+    public Boolean isCompressed() {
+        return (_flags.indexOf(CompressionType.COMPRESSED_FLAG) >= 0);
+    }
+
+    @Override
+    public String toString() {
+        return _resource;
+    }
+}
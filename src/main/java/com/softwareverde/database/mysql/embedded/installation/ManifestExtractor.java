@@ -0,0 +1,367 @@
+package com.softwareverde.database.mysql.embedded.installation;
+
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.mutable.MutableList;
+import com.softwareverde.database.mysql.embedded.NamedThreadFactory;
+import com.softwareverde.logging.Logger;
+import com.softwareverde.util.HexUtil;
+import com.softwareverde.util.Util;
+import com.softwareverde.util.timer.NanoTimer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Extracts the resources of a Manifest into an installation directory.
+ *  Regular files are extracted concurrently over a bounded pool of worker threads; executable flags and symbolic links
+ *  are applied once every file has been extracted, so that links and flags are never applied to a partially written target.
+ *  When provided with the InstallationIndex of a previous extraction, files whose size and modification time still match
+ *  the index are not extracted again.  Compressed entries are decompressed as they are extracted, so independent
+ *  compressed entries are also decompressed concurrently.
+ */
+public class ManifestExtractor {
+    public static final Integer DEFAULT_THREAD_COUNT = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+    protected static final Integer BUFFER_BYTE_COUNT = (1024 * 1024);
+
+    protected final File _installationDirectory;
+    protected final Integer _threadCount;
+    protected Boolean _directJarAccessIsEnabled = true;
+    protected final AtomicLong _resourceByteCount = new AtomicLong(0L);
+
+    protected File _getDestination(final ManifestEntry manifestEntry) {
+        final String installationDirectoryPath = _installationDirectory.getPath();
+        return new File(installationDirectoryPath + manifestEntry.getRelativePath());
+    }
+
+    /**
+     * Extracts the entry's resource to its destination and returns its index entry.
+     *  The resource's fragments are read as a single stream (decompressing it if the entry is compressed) and written
+     *  into a single preallocated destination file via its FileChannel.
+     */
+    protected InstallationIndexEntry _extractFile(final ManifestEntry manifestEntry, final ResourceLoader resourceLoader) throws IOException {
+        final File destination = _getDestination(manifestEntry);
+        return _extractFile(manifestEntry, destination, resourceLoader);
+    }
+
+    protected InstallationIndexEntry _extractFile(final ManifestEntry manifestEntry, final File destination, final ResourceLoader resourceLoader) throws IOException {
+        final String resource = manifestEntry.getResource();
+
+        final NanoTimer nanoTimer = new NanoTimer();
+        nanoTimer.start();
+
+        final List<ResourceFragment> resourceFragments = resourceLoader.getFragments(resource);
+        if (resourceFragments.isEmpty()) {
+            throw new IOException("Resource not found: " + resource);
+        }
+
+        // The uncompressed size is only known in advance when the resource is not compressed by the manifest.
+        Long expectedByteCount = (manifestEntry.isCompressed() ? null : 0L);
+        boolean isReadFromJar = true;
+        for (final ResourceFragment resourceFragment : resourceFragments) {
+            final Long fragmentByteCount = resourceFragment.getByteCount();
+            expectedByteCount = ( (expectedByteCount != null && fragmentByteCount != null) ? (expectedByteCount + fragmentByteCount) : null );
+            isReadFromJar = (isReadFromJar && resourceFragment.isReadFromJar());
+        }
+
+        final File parentDirectory = destination.getParentFile();
+        if (parentDirectory != null) {
+            parentDirectory.mkdirs();
+        }
+
+        // The previous file is removed instead of overwritten, since it may be in use (or linked) elsewhere.
+        Files.deleteIfExists(destination.toPath());
+
+        final MessageDigest messageDigest = InstallationIndex.newMessageDigest();
+        final byte[] buffer = new byte[BUFFER_BYTE_COUNT];
+        final long resourceByteCount;
+        long byteCount = 0L;
+        try (
+            final FragmentInputStream fragmentInputStream = new FragmentInputStream(resourceFragments);
+            final InputStream inputStream = (manifestEntry.isCompressed() ? CompressionType.newDecompressionStream(fragmentInputStream) : fragmentInputStream);
+            final RandomAccessFile randomAccessFile = new RandomAccessFile(destination, "rw");
+            final FileChannel fileChannel = randomAccessFile.getChannel()
+        ) {
+            if (expectedByteCount != null) {
+                randomAccessFile.setLength(expectedByteCount);
+            }
+
+            int readByteCount;
+            while ((readByteCount = inputStream.read(buffer)) >= 0) {
+                if (readByteCount == 0) { continue; }
+
+                messageDigest.update(buffer, 0, readByteCount);
+
+                final ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, readByteCount);
+                while (byteBuffer.hasRemaining()) {
+                    byteCount += fileChannel.write(byteBuffer);
+                }
+            }
+
+            if ( (expectedByteCount == null) || (byteCount != expectedByteCount) ) {
+                fileChannel.truncate(byteCount);
+            }
+
+            resourceByteCount = fragmentInputStream.getByteCount();
+        }
+
+        _resourceByteCount.addAndGet(resourceByteCount);
+
+        nanoTimer.stop();
+        Logger.trace("Extracted: " + resource + " to " + destination + " (" + resourceByteCount + " resource bytes, " + byteCount + " bytes, " + resourceFragments.getCount() + " fragments, " + (isReadFromJar ? "jar" : "classloader") + ") in " + nanoTimer.getMillisecondsElapsed() + "ms.");
+
+        final String digest = HexUtil.toHexString(messageDigest.digest());
+        return new InstallationIndexEntry(manifestEntry.getRelativePath(), byteCount, destination.lastModified(), digest);
+    }
+
+    /**
+     * Compares the file's digest against the index and records any drift.
+     */
+    protected void _verifyFile(final ManifestEntry manifestEntry, final InstallationIndex installationIndex, final InstallationDrift installationDrift) throws IOException {
+        final String relativePath = manifestEntry.getRelativePath();
+        final File destination = _getDestination(manifestEntry);
+
+        if (! destination.isFile()) {
+            installationDrift._addMissingFile(relativePath);
+            return;
+        }
+
+        final InstallationIndexEntry installationIndexEntry = (installationIndex != null ? installationIndex.get(relativePath) : null);
+        if ( (installationIndexEntry == null) || (! Util.areEqual(installationIndexEntry.getByteCount(), destination.length())) ) {
+            installationDrift._addChangedFile(relativePath);
+            return;
+        }
+
+        final String digest = InstallationIndex.calculateDigest(destination);
+        if (! Util.areEqual(installationIndexEntry.getDigest(), digest)) {
+            installationDrift._addCorruptedFile(relativePath);
+        }
+    }
+
+    /**
+     * Returns true if the entry's file does not need to be extracted again, as determined by the index of its previous extraction.
+     */
+    protected Boolean _isFileCurrent(final ManifestEntry manifestEntry, final InstallationIndexEntry previousIndexEntry) {
+        final File destination = _getDestination(manifestEntry);
+        final boolean isUnchanged = previousIndexEntry.matchesMetadata(destination);
+        final boolean hasRequiredFlags = ( (! manifestEntry.isExecutable()) || destination.canExecute() );
+        return (isUnchanged && hasRequiredFlags);
+    }
+
+    protected Boolean _isSymbolicLinkCurrent(final ManifestEntry manifestEntry) {
+        final Path link = _getDestination(manifestEntry).toPath();
+        if (! Files.isSymbolicLink(link)) { return false; }
+
+        try {
+            final Path target = Paths.get(manifestEntry.getLinkTarget());
+            return Util.areEqual(target, Files.readSymbolicLink(link));
+        }
+        catch (final IOException exception) {
+            return false;
+        }
+    }
+
+    protected void _setExecutable(final ManifestEntry manifestEntry) {
+        final File destination = _getDestination(manifestEntry);
+        final boolean flagSetSuccessfully = destination.setExecutable(true, true);
+        if (! flagSetSuccessfully) {
+            throw new RuntimeException("Unable to set file flags: " + manifestEntry.getResource());
+        }
+    }
+
+    protected void _createSymbolicLink(final ManifestEntry manifestEntry) {
+        final Path link = _getDestination(manifestEntry).toPath();
+        final Path target = Paths.get(manifestEntry.getLinkTarget());
+
+        Logger.trace("Creating link: " + link + " to " + target);
+
+        try {
+            Files.deleteIfExists(link);
+            Files.createSymbolicLink(link, target);
+        }
+        catch (final IOException exception) {
+            throw new RuntimeException(exception);
+        }
+        catch (final UnsupportedOperationException exception) {
+            Logger.debug("Unable to create symbolic link: " + link); // Windows
+        }
+    }
+
+    protected ExecutorService _createExecutorService() {
+        return Executors.newFixedThreadPool(_threadCount, new NamedThreadFactory("Manifest Extractor"));
+    }
+
+    public ManifestExtractor(final File installationDirectory) {
+        this(installationDirectory, DEFAULT_THREAD_COUNT);
+    }
+
+    public ManifestExtractor(final File installationDirectory, final Integer threadCount) {
+        _installationDirectory = installationDirectory;
+        _threadCount = Math.max(1, (threadCount != null ? threadCount : DEFAULT_THREAD_COUNT));
+    }
+
+    /**
+     * When disabled, every resource is read through the classloader instead of directly from its jar.
+     *  Enabled by default; primarily useful for comparing the extraction timings of the two paths.
+     */
+    public void setDirectJarAccessEnabled(final Boolean directJarAccessIsEnabled) {
+        _directJarAccessIsEnabled = directJarAccessIsEnabled;
+    }
+
+    public InstallationIndex extract(final List<ManifestEntry> manifestEntries, final String version) {
+        return this.extract(manifestEntries, version, null);
+    }
+
+    /**
+     * Extracts the manifest entries and returns the new InstallationIndex.
+     *  Files matching the previousInstallationIndex (which may be null) are not extracted.
+     */
+    public InstallationIndex extract(final List<ManifestEntry> manifestEntries, final String version, final InstallationIndex previousInstallationIndex) {
+        final NanoTimer nanoTimer = new NanoTimer();
+        nanoTimer.start();
+
+        final InstallationIndex installationIndex = new InstallationIndex(version);
+        _resourceByteCount.set(0L);
+
+        final MutableList<ManifestEntry> fileEntries = new MutableList<>();
+        final MutableList<ManifestEntry> symbolicLinkEntries = new MutableList<>();
+        int unchangedFileCount = 0;
+        for (final ManifestEntry manifestEntry : manifestEntries) {
+            if (manifestEntry.isSymbolicLink()) {
+                if (! _isSymbolicLinkCurrent(manifestEntry)) {
+                    symbolicLinkEntries.add(manifestEntry);
+                }
+                continue;
+            }
+
+            final InstallationIndexEntry previousIndexEntry = (previousInstallationIndex != null ? previousInstallationIndex.get(manifestEntry.getRelativePath()) : null);
+            if ( (previousIndexEntry != null) && _isFileCurrent(manifestEntry, previousIndexEntry) ) {
+                installationIndex.put(previousIndexEntry);
+                unchangedFileCount += 1;
+                continue;
+            }
+
+            fileEntries.add(manifestEntry);
+        }
+
+        long totalByteCount = 0L;
+        if (! fileEntries.isEmpty()) {
+            final ExecutorService executorService = _createExecutorService();
+            final ResourceLoader resourceLoader = new ResourceLoader(_directJarAccessIsEnabled);
+            try {
+                final MutableList<Future<InstallationIndexEntry>> futures = new MutableList<>(fileEntries.getCount());
+                for (final ManifestEntry manifestEntry : fileEntries) {
+                    futures.add(executorService.submit(new Callable<InstallationIndexEntry>() {
+                        @Override
+                        public InstallationIndexEntry call() throws Exception {
+                            return _extractFile(manifestEntry, resourceLoader);
+                        }
+                    }));
+                }
+
+                for (int i = 0; i < futures.getCount(); ++i) {
+                    final Future<InstallationIndexEntry> future = futures.get(i);
+                    try {
+                        final InstallationIndexEntry installationIndexEntry = future.get();
+                        installationIndex.put(installationIndexEntry);
+                        totalByteCount += installationIndexEntry.getByteCount();
+                    }
+                    catch (final ExecutionException exception) {
+                        final ManifestEntry manifestEntry = fileEntries.get(i);
+                        throw new RuntimeException("Unable to copy resource: " + manifestEntry.getResource(), exception.getCause());
+                    }
+                    catch (final InterruptedException exception) {
+                        Thread.currentThread().interrupt();
+                        throw new RuntimeException("Extraction interrupted.", exception);
+                    }
+                }
+            }
+            finally {
+                executorService.shutdownNow();
+                resourceLoader.close();
+            }
+        }
+
+        // Flags and links are only applied once all targets have been written.
+        for (final ManifestEntry manifestEntry : fileEntries) {
+            if (manifestEntry.isExecutable()) {
+                _setExecutable(manifestEntry);
+            }
+        }
+
+        for (final ManifestEntry manifestEntry : symbolicLinkEntries) {
+            _createSymbolicLink(manifestEntry);
+        }
+
+        nanoTimer.stop();
+        Logger.debug("Extracted " + fileEntries.getCount() + " files (" + _resourceByteCount.get() + " resource bytes, " + totalByteCount + " bytes) and " + symbolicLinkEntries.getCount() + " links in " + nanoTimer.getMillisecondsElapsed() + "ms using " + _threadCount + " threads; " + unchangedFileCount + " files were unchanged.");
+
+        return installationIndex;
+    }
+
+    /**
+     * Compares the digest of every extracted file against the InstallationIndex without extracting any files.
+     *  The installationIndex may be null, in which case every existing file is reported as changed.
+     */
+    public InstallationDrift verify(final List<ManifestEntry> manifestEntries, final InstallationIndex installationIndex) {
+        final NanoTimer nanoTimer = new NanoTimer();
+        nanoTimer.start();
+
+        final InstallationDrift installationDrift = new InstallationDrift();
+
+        final ExecutorService executorService = _createExecutorService();
+        try {
+            final MutableList<Future<?>> futures = new MutableList<>();
+            for (final ManifestEntry manifestEntry : manifestEntries) {
+                if (manifestEntry.isSymbolicLink()) {
+                    if (! _isSymbolicLinkCurrent(manifestEntry)) {
+                        installationDrift._addChangedFile(manifestEntry.getRelativePath());
+                    }
+                    continue;
+                }
+
+                futures.add(executorService.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        _verifyFile(manifestEntry, installationIndex, installationDrift);
+                        return null;
+                    }
+                }));
+            }
+
+            for (final Future<?> future : futures) {
+                try {
+                    future.get();
+                }
+                catch (final ExecutionException exception) {
+                    throw new RuntimeException("Unable to verify installation.", exception.getCause());
+                }
+                catch (final InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Verification interrupted.", exception);
+                }
+            }
+        }
+        finally {
+            executorService.shutdownNow();
+        }
+
+        nanoTimer.stop();
+        Logger.debug("Verified installation in " + nanoTimer.getMillisecondsElapsed() + "ms: " + installationDrift);
+
+        return installationDrift;
+    }
+}
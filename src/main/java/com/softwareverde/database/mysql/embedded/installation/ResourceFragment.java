@@ -0,0 +1,72 @@
+package com.softwareverde.database.mysql.embedded.installation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * A packaged resource, or one `.partN` fragment of a packaged resource.
+ *  Fragments located within a jar on the local filesystem are read directly from the jar; all other fragments are
+ *  read via the classloader.
+ */
+public class ResourceFragment {
+    protected final String _resource;
+    protected final URL _url;
+    protected final ZipFile _zipFile;
+    protected final ZipEntry _zipEntry;
+
+    public ResourceFragment(final String resource, final URL url) {
+        _resource = resource;
+        _url = url;
+        _zipFile = null;
+        _zipEntry = null;
+    }
+
+    public ResourceFragment(final String resource, final ZipFile zipFile, final ZipEntry zipEntry) {
+        _resource = resource;
+        _url = null;
+        _zipFile = zipFile;
+        _zipEntry = zipEntry;
+    }
+
+    public String getResource() {
+        return _resource;
+    }
+
+    /**
+     * Returns true if the fragment is read directly from its jar instead of through the classloader.
+     */
+    public Boolean isReadFromJar() {
+        return (_zipFile != null);
+    }
+
+    /**
+     * Returns the uncompressed size of the fragment, or null if it is not known before reading.
+     */
+    public Long getByteCount() {
+        if (_zipEntry == null) { return null; }
+
+        final long byteCount = _zipEntry.getSize();
+        return (byteCount >= 0L ? byteCount : null);
+    }
+
+    /**
+     * Returns the (possibly jar-compressed) size of the fragment within its jar, or null if it is not known.
+     */
+    public Long getStoredByteCount() {
+        if (_zipEntry == null) { return null; }
+
+        final long byteCount = _zipEntry.getCompressedSize();
+        return (byteCount >= 0L ? byteCount : null);
+    }
+
+    public InputStream open() throws IOException {
+        final InputStream inputStream = (_zipFile != null ? _zipFile.getInputStream(_zipEntry) : _url.openStream());
+        if (inputStream == null) {
+            throw new IOException("Resource not found: " + _resource);
+        }
+        return inputStream;
+    }
+}
@@ -0,0 +1,147 @@
+package com.softwareverde.database.mysql.embedded.installation;
+
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.mutable.MutableList;
+import com.softwareverde.logging.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Locates packaged resources and their `.partN` fragments.
+ *  When a resource is contained within a jar on the local filesystem, the jar is opened directly so that the resource
+ *  and its fragments are read from a single ZipFile instead of being searched for and opened through the classloader.
+ *  Resources that are not within a local jar (ex: exploded class directories, nested jars) fall back to the classloader.
+ */
+public class ResourceLoader implements AutoCloseable {
+    protected static URL getResourceUrl(final String resource) {
+        final URL url = ResourceLoader.class.getResource(resource);
+        if (url != null) { return url; }
+
+        final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (classLoader == null) { return null; }
+
+        final String relativeResource = (resource.startsWith("/") ? resource.substring(1) : resource);
+        return classLoader.getResource(relativeResource);
+    }
+
+    protected final Boolean _directJarAccessIsEnabled;
+    protected final HashMap<File, ZipFile> _zipFiles = new HashMap<>();
+
+    protected synchronized ZipFile _getZipFile(final File jarFile) throws IOException {
+        final ZipFile cachedZipFile = _zipFiles.get(jarFile);
+        if (cachedZipFile != null) { return cachedZipFile; }
+
+        final ZipFile zipFile = new ZipFile(jarFile);
+        _zipFiles.put(jarFile, zipFile);
+        return zipFile;
+    }
+
+    /**
+     * Returns the fragments of the resource as read directly from its local jar, or null if the resource is not
+     *  contained within a jar on the local filesystem.
+     */
+    protected List<ResourceFragment> _getJarFragments(final String resource, final URL url, final Boolean isFragmented) {
+        if (! "jar".equals(url.getProtocol())) { return null; }
+
+        try {
+            final JarURLConnection jarUrlConnection = (JarURLConnection) url.openConnection();
+            final URL jarFileUrl = jarUrlConnection.getJarFileURL();
+            if (! "file".equals(jarFileUrl.getProtocol())) { return null; }
+
+            final File jarFile = Paths.get(jarFileUrl.toURI()).toFile();
+            final ZipFile zipFile = _getZipFile(jarFile);
+
+            final String entryName = jarUrlConnection.getEntryName();
+            final ZipEntry zipEntry = zipFile.getEntry(entryName);
+            if (zipEntry == null) { return null; }
+
+            final MutableList<ResourceFragment> resourceFragments = new MutableList<>();
+            if (! isFragmented) {
+                resourceFragments.add(new ResourceFragment(resource, zipFile, zipEntry));
+                return resourceFragments;
+            }
+
+            // The remaining fragments are looked up within the same jar rather than through the classloader.
+            final String baseEntryName = entryName.substring(0, entryName.length() - ".part0".length());
+            int i = 0;
+            while (true) {
+                final ZipEntry fragmentZipEntry = zipFile.getEntry(baseEntryName + ".part" + i);
+                if (fragmentZipEntry == null) { break; }
+
+                resourceFragments.add(new ResourceFragment(resource + ".part" + i, zipFile, fragmentZipEntry));
+                i += 1;
+            }
+            return resourceFragments;
+        }
+        catch (final Exception exception) {
+            Logger.debug("Unable to read resource directly from jar: " + resource, exception);
+            return null;
+        }
+    }
+
+    public ResourceLoader() {
+        this(true);
+    }
+
+    /**
+     * When directJarAccessIsEnabled is false, all resources are read through the classloader.
+     */
+    public ResourceLoader(final Boolean directJarAccessIsEnabled) {
+        _directJarAccessIsEnabled = directJarAccessIsEnabled;
+    }
+
+    /**
+     * Returns the resource as a list of fragments, in order.
+     *  A resource that is not fragmented is returned as a single fragment; an empty list is returned if the resource
+     *  could not be found.
+     */
+    public List<ResourceFragment> getFragments(final String resource) {
+        final URL wholeUrl = ResourceLoader.getResourceUrl(resource);
+        final URL url = (wholeUrl != null ? wholeUrl : ResourceLoader.getResourceUrl(resource + ".part0"));
+        if (url == null) { return new MutableList<>(0); }
+
+        if (_directJarAccessIsEnabled) {
+            final List<ResourceFragment> jarFragments = _getJarFragments(resource, url, (wholeUrl == null));
+            if (jarFragments != null) {
+                return jarFragments;
+            }
+        }
+
+        final MutableList<ResourceFragment> resourceFragments = new MutableList<>();
+        if (wholeUrl != null) {
+            resourceFragments.add(new ResourceFragment(resource, wholeUrl));
+            return resourceFragments;
+        }
+
+        int i = 0;
+        while (true) {
+            final String fragmentResource = (resource + ".part" + i);
+            final URL fragmentUrl = ResourceLoader.getResourceUrl(fragmentResource);
+            if (fragmentUrl == null) { break; }
+
+            resourceFragments.add(new ResourceFragment(fragmentResource, fragmentUrl));
+            i += 1;
+        }
+        return resourceFragments;
+    }
+
+    @Override
+    public synchronized void close() {
+        for (final ZipFile zipFile : _zipFiles.values()) {
+            try {
+                zipFile.close();
+            }
+            catch (final IOException exception) {
+                Logger.debug(exception);
+            }
+        }
+        _zipFiles.clear();
+    }
+}
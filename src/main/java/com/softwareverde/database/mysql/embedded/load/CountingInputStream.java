@@ -0,0 +1,44 @@
+package com.softwareverde.database.mysql.embedded.load;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the bytes read from the wrapped stream.  The count may be read from another thread while the stream is consumed.
+ */
+public class CountingInputStream extends InputStream {
+    protected final InputStream _inputStream;
+    protected final AtomicLong _byteCount = new AtomicLong(0L);
+
+    public CountingInputStream(final InputStream inputStream) {
+        _inputStream = inputStream;
+    }
+
+    @Override
+    public int read() throws IOException {
+        final int value = _inputStream.read();
+        if (value >= 0) {
+            _byteCount.incrementAndGet();
+        }
+        return value;
+    }
+
+    @Override
+    public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+        final int byteCount = _inputStream.read(buffer, offset, length);
+        if (byteCount > 0) {
+            _byteCount.addAndGet(byteCount);
+        }
+        return byteCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        _inputStream.close();
+    }
+
+    public Long getByteCount() {
+        return _byteCount.get();
+    }
+}
@@ -0,0 +1,43 @@
+package com.softwareverde.database.mysql.embedded.load;
+
+/**
+ * The outcome of a StreamingImporter import: the rows loaded by the server, the bytes streamed to it, and the duration.
+ */
+public class ImportStatistics {
+    protected final Long _rowCount;
+    protected final Long _byteCount;
+    protected final Double _durationMs;
+
+    public ImportStatistics(final Long rowCount, final Long byteCount, final Double durationMs) {
+        _rowCount = rowCount;
+        _byteCount = byteCount;
+        _durationMs = durationMs;
+    }
+
+    public Long getRowCount() {
+        return _rowCount;
+    }
+
+    public Long getByteCount() {
+        return _byteCount;
+    }
+
+    public Double getDurationMs() {
+        return _durationMs;
+    }
+
+    public Double getRowsPerSecond() {
+        if (_durationMs <= 0D) { return 0D; }
+        return (_rowCount / (_durationMs / 1000D));
+    }
+
+    public Double getBytesPerSecond() {
+        if (_durationMs <= 0D) { return 0D; }
+        return (_byteCount / (_durationMs / 1000D));
+    }
+
+    @Override
+    public String toString() {
+        return ("rows=" + _rowCount + " bytes=" + _byteCount + " durationMs=" + _durationMs + " rowsPerSecond=" + this.getRowsPerSecond() + " bytesPerSecond=" + this.getBytesPerSecond());
+    }
+}
@@ -0,0 +1,118 @@
+package com.softwareverde.database.mysql.embedded.load;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+/**
+ * <p>Encodes rows in the default LOAD DATA format as the stream is read: fields are separated by tabs, rows are
+ * terminated by newlines, null is written as "\N", and backslash, tab, newline, carriage return, and NUL are escaped
+ * with a backslash.</p>
+ *
+ * <p>Rows are pulled from the iterator one at a time as the reader consumes the stream, so only a single encoded row
+ * is held in memory and a slow reader naturally slows the producer.  Strings (and the string form of other values)
+ * are encoded as UTF-8; byte arrays are written as-is, and booleans are written as 1 or 0.</p>
+ */
+public class RowEncodingInputStream extends InputStream {
+    protected static final byte FIELD_SEPARATOR = '\t';
+    protected static final byte LINE_TERMINATOR = '\n';
+    protected static final byte ESCAPE_CHARACTER = '\\';
+    protected static final byte[] NULL_VALUE = { '\\', 'N' };
+
+    protected static void _writeEscaped(final ByteArrayOutputStream byteArrayOutputStream, final byte[] bytes) {
+        for (final byte value : bytes) {
+            if (value == '\\') { byteArrayOutputStream.write(ESCAPE_CHARACTER); byteArrayOutputStream.write('\\'); }
+            else if (value == '\t') { byteArrayOutputStream.write(ESCAPE_CHARACTER); byteArrayOutputStream.write('t'); }
+            else if (value == '\n') { byteArrayOutputStream.write(ESCAPE_CHARACTER); byteArrayOutputStream.write('n'); }
+            else if (value == '\r') { byteArrayOutputStream.write(ESCAPE_CHARACTER); byteArrayOutputStream.write('r'); }
+            else if (value == 0) { byteArrayOutputStream.write(ESCAPE_CHARACTER); byteArrayOutputStream.write('0'); }
+            else { byteArrayOutputStream.write(value); }
+        }
+    }
+
+    protected static void _writeValue(final ByteArrayOutputStream byteArrayOutputStream, final Object value) {
+        if (value == null) {
+            byteArrayOutputStream.write(NULL_VALUE, 0, NULL_VALUE.length);
+        }
+        else if (value instanceof byte[]) {
+            _writeEscaped(byteArrayOutputStream, (byte[]) value);
+        }
+        else if (value instanceof Boolean) {
+            byteArrayOutputStream.write(((Boolean) value) ? '1' : '0');
+        }
+        else {
+            _writeEscaped(byteArrayOutputStream, String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    protected final Iterator<Object[]> _rows;
+    protected final ByteArrayOutputStream _rowBuffer = new ByteArrayOutputStream();
+    protected byte[] _encodedRow = new byte[0];
+    protected int _encodedRowOffset = 0;
+    protected long _rowCount = 0L;
+
+    /**
+     * Encodes the next row into the row buffer; returns false once the rows are exhausted.
+     */
+    protected Boolean _encodeNextRow() {
+        if (! _rows.hasNext()) { return false; }
+
+        final Object[] row = _rows.next();
+        _rowBuffer.reset();
+        for (int i = 0; i < row.length; ++i) {
+            if (i > 0) {
+                _rowBuffer.write(FIELD_SEPARATOR);
+            }
+            _writeValue(_rowBuffer, row[i]);
+        }
+        _rowBuffer.write(LINE_TERMINATOR);
+
+        _encodedRow = _rowBuffer.toByteArray();
+        _encodedRowOffset = 0;
+        _rowCount += 1L;
+        return true;
+    }
+
+    public RowEncodingInputStream(final Iterator<Object[]> rows) {
+        _rows = rows;
+    }
+
+    @Override
+    public int read() {
+        while (_encodedRowOffset >= _encodedRow.length) {
+            if (! _encodeNextRow()) { return -1; }
+        }
+
+        final int value = (_encodedRow[_encodedRowOffset] & 0xFF);
+        _encodedRowOffset += 1;
+        return value;
+    }
+
+    @Override
+    public int read(final byte[] buffer, final int offset, final int length) {
+        if (length == 0) { return 0; }
+
+        int byteCount = 0;
+        while (byteCount < length) {
+            if (_encodedRowOffset >= _encodedRow.length) {
+                if (! _encodeNextRow()) { break; }
+                continue;
+            }
+
+            final int copyByteCount = Math.min((length - byteCount), (_encodedRow.length - _encodedRowOffset));
+            System.arraycopy(_encodedRow, _encodedRowOffset, buffer, (offset + byteCount), copyByteCount);
+            _encodedRowOffset += copyByteCount;
+            byteCount += copyByteCount;
+        }
+
+        return (byteCount > 0 ? byteCount : -1);
+    }
+
+    /**
+     * Returns the number of rows encoded so far.
+     */
+    public Long getRowCount() {
+        return _rowCount;
+    }
+}
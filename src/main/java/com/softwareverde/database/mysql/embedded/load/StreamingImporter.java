@@ -0,0 +1,202 @@
+package com.softwareverde.database.mysql.embedded.load;
+
+import com.softwareverde.constable.list.List;
+import com.softwareverde.database.DatabaseException;
+import com.softwareverde.database.mysql.MysqlDatabaseConnection;
+import com.softwareverde.database.mysql.MysqlDatabaseConnectionFactory;
+import com.softwareverde.database.mysql.embedded.SqlUtil;
+import com.softwareverde.logging.Logger;
+import com.softwareverde.util.timer.NanoTimer;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.UUID;
+
+/**
+ * <p>Streams rows into a table via LOAD DATA, without writing an intermediate file.</p>
+ *
+ * <p>When the JDBC driver supports it (MariaDB Connector/J and MySQL Connector/J both provide
+ * setLocalInfileInputStream), the data is sent via LOAD DATA LOCAL INFILE directly from memory.  Otherwise, a FIFO is
+ * created within the FIFO directory (ex: the data directory), the data is written to it by a separate thread, and the
+ * server reads it via LOAD DATA INFILE using the root account; FIFOs are not supported on Windows.</p>
+ *
+ * <p>In both cases the data is produced as the server consumes it: the driver reads the stream as it sends it, and
+ * writes to a FIFO block while the pipe is full, so memory use is bounded regardless of the number of rows.  Streams
+ * must be in the default LOAD DATA format (see RowEncodingInputStream).</p>
+ */
+public class StreamingImporter {
+    protected static final String LOCAL_INFILE_STREAM_METHOD_NAME = "setLocalInfileInputStream";
+    protected static final Integer FIFO_BUFFER_BYTE_COUNT = (64 * 1024);
+    protected static final Long FIFO_WRITER_EXIT_TIMEOUT_MS = 1000L;
+
+    protected static String _createLoadDataQuery(final Boolean isLocal, final String fileName, final String tableName, final List<String> columnNames) {
+        final StringBuilder stringBuilder = new StringBuilder();
+        stringBuilder.append(isLocal ? "LOAD DATA LOCAL INFILE " : "LOAD DATA INFILE ");
+        stringBuilder.append(SqlUtil.quoteString(fileName));
+        stringBuilder.append(" INTO TABLE ");
+        stringBuilder.append(SqlUtil.quoteQualifiedIdentifier(tableName));
+        stringBuilder.append(" CHARACTER SET utf8mb4 FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\' LINES TERMINATED BY '\\n'");
+
+        if ( (columnNames != null) && (! columnNames.isEmpty()) ) {
+            stringBuilder.append(" (");
+            stringBuilder.append(SqlUtil.getColumnList(columnNames));
+            stringBuilder.append(")");
+        }
+
+        return stringBuilder.toString();
+    }
+
+    /**
+     * Returns the driver's setLocalInfileInputStream method for the statement, or null if the driver does not provide one.
+     */
+    protected static Method _getLocalInfileStreamMethod(final Statement statement) {
+        try {
+            return statement.getClass().getMethod(LOCAL_INFILE_STREAM_METHOD_NAME, InputStream.class);
+        }
+        catch (final NoSuchMethodException exception) {
+            return null;
+        }
+    }
+
+    protected final MysqlDatabaseConnectionFactory _databaseConnectionFactory;
+    protected final MysqlDatabaseConnectionFactory _rootDatabaseConnectionFactory;
+    protected final File _fifoDirectory;
+
+    /**
+     * Loads the stream via the driver's local-infile stream; returns null if the driver does not support it.
+     */
+    protected Long _importViaLocalInfileStream(final String tableName, final List<String> columnNames, final InputStream inputStream) throws Exception {
+        try (final MysqlDatabaseConnection databaseConnection = _databaseConnectionFactory.newConnection()) {
+            try (final Statement statement = databaseConnection.getRawConnection().createStatement()) {
+                final Method localInfileStreamMethod = _getLocalInfileStreamMethod(statement);
+                if (localInfileStreamMethod == null) { return null; }
+
+                localInfileStreamMethod.invoke(statement, inputStream);
+                final String query = _createLoadDataQuery(true, "stream", tableName, columnNames);
+                return (long) statement.executeUpdate(query);
+            }
+        }
+    }
+
+    protected File _createFifo() throws Exception {
+        if (_fifoDirectory == null) {
+            throw new DatabaseException("A FIFO directory is required when the JDBC driver cannot stream local files.");
+        }
+
+        final File fifo = new File(_fifoDirectory.getAbsolutePath() + "/.import-" + UUID.randomUUID() + ".fifo");
+        final Process process = new ProcessBuilder("mkfifo", "-m", "600", fifo.getPath()).redirectErrorStream(true).start();
+        final int exitCode = process.waitFor();
+        if ( (exitCode != 0) || (! fifo.exists()) ) {
+            throw new DatabaseException("Unable to create FIFO: " + fifo);
+        }
+        return fifo;
+    }
+
+    /**
+     * Loads the stream by writing it to a FIFO that the server reads.
+     */
+    protected Long _importViaFifo(final String tableName, final List<String> columnNames, final InputStream inputStream) throws Exception {
+        final File fifo = _createFifo();
+        final Thread writerThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                // Opening the FIFO blocks until the server opens it for reading.
+                try (final OutputStream outputStream = new FileOutputStream(fifo)) {
+                    final byte[] buffer = new byte[FIFO_BUFFER_BYTE_COUNT];
+                    int byteCount;
+                    while ((byteCount = inputStream.read(buffer)) >= 0) {
+                        outputStream.write(buffer, 0, byteCount);
+                    }
+                }
+                catch (final IOException exception) {
+                    Logger.debug("Unable to write import data to FIFO: " + fifo, exception);
+                }
+            }
+        });
+        writerThread.setName("Streaming Import FIFO Writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+
+        try (final MysqlDatabaseConnection databaseConnection = _rootDatabaseConnectionFactory.newConnection()) {
+            try (final Statement statement = databaseConnection.getRawConnection().createStatement()) {
+                final String query = _createLoadDataQuery(false, fifo.getAbsolutePath(), tableName, columnNames);
+                return (long) statement.executeUpdate(query);
+            }
+        }
+        finally {
+            // Once the server stops reading, a writer that opened the FIFO fails with a broken pipe and exits promptly.
+            writerThread.join(FIFO_WRITER_EXIT_TIMEOUT_MS);
+            if (writerThread.isAlive()) {
+                // The server never opened the FIFO; open and close its read end so the writer does not block forever.
+                try (final FileInputStream fileInputStream = new FileInputStream(fifo)) { }
+                catch (final IOException exception) {
+                    Logger.debug("Unable to release FIFO: " + fifo, exception);
+                }
+            }
+            writerThread.join();
+            Files.deleteIfExists(fifo.toPath());
+        }
+    }
+
+    protected ImportStatistics _import(final String tableName, final List<String> columnNames, final InputStream inputStream) throws DatabaseException {
+        final CountingInputStream countingInputStream = new CountingInputStream(inputStream);
+
+        final NanoTimer nanoTimer = new NanoTimer();
+        nanoTimer.start();
+
+        Long rowCount;
+        try {
+            rowCount = _importViaLocalInfileStream(tableName, columnNames, countingInputStream);
+            if (rowCount == null) {
+                Logger.debug("JDBC driver does not support streaming local files; importing via FIFO.");
+                rowCount = _importViaFifo(tableName, columnNames, countingInputStream);
+            }
+        }
+        catch (final DatabaseException exception) {
+            throw exception;
+        }
+        catch (final Exception exception) {
+            throw new DatabaseException("Unable to import into: " + tableName, exception);
+        }
+
+        nanoTimer.stop();
+
+        final ImportStatistics importStatistics = new ImportStatistics(rowCount, countingInputStream.getByteCount(), nanoTimer.getMillisecondsElapsed());
+        Logger.debug("Imported into " + tableName + ": " + importStatistics);
+        return importStatistics;
+    }
+
+    /**
+     * @param databaseConnectionFactory     - the factory used for LOAD DATA LOCAL INFILE; its connections must permit local infile.
+     * @param rootDatabaseConnectionFactory - the factory used when importing via a FIFO, which requires the FILE privilege.
+     * @param fifoDirectory                 - a directory readable by the server in which FIFOs are created.
+     */
+    public StreamingImporter(final MysqlDatabaseConnectionFactory databaseConnectionFactory, final MysqlDatabaseConnectionFactory rootDatabaseConnectionFactory, final File fifoDirectory) {
+        _databaseConnectionFactory = databaseConnectionFactory;
+        _rootDatabaseConnectionFactory = rootDatabaseConnectionFactory;
+        _fifoDirectory = fifoDirectory;
+    }
+
+    /**
+     * Imports the rows into the table; each row's values correspond to the provided columns, or to every column of the
+     *  table (in order) if columnNames is null.
+     */
+    public ImportStatistics importRows(final String tableName, final List<String> columnNames, final Iterator<Object[]> rows) throws DatabaseException {
+        return _import(tableName, columnNames, new RowEncodingInputStream(rows));
+    }
+
+    /**
+     * Imports data that is already in the default LOAD DATA format (see RowEncodingInputStream).  The stream is not closed.
+     */
+    public ImportStatistics importStream(final String tableName, final List<String> columnNames, final InputStream inputStream) throws DatabaseException {
+        return _import(tableName, columnNames, inputStream);
+    }
+}
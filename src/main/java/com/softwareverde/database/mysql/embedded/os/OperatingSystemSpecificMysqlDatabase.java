@@ -1,10 +1,25 @@
 package com.softwareverde.database.mysql.embedded.os;
 
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.mutable.MutableList;
 import com.softwareverde.database.DatabaseException;
 import com.softwareverde.database.mysql.MysqlDatabaseConnection;
 import com.softwareverde.database.mysql.MysqlDatabaseConnectionFactory;
+import com.softwareverde.database.mysql.embedded.DatabaseCredentialResolver;
+import com.softwareverde.database.mysql.embedded.PortConflictException;
+import com.softwareverde.database.mysql.embedded.ServerReadinessMonitor;
+import com.softwareverde.database.mysql.embedded.installation.BinaryCache;
+import com.softwareverde.database.mysql.embedded.installation.DataDirectorySnapshots;
+import com.softwareverde.database.mysql.embedded.installation.DataDirectoryTemplate;
+import com.softwareverde.database.mysql.embedded.installation.DirectoryUtil;
+import com.softwareverde.database.mysql.embedded.installation.InstallationDrift;
+import com.softwareverde.database.mysql.embedded.installation.InstallationIndex;
+import com.softwareverde.database.mysql.embedded.installation.InstallationLock;
+import com.softwareverde.database.mysql.embedded.installation.InstallationView;
+import com.softwareverde.database.mysql.embedded.installation.Manifest;
+import com.softwareverde.database.mysql.embedded.installation.ManifestEntry;
+import com.softwareverde.database.mysql.embedded.installation.ManifestExtractor;
 import com.softwareverde.database.mysql.embedded.properties.EmbeddedDatabaseProperties;
-import com.softwareverde.database.properties.DatabaseCredentials;
 import com.softwareverde.database.query.Query;
 import com.softwareverde.logging.Logger;
 import com.softwareverde.util.IoUtil;
@@ -17,16 +32,23 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.io.SequenceInputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
-import java.util.Properties;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 public abstract class OperatingSystemSpecificMysqlDatabase {
+    protected static final Integer PORT_PROBE_TIMEOUT_MS = 250;
+    protected static final Long READINESS_POLL_INTERVAL_MS = 100L;
+    protected static final Integer MAX_UNIX_SOCKET_PATH_LENGTH = 107;
+    protected static final String UNIX_SOCKET_ENVIRONMENT_VARIABLE = "MYSQL_UNIX_PORT";
+
     protected static File copyFile(final InputStream sourceStream, final String destinationFilename) {
         if (sourceStream == null) { return null; }
 
@@ -45,15 +67,22 @@ public abstract class OperatingSystemSpecificMysqlDatabase {
     }
 
     protected final EmbeddedDatabaseProperties _databaseProperties;
+    protected final DatabaseCredentialResolver _credentialResolver;
 
+    protected Boolean _shutdownHookIsEnabled = true;
     protected Boolean _shutdownHookInstalled = false;
     protected Long _timeoutMs = (30L * 1000L);
     protected Long _upgradeTimeoutMs = (60L * 1000L);
+    protected Integer _installationThreadCount = ManifestExtractor.DEFAULT_THREAD_COUNT;
+    protected Boolean _installationDirectJarAccessIsEnabled = true;
+
+    protected DataDirectorySnapshots _dataDirectorySnapshots;
 
     protected Process _process;
     protected OutputStream _processOutputStream;
     protected InputStream _processInputStream;
     protected Thread _processInputReadThread;
+    protected ServerReadinessMonitor _serverReadinessMonitor;
 
     protected void _writeConfigFile(final String configurationFileName) {
         final File dataDirectory = _databaseProperties.getDataDirectory();
@@ -76,10 +105,15 @@ public abstract class OperatingSystemSpecificMysqlDatabase {
         IoUtil.putFileContents(dataVersionFile, versionContents);
     }
 
-    protected Version _getPackagedVersion() {
+    protected String _getPackagedVersionString() {
         final OperatingSystemType operatingSystemType = _databaseProperties.getOperatingSystemType();
         final String resourcePrefix = _getResourceDirectory(operatingSystemType);
         final String versionString = IoUtil.getResource(resourcePrefix + ".version");
+        return (versionString != null ? versionString.trim() : null);
+    }
+
+    protected Version _getPackagedVersion() {
+        final String versionString = _getPackagedVersionString();
         return Version.parse(versionString);
     }
 
@@ -97,6 +131,16 @@ public abstract class OperatingSystemSpecificMysqlDatabase {
         final boolean installedVersionIsLessThanPackagedVersion = (installedVersion.compareTo(packagedVersion) < 0);
         if (installedVersionIsLessThanPackagedVersion) { return false; }
 
+        // A read-only installation is pre-installed by the image and may predate the index.
+        if (_databaseProperties.isInstallationDirectoryReadOnly()) {
+            return _doesMysqlDataExist();
+        }
+
+        // The index is only written once extraction has completed; its absence indicates an incomplete (or concurrent) installation.
+        final File installationDirectory = _databaseProperties.getInstallationDirectory();
+        final InstallationIndex installationIndex = InstallationIndex.load(installationDirectory, _getPackagedVersionString());
+        if (installationIndex == null) { return false; }
+
         return _doesMysqlDataExist();
     }
 
@@ -129,144 +173,318 @@ public abstract class OperatingSystemSpecificMysqlDatabase {
         return ("/mysql/" + operatingSystemType + "/");
     }
 
-    protected void _installFilesFromManifest() {
+    protected Manifest _getPackagedManifest() {
         final OperatingSystemType operatingSystemType = _databaseProperties.getOperatingSystemType();
-        final File installationDirectory = _databaseProperties.getInstallationDirectory();
-
         final String resourcePrefix = _getResourceDirectory(operatingSystemType);
         final String manifest = IoUtil.getResource(resourcePrefix + "manifest");
         if (Util.isBlank(manifest)) {
             throw new RuntimeException("Manifest not found for OS: " + operatingSystemType);
         }
 
-        for (final String manifestEntry : manifest.split("\n")) {
-            final String flags;
-            final String resource;
-            {
-                final int spaceIndex = manifestEntry.lastIndexOf(' ');
-                if (spaceIndex < 0) {
-                    resource = manifestEntry;
-                    flags = "";
-                }
-                else {
-                    resource = manifestEntry.substring(0, spaceIndex);
-                    flags = manifestEntry.substring(spaceIndex + 1);
+        return Manifest.parse(manifest, resourcePrefix);
+    }
+
+    /**
+     * Returns the manifest entries that should be installed: the always-installed entries, the entries of the selected
+     *  groups, and the entries of any group that was previously installed (as recorded by the installation's index).
+     */
+    protected List<ManifestEntry> _getSelectedManifestEntries(final Manifest manifest, final InstallationIndex installationIndex) {
+        final List<String> selectedGroups = _databaseProperties.getManifestGroups();
+        if (selectedGroups == null) { return manifest.getEntries(); }
+
+        final MutableList<String> groups = new MutableList<>(selectedGroups);
+        if (installationIndex != null) {
+            for (final ManifestEntry manifestEntry : manifest.getEntries()) {
+                final String group = manifestEntry.getGroup();
+                if ( (group == null) || groups.contains(group) ) { continue; }
+
+                if (installationIndex.get(manifestEntry.getRelativePath()) != null) {
+                    groups.add(group);
                 }
             }
+        }
 
-            if (flags.contains("l")) {
-                final String symbolicLinkDelimiter = " -> ";
-                if (! manifestEntry.contains(symbolicLinkDelimiter)) {
-                    throw new RuntimeException("Unable to copy resource: " + resource);
-                }
+        return manifest.getEntries(groups);
+    }
 
-                final Path link;
-                final Path target;
-                {
-                    final String manifestEntryLink;
-                    final String manifestEntryTarget;
-                    {
-                        final int delimiterIndex = resource.indexOf(symbolicLinkDelimiter);
-                        manifestEntryLink = resource.substring(0, delimiterIndex);
-
-                        final int targetIndex = (delimiterIndex + symbolicLinkDelimiter.length());
-                        manifestEntryTarget = resource.substring(targetIndex);
-                    }
+    /**
+     * Installs the provided manifest entries and returns their index.
+     *  If a binary cache directory is configured, the files are linked from the cache instead of being extracted.
+     */
+    protected InstallationIndex _installManifestEntries(final List<ManifestEntry> manifestEntries, final InstallationIndex previousInstallationIndex) {
+        final File installationDirectory = _databaseProperties.getInstallationDirectory();
+        final File binaryCacheDirectory = _databaseProperties.getBinaryCacheDirectory();
+        final String packagedVersion = _getPackagedVersionString();
 
-                    final String linkDestinationString; // ex: "mysql/base/bin/mysqld"
-                    {
-                        final String installationDirectoryPath = installationDirectory.getPath();
+        if (binaryCacheDirectory != null) {
+            final BinaryCache binaryCache = new BinaryCache(binaryCacheDirectory, _installationThreadCount);
+            try {
+                return binaryCache.install(manifestEntries, packagedVersion, installationDirectory, previousInstallationIndex);
+            }
+            catch (final IOException exception) {
+                throw new RuntimeException("Unable to install from binary cache: " + binaryCacheDirectory, exception);
+            }
+        }
 
-                        final String linkResourcePath = manifestEntryLink.substring(resourcePrefix.length() - 1);
-                        linkDestinationString = (installationDirectoryPath + linkResourcePath);
-                    }
+        final ManifestExtractor manifestExtractor = new ManifestExtractor(installationDirectory, _installationThreadCount);
+        manifestExtractor.setDirectJarAccessEnabled(_installationDirectJarAccessIsEnabled);
+        return manifestExtractor.extract(manifestEntries, packagedVersion, previousInstallationIndex);
+    }
 
-                    link = Paths.get(linkDestinationString);
-                    target = Paths.get(manifestEntryTarget);
-                }
+    /**
+     * Extracts the packaged binaries into the installation directory.
+     *  Files that are unchanged since the previous installation (as recorded by the installation's index) are not extracted again.
+     *  Only the always-installed entries and the selected manifest groups are installed.
+     *  If the installation directory is read-only, extraction is skipped entirely once its `.version` is confirmed to match.
+     */
+    protected void _installFilesFromManifest() {
+        final File installationDirectory = _databaseProperties.getInstallationDirectory();
+        if (_databaseProperties.isInstallationDirectoryReadOnly()) {
+            final Version installedVersion = _getInstallationDirectoryVersion();
+            final Version packagedVersion = _getPackagedVersion();
+            if ( (installedVersion == null) || (installedVersion.compareTo(packagedVersion) != 0) ) {
+                throw new RuntimeException("Read-only installation version (" + installedVersion + ") does not match packaged version (" + packagedVersion + "): " + installationDirectory);
+            }
 
-                {
-                    Logger.trace("Creating link: " + link + " to " + target);
+            Logger.debug("Skipping extraction for read-only installation: " + installationDirectory);
+            return;
+        }
 
-                    final File linkFile = link.toFile();
-                    if (linkFile.exists()) {
-                        linkFile.delete();
-                    }
+        final Manifest manifest = _getPackagedManifest();
+        final String packagedVersion = _getPackagedVersionString();
 
-                    try {
-                        Files.createSymbolicLink(link, target);
-                    }
-                    catch (final IOException exception) {
-                        throw new RuntimeException(exception);
-                    }
-                    catch (final UnsupportedOperationException exception) {
-                        Logger.debug("Unable to create symbolic link: " + link); // Windows
-                    }
-                }
+        final InstallationIndex previousInstallationIndex = InstallationIndex.load(installationDirectory, packagedVersion);
+        try {
+            InstallationIndex.delete(installationDirectory);
+        }
+        catch (final IOException exception) {
+            throw new RuntimeException("Unable to remove installation index.", exception);
+        }
 
-                continue;
-            }
+        final List<ManifestEntry> manifestEntries = _getSelectedManifestEntries(manifest, previousInstallationIndex);
+        final InstallationIndex installationIndex = _installManifestEntries(manifestEntries, previousInstallationIndex);
 
-            final InputStream inputStream;
-            {
-                final InputStream wholeInputStream = IoUtil.getResourceAsStream(resource);
-                if (wholeInputStream != null) {
-                    inputStream = wholeInputStream;
-                }
-                else {
-                    // Attempt to find and concatenate the resources as parts.
-                    //  Resources may be fragmented in order to facilitate github hosting.
-                    InputStream compositeStream = null;
-                    int i = 0;
-                    while (true) {
-                        final InputStream fragmentStream = IoUtil.getResourceAsStream(resource + ".part" + i);
-                        if (fragmentStream == null) { break; }
+        try {
+            installationIndex.save(installationDirectory);
+        }
+        catch (final IOException exception) {
+            throw new RuntimeException("Unable to write installation index.", exception);
+        }
+    }
+
+    /**
+     * Ensures the optional manifest group has been installed, extracting it on first use.
+     *  The group is recorded within the installation's index so that it is kept current by subsequent installs.
+     *  Groups cannot be installed into a read-only installation, or before the installation has completed; a read-only
+     *  installation that is missing any of the group's files results in a DatabaseException naming the group.
+     */
+    protected void _installManifestGroup(final String group) throws Exception {
+        final File installationDirectory = _databaseProperties.getInstallationDirectory();
+        final Manifest manifest = _getPackagedManifest();
+        final List<ManifestEntry> manifestEntries = manifest.getGroupEntries(group);
+        if (manifestEntries.isEmpty()) { return; }
 
-                        compositeStream = (compositeStream != null ? new SequenceInputStream(compositeStream, fragmentStream) : fragmentStream);
+        if (_databaseProperties.isInstallationDirectoryReadOnly()) {
+            for (final ManifestEntry manifestEntry : manifestEntries) {
+                if (manifestEntry.isSymbolicLink()) { continue; }
 
-                        i += 1;
-                    }
-                    inputStream = compositeStream;
+                final File file = new File(installationDirectory.getPath() + manifestEntry.getRelativePath());
+                if (! file.isFile()) {
+                    throw new DatabaseException("Manifest group \"" + group + "\" is not installed within the read-only installation: " + installationDirectory + " (Missing: " + manifestEntry.getRelativePath() + ")");
                 }
             }
+            return;
+        }
 
-            final String destination;
-            {
-                final String installationDirectoryPath = installationDirectory.getPath();
-                final String resourcePath = resource.substring(resourcePrefix.length() - 1);
-                destination = (installationDirectoryPath + resourcePath);
-            }
-            Logger.trace("Extracting: " + resource + " to " + destination);
-            final File copiedFile = OperatingSystemSpecificMysqlDatabase.copyFile(inputStream, destination);
-            final boolean copyWasSuccessful = (copiedFile != null);
-            if (! copyWasSuccessful) {
-                throw new RuntimeException("Unable to copy resource: " + resource);
+        try (final InstallationLock installationLock = InstallationLock.acquire(_getInstallationLockFile())) {
+            final String packagedVersion = _getPackagedVersionString();
+            final InstallationIndex installationIndex = InstallationIndex.load(installationDirectory, packagedVersion);
+            if (installationIndex == null) {
+                Logger.debug("Unable to install manifest group \"" + group + "\"; installation is incomplete.");
+                return;
             }
 
-            if (flags.contains("x")) {
-                final boolean flagSetSuccessfully = copiedFile.setExecutable(true, true);
-                if (! flagSetSuccessfully) {
-                    throw new RuntimeException("Unable to set file flags: " + resource);
-                }
+            final InstallationIndex groupInstallationIndex = _installManifestEntries(manifestEntries, installationIndex);
+            installationIndex.putAll(groupInstallationIndex);
+            installationIndex.save(installationDirectory);
+        }
+    }
+
+    /**
+     * Compares the digests of the installed binaries against the installation's index without extracting any files.
+     */
+    protected InstallationDrift _verifyInstallation() {
+        final File installationDirectory = _databaseProperties.getInstallationDirectory();
+        final Manifest manifest = _getPackagedManifest();
+        final String packagedVersion = _getPackagedVersionString();
+
+        final InstallationIndex installationIndex = InstallationIndex.load(installationDirectory, packagedVersion);
+        final List<ManifestEntry> manifestEntries = _getSelectedManifestEntries(manifest, installationIndex);
+
+        final ManifestExtractor manifestExtractor = new ManifestExtractor(installationDirectory, _installationThreadCount);
+        return manifestExtractor.verify(manifestEntries, installationIndex);
+    }
+
+    /**
+     * Returns the DataDirectoryTemplate matching the current packaged version, configuration, and root password.
+     *  Returns null if data-directory templates are not enabled.
+     */
+    protected DataDirectoryTemplate _getDataDirectoryTemplate() {
+        final File templateRootDirectory = _databaseProperties.getDataDirectoryTemplateDirectory();
+        if (templateRootDirectory == null) { return null; }
+
+        final String packagedVersion = _getPackagedVersionString();
+        final String configurationFileContents = _databaseProperties.getMysqlConfigurationFileContents();
+        final String rootPassword = _databaseProperties.getRootPassword();
+        final String fingerprint = DataDirectoryTemplate.calculateFingerprint(packagedVersion, configurationFileContents, rootPassword);
+        return new DataDirectoryTemplate(templateRootDirectory, fingerprint);
+    }
+
+    /**
+     * Initializes the data directory by copying its template, capturing the template first if it does not yet exist.
+     *  The template is initialized within a temporary directory and moved into place once complete, and its creation
+     *  is guarded by a lock so that concurrent processes bootstrap each template only once.
+     *  Data files are copied rather than hard-linked since the server modifies its data files in place.
+     */
+    protected void _initializeDataDirectoryFromTemplate() throws Exception {
+        final File dataDirectory = _databaseProperties.getDataDirectory();
+        final DataDirectoryTemplate dataDirectoryTemplate = _getDataDirectoryTemplate();
+        final File templateDirectory = dataDirectoryTemplate.getDirectory();
+
+        try (final InstallationLock installationLock = InstallationLock.acquire(dataDirectoryTemplate.getLockFile())) {
+            if (! _doesMysqlDataExist(templateDirectory)) {
+                Logger.debug("Capturing data directory template: " + templateDirectory);
+
+                final File temporaryDirectory = dataDirectoryTemplate.getTemporaryDirectory();
+                DirectoryUtil.deleteDirectory(temporaryDirectory);
+                DirectoryUtil.deleteDirectory(templateDirectory);
+
+                _initializeDataDirectory(temporaryDirectory);
+                Files.move(temporaryDirectory.toPath(), templateDirectory.toPath(), StandardCopyOption.ATOMIC_MOVE);
             }
         }
+
+        final NanoTimer nanoTimer = new NanoTimer();
+        nanoTimer.start();
+
+        DirectoryUtil.copyDirectory(templateDirectory, dataDirectory);
+
+        nanoTimer.stop();
+        Logger.debug("Copied data directory template " + templateDirectory + " in " + nanoTimer.getMillisecondsElapsed() + "ms.");
     }
 
     /**
-     * Stores the data directory location within the installation's `.datadir` file for run.sh/run.bat
+     * Bootstraps a new data directory (ex: creating the system tables and setting the root password).
      */
-    protected void _writeDataDirectoryHelper() {
+    protected abstract void _initializeDataDirectory(File dataDirectory) throws Exception;
+
+    /**
+     * Returns the file used to coordinate installation and data-directory initialization between processes.
+     *  The lock of a read-only installation is stored alongside the data directory instead.
+     */
+    protected File _getInstallationLockFile() {
+        if (_databaseProperties.isInstallationDirectoryReadOnly()) {
+            final File dataDirectory = _databaseProperties.getDataDirectory().getAbsoluteFile();
+            return new File(dataDirectory.getParent() + "/." + dataDirectory.getName() + ".lock");
+        }
+
         final File installationDirectory = _databaseProperties.getInstallationDirectory();
+        return new File(installationDirectory.getPath() + "/.lock");
+    }
+
+    /**
+     * Returns the writable InstallationView used when the read-only installation's `.datadir` references another data directory.
+     *  The view is stored alongside (rather than within) the data directory so that it is not mistaken for a schema.
+     */
+    protected File _getInstallationViewDirectory() {
+        final File dataDirectory = _databaseProperties.getDataDirectory().getAbsoluteFile();
+        return new File(dataDirectory.getParent() + "/." + dataDirectory.getName() + ".installation");
+    }
+
+    /**
+     * Returns the directory in which data directory snapshots are stored; like the installation view, it is stored
+     *  alongside the data directory.
+     */
+    protected File _getSnapshotDirectory() {
+        final File dataDirectory = _databaseProperties.getDataDirectory().getAbsoluteFile();
+        return new File(dataDirectory.getParent() + "/." + dataDirectory.getName() + ".snapshots");
+    }
+
+    /**
+     * Returns the contents of the `.datadir` file, which is the data directory's path relative to the provided directory.
+     */
+    protected String _getDataDirectoryHelperContents(final File installationDirectory) {
         final File dataDirectory = _databaseProperties.getDataDirectory();
 
-        final File dataDirectoryHelperFile = new File(installationDirectory.getPath() + "/.datadir");
         final Path installationDirectoryPath = Paths.get(installationDirectory.getAbsolutePath());
         final Path dataDirectoryPath = Paths.get(dataDirectory.getAbsolutePath());
         final Path relativeDataDirectoryPath = installationDirectoryPath.relativize(dataDirectoryPath);
-        final String relativeDataDirectoryPathString = relativeDataDirectoryPath.toString();
+        return relativeDataDirectoryPath.toString();
+    }
+
+    protected Boolean _isDataDirectoryHelperCurrent(final File installationDirectory) {
+        final File dataDirectoryHelperFile = new File(installationDirectory.getPath() + "/" + InstallationView.DATA_DIRECTORY_HELPER_FILE_NAME);
+        final byte[] dataDirectoryHelperContents = IoUtil.getFileContents(dataDirectoryHelperFile);
+        if (dataDirectoryHelperContents == null) { return false; }
+
+        final String expectedContents = _getDataDirectoryHelperContents(installationDirectory);
+        return Util.areEqual(expectedContents, StringUtil.bytesToString(dataDirectoryHelperContents));
+    }
+
+    /**
+     * Returns the directory from which the run/init/upgrade scripts are executed.
+     *  This is the installation directory unless it is read-only and its `.datadir` references a different data
+     *  directory, in which case the InstallationView is created (or updated) and returned.
+     */
+    protected File _getRuntimeInstallationDirectory() {
+        final File installationDirectory = _databaseProperties.getInstallationDirectory();
+        if (! _databaseProperties.isInstallationDirectoryReadOnly()) { return installationDirectory; }
+        if (_isDataDirectoryHelperCurrent(installationDirectory)) { return installationDirectory; }
+
+        final File installationViewDirectory = _getInstallationViewDirectory();
+        try {
+            InstallationView.create(installationDirectory, installationViewDirectory);
+        }
+        catch (final IOException exception) {
+            throw new RuntimeException("Unable to create installation view: " + installationViewDirectory, exception);
+        }
+        return installationViewDirectory;
+    }
+
+    /**
+     * Stores the data directory location within the installation's `.datadir` file for run.sh/run.bat
+     *  The file is not rewritten if it is already current, so a read-only installation is never written to.
+     */
+    protected void _writeDataDirectoryHelper() {
+        final File installationDirectory = _getRuntimeInstallationDirectory();
+        if (_isDataDirectoryHelperCurrent(installationDirectory)) { return; }
+
+        final File dataDirectoryHelperFile = new File(installationDirectory.getPath() + "/" + InstallationView.DATA_DIRECTORY_HELPER_FILE_NAME);
+        final String relativeDataDirectoryPathString = _getDataDirectoryHelperContents(installationDirectory);
         IoUtil.putFileContents(dataDirectoryHelperFile, relativeDataDirectoryPathString.getBytes(StandardCharsets.UTF_8));
     }
 
+    /**
+     * Returns the environment for the init/run/upgrade scripts, or null if the scripts should inherit this process's environment.
+     *  When connecting via a Unix socket, the socket is provided via MYSQL_UNIX_PORT, which is used by the MariaDB
+     *  client tools when connecting to localhost.
+     */
+    protected String[] _getScriptEnvironment() {
+        final File unixSocketFile = _databaseProperties.getUnixSocketFile();
+        if (unixSocketFile == null) { return null; }
+
+        final Map<String, String> environment = new HashMap<>(System.getenv());
+        environment.put(UNIX_SOCKET_ENVIRONMENT_VARIABLE, unixSocketFile.getPath());
+
+        final String[] environmentVariables = new String[environment.size()];
+        int i = 0;
+        for (final Map.Entry<String, String> entry : environment.entrySet()) {
+            environmentVariables[i] = (entry.getKey() + "=" + entry.getValue());
+            i += 1;
+        }
+        return environmentVariables;
+    }
+
     protected void _installShutdownHook() {
         final Runtime runtime = Runtime.getRuntime();
         runtime.addShutdownHook(new Thread(new Runnable() {
@@ -274,6 +492,7 @@ public abstract class OperatingSystemSpecificMysqlDatabase {
             public void run() {
                 try {
                     _stop();
+                    _deleteEphemeralDataDirectory();
                 }
                 catch (final Exception exception) {
                     final Process process = _process;
@@ -285,6 +504,19 @@ public abstract class OperatingSystemSpecificMysqlDatabase {
         }));
     }
 
+    /**
+     * Deletes the data directory (and its installation view) if the database is ephemeral.
+     */
+    protected void _deleteEphemeralDataDirectory() throws IOException {
+        if (! _databaseProperties.isEphemeral()) { return; }
+
+        final File dataDirectory = _databaseProperties.getDataDirectory();
+        Logger.debug("Deleting ephemeral data directory: " + dataDirectory);
+        DirectoryUtil.deleteDirectory(dataDirectory);
+        DirectoryUtil.deleteDirectory(_getInstallationViewDirectory());
+        DirectoryUtil.deleteDirectory(_getSnapshotDirectory());
+    }
+
     protected void _stop() throws Exception {
         if (_process == null) { return; }
         Logger.info("Shutting down database.");
@@ -328,66 +560,139 @@ public abstract class OperatingSystemSpecificMysqlDatabase {
         }
     }
 
-    protected Boolean _isDatabaseOnline() {
-        final DatabaseCredentials emptyRootDatabaseCredentials = new DatabaseCredentials("root", "");
-        final DatabaseCredentials rootDatabaseCredentials = new DatabaseCredentials("root", _databaseProperties.getRootPassword());
-        final DatabaseCredentials databaseCredentials = _databaseProperties.getCredentials();
-
-        final String emptySchema = "";
-        final String schema = _databaseProperties.getSchema();
-        final String hostname = _databaseProperties.getHostname();
-        final Integer port = _databaseProperties.getPort();
-        final Properties connectionProperties = _databaseProperties.getConnectionProperties();
-
+    protected Boolean _isDatabaseOnline(final MysqlDatabaseConnectionFactory databaseConnectionFactory) {
         final Query testQuery = new Query("SELECT 1");
-
-        {// Attempt to connect via an empty root account (which is the default post-installation state of mysql)...
-            final MysqlDatabaseConnectionFactory emptyRootDatabaseConnectionFactory = new MysqlDatabaseConnectionFactory(hostname, port, emptySchema, emptyRootDatabaseCredentials.username, emptyRootDatabaseCredentials.password, connectionProperties);
-            try (final MysqlDatabaseConnection databaseConnection = emptyRootDatabaseConnectionFactory.newConnection()) {
-                databaseConnection.query(testQuery);
-                return true;
-            }
-            catch (final DatabaseException exception) { }
+        try (final MysqlDatabaseConnection databaseConnection = databaseConnectionFactory.newConnection()) {
+            databaseConnection.query(testQuery);
+            return true;
+        }
+        catch (final DatabaseException exception) {
+            return false;
         }
+    }
 
-        { // Attempt to connect via root first since it should always have credentials (but may have been removed)...
-            final MysqlDatabaseConnectionFactory rootDatabaseConnectionFactory = new MysqlDatabaseConnectionFactory(hostname, port, emptySchema, rootDatabaseCredentials.username, rootDatabaseCredentials.password, connectionProperties);
-            try (final MysqlDatabaseConnection databaseConnection = rootDatabaseConnectionFactory.newConnection()) {
-                databaseConnection.query(testQuery);
-                return true;
+    protected Boolean _isDatabaseOnline() {
+        { // Attempt to connect via root, whose credentials (empty post-installation, or configured) are resolved once and reused...
+            final Boolean rootCredentialsWereResolved = _credentialResolver.hasRootCredentials();
+            final MysqlDatabaseConnectionFactory rootDatabaseConnectionFactory = _credentialResolver.getRootDatabaseConnectionFactory();
+            if (rootDatabaseConnectionFactory != null) {
+                // Resolving the credentials requires a successful connection, so a second connection is unnecessary.
+                if (! rootCredentialsWereResolved) { return true; }
+
+                final Query testQuery = new Query("SELECT 1");
+                try (final MysqlDatabaseConnection databaseConnection = rootDatabaseConnectionFactory.newConnection()) {
+                    databaseConnection.query(testQuery);
+                    return true;
+                }
+                catch (final DatabaseException exception) {
+                    _credentialResolver.onConnectionFailure(exception);
+                }
             }
-            catch (final DatabaseException exception) { }
         }
 
         { // If a root connect cannot be established, attempt to connect via user credentials...
-            final MysqlDatabaseConnectionFactory databaseConnectionFactory = new MysqlDatabaseConnectionFactory(hostname, port, schema, databaseCredentials.username, databaseCredentials.password, connectionProperties);
-            try (final MysqlDatabaseConnection databaseConnection = databaseConnectionFactory.newConnection()) {
-                databaseConnection.query(testQuery);
+            final MysqlDatabaseConnectionFactory databaseConnectionFactory = _credentialResolver.getDatabaseConnectionFactory();
+            if (_isDatabaseOnline(databaseConnectionFactory)) {
                 return true;
             }
-            catch (final DatabaseException exception) { }
         }
 
         return false;
     }
 
+    /**
+     * Returns true if the server's port accepts a TCP connection, which is much cheaper than a JDBC connection.
+     *  When connecting via a Unix socket, returns true once the socket exists, since Unix domain sockets cannot be
+     *  connected to directly from Java 11.
+     */
+    protected Boolean _isServerPortOpen() {
+        final File unixSocketFile = _databaseProperties.getUnixSocketFile();
+        if (unixSocketFile != null) {
+            return unixSocketFile.exists();
+        }
+
+        final String hostname = _databaseProperties.getHostname();
+        final Integer port = _databaseProperties.getPort();
+
+        try (final Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(hostname, port), PORT_PROBE_TIMEOUT_MS);
+            return true;
+        }
+        catch (final IOException exception) {
+            return false;
+        }
+    }
+
     public OperatingSystemSpecificMysqlDatabase(final EmbeddedDatabaseProperties databaseProperties) {
         _databaseProperties = databaseProperties;
+        _credentialResolver = new DatabaseCredentialResolver(databaseProperties);
+    }
+
+    /**
+     * Returns the resolver that determines (and remembers) which credentials authenticate against the server.
+     */
+    public DatabaseCredentialResolver getCredentialResolver() {
+        return _credentialResolver;
     }
 
     public Boolean isDatabaseOnline() {
         return _isDatabaseOnline();
     }
 
+    /**
+     * Blocks until the database accepts connections or the timeout elapses.
+     *  Readiness is detected via the server's "ready for connections" output (when the run script forwards it) and is
+     *  confirmed with a TCP probe before a single JDBC check; until then, only the (inexpensive) TCP probe is polled.
+     */
     public void waitForDatabaseToComeOnline(final Long timeoutMs) throws Exception {
         final NanoTimer nanoTimer = new NanoTimer();
         nanoTimer.start();
 
+        final ServerReadinessMonitor serverReadinessMonitor = _serverReadinessMonitor;
+
         do {
-            final Boolean databaseIsOnline = _isDatabaseOnline();
-            if (databaseIsOnline) { return; }
+            final boolean readyMarkerWasObserved = ( (serverReadinessMonitor != null) && serverReadinessMonitor.isReady() );
+            if (! readyMarkerWasObserved) {
+                if ( (serverReadinessMonitor != null) && (! serverReadinessMonitor.hasOutputEnded()) ) {
+                    serverReadinessMonitor.waitUntilReady(READINESS_POLL_INTERVAL_MS);
+                }
+                else {
+                    Thread.sleep(READINESS_POLL_INTERVAL_MS);
+                }
+            }
+
+            if ( (serverReadinessMonitor != null) && serverReadinessMonitor.wasPortConflictDetected() ) {
+                throw new PortConflictException(_databaseProperties.getPort());
+            }
+
+            final Process process = _process;
+            if ( (process != null) && (! process.isAlive()) ) {
+                // Allow the remaining output to be consumed so that a port conflict may be reported as such.
+                final Thread processInputReadThread = _processInputReadThread;
+                if (processInputReadThread != null) {
+                    processInputReadThread.join(READINESS_POLL_INTERVAL_MS);
+                }
+                if ( (serverReadinessMonitor != null) && serverReadinessMonitor.wasPortConflictDetected() ) {
+                    throw new PortConflictException(_databaseProperties.getPort());
+                }
 
-            Thread.sleep(100L);
+                throw new DatabaseException("Server exited before coming online. (Exit code: " + process.exitValue() + ")");
+            }
+
+            if (_isServerPortOpen()) {
+                final Boolean databaseIsOnline = _isDatabaseOnline();
+                if (databaseIsOnline) {
+                    nanoTimer.stop();
+                    final Boolean readyMarkerIsObserved = ( (serverReadinessMonitor != null) && serverReadinessMonitor.isReady() );
+                    Logger.debug("Server ready after " + nanoTimer.getMillisecondsElapsed() + "ms. (Ready marker observed: " + readyMarkerIsObserved + ")");
+                    return;
+                }
+            }
+
+            if (readyMarkerWasObserved) {
+                // The server has reported readiness but is not yet accepting connections; avoid probing continuously.
+                Thread.sleep(READINESS_POLL_INTERVAL_MS);
+            }
 
             nanoTimer.stop();
         } while (nanoTimer.getMillisecondsElapsed() < timeoutMs);
@@ -397,6 +702,32 @@ public abstract class OperatingSystemSpecificMysqlDatabase {
         }
     }
 
+    /**
+     * Selects a new free port for the server (see EmbeddedDatabaseProperties::selectAutomaticPort) and discards any
+     *  connection factories for the previous port.  The new port is written to the configuration file upon start.
+     */
+    public Integer selectAutomaticPort() {
+        final Integer port = _databaseProperties.selectAutomaticPort();
+        _credentialResolver.reset();
+        return port;
+    }
+
+    /**
+     * Disables this instance's shutdown hook, for when the process is stopped by a shared hook (ex: EmbeddedMysqlDatabaseFleet).
+     *  Must be set before the database is started.
+     */
+    public void setShutdownHookEnabled(final Boolean shutdownHookIsEnabled) {
+        _shutdownHookIsEnabled = shutdownHookIsEnabled;
+    }
+
+    /**
+     * Returns true if the server process has been started and has not exited.
+     */
+    public Boolean isRunning() {
+        final Process process = _process;
+        return ( (process != null) && process.isAlive() );
+    }
+
     public void setTimeoutMs(final Long timeoutMs) {
         _timeoutMs = timeoutMs;
     }
@@ -405,6 +736,21 @@ public abstract class OperatingSystemSpecificMysqlDatabase {
         _upgradeTimeoutMs = timeoutMs;
     }
 
+    /**
+     * Sets the number of threads used to extract the packaged binaries during installation.
+     */
+    public void setInstallationThreadCount(final Integer installationThreadCount) {
+        _installationThreadCount = installationThreadCount;
+    }
+
+    /**
+     * When disabled, the packaged binaries are extracted through the classloader instead of directly from their jar.
+     *  Does not apply when installing from a binary cache.
+     */
+    public void setInstallationDirectJarAccessEnabled(final Boolean directJarAccessIsEnabled) {
+        _installationDirectJarAccessIsEnabled = directJarAccessIsEnabled;
+    }
+
     public Long getTimeoutMs() {
         return _timeoutMs;
     }
@@ -417,19 +763,83 @@ public abstract class OperatingSystemSpecificMysqlDatabase {
         return _isInstalled();
     }
 
+    /**
+     * Throws if the server would have no usable listener: TCP is disabled without a Unix socket (which is not supported
+     *  on Windows), or the Unix socket's path exceeds the platform's limit.  Otherwise the server would only be detected
+     *  as unreachable once the readiness timeout elapsed.
+     */
+    public void validateTransport() throws DatabaseException {
+        final File unixSocketFile = _databaseProperties.getUnixSocketFile();
+        if ( (! _databaseProperties.isTcpEnabled()) && (unixSocketFile == null) ) {
+            throw new DatabaseException("TCP connections cannot be disabled unless Unix socket connections are enabled.");
+        }
+
+        if ( (unixSocketFile != null) && (unixSocketFile.getPath().length() > MAX_UNIX_SOCKET_PATH_LENGTH) ) {
+            throw new DatabaseException("Unix socket path exceeds " + MAX_UNIX_SOCKET_PATH_LENGTH + " characters; use a shorter data directory: " + unixSocketFile);
+        }
+    }
+
+    /**
+     * Blocks until this process holds the exclusive installation lock, which should be held while installing the
+     *  binaries and initializing the data directory.  Concurrent processes sharing the installation directory wait on
+     *  the lock and should re-check isInstalled once it has been acquired.
+     */
+    public InstallationLock lockInstallation() throws Exception {
+        final File lockFile = _getInstallationLockFile();
+        final InstallationLock installationLock = InstallationLock.acquire(lockFile);
+        Logger.debug("Acquired installation lock after " + installationLock.getWaitMs() + "ms: " + lockFile);
+        return installationLock;
+    }
+
+    /**
+     * Installs (or updates) the packaged binaries without initializing a data directory.
+     *  Acquires the installation lock, so it is safe to invoke concurrently with other processes sharing the installation.
+     */
+    public void installBinaries() throws Exception {
+        try (final InstallationLock installationLock = this.lockInstallation()) {
+            _installFilesFromManifest();
+        }
+    }
+
     public Version getInstallationDirectoryVersion() {
         return _getInstallationDirectoryVersion();
     }
 
+    public InstallationDrift verifyInstallation() {
+        return _verifyInstallation();
+    }
+
     public Version getDataDirectoryVersion() {
         return _getDataDirectoryVersion();
     }
 
     public void stop() throws Exception {
         _stop();
+        _deleteEphemeralDataDirectory();
+    }
+
+    /**
+     * Shuts the server down without deleting an ephemeral data directory, so that the server may be started again.
+     */
+    public void stopServer() throws Exception {
+        _stop();
+    }
+
+    public synchronized DataDirectorySnapshots getDataDirectorySnapshots() {
+        if (_dataDirectorySnapshots == null) {
+            final File dataDirectory = _databaseProperties.getDataDirectory().getAbsoluteFile();
+            final Boolean reflinkCopyIsSupported = (_databaseProperties.getOperatingSystemType() == OperatingSystemType.LINUX);
+            _dataDirectorySnapshots = new DataDirectorySnapshots(dataDirectory, _getSnapshotDirectory(), reflinkCopyIsSupported);
+        }
+        return _dataDirectorySnapshots;
     }
 
     abstract public void install() throws Exception;
     abstract public void upgrade() throws Exception;
     abstract public void start() throws Exception;
+
+    /**
+     * Rewrites the server's configuration file from the current properties, without restarting the server.
+     */
+    abstract public void writeConfigFile();
 }
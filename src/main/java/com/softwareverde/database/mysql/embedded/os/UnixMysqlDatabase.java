@@ -1,6 +1,8 @@
 package com.softwareverde.database.mysql.embedded.os;
 
 import com.softwareverde.database.mysql.embedded.ProcessOutputLogger;
+import com.softwareverde.database.mysql.embedded.ServerReadinessMonitor;
+import com.softwareverde.database.mysql.embedded.installation.Manifest;
 import com.softwareverde.database.mysql.embedded.properties.EmbeddedDatabaseProperties;
 import com.softwareverde.logging.Logger;
 import com.softwareverde.util.timer.NanoTimer;
@@ -19,32 +21,10 @@ public class UnixMysqlDatabase extends OperatingSystemSpecificMysqlDatabase {
     }
 
     @Override
-    public void install() throws Exception {
-        final NanoTimer nanoTimer = new NanoTimer();
-        nanoTimer.start();
-
-        final File installationDirectory = _databaseProperties.getInstallationDirectory();
-        final File dataDirectory = _databaseProperties.getDataDirectory();
+    protected void _initializeDataDirectory(final File dataDirectory) throws Exception {
+        final File installationDirectory = _getRuntimeInstallationDirectory();
         final String rootPassword = _databaseProperties.getRootPassword();
 
-        // Always install the new binaries when invoked.
-        _installFilesFromManifest();
-
-        // If the data directory has already be initialized then exit.
-        final Boolean mysqlDataWasAlreadyInstalled = _doesMysqlDataExist(dataDirectory);
-        if (mysqlDataWasAlreadyInstalled) {
-            _writeDataDirectoryHelper();
-            _writeConfigFile(CONFIGURATION_FILE_NAME);
-            return;
-        }
-
-        { // Ensure the data directory's path exists (but not the data directory itself).
-            final File dataDirectoryParent = dataDirectory.getParentFile();
-            if (dataDirectoryParent != null) {
-                dataDirectoryParent.mkdirs();
-            }
-        }
-
         final String[] command = new String[3];
         {
             final File file = new File(installationDirectory.getPath() + "/init.sh");
@@ -61,7 +41,7 @@ public class UnixMysqlDatabase extends OperatingSystemSpecificMysqlDatabase {
         Logger.debug("Exec: " + String.join(" ", command));
         Process process = null;
         try {
-            process = runtime.exec(command);
+            process = runtime.exec(command, _getScriptEnvironment());
 
             try (
                 final InputStream inputStream = process.getInputStream();
@@ -90,6 +70,39 @@ public class UnixMysqlDatabase extends OperatingSystemSpecificMysqlDatabase {
                 process.destroyForcibly();
             }
         }
+    }
+
+    @Override
+    public void install() throws Exception {
+        final NanoTimer nanoTimer = new NanoTimer();
+        nanoTimer.start();
+
+        final File dataDirectory = _databaseProperties.getDataDirectory();
+
+        // Always install the new binaries when invoked; binaries that are unchanged since the last install are skipped.
+        _installFilesFromManifest();
+
+        // If the data directory has already be initialized then exit.
+        final Boolean mysqlDataWasAlreadyInstalled = _doesMysqlDataExist(dataDirectory);
+        if (mysqlDataWasAlreadyInstalled) {
+            _writeDataDirectoryHelper();
+            _writeConfigFile(CONFIGURATION_FILE_NAME);
+            return;
+        }
+
+        { // Ensure the data directory's path exists (but not the data directory itself).
+            final File dataDirectoryParent = dataDirectory.getParentFile();
+            if (dataDirectoryParent != null) {
+                dataDirectoryParent.mkdirs();
+            }
+        }
+
+        if (_databaseProperties.getDataDirectoryTemplateDirectory() != null) {
+            _initializeDataDirectoryFromTemplate();
+        }
+        else {
+            _initializeDataDirectory(dataDirectory);
+        }
 
         _writeDataDirectoryHelper();
         _writeConfigFile(CONFIGURATION_FILE_NAME);
@@ -101,7 +114,9 @@ public class UnixMysqlDatabase extends OperatingSystemSpecificMysqlDatabase {
 
     @Override
     public void upgrade() throws Exception {
-        final File installationDirectory = _databaseProperties.getInstallationDirectory();
+        _installManifestGroup(Manifest.UPGRADE_GROUP);
+
+        final File installationDirectory = _getRuntimeInstallationDirectory();
         final String rootPassword = _databaseProperties.getRootPassword();
 
         final String command;
@@ -119,7 +134,7 @@ public class UnixMysqlDatabase extends OperatingSystemSpecificMysqlDatabase {
         Logger.debug("Exec: " + command);
         Process process = null;
         try {
-            process = runtime.exec(command);
+            process = runtime.exec(command, _getScriptEnvironment());
 
             try (
                 final InputStream inputStream = process.getInputStream();
@@ -154,14 +169,14 @@ public class UnixMysqlDatabase extends OperatingSystemSpecificMysqlDatabase {
 
     @Override
     public void start() throws Exception {
-        if (! _shutdownHookInstalled) {
+        if (_shutdownHookIsEnabled && (! _shutdownHookInstalled)) {
             _installShutdownHook();
             _shutdownHookInstalled = true;
         }
 
         _writeConfigFile(CONFIGURATION_FILE_NAME);
 
-        final File installationDirectory = _databaseProperties.getInstallationDirectory();
+        final File installationDirectory = _getRuntimeInstallationDirectory();
 
         final String command;
         {
@@ -173,11 +188,17 @@ public class UnixMysqlDatabase extends OperatingSystemSpecificMysqlDatabase {
         }
         final Runtime runtime = Runtime.getRuntime();
         Logger.debug("Exec: " + command);
-        _process = runtime.exec(command);
+        _process = runtime.exec(command, _getScriptEnvironment());
 
         _processOutputStream = _process.getOutputStream();
         _processInputStream = _process.getInputStream();
-        _processInputReadThread = new ProcessOutputLogger(_processInputStream, Logger.getInstance(this.getClass()));
+        _serverReadinessMonitor = new ServerReadinessMonitor();
+        _processInputReadThread = new ProcessOutputLogger(_processInputStream, Logger.getInstance(this.getClass()), _serverReadinessMonitor);
         _processInputReadThread.start();
     }
+
+    @Override
+    public void writeConfigFile() {
+        _writeConfigFile(CONFIGURATION_FILE_NAME);
+    }
 }
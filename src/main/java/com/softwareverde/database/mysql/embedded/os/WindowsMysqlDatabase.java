@@ -1,6 +1,8 @@
 package com.softwareverde.database.mysql.embedded.os;
 
 import com.softwareverde.database.mysql.embedded.ProcessOutputLogger;
+import com.softwareverde.database.mysql.embedded.ServerReadinessMonitor;
+import com.softwareverde.database.mysql.embedded.installation.Manifest;
 import com.softwareverde.database.mysql.embedded.properties.EmbeddedDatabaseProperties;
 import com.softwareverde.logging.Logger;
 import com.softwareverde.util.SystemUtil;
@@ -18,32 +20,10 @@ public class WindowsMysqlDatabase extends OperatingSystemSpecificMysqlDatabase {
     }
 
     @Override
-    public void install() throws Exception {
-        final NanoTimer nanoTimer = new NanoTimer();
-        nanoTimer.start();
-
-        final File installationDirectory = _databaseProperties.getInstallationDirectory();
-        final File dataDirectory = _databaseProperties.getDataDirectory();
+    protected void _initializeDataDirectory(final File dataDirectory) throws Exception {
+        final File installationDirectory = _getRuntimeInstallationDirectory();
         final String rootPassword = _databaseProperties.getRootPassword();
 
-        // Always install the new binaries when invoked.
-        _installFilesFromManifest();
-
-        // If the data directory has already be initialized then exit.
-        final Boolean mysqlDataWasAlreadyInstalled = _doesMysqlDataExist(dataDirectory);
-        if (mysqlDataWasAlreadyInstalled) {
-            _writeDataDirectoryHelper();
-            _writeConfigFile(CONFIGURATION_FILE_NAME);
-            return;
-        }
-
-        { // Ensure the data directory's path exists (but not the data directory itself).
-            final File dataDirectoryParent = dataDirectory.getParentFile();
-            if (dataDirectoryParent != null) {
-                dataDirectoryParent.mkdirs();
-            }
-        }
-
         final String[] command = new String[3];
         {
             final File file = new File(installationDirectory.getPath() + "/base/bin/mysql_install_db.exe");
@@ -84,6 +64,39 @@ public class WindowsMysqlDatabase extends OperatingSystemSpecificMysqlDatabase {
                 process.destroyForcibly();
             }
         }
+    }
+
+    @Override
+    public void install() throws Exception {
+        final NanoTimer nanoTimer = new NanoTimer();
+        nanoTimer.start();
+
+        final File dataDirectory = _databaseProperties.getDataDirectory();
+
+        // Always install the new binaries when invoked; binaries that are unchanged since the last install are skipped.
+        _installFilesFromManifest();
+
+        // If the data directory has already be initialized then exit.
+        final Boolean mysqlDataWasAlreadyInstalled = _doesMysqlDataExist(dataDirectory);
+        if (mysqlDataWasAlreadyInstalled) {
+            _writeDataDirectoryHelper();
+            _writeConfigFile(CONFIGURATION_FILE_NAME);
+            return;
+        }
+
+        { // Ensure the data directory's path exists (but not the data directory itself).
+            final File dataDirectoryParent = dataDirectory.getParentFile();
+            if (dataDirectoryParent != null) {
+                dataDirectoryParent.mkdirs();
+            }
+        }
+
+        if (_databaseProperties.getDataDirectoryTemplateDirectory() != null) {
+            _initializeDataDirectoryFromTemplate();
+        }
+        else {
+            _initializeDataDirectory(dataDirectory);
+        }
 
         _writeDataDirectoryHelper();
         // NOTE: Since this command will create the data directory if it does not exist, and since the windows
@@ -98,9 +111,11 @@ public class WindowsMysqlDatabase extends OperatingSystemSpecificMysqlDatabase {
 
     @Override
     public void upgrade() throws Exception {
+        _installManifestGroup(Manifest.UPGRADE_GROUP);
+
         Thread.sleep(2500L);
 
-        final File installationDirectory = _databaseProperties.getInstallationDirectory();
+        final File installationDirectory = _getRuntimeInstallationDirectory();
         final String rootPassword = _databaseProperties.getRootPassword();
 
         final String displayCommand;
@@ -153,14 +168,14 @@ public class WindowsMysqlDatabase extends OperatingSystemSpecificMysqlDatabase {
 
     @Override
     public void start() throws Exception {
-        if (! _shutdownHookInstalled) {
+        if (_shutdownHookIsEnabled && (! _shutdownHookInstalled)) {
             _installShutdownHook();
             _shutdownHookInstalled = true;
         }
 
         _writeConfigFile(CONFIGURATION_FILE_NAME);
 
-        final File installationDirectory = _databaseProperties.getInstallationDirectory();
+        final File installationDirectory = _getRuntimeInstallationDirectory();
 
         final Long javaPid = SystemUtil.getProcessId();
 
@@ -179,7 +194,13 @@ public class WindowsMysqlDatabase extends OperatingSystemSpecificMysqlDatabase {
 
         _processOutputStream = _process.getOutputStream();
         _processInputStream = _process.getInputStream();
-        _processInputReadThread = new ProcessOutputLogger(_processInputStream, Logger.getInstance(this.getClass()));
+        _serverReadinessMonitor = new ServerReadinessMonitor();
+        _processInputReadThread = new ProcessOutputLogger(_processInputStream, Logger.getInstance(this.getClass()), _serverReadinessMonitor);
         _processInputReadThread.start();
     }
+
+    @Override
+    public void writeConfigFile() {
+        _writeConfigFile(CONFIGURATION_FILE_NAME);
+    }
 }
@@ -0,0 +1,84 @@
+package com.softwareverde.database.mysql.embedded.pool;
+
+/**
+ * A point-in-time snapshot of a MysqlConnectionPool's counters.
+ */
+public class ConnectionPoolMetrics {
+    protected final Integer _maxConnectionCount;
+    protected final Integer _activeConnectionCount;
+    protected final Integer _idleConnectionCount;
+    protected final Long _borrowCount;
+    protected final Double _averageWaitMs;
+    protected final Double _maxWaitMs;
+    protected final Long _createdConnectionCount;
+    protected final Double _connectionsCreatedPerSecond;
+    protected final Long _evictedConnectionCount;
+    protected final Long _validationFailureCount;
+
+    public ConnectionPoolMetrics(final Integer maxConnectionCount, final Integer activeConnectionCount, final Integer idleConnectionCount, final Long borrowCount, final Double averageWaitMs, final Double maxWaitMs, final Long createdConnectionCount, final Double connectionsCreatedPerSecond, final Long evictedConnectionCount, final Long validationFailureCount) {
+        _maxConnectionCount = maxConnectionCount;
+        _activeConnectionCount = activeConnectionCount;
+        _idleConnectionCount = idleConnectionCount;
+        _borrowCount = borrowCount;
+        _averageWaitMs = averageWaitMs;
+        _maxWaitMs = maxWaitMs;
+        _createdConnectionCount = createdConnectionCount;
+        _connectionsCreatedPerSecond = connectionsCreatedPerSecond;
+        _evictedConnectionCount = evictedConnectionCount;
+        _validationFailureCount = validationFailureCount;
+    }
+
+    public Integer getMaxConnectionCount() {
+        return _maxConnectionCount;
+    }
+
+    /**
+     * Returns the number of connections currently borrowed from the pool.
+     */
+    public Integer getActiveConnectionCount() {
+        return _activeConnectionCount;
+    }
+
+    public Integer getIdleConnectionCount() {
+        return _idleConnectionCount;
+    }
+
+    public Long getBorrowCount() {
+        return _borrowCount;
+    }
+
+    /**
+     * Returns the average time spent waiting for a connection to become available, per borrow.
+     */
+    public Double getAverageWaitMs() {
+        return _averageWaitMs;
+    }
+
+    public Double getMaxWaitMs() {
+        return _maxWaitMs;
+    }
+
+    public Long getCreatedConnectionCount() {
+        return _createdConnectionCount;
+    }
+
+    /**
+     * Returns the average number of (physical) connections created per second since the pool was created.
+     */
+    public Double getConnectionsCreatedPerSecond() {
+        return _connectionsCreatedPerSecond;
+    }
+
+    public Long getEvictedConnectionCount() {
+        return _evictedConnectionCount;
+    }
+
+    public Long getValidationFailureCount() {
+        return _validationFailureCount;
+    }
+
+    @Override
+    public String toString() {
+        return ("active=" + _activeConnectionCount + " idle=" + _idleConnectionCount + " max=" + _maxConnectionCount + " borrows=" + _borrowCount + " avgWaitMs=" + _averageWaitMs + " maxWaitMs=" + _maxWaitMs + " created=" + _createdConnectionCount + " createdPerSecond=" + _connectionsCreatedPerSecond + " evicted=" + _evictedConnectionCount + " validationFailures=" + _validationFailureCount);
+    }
+}
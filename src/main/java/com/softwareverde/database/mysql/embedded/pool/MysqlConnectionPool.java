@@ -0,0 +1,267 @@
+package com.softwareverde.database.mysql.embedded.pool;
+
+import com.softwareverde.database.DatabaseException;
+import com.softwareverde.database.mysql.MysqlDatabaseConnection;
+import com.softwareverde.database.mysql.MysqlDatabaseConnectionFactory;
+import com.softwareverde.database.mysql.embedded.properties.EmbeddedDatabaseProperties;
+import com.softwareverde.database.mysql.embedded.properties.ServerVariables;
+import com.softwareverde.logging.Logger;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>A bounded pool of connections to the embedded server.</p>
+ *
+ * <p>Borrowing is lock-free when a connection is idle: capacity is tracked via a (non-fair) Semaphore and idle
+ * connections are kept within a concurrent deque in most-recently-used order, so the warmest connection is reused first
+ * and the coldest connections accumulate at the tail where they are evicted once idle for longer than the idle timeout.
+ * Connections that have been idle for longer than the validation interval are validated via a ping before reuse.</p>
+ */
+public class MysqlConnectionPool implements AutoCloseable {
+    public static final Long DEFAULT_IDLE_TIMEOUT_MS = (60L * 1000L);
+    public static final Long DEFAULT_VALIDATION_INTERVAL_MS = 1000L;
+    public static final Long DEFAULT_BORROW_TIMEOUT_MS = (30L * 1000L);
+
+    /**
+     * The number of the server's connections left available to the root and maintenance accounts.
+     */
+    public static final Integer RESERVED_CONNECTION_COUNT = 2;
+
+    protected static final Integer VALIDATION_TIMEOUT_SECONDS = 1;
+
+    /**
+     * Returns the pool size derived from the server's configured max_connections (or its default).
+     */
+    public static Integer calculateMaxConnectionCount(final EmbeddedDatabaseProperties databaseProperties) {
+        final ServerVariables serverVariables = ServerVariables.parse(databaseProperties.getCommandlineArguments());
+        final Long maxConnectionCount = serverVariables.getMaxConnectionCount();
+        return (int) Math.max(1L, Math.min(Integer.MAX_VALUE, (maxConnectionCount - RESERVED_CONNECTION_COUNT)));
+    }
+
+    protected final MysqlDatabaseConnectionFactory _databaseConnectionFactory;
+    protected final Integer _maxConnectionCount;
+    protected final Semaphore _availableConnections;
+    protected final ConcurrentLinkedDeque<PooledMysqlDatabaseConnection> _idleConnections = new ConcurrentLinkedDeque<>();
+    protected final AtomicInteger _idleConnectionCount = new AtomicInteger(0);
+    protected final AtomicInteger _activeConnectionCount = new AtomicInteger(0);
+    protected final Long _creationNanos = System.nanoTime();
+
+    protected final AtomicLong _borrowCount = new AtomicLong(0L);
+    protected final AtomicLong _totalWaitNanos = new AtomicLong(0L);
+    protected final AtomicLong _maxWaitNanos = new AtomicLong(0L);
+    protected final AtomicLong _createdConnectionCount = new AtomicLong(0L);
+    protected final AtomicLong _evictedConnectionCount = new AtomicLong(0L);
+    protected final AtomicLong _validationFailureCount = new AtomicLong(0L);
+
+    protected volatile Long _idleTimeoutMs = DEFAULT_IDLE_TIMEOUT_MS;
+    protected volatile Long _validationIntervalMs = DEFAULT_VALIDATION_INTERVAL_MS;
+    protected volatile Long _borrowTimeoutMs = DEFAULT_BORROW_TIMEOUT_MS;
+    protected volatile Boolean _isClosed = false;
+
+    protected void _recordWait(final Long waitNanos) {
+        _borrowCount.incrementAndGet();
+        _totalWaitNanos.addAndGet(waitNanos);
+
+        long maxWaitNanos = _maxWaitNanos.get();
+        while ( (waitNanos > maxWaitNanos) && (! _maxWaitNanos.compareAndSet(maxWaitNanos, waitNanos)) ) {
+            maxWaitNanos = _maxWaitNanos.get();
+        }
+    }
+
+    protected Boolean _isExpired(final PooledMysqlDatabaseConnection databaseConnection, final Long nowNanos) {
+        return (databaseConnection._getIdleNanos(nowNanos) > TimeUnit.MILLISECONDS.toNanos(_idleTimeoutMs));
+    }
+
+    protected Boolean _isValid(final PooledMysqlDatabaseConnection databaseConnection, final Long nowNanos) {
+        if (databaseConnection._getIdleNanos(nowNanos) < TimeUnit.MILLISECONDS.toNanos(_validationIntervalMs)) { return true; }
+
+        try {
+            final Connection rawConnection = databaseConnection.getRawConnection();
+            return rawConnection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        }
+        catch (final SQLException exception) {
+            return false;
+        }
+    }
+
+    /**
+     * Restores the connection's session to its default state before it is reused; returns false if the connection is unusable.
+     */
+    protected Boolean _resetConnection(final PooledMysqlDatabaseConnection databaseConnection) {
+        try {
+            final Connection rawConnection = databaseConnection.getRawConnection();
+            if (rawConnection.isClosed()) { return false; }
+
+            if (! rawConnection.getAutoCommit()) {
+                rawConnection.rollback();
+                rawConnection.setAutoCommit(true);
+            }
+            return true;
+        }
+        catch (final SQLException exception) {
+            Logger.debug("Unable to reset pooled connection.", exception);
+            return false;
+        }
+    }
+
+    protected PooledMysqlDatabaseConnection _createConnection() throws DatabaseException {
+        final MysqlDatabaseConnection databaseConnection = _databaseConnectionFactory.newConnection();
+        _createdConnectionCount.incrementAndGet();
+        return new PooledMysqlDatabaseConnection(this, databaseConnection);
+    }
+
+    protected void _evictExpiredConnections(final Long nowNanos) {
+        while (true) {
+            final PooledMysqlDatabaseConnection databaseConnection = _idleConnections.peekLast();
+            if ( (databaseConnection == null) || (! _isExpired(databaseConnection, nowNanos)) ) { return; }
+
+            if (_idleConnections.removeLastOccurrence(databaseConnection)) {
+                _idleConnectionCount.decrementAndGet();
+                _evictedConnectionCount.incrementAndGet();
+                databaseConnection._closeUnderlyingConnection();
+            }
+        }
+    }
+
+    protected void _release(final PooledMysqlDatabaseConnection databaseConnection) {
+        final long nowNanos = System.nanoTime();
+        _activeConnectionCount.decrementAndGet();
+
+        try {
+            if ( _isClosed || (! _resetConnection(databaseConnection)) ) {
+                databaseConnection._closeUnderlyingConnection();
+            }
+            else {
+                databaseConnection._markReleased(nowNanos);
+                _idleConnections.offerFirst(databaseConnection);
+                _idleConnectionCount.incrementAndGet();
+            }
+        }
+        finally {
+            _availableConnections.release();
+        }
+
+        _evictExpiredConnections(nowNanos);
+    }
+
+    public MysqlConnectionPool(final MysqlDatabaseConnectionFactory databaseConnectionFactory, final Integer maxConnectionCount) {
+        _databaseConnectionFactory = databaseConnectionFactory;
+        _maxConnectionCount = maxConnectionCount;
+        _availableConnections = new Semaphore(maxConnectionCount, false);
+    }
+
+    /**
+     * Sets the duration after which an idle connection is closed.
+     */
+    public void setIdleTimeout(final Long idleTimeoutMs) {
+        _idleTimeoutMs = idleTimeoutMs;
+    }
+
+    /**
+     * Sets the duration after which an idle connection is validated before it is reused.
+     */
+    public void setValidationInterval(final Long validationIntervalMs) {
+        _validationIntervalMs = validationIntervalMs;
+    }
+
+    /**
+     * Sets the maximum duration to wait for a connection when every connection is in use.
+     */
+    public void setBorrowTimeout(final Long borrowTimeoutMs) {
+        _borrowTimeoutMs = borrowTimeoutMs;
+    }
+
+    /**
+     * Returns an idle connection, or creates a new connection if none are idle.
+     *  Blocks while the pool is at capacity, throwing a DatabaseException if no connection is returned within the borrow timeout.
+     */
+    public MysqlDatabaseConnection borrow() throws DatabaseException {
+        if (_isClosed) { throw new DatabaseException("Connection pool is closed."); }
+
+        final long waitStartNanos = System.nanoTime();
+        try {
+            if (! _availableConnections.tryAcquire()) {
+                if (! _availableConnections.tryAcquire(_borrowTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    throw new DatabaseException("Timed out waiting for a pooled connection after " + _borrowTimeoutMs + "ms.");
+                }
+            }
+        }
+        catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseException(exception);
+        }
+
+        final long nowNanos = System.nanoTime();
+        _recordWait(nowNanos - waitStartNanos);
+
+        try {
+            PooledMysqlDatabaseConnection databaseConnection;
+            while ((databaseConnection = _idleConnections.pollFirst()) != null) {
+                _idleConnectionCount.decrementAndGet();
+
+                if (_isExpired(databaseConnection, nowNanos)) {
+                    _evictedConnectionCount.incrementAndGet();
+                    databaseConnection._closeUnderlyingConnection();
+                    continue;
+                }
+
+                if (! _isValid(databaseConnection, nowNanos)) {
+                    _validationFailureCount.incrementAndGet();
+                    databaseConnection._closeUnderlyingConnection();
+                    continue;
+                }
+
+                break;
+            }
+
+            if (databaseConnection == null) {
+                databaseConnection = _createConnection();
+            }
+
+            databaseConnection._markBorrowed();
+            _activeConnectionCount.incrementAndGet();
+            return databaseConnection;
+        }
+        catch (final DatabaseException | RuntimeException exception) {
+            _availableConnections.release();
+            throw exception;
+        }
+    }
+
+    public Integer getMaxConnectionCount() {
+        return _maxConnectionCount;
+    }
+
+    public ConnectionPoolMetrics getMetrics() {
+        final long borrowCount = _borrowCount.get();
+        final double nanosPerMillisecond = 1000000D;
+        final double averageWaitMs = (borrowCount > 0L ? ((_totalWaitNanos.get() / nanosPerMillisecond) / borrowCount) : 0D);
+        final double maxWaitMs = (_maxWaitNanos.get() / nanosPerMillisecond);
+
+        final long createdConnectionCount = _createdConnectionCount.get();
+        final double elapsedSeconds = ((System.nanoTime() - _creationNanos) / (nanosPerMillisecond * 1000D));
+        final double connectionsCreatedPerSecond = (elapsedSeconds > 0D ? (createdConnectionCount / elapsedSeconds) : 0D);
+
+        return new ConnectionPoolMetrics(_maxConnectionCount, _activeConnectionCount.get(), _idleConnectionCount.get(), borrowCount, averageWaitMs, maxWaitMs, createdConnectionCount, connectionsCreatedPerSecond, _evictedConnectionCount.get(), _validationFailureCount.get());
+    }
+
+    /**
+     * Closes every idle connection; borrowed connections are closed when they are returned.
+     */
+    @Override
+    public void close() {
+        _isClosed = true;
+
+        PooledMysqlDatabaseConnection databaseConnection;
+        while ((databaseConnection = _idleConnections.pollFirst()) != null) {
+            _idleConnectionCount.decrementAndGet();
+            databaseConnection._closeUnderlyingConnection();
+        }
+    }
+}
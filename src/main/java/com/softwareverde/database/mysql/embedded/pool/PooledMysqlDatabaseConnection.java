@@ -0,0 +1,55 @@
+package com.softwareverde.database.mysql.embedded.pool;
+
+import com.softwareverde.database.DatabaseException;
+import com.softwareverde.database.mysql.MysqlDatabaseConnection;
+import com.softwareverde.logging.Logger;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A MysqlDatabaseConnection borrowed from a MysqlConnectionPool.
+ *  Closing the connection returns it to its pool; the underlying connection is only closed by the pool.
+ */
+public class PooledMysqlDatabaseConnection extends MysqlDatabaseConnection {
+    protected final MysqlConnectionPool _connectionPool;
+    protected final MysqlDatabaseConnection _databaseConnection;
+    protected final AtomicBoolean _isBorrowed = new AtomicBoolean(false);
+    protected volatile Long _lastReleasedNanos;
+
+    protected PooledMysqlDatabaseConnection(final MysqlConnectionPool connectionPool, final MysqlDatabaseConnection databaseConnection) {
+        super(databaseConnection.getRawConnection());
+        _connectionPool = connectionPool;
+        _databaseConnection = databaseConnection;
+        _lastReleasedNanos = System.nanoTime();
+    }
+
+    protected void _markBorrowed() {
+        _isBorrowed.set(true);
+    }
+
+    protected Long _getIdleNanos(final Long nowNanos) {
+        return (nowNanos - _lastReleasedNanos);
+    }
+
+    protected void _markReleased(final Long nowNanos) {
+        _lastReleasedNanos = nowNanos;
+    }
+
+    protected void _closeUnderlyingConnection() {
+        try {
+            _databaseConnection.close();
+        }
+        catch (final DatabaseException exception) {
+            Logger.debug("Unable to close pooled connection.", exception);
+        }
+    }
+
+    /**
+     * Returns the connection to its pool.  Closing a connection more than once has no effect.
+     */
+    @Override
+    public void close() throws DatabaseException {
+        if (! _isBorrowed.compareAndSet(true, false)) { return; }
+        _connectionPool._release(this);
+    }
+}
@@ -0,0 +1,167 @@
+package com.softwareverde.database.mysql.embedded.properties;
+
+import com.softwareverde.util.IoUtil;
+import com.softwareverde.util.StringUtil;
+import com.softwareverde.util.Util;
+
+import java.io.File;
+
+/**
+ * <p>The memory and CPU limits imposed upon this process by its Linux control group (ex: a container's limits).</p>
+ *
+ * <p>Both cgroup v2 (memory.max, cpu.max) and cgroup v1 (memory.limit_in_bytes, cpu.cfs_quota_us/cpu.cfs_period_us)
+ * hierarchies are supported.  The process's group is resolved via /proc/self/cgroup; if the group's directory is not
+ * visible (ex: within a container's cgroup namespace) the root of the hierarchy is used.  The server process is
+ * started by this process and is therefore subject to the same limits.</p>
+ */
+public class ControlGroupLimits {
+    public static final ControlGroupLimits NONE = new ControlGroupLimits(null, null);
+
+    protected static final String PROCESS_CONTROL_GROUP_FILE = "/proc/self/cgroup";
+    protected static final String CONTROL_GROUP_DIRECTORY = "/sys/fs/cgroup";
+
+    protected static String _readFirstLine(final File file) {
+        if (! file.isFile()) { return null; }
+
+        final byte[] bytes = IoUtil.getFileContents(file);
+        if (bytes == null) { return null; }
+
+        final String contents = StringUtil.bytesToString(bytes).trim();
+        final int newlineIndex = contents.indexOf('\n');
+        return (newlineIndex >= 0 ? contents.substring(0, newlineIndex) : contents);
+    }
+
+    /**
+     * Returns the process's group path within the hierarchy with the provided controller, or the cgroup v2 (unified)
+     *  path if controller is null.  /proc/self/cgroup lines have the format: "&lt;id&gt;:&lt;controllers&gt;:&lt;path&gt;".
+     */
+    protected static String _getProcessGroupPath(final String controller) {
+        final byte[] bytes = IoUtil.getFileContents(new File(PROCESS_CONTROL_GROUP_FILE));
+        if (bytes == null) { return null; }
+
+        for (final String line : StringUtil.bytesToString(bytes).split("\n")) {
+            final String[] fields = line.trim().split(":", 3);
+            if (fields.length != 3) { continue; }
+
+            if (controller == null) {
+                if (Util.areEqual("0", fields[0]) && fields[1].isEmpty()) {
+                    return fields[2];
+                }
+            }
+            else {
+                for (final String groupController : fields[1].split(",")) {
+                    if (Util.areEqual(controller, groupController)) {
+                        return fields[2];
+                    }
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the file within the process's group, falling back to the root of the hierarchy.
+     */
+    protected static File _getControlFile(final String hierarchyDirectory, final String groupPath, final String fileName) {
+        if ( (groupPath != null) && (! Util.areEqual("/", groupPath)) ) {
+            final File groupFile = new File(hierarchyDirectory + groupPath + "/" + fileName);
+            if (groupFile.isFile()) { return groupFile; }
+        }
+        return new File(hierarchyDirectory + "/" + fileName);
+    }
+
+    protected static Long _parseLimit(final String value) {
+        if ( (value == null) || Util.areEqual("max", value) ) { return null; }
+
+        try {
+            final long limit = Long.parseLong(value);
+            return (limit > 0L ? limit : null);
+        }
+        catch (final NumberFormatException exception) {
+            return null;
+        }
+    }
+
+    protected static Float _calculateCpuLimit(final Long quota, final Long period) {
+        if ( (quota == null) || (period == null) ) { return null; }
+        return (quota.floatValue() / period.floatValue());
+    }
+
+    protected static ControlGroupLimits _detectVersion2() {
+        final String groupPath = _getProcessGroupPath(null);
+        final File memoryMaxFile = _getControlFile(CONTROL_GROUP_DIRECTORY, groupPath, "memory.max");
+        final File cpuMaxFile = _getControlFile(CONTROL_GROUP_DIRECTORY, groupPath, "cpu.max");
+
+        final Long memoryLimit = _parseLimit(_readFirstLine(memoryMaxFile));
+
+        Float cpuLimit = null;
+        final String cpuMax = _readFirstLine(cpuMaxFile); // Format: "<quota|max> <period>"
+        if (cpuMax != null) {
+            final String[] fields = cpuMax.split("\\s+");
+            if (fields.length == 2) {
+                cpuLimit = _calculateCpuLimit(_parseLimit(fields[0]), _parseLimit(fields[1]));
+            }
+        }
+
+        return new ControlGroupLimits(memoryLimit, cpuLimit);
+    }
+
+    protected static ControlGroupLimits _detectVersion1() {
+        final String memoryGroupPath = _getProcessGroupPath("memory");
+        final File memoryLimitFile = _getControlFile(CONTROL_GROUP_DIRECTORY + "/memory", memoryGroupPath, "memory.limit_in_bytes");
+        final Long memoryLimit = _parseLimit(_readFirstLine(memoryLimitFile)); // An unlimited group reports a value near Long.MAX_VALUE.
+
+        final String cpuGroupPath = _getProcessGroupPath("cpu");
+        final File cpuQuotaFile = _getControlFile(CONTROL_GROUP_DIRECTORY + "/cpu", cpuGroupPath, "cpu.cfs_quota_us");
+        final File cpuPeriodFile = _getControlFile(CONTROL_GROUP_DIRECTORY + "/cpu", cpuGroupPath, "cpu.cfs_period_us");
+        final Float cpuLimit = _calculateCpuLimit(_parseLimit(_readFirstLine(cpuQuotaFile)), _parseLimit(_readFirstLine(cpuPeriodFile)));
+
+        return new ControlGroupLimits(memoryLimit, cpuLimit);
+    }
+
+    /**
+     * Detects the limits of the current process's control group.  Returns NONE if control groups are not available.
+     */
+    public static ControlGroupLimits detect() {
+        final File unifiedControllersFile = new File(CONTROL_GROUP_DIRECTORY + "/cgroup.controllers");
+        if (unifiedControllersFile.isFile()) {
+            return _detectVersion2();
+        }
+
+        final File memoryHierarchyDirectory = new File(CONTROL_GROUP_DIRECTORY + "/memory");
+        final File cpuHierarchyDirectory = new File(CONTROL_GROUP_DIRECTORY + "/cpu");
+        if (memoryHierarchyDirectory.isDirectory() || cpuHierarchyDirectory.isDirectory()) {
+            return _detectVersion1();
+        }
+
+        return NONE;
+    }
+
+    protected final Long _memoryLimitByteCount;
+    protected final Float _cpuLimit;
+
+    public ControlGroupLimits(final Long memoryLimitByteCount, final Float cpuLimit) {
+        _memoryLimitByteCount = memoryLimitByteCount;
+        _cpuLimit = cpuLimit;
+    }
+
+    /**
+     * Returns the group's memory limit, or null if the group's memory is not limited.
+     */
+    public Long getMemoryLimitByteCount() {
+        return _memoryLimitByteCount;
+    }
+
+    /**
+     * Returns the group's CPU quota as a (possibly fractional) number of CPUs, or null if the group's CPU is not limited.
+     */
+    public Float getCpuLimit() {
+        return _cpuLimit;
+    }
+
+    @Override
+    public String toString() {
+        return ("memory=" + _memoryLimitByteCount + " cpus=" + _cpuLimit);
+    }
+}
@@ -11,6 +11,55 @@ public interface EmbeddedDatabaseProperties extends JdbcDatabaseProperties {
     File getInstallationDirectory();
     File getDataDirectory();
 
+    /**
+     * Returns the directory of the binary cache shared between installations, or null if installations should not use a cache.
+     */
+    File getBinaryCacheDirectory();
+
+    /**
+     * Returns the directory containing pristine data-directory templates, or null if new data directories should
+     *  always be bootstrapped.
+     */
+    File getDataDirectoryTemplateDirectory();
+
+    /**
+     * Returns true if the installation directory contains pre-installed binaries and must not be written to.
+     */
+    Boolean isInstallationDirectoryReadOnly();
+
+    /**
+     * Returns the optional manifest groups to install, or null if every group should be installed.
+     *  Entries that do not belong to a group are always installed.
+     */
+    List<String> getManifestGroups();
+
+    /**
+     * Returns true if durability is relaxed and the data directory is deleted when the database is stopped.
+     */
+    Boolean isEphemeral();
+
+    /**
+     * Returns true if the port is selected automatically (see selectAutomaticPort).
+     */
+    Boolean isPortAutomatic();
+
+    /**
+     * Selects a new free port, which is returned by subsequent calls to getPort.
+     *  Invoked when the previously selected port could not be bound by the server.
+     */
+    Integer selectAutomaticPort();
+
+    /**
+     * Returns the Unix domain socket the server listens on (and connections are made through), or null if connections
+     *  are made via TCP.
+     */
+    File getUnixSocketFile();
+
+    /**
+     * Returns false if the server's TCP listener is disabled (i.e. skip-networking).
+     */
+    Boolean isTcpEnabled();
+
     List<String> getCommandlineArguments();
 
     /**
@@ -0,0 +1,186 @@
+package com.softwareverde.database.mysql.embedded.properties;
+
+import com.softwareverde.logging.Logger;
+import com.softwareverde.util.IoUtil;
+import com.softwareverde.util.StringUtil;
+import com.softwareverde.util.Util;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+
+/**
+ * The CPU, memory, and storage resources available to the server, which are used to derive WorkloadProfile settings.
+ *  When detected, the host's resources are limited by the process's control group (ex: a container's limits), and the
+ *  memory used by this JVM (which shares those limits with the server) is excluded.
+ */
+public class HostResources {
+    public enum StorageType {
+        MEMORY, SOLID_STATE, ROTATIONAL, UNKNOWN
+    }
+
+    protected static final String MEMORY_INFO_FILE = "/proc/meminfo";
+    protected static final String SYSTEM_BLOCK_DIRECTORY = "/sys/class/block";
+    protected static final Long MIN_JVM_NON_HEAP_BYTE_COUNT = (64L * 1024L * 1024L);
+
+    protected static Long _detectPhysicalMemoryByteCount() {
+        try {
+            final OperatingSystemMXBean operatingSystemMXBean = ManagementFactory.getOperatingSystemMXBean();
+            if (operatingSystemMXBean instanceof com.sun.management.OperatingSystemMXBean) {
+                final long memoryByteCount = ((com.sun.management.OperatingSystemMXBean) operatingSystemMXBean).getTotalPhysicalMemorySize();
+                if (memoryByteCount > 0L) { return memoryByteCount; }
+            }
+        }
+        catch (final Throwable exception) {
+            Logger.debug("Unable to determine physical memory via the OperatingSystemMXBean.", exception);
+        }
+
+        // Fall back to /proc/meminfo, whose MemTotal line has the format: "MemTotal:       16318000 kB"
+        final byte[] memoryInfoBytes = IoUtil.getFileContents(new File(MEMORY_INFO_FILE));
+        if (memoryInfoBytes != null) {
+            for (final String line : StringUtil.bytesToString(memoryInfoBytes).split("\n")) {
+                if (! line.startsWith("MemTotal:")) { continue; }
+
+                final String[] fields = line.substring("MemTotal:".length()).trim().split("\\s+");
+                final Long kilobyteCount = ServerVariables.parseLong(fields[0]);
+                if (kilobyteCount != null) {
+                    return (kilobyteCount * 1024L);
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the memory reserved for this JVM: its maximum heap, plus an allowance for metaspace, thread stacks, the
+     *  code cache, and direct buffers, which are not bounded by the heap.  If the heap is unbounded, a quarter of the
+     *  memory is reserved.
+     */
+    protected static Long _calculateJvmReservationByteCount(final Long memoryByteCount) {
+        final long maxHeapByteCount = Runtime.getRuntime().maxMemory();
+        if (maxHeapByteCount == Long.MAX_VALUE) { return (memoryByteCount / 4L); }
+
+        return (maxHeapByteCount + Math.max(MIN_JVM_NON_HEAP_BYTE_COUNT, (maxHeapByteCount / 4L)));
+    }
+
+    protected static Integer _detectCpuCount(final ControlGroupLimits controlGroupLimits) {
+        final Integer availableProcessorCount = Runtime.getRuntime().availableProcessors();
+        final Float cpuLimit = controlGroupLimits.getCpuLimit();
+        if (cpuLimit == null) { return availableProcessorCount; }
+
+        final int cpuLimitCount = Math.max(1, (int) Math.ceil(cpuLimit));
+        return Math.min(availableProcessorCount, cpuLimitCount);
+    }
+
+    /**
+     * Returns the memory available to the server: the lesser of the physical memory and the control group's limit, less
+     *  the JVM's reservation.  At least a quarter of the memory is always considered available.
+     */
+    protected static Long _detectAvailableMemoryByteCount(final ControlGroupLimits controlGroupLimits) {
+        Long memoryByteCount = _detectPhysicalMemoryByteCount();
+
+        final Long memoryLimitByteCount = controlGroupLimits.getMemoryLimitByteCount();
+        if (memoryLimitByteCount != null) {
+            memoryByteCount = (memoryByteCount != null ? Math.min(memoryByteCount, memoryLimitByteCount) : memoryLimitByteCount);
+        }
+        if (memoryByteCount == null) { return null; }
+
+        final Long jvmReservationByteCount = _calculateJvmReservationByteCount(memoryByteCount);
+        return Math.max((memoryByteCount / 4L), (memoryByteCount - jvmReservationByteCount));
+    }
+
+    protected static File _getExistingDirectory(final File directory) {
+        File existingDirectory = (directory != null ? directory.getAbsoluteFile() : null);
+        while ( (existingDirectory != null) && (! existingDirectory.exists()) ) {
+            existingDirectory = existingDirectory.getParentFile();
+        }
+        return existingDirectory;
+    }
+
+    /**
+     * Determines the type of storage backing the directory (or its nearest existing ancestor).
+     *  Block devices are classified via /sys/class/block/&lt;device&gt;/queue/rotational, which is only available on Linux.
+     */
+    protected static StorageType _detectStorageType(final File directory) {
+        final File existingDirectory = _getExistingDirectory(directory);
+        if (existingDirectory == null) { return StorageType.UNKNOWN; }
+
+        try {
+            final FileStore fileStore = Files.getFileStore(existingDirectory.toPath());
+            final String fileStoreType = fileStore.type();
+            if (Util.areEqual("tmpfs", fileStoreType) || Util.areEqual("ramfs", fileStoreType)) {
+                return StorageType.MEMORY;
+            }
+
+            final String deviceName = new File(fileStore.name()).getName();
+            final File blockDevice = new File(SYSTEM_BLOCK_DIRECTORY + "/" + deviceName);
+            if (! blockDevice.exists()) { return StorageType.UNKNOWN; }
+
+            // Partitions do not have a queue; their parent device does.
+            File rotationalFile = new File(blockDevice.getPath() + "/queue/rotational");
+            if (! rotationalFile.exists()) {
+                final File parentDevice = blockDevice.getCanonicalFile().getParentFile();
+                rotationalFile = new File(parentDevice.getPath() + "/queue/rotational");
+            }
+
+            final byte[] rotationalBytes = IoUtil.getFileContents(rotationalFile);
+            if (rotationalBytes == null) { return StorageType.UNKNOWN; }
+
+            final String rotational = StringUtil.bytesToString(rotationalBytes).trim();
+            return (Util.areEqual("1", rotational) ? StorageType.ROTATIONAL : StorageType.SOLID_STATE);
+        }
+        catch (final IOException exception) {
+            Logger.debug("Unable to determine storage type of: " + existingDirectory, exception);
+            return StorageType.UNKNOWN;
+        }
+    }
+
+    /**
+     * Detects the resources of the host; the storage type is determined for the provided data directory.
+     */
+    public static HostResources detect(final File dataDirectory) {
+        final ControlGroupLimits controlGroupLimits = ControlGroupLimits.detect();
+        final Integer cpuCount = _detectCpuCount(controlGroupLimits);
+        final Long memoryByteCount = _detectAvailableMemoryByteCount(controlGroupLimits);
+        final StorageType storageType = _detectStorageType(dataDirectory);
+
+        final HostResources hostResources = new HostResources(cpuCount, memoryByteCount, storageType);
+        Logger.debug("Detected host resources: " + hostResources + " (cgroup: " + controlGroupLimits + ")");
+        return hostResources;
+    }
+
+    protected final Integer _cpuCount;
+    protected final Long _memoryByteCount;
+    protected final StorageType _storageType;
+
+    public HostResources(final Integer cpuCount, final Long memoryByteCount, final StorageType storageType) {
+        _cpuCount = cpuCount;
+        _memoryByteCount = memoryByteCount;
+        _storageType = storageType;
+    }
+
+    public Integer getCpuCount() {
+        return _cpuCount;
+    }
+
+    /**
+     * Returns the memory available to the server (excluding the JVM's reservation, when detected), or null if it could
+     *  not be determined.
+     */
+    public Long getMemoryByteCount() {
+        return _memoryByteCount;
+    }
+
+    public StorageType getStorageType() {
+        return _storageType;
+    }
+
+    @Override
+    public String toString() {
+        return ("cpus=" + _cpuCount + " memory=" + _memoryByteCount + " storage=" + _storageType);
+    }
+}
@@ -0,0 +1,230 @@
+package com.softwareverde.database.mysql.embedded.properties;
+
+import com.softwareverde.logging.Logger;
+import com.softwareverde.util.Util;
+
+/**
+ * <p>Estimates the memory used by the server for a configuration, and enforces a memory budget before the server is
+ * started.</p>
+ *
+ * <p>Global memory is the InnoDB buffer pool, InnoDB log buffer, MyISAM key buffer, Aria page cache, query cache, one
+ * in-memory temporary table (the lesser of tmp_table_size and max_heap_table_size), the performance schema (if
+ * enabled), and a fixed allowance for the server itself.  Per-connection memory is the thread stack, network buffers,
+ * max_allowed_packet, and the sort, join, read, and random-read buffers.  The worst case assumes every connection
+ * allocates every buffer at once; the expected case assumes every connection is open but only one in ten is executing
+ * a query.  Unconfigured variables use the MariaDB 10.5 defaults.</p>
+ */
+public class MemoryBudgetEstimator {
+    protected static final Long KILOBYTE = 1024L;
+    protected static final Long MEGABYTE = (1024L * 1024L);
+
+    protected static final Long SERVER_OVERHEAD_BYTE_COUNT = (64L * MEGABYTE);
+    protected static final Long PERFORMANCE_SCHEMA_BYTE_COUNT = (128L * MEGABYTE);
+    protected static final Long ACTIVE_CONNECTION_DIVISOR = 10L;
+    protected static final Long MIN_CONNECTION_COUNT = 10L;
+
+    /**
+     * A memory setting, its server default, and the minimum to which it may be shrunk.
+     */
+    protected static class MemoryVariable {
+        protected final String _name;
+        protected final Long _defaultValue;
+        protected final Long _minValue;
+
+        public MemoryVariable(final String name, final Long defaultValue, final Long minValue) {
+            _name = name;
+            _defaultValue = defaultValue;
+            _minValue = minValue;
+        }
+
+        public String getName() {
+            return _name;
+        }
+
+        public Long getMinValue() {
+            return _minValue;
+        }
+
+        /**
+         * Returns the configured value, or the server default if the variable is not configured.
+         */
+        public Long getValue(final ServerVariables serverVariables) {
+            final Long value = serverVariables.getLong(_name);
+            return (value != null ? value : _defaultValue);
+        }
+    }
+
+    protected static final MemoryVariable INNODB_BUFFER_POOL_SIZE = new MemoryVariable("innodb_buffer_pool_size", (128L * MEGABYTE), (8L * MEGABYTE));
+    protected static final MemoryVariable KEY_BUFFER_SIZE = new MemoryVariable("key_buffer_size", (128L * MEGABYTE), (64L * KILOBYTE));
+    protected static final MemoryVariable ARIA_PAGECACHE_BUFFER_SIZE = new MemoryVariable("aria_pagecache_buffer_size", (128L * MEGABYTE), (128L * KILOBYTE));
+    protected static final MemoryVariable QUERY_CACHE_SIZE = new MemoryVariable("query_cache_size", (1L * MEGABYTE), 0L);
+    protected static final MemoryVariable TMP_TABLE_SIZE = new MemoryVariable("tmp_table_size", (16L * MEGABYTE), (1L * KILOBYTE));
+    protected static final MemoryVariable MAX_HEAP_TABLE_SIZE = new MemoryVariable("max_heap_table_size", (16L * MEGABYTE), (16L * KILOBYTE));
+    protected static final MemoryVariable INNODB_LOG_BUFFER_SIZE = new MemoryVariable("innodb_log_buffer_size", (16L * MEGABYTE), null);
+
+    protected static final MemoryVariable THREAD_STACK = new MemoryVariable("thread_stack", (292L * KILOBYTE), null);
+    protected static final MemoryVariable NET_BUFFER_LENGTH = new MemoryVariable("net_buffer_length", (16L * KILOBYTE), null);
+    protected static final MemoryVariable MAX_ALLOWED_PACKET = new MemoryVariable("max_allowed_packet", (16L * MEGABYTE), null);
+    protected static final MemoryVariable SORT_BUFFER_SIZE = new MemoryVariable("sort_buffer_size", (2L * MEGABYTE), (32L * KILOBYTE));
+    protected static final MemoryVariable JOIN_BUFFER_SIZE = new MemoryVariable("join_buffer_size", (256L * KILOBYTE), (8L * KILOBYTE));
+    protected static final MemoryVariable READ_BUFFER_SIZE = new MemoryVariable("read_buffer_size", (128L * KILOBYTE), (8L * KILOBYTE));
+    protected static final MemoryVariable READ_RND_BUFFER_SIZE = new MemoryVariable("read_rnd_buffer_size", (256L * KILOBYTE), (8L * KILOBYTE));
+
+    // The settings scaled when shrinking; the log buffer, thread stack, and network buffers are small, and max_allowed_packet
+    //  bounds the statements the application may execute, so they are not shrunk.
+    protected static final MemoryVariable[] SCALABLE_GLOBAL_VARIABLES = { INNODB_BUFFER_POOL_SIZE, KEY_BUFFER_SIZE, ARIA_PAGECACHE_BUFFER_SIZE, QUERY_CACHE_SIZE, TMP_TABLE_SIZE, MAX_HEAP_TABLE_SIZE };
+    protected static final MemoryVariable[] SCALABLE_CONNECTION_VARIABLES = { SORT_BUFFER_SIZE, JOIN_BUFFER_SIZE, READ_BUFFER_SIZE, READ_RND_BUFFER_SIZE };
+
+    protected static Boolean _isPerformanceSchemaEnabled(final ServerVariables serverVariables) {
+        final String value = serverVariables.getString("performance_schema");
+        if (value == null) { return false; }
+        return (Util.areEqual("ON", value.toUpperCase()) || Util.areEqual("1", value));
+    }
+
+    /**
+     * Returns the global memory that is scaled when shrinking; only one in-memory temporary table is counted.
+     */
+    protected static Long _calculateScalableGlobalByteCount(final ServerVariables serverVariables) {
+        long byteCount = 0L;
+        byteCount += INNODB_BUFFER_POOL_SIZE.getValue(serverVariables);
+        byteCount += KEY_BUFFER_SIZE.getValue(serverVariables);
+        byteCount += ARIA_PAGECACHE_BUFFER_SIZE.getValue(serverVariables);
+        byteCount += QUERY_CACHE_SIZE.getValue(serverVariables);
+        byteCount += Math.min(TMP_TABLE_SIZE.getValue(serverVariables), MAX_HEAP_TABLE_SIZE.getValue(serverVariables));
+        return byteCount;
+    }
+
+    protected static Long _calculateScalableConnectionByteCount(final ServerVariables serverVariables) {
+        long byteCount = 0L;
+        for (final MemoryVariable memoryVariable : SCALABLE_CONNECTION_VARIABLES) {
+            byteCount += memoryVariable.getValue(serverVariables);
+        }
+        return byteCount;
+    }
+
+    /**
+     * Sets the variable via its type-safe setter, if one exists, or via addArgument; arguments previously added for the
+     *  variable are removed so that the new value is the only value configured.
+     */
+    protected static void _setVariable(final MutableEmbeddedDatabaseProperties databaseProperties, final String name, final Long value) {
+        databaseProperties.removeArgument(name);
+
+        if (Util.areEqual("innodb_buffer_pool_size", name)) { databaseProperties.setInnoDbBufferPoolByteCount(value); }
+        else if (Util.areEqual("key_buffer_size", name)) { databaseProperties.setKeyBufferByteCount(value); }
+        else if (Util.areEqual("query_cache_size", name)) { databaseProperties.setQueryCacheByteCount(value); }
+        else if (Util.areEqual("max_heap_table_size", name)) { databaseProperties.setMaxHeapTableByteCount(value); }
+        else if (Util.areEqual("max_connections", name)) { databaseProperties.setMaxConnectionCount(value); }
+        else { databaseProperties.addArgument("--" + name + "=" + value); }
+    }
+
+    protected static void _scaleVariables(final MutableEmbeddedDatabaseProperties databaseProperties, final ServerVariables serverVariables, final MemoryVariable[] memoryVariables, final Double scale) {
+        for (final MemoryVariable memoryVariable : memoryVariables) {
+            final Long value = memoryVariable.getValue(serverVariables);
+
+            long scaledValue = Math.max(memoryVariable.getMinValue(), (long) (value * scale));
+            if (scaledValue >= MEGABYTE) {
+                scaledValue = ((scaledValue / MEGABYTE) * MEGABYTE);
+            }
+            else {
+                scaledValue = ((scaledValue / KILOBYTE) * KILOBYTE); // The query cache must be a multiple of 1024 bytes.
+            }
+
+            if (scaledValue < value) {
+                _setVariable(databaseProperties, memoryVariable.getName(), scaledValue);
+            }
+        }
+    }
+
+    public MemoryEstimate estimate(final EmbeddedDatabaseProperties databaseProperties) {
+        final ServerVariables serverVariables = ServerVariables.parse(databaseProperties.getCommandlineArguments());
+
+        long globalByteCount = SERVER_OVERHEAD_BYTE_COUNT;
+        globalByteCount += _calculateScalableGlobalByteCount(serverVariables);
+        globalByteCount += INNODB_LOG_BUFFER_SIZE.getValue(serverVariables);
+        if (_isPerformanceSchemaEnabled(serverVariables)) {
+            globalByteCount += PERFORMANCE_SCHEMA_BYTE_COUNT;
+        }
+
+        long connectionBaseByteCount = THREAD_STACK.getValue(serverVariables);
+        connectionBaseByteCount += (2L * NET_BUFFER_LENGTH.getValue(serverVariables)); // Read and write buffers.
+
+        final Long connectionWorkingByteCount = _calculateScalableConnectionByteCount(serverVariables);
+        final Long maxAllowedPacketByteCount = MAX_ALLOWED_PACKET.getValue(serverVariables);
+
+        final Long maxConnectionCount = serverVariables.getMaxConnectionCount();
+        final Long activeConnectionCount = Math.max(1L, ((maxConnectionCount + ACTIVE_CONNECTION_DIVISOR - 1L) / ACTIVE_CONNECTION_DIVISOR));
+        final Long perConnectionByteCount = (connectionBaseByteCount + connectionWorkingByteCount + maxAllowedPacketByteCount);
+
+        final Long expectedByteCount = (globalByteCount + (connectionBaseByteCount * maxConnectionCount) + (connectionWorkingByteCount * activeConnectionCount));
+        final Long worstCaseByteCount = (globalByteCount + (perConnectionByteCount * maxConnectionCount));
+        return new MemoryEstimate(globalByteCount, perConnectionByteCount, maxConnectionCount, expectedByteCount, worstCaseByteCount);
+    }
+
+    /**
+     * Estimates the configuration's memory and, if its worst case exceeds the budget, responds according to the mode.
+     *  SHRINK first scales the global and per-connection memory settings by the same proportion, bounded by each
+     *  setting's minimum, and then lowers max_connections; it requires MutableEmbeddedDatabaseProperties.  Returns the
+     *  estimate of the (possibly shrunk) configuration.
+     */
+    public MemoryEstimate enforce(final EmbeddedDatabaseProperties databaseProperties, final Long budgetByteCount, final MemoryBudgetMode mode) throws MemoryBudgetExceededException {
+        final MemoryEstimate memoryEstimate = this.estimate(databaseProperties);
+        if (memoryEstimate.getWorstCaseByteCount() <= budgetByteCount) { return memoryEstimate; }
+
+        if (mode == MemoryBudgetMode.WARN) {
+            Logger.warn("Worst-case server memory (" + memoryEstimate.getWorstCaseByteCount() + " bytes) exceeds the memory budget (" + budgetByteCount + " bytes). " + memoryEstimate);
+            return memoryEstimate;
+        }
+
+        if ( (mode == MemoryBudgetMode.REFUSE) || (! (databaseProperties instanceof MutableEmbeddedDatabaseProperties)) ) {
+            throw new MemoryBudgetExceededException(memoryEstimate, budgetByteCount);
+        }
+
+        final MutableEmbeddedDatabaseProperties mutableDatabaseProperties = (MutableEmbeddedDatabaseProperties) databaseProperties;
+        { // Scale the memory settings proportionally...
+            final ServerVariables serverVariables = ServerVariables.parse(databaseProperties.getCommandlineArguments());
+            final long scalableGlobalByteCount = _calculateScalableGlobalByteCount(serverVariables);
+            final long scalableConnectionByteCount = _calculateScalableConnectionByteCount(serverVariables);
+            final long scalableByteCount = (scalableGlobalByteCount + (scalableConnectionByteCount * memoryEstimate.getMaxConnectionCount()));
+            if (scalableByteCount > 0L) { // Otherwise every scalable setting is already zero...
+                final long fixedByteCount = (memoryEstimate.getWorstCaseByteCount() - scalableByteCount);
+                final double scale = (Math.max(0L, (budgetByteCount - fixedByteCount)) / ((double) scalableByteCount));
+
+                _scaleVariables(mutableDatabaseProperties, serverVariables, SCALABLE_GLOBAL_VARIABLES, scale);
+                _scaleVariables(mutableDatabaseProperties, serverVariables, SCALABLE_CONNECTION_VARIABLES, scale);
+            }
+        }
+
+        MemoryEstimate shrunkMemoryEstimate = this.estimate(databaseProperties);
+        if (shrunkMemoryEstimate.getWorstCaseByteCount() > budgetByteCount) { // Lower max_connections...
+            final long perConnectionByteCount = shrunkMemoryEstimate.getPerConnectionByteCount();
+            final long connectionByteCount = (perConnectionByteCount * shrunkMemoryEstimate.getMaxConnectionCount());
+            final long globalByteCount = (shrunkMemoryEstimate.getWorstCaseByteCount() - connectionByteCount);
+            final long maxConnectionCount = (perConnectionByteCount > 0L ? (Math.max(0L, (budgetByteCount - globalByteCount)) / perConnectionByteCount) : 0L);
+            if (maxConnectionCount < MIN_CONNECTION_COUNT) {
+                throw new MemoryBudgetExceededException(shrunkMemoryEstimate, budgetByteCount);
+            }
+
+            _setVariable(mutableDatabaseProperties, "max_connections", maxConnectionCount);
+            shrunkMemoryEstimate = this.estimate(databaseProperties);
+        }
+
+        Logger.info("Shrunk server memory settings to fit the memory budget (" + budgetByteCount + " bytes). Before: " + memoryEstimate + " After: " + shrunkMemoryEstimate);
+        return shrunkMemoryEstimate;
+    }
+
+    /**
+     * Enforces a budget of the memory available to the server, as detected via HostResources (which accounts for
+     *  container limits and the JVM's own memory).  If the available memory cannot be determined, the configuration is
+     *  only estimated.
+     */
+    public MemoryEstimate enforce(final EmbeddedDatabaseProperties databaseProperties, final MemoryBudgetMode mode) throws MemoryBudgetExceededException {
+        final HostResources hostResources = HostResources.detect(databaseProperties.getDataDirectory());
+        final Long memoryByteCount = hostResources.getMemoryByteCount();
+        if (memoryByteCount == null) {
+            Logger.debug("Unable to determine available memory; memory budget not enforced.");
+            return this.estimate(databaseProperties);
+        }
+
+        return this.enforce(databaseProperties, memoryByteCount, mode);
+    }
+}
@@ -0,0 +1,25 @@
+package com.softwareverde.database.mysql.embedded.properties;
+
+import com.softwareverde.database.DatabaseException;
+
+/**
+ * Thrown when the server's configuration may use more memory than its budget allows.
+ */
+public class MemoryBudgetExceededException extends DatabaseException {
+    protected final MemoryEstimate _memoryEstimate;
+    protected final Long _budgetByteCount;
+
+    public MemoryBudgetExceededException(final MemoryEstimate memoryEstimate, final Long budgetByteCount) {
+        super("Worst-case server memory (" + memoryEstimate.getWorstCaseByteCount() + " bytes) exceeds the memory budget (" + budgetByteCount + " bytes). " + memoryEstimate);
+        _memoryEstimate = memoryEstimate;
+        _budgetByteCount = budgetByteCount;
+    }
+
+    public MemoryEstimate getMemoryEstimate() {
+        return _memoryEstimate;
+    }
+
+    public Long getBudgetByteCount() {
+        return _budgetByteCount;
+    }
+}
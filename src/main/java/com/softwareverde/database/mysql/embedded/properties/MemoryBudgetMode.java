@@ -0,0 +1,10 @@
+package com.softwareverde.database.mysql.embedded.properties;
+
+/**
+ * Determines how MemoryBudgetEstimator::enforce responds to a configuration whose worst-case memory exceeds the budget.
+ *  WARN logs a warning, REFUSE throws a MemoryBudgetExceededException, and SHRINK reduces the memory settings
+ *  proportionally (and then max_connections, if necessary) until the configuration fits.
+ */
+public enum MemoryBudgetMode {
+    WARN, REFUSE, SHRINK
+}
@@ -0,0 +1,53 @@
+package com.softwareverde.database.mysql.embedded.properties;
+
+/**
+ * The estimated memory use of the server for a configuration (see MemoryBudgetEstimator).
+ *  Global memory is allocated once (buffers, caches, in-memory temporary tables, and the server's own overhead), and
+ *  per-connection memory is the worst-case memory of a single connection.
+ */
+public class MemoryEstimate {
+    protected final Long _globalByteCount;
+    protected final Long _perConnectionByteCount;
+    protected final Long _maxConnectionCount;
+    protected final Long _expectedByteCount;
+    protected final Long _worstCaseByteCount;
+
+    public MemoryEstimate(final Long globalByteCount, final Long perConnectionByteCount, final Long maxConnectionCount, final Long expectedByteCount, final Long worstCaseByteCount) {
+        _globalByteCount = globalByteCount;
+        _perConnectionByteCount = perConnectionByteCount;
+        _maxConnectionCount = maxConnectionCount;
+        _expectedByteCount = expectedByteCount;
+        _worstCaseByteCount = worstCaseByteCount;
+    }
+
+    public Long getGlobalByteCount() {
+        return _globalByteCount;
+    }
+
+    public Long getPerConnectionByteCount() {
+        return _perConnectionByteCount;
+    }
+
+    public Long getMaxConnectionCount() {
+        return _maxConnectionCount;
+    }
+
+    /**
+     * Returns the memory expected when every connection is open but only a fraction of them are executing queries.
+     */
+    public Long getExpectedByteCount() {
+        return _expectedByteCount;
+    }
+
+    /**
+     * Returns the memory used when every connection allocates each of its buffers concurrently.
+     */
+    public Long getWorstCaseByteCount() {
+        return _worstCaseByteCount;
+    }
+
+    @Override
+    public String toString() {
+        return ("expected=" + _expectedByteCount + " worstCase=" + _worstCaseByteCount + " global=" + _globalByteCount + " perConnection=" + _perConnectionByteCount + " maxConnections=" + _maxConnectionCount);
+    }
+}
@@ -7,8 +7,11 @@ import com.softwareverde.database.properties.DatabaseProperties;
 import com.softwareverde.database.properties.MutableDatabaseProperties;
 
 import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
 import java.util.Comparator;
 import java.util.Properties;
+import java.util.UUID;
 
 /**
  * <p>Represents MariaDB/MySQL configuration properties.</p>
@@ -24,6 +27,9 @@ import java.util.Properties;
  */
 public class MutableEmbeddedDatabaseProperties extends MutableDatabaseProperties implements EmbeddedDatabaseProperties {
     public static final Integer DEFAULT_PORT = 3306;
+    public static final String UNIX_SOCKET_FILE_NAME = "mysql.sock";
+    public static final String UNIX_SOCKET_CONNECTION_PROPERTY = "localSocket";
+    public static final File MEMORY_BACKED_DIRECTORY = new File("/dev/shm");
 
     protected static void _addArgumentIfNotNull(final MutableList<String> arguments, final String argumentName, final Object value) {
         if (value != null) {
@@ -32,6 +38,19 @@ public class MutableEmbeddedDatabaseProperties extends MutableDatabaseProperties
         }
     }
 
+    /**
+     * Returns a port that is currently free on this host.  The port is not held, so it may be taken by another process
+     *  before the server binds it; such conflicts are detected during startup and a new port is selected.
+     */
+    protected static Integer _findFreePort() {
+        try (final ServerSocket serverSocket = new ServerSocket(0)) {
+            return serverSocket.getLocalPort();
+        }
+        catch (final IOException exception) {
+            throw new RuntimeException("Unable to find a free port.", exception);
+        }
+    }
+
     protected static void _addKeyValuePairArgument(final MutableList<String> arguments, final String key, final Object value) {
         final StringBuilder stringBuilder = new StringBuilder();
 
@@ -45,6 +64,10 @@ public class MutableEmbeddedDatabaseProperties extends MutableDatabaseProperties
     protected OperatingSystemType _operatingSystemType;
     protected File _installationDirectory;
     protected File _dataDirectory;
+    protected File _binaryCacheDirectory;
+    protected File _dataDirectoryTemplateDirectory;
+    protected Boolean _installationDirectoryIsReadOnly = false;
+    protected MutableList<String> _manifestGroups;
     protected final Properties _connectionProperties = new Properties();
 
     protected final MutableList<String> _arguments = new MutableList<>(0);
@@ -63,6 +86,12 @@ public class MutableEmbeddedDatabaseProperties extends MutableDatabaseProperties
     protected Long _innoDbLogBufferByteCount;
 
     protected Boolean _remoteConnectionsAreEnabled;
+    protected Boolean _unixSocketIsEnabled = false;
+    protected Boolean _tcpIsEnabled = true;
+    protected Boolean _portIsAutomatic = false;
+    protected Boolean _isEphemeral = false;
+    protected WorkloadProfile _workloadProfile;
+    protected HostResources _hostResources;
 
     protected Boolean _innoDbSlowQueryLogIsEnabled;
     protected Long _innoDbSlowQueryLogMinimumQueryTime;
@@ -87,10 +116,66 @@ public class MutableEmbeddedDatabaseProperties extends MutableDatabaseProperties
 
     protected Boolean _performanceSchemaIsEnabled;
 
+    protected static void _addArgumentIfNotConfigured(final MutableList<String> arguments, final ServerVariables configuredVariables, final String argumentName, final Object value) {
+        if (configuredVariables.contains(argumentName)) { return; }
+        _addKeyValuePairArgument(arguments, argumentName, value);
+    }
+
+    /**
+     * Adds the explicitly set value if present; otherwise adds the profile-derived value, unless the argument was
+     *  configured via addArgument.
+     */
+    protected static void _addArgumentOrProfileValue(final MutableList<String> arguments, final ServerVariables configuredVariables, final String argumentName, final Object value, final Object profileValue) {
+        if (value != null) {
+            _addKeyValuePairArgument(arguments, argumentName, value);
+        }
+        else if (profileValue != null) {
+            _addArgumentIfNotConfigured(arguments, configuredVariables, argumentName, profileValue);
+        }
+    }
+
+    /**
+     * Returns the resources used to derive the workload profile's settings; the host is detected if resources were not set.
+     */
+    protected synchronized HostResources _getHostResources() {
+        if (_hostResources == null) {
+            _hostResources = HostResources.detect(_getDataDirectory());
+        }
+        return _hostResources;
+    }
+
+    protected WorkloadSettings _getWorkloadSettings() {
+        if (_workloadProfile == null) { return WorkloadSettings.EMPTY; }
+        return _workloadProfile.calculateSettings(_getHostResources());
+    }
+
+    /**
+     * Returns the data directory; in ephemeral mode, a unique directory on a memory-backed filesystem (or the temporary
+     *  directory, if one is not available) is allocated if a data directory was not set.
+     */
+    protected synchronized File _getDataDirectory() {
+        if ( (_dataDirectory == null) && _isEphemeral ) {
+            final boolean memoryBackedDirectoryIsAvailable = (MEMORY_BACKED_DIRECTORY.isDirectory() && MEMORY_BACKED_DIRECTORY.canWrite());
+            final File parentDirectory = (memoryBackedDirectoryIsAvailable ? MEMORY_BACKED_DIRECTORY : new File(System.getProperty("java.io.tmpdir")));
+            _dataDirectory = new File(parentDirectory.getPath() + "/embedded-mysql-" + UUID.randomUUID());
+        }
+        return _dataDirectory;
+    }
+
+    protected File _getUnixSocketFile() {
+        final File dataDirectory = _getDataDirectory();
+        if ( (! _unixSocketIsEnabled) || (dataDirectory == null) ) { return null; }
+        if (_operatingSystemType == OperatingSystemType.WINDOWS) { return null; }
+
+        return new File(dataDirectory.getAbsolutePath() + "/" + UNIX_SOCKET_FILE_NAME);
+    }
+
     protected MutableList<String> _getArguments() {
         final MutableList<String> arguments = new MutableList<>(_arguments);
+        final ServerVariables configuredVariables = ServerVariables.parse(_arguments);
+        final WorkloadSettings workloadSettings = _getWorkloadSettings();
 
-        _addArgumentIfNotNull(arguments, "--port", _port);
+        _addArgumentIfNotNull(arguments, "--port", this.getPort());
         _addArgumentIfNotNull(arguments, "--max_allowed_packet", _maxAllowedPacketByteCount);
         _addArgumentIfNotNull(arguments, "--key_buffer_size", _keyBufferByteCount);
         _addArgumentIfNotNull(arguments, "--thread_stack", _threadStackNestedCallLimit);
@@ -100,21 +185,21 @@ public class MutableEmbeddedDatabaseProperties extends MutableDatabaseProperties
         _addArgumentIfNotNull(arguments, "--query_cache_limit", _queryCacheMaxResultByteCount);
         _addArgumentIfNotNull(arguments, "--query_cache_size", _queryCacheByteCount);
         _addArgumentIfNotNull(arguments, "--innodb_buffer_pool_instances", _innoDbBufferPoolInstanceCount);
-        _addArgumentIfNotNull(arguments, "--innodb_buffer_pool_size", _innoDbBufferPoolByteCount);
-        _addArgumentIfNotNull(arguments, "--innodb_log_file_size", _innoDbLogFileByteCount);
-        _addArgumentIfNotNull(arguments, "--innodb_log_buffer_size", _innoDbLogBufferByteCount);
+        _addArgumentOrProfileValue(arguments, configuredVariables, "--innodb_buffer_pool_size", _innoDbBufferPoolByteCount, workloadSettings.getInnoDbBufferPoolByteCount());
+        _addArgumentOrProfileValue(arguments, configuredVariables, "--innodb_log_file_size", _innoDbLogFileByteCount, workloadSettings.getInnoDbLogFileByteCount());
+        _addArgumentOrProfileValue(arguments, configuredVariables, "--innodb_log_buffer_size", _innoDbLogBufferByteCount, workloadSettings.getInnoDbLogBufferByteCount());
 
-        _addArgumentIfNotNull(arguments, "--max_connections", _maxConnectionCount);
+        _addArgumentOrProfileValue(arguments, configuredVariables, "--max_connections", _maxConnectionCount, workloadSettings.getMaxConnectionCount());
         _addArgumentIfNotNull(arguments, "--innodb_flush_log_at_trx_commit", _innoDbFlushLogAtTransactionCommit);
         _addArgumentIfNotNull(arguments, "--innodb_flush_method", _innoDbFlushMethod);
-        _addArgumentIfNotNull(arguments, "--innodb_io_capacity", _innoDbIoCapacity);
-        _addArgumentIfNotNull(arguments, "--innodb_io_capacity_max", _innoDbIoCapacityMax);
+        _addArgumentOrProfileValue(arguments, configuredVariables, "--innodb_io_capacity", _innoDbIoCapacity, workloadSettings.getInnoDbIoCapacity());
+        _addArgumentOrProfileValue(arguments, configuredVariables, "--innodb_io_capacity_max", _innoDbIoCapacityMax, workloadSettings.getInnoDbIoCapacityMax());
         _addArgumentIfNotNull(arguments, "--innodb_page_cleaners", _innoDbPageCleaners);
         _addArgumentIfNotNull(arguments, "--innodb_max_dirty_pages_pct", _innoDbMaxDirtyPagesPercent);
         _addArgumentIfNotNull(arguments, "--innodb_max_dirty_pages_pct_lwm", _innoDbMaxDirtyPagesPercentLowWaterMark);
-        _addArgumentIfNotNull(arguments, "--innodb_read_io_threads", _innoDbReadIoThreads);
-        _addArgumentIfNotNull(arguments, "--innodb_write_io_threads", _innoDbWriteIoThreads);
-        _addArgumentIfNotNull(arguments, "--innodb_lru_scan_depth", _innoDbLeastRecentlyUsedScanDepth);
+        _addArgumentOrProfileValue(arguments, configuredVariables, "--innodb_read_io_threads", _innoDbReadIoThreads, workloadSettings.getInnoDbReadIoThreads());
+        _addArgumentOrProfileValue(arguments, configuredVariables, "--innodb_write_io_threads", _innoDbWriteIoThreads, workloadSettings.getInnoDbWriteIoThreads());
+        _addArgumentOrProfileValue(arguments, configuredVariables, "--innodb_lru_scan_depth", _innoDbLeastRecentlyUsedScanDepth, workloadSettings.getInnoDbLeastRecentlyUsedScanDepth());
         _addArgumentIfNotNull(arguments, "--myisam_sort_buffer_size", _myisamSortBufferSize);
 
         if (_performanceSchemaIsEnabled != null) {
@@ -136,8 +221,33 @@ public class MutableEmbeddedDatabaseProperties extends MutableDatabaseProperties
             }
         }
 
-        if (_remoteConnectionsAreEnabled == null || (! _remoteConnectionsAreEnabled)) {
-            _addKeyValuePairArgument(arguments, "--bind-address", "127.0.0.1");
+        if (_isEphemeral) { // Relax durability; values that were explicitly configured are retained...
+            if (_innoDbFlushLogAtTransactionCommit == null) {
+                _addArgumentIfNotConfigured(arguments, configuredVariables, "--innodb_flush_log_at_trx_commit", 0);
+            }
+            if (_innoDbFlushMethod == null) {
+                // Memory-backed filesystems do not support O_DIRECT.
+                _addArgumentIfNotConfigured(arguments, configuredVariables, "--innodb_flush_method", "fsync");
+            }
+            _addArgumentIfNotConfigured(arguments, configuredVariables, "--innodb_doublewrite", 0);
+            _addArgumentIfNotConfigured(arguments, configuredVariables, "--innodb_use_native_aio", 0);
+            _addArgumentIfNotConfigured(arguments, configuredVariables, "--sync_binlog", 0);
+        }
+
+        { // Transport...
+            final File unixSocketFile = _getUnixSocketFile();
+            if (unixSocketFile != null) {
+                _addKeyValuePairArgument(arguments, "--socket", unixSocketFile.getPath());
+            }
+
+            if (_tcpIsEnabled) {
+                if (_remoteConnectionsAreEnabled == null || (! _remoteConnectionsAreEnabled)) {
+                    _addKeyValuePairArgument(arguments, "--bind-address", "127.0.0.1");
+                }
+            }
+            else {
+                arguments.add("--skip-networking");
+            }
         }
 
         arguments.sort(new Comparator<String>() {
@@ -171,7 +281,65 @@ public class MutableEmbeddedDatabaseProperties extends MutableDatabaseProperties
 
     @Override
     public File getDataDirectory() {
-        return _dataDirectory;
+        return _getDataDirectory();
+    }
+
+    @Override
+    public File getBinaryCacheDirectory() {
+        return _binaryCacheDirectory;
+    }
+
+    @Override
+    public File getDataDirectoryTemplateDirectory() {
+        return _dataDirectoryTemplateDirectory;
+    }
+
+    @Override
+    public Boolean isInstallationDirectoryReadOnly() {
+        return _installationDirectoryIsReadOnly;
+    }
+
+    /**
+     * Returns the configured port.  If automatic ports are enabled and a port has not yet been selected, a free port
+     *  is selected.
+     */
+    @Override
+    public synchronized Integer getPort() {
+        if ( _portIsAutomatic && (_port == null) ) {
+            _port = _findFreePort();
+        }
+        return _port;
+    }
+
+    @Override
+    public Boolean isEphemeral() {
+        return _isEphemeral;
+    }
+
+    @Override
+    public Boolean isPortAutomatic() {
+        return _portIsAutomatic;
+    }
+
+    @Override
+    public synchronized Integer selectAutomaticPort() {
+        _port = _findFreePort();
+        return _port;
+    }
+
+    @Override
+    public File getUnixSocketFile() {
+        return _getUnixSocketFile();
+    }
+
+    @Override
+    public Boolean isTcpEnabled() {
+        return _tcpIsEnabled;
+    }
+
+    @Override
+    public List<String> getManifestGroups() {
+        return _manifestGroups;
     }
 
     @Override
@@ -215,6 +383,54 @@ public class MutableEmbeddedDatabaseProperties extends MutableDatabaseProperties
         _dataDirectory = dataDirectory;
     }
 
+    /**
+     * Sets the directory of a binary cache that is shared between installations on the same host.
+     *  When set, the packaged binaries are extracted into the cache once (per version and file digest) and the
+     *  installation directory is populated via hard links to the cached files.  Setting null disables the cache.
+     */
+    public void setBinaryCacheDirectory(final File binaryCacheDirectory) {
+        _binaryCacheDirectory = binaryCacheDirectory;
+    }
+
+    /**
+     * Sets the directory used to store pristine data-directory templates.
+     *  When set, the first initialization for a given packaged version, configuration, and root password is captured as
+     *  a template, and subsequent new data directories are copied from the template instead of being bootstrapped.
+     *  Setting null disables templates.
+     */
+    public void setDataDirectoryTemplateDirectory(final File dataDirectoryTemplateDirectory) {
+        _dataDirectoryTemplateDirectory = dataDirectoryTemplateDirectory;
+    }
+
+    /**
+     * Marks the installation directory as read-only, for images that contain pre-installed binaries.
+     *  Extraction is skipped entirely (the installed `.version` must match the packaged version), and no files are written
+     *  to the installation directory.  If the installation's `.datadir` does not already reference the data directory, the
+     *  scripts are run from a writable view of the installation located alongside the data directory.
+     */
+    public void setInstallationDirectoryReadOnly(final Boolean installationDirectoryIsReadOnly) {
+        _installationDirectoryIsReadOnly = (installationDirectoryIsReadOnly != null ? installationDirectoryIsReadOnly : false);
+    }
+
+    /**
+     * Sets the optional manifest groups to install (ex: "server").  Entries that do not belong to a group are always
+     *  installed, and the "upgrade" group is extracted when the data directory is first upgraded.  Setting null installs
+     *  every group.
+     */
+    public void setManifestGroups(final List<String> manifestGroups) {
+        _manifestGroups = (manifestGroups != null ? new MutableList<>(manifestGroups) : null);
+    }
+
+    /**
+     * Adds an optional manifest group to install.  Once a group has been added, only the added groups are installed.
+     */
+    public void addManifestGroup(final String manifestGroup) {
+        if (_manifestGroups == null) {
+            _manifestGroups = new MutableList<>();
+        }
+        _manifestGroups.add(manifestGroup);
+    }
+
     /**
      * <p>Allows for adding an arbitrary string argument to the command-line.  In general, the property-specific setters
      * should be preferred to this method but when those are not sufficient and an appropriate setter cannot be added,
@@ -229,6 +445,21 @@ public class MutableEmbeddedDatabaseProperties extends MutableDatabaseProperties
         _arguments.add(argument);
     }
 
+    /**
+     * Removes any arguments added via addArgument that configure the provided variable (ex: "sort_buffer_size").
+     */
+    public void removeArgument(final String variableName) {
+        final String normalizedName = ServerVariables.normalizeName(variableName);
+        for (int i = (_arguments.getCount() - 1); i >= 0; --i) {
+            final String argument = _arguments.get(i);
+            final int separatorIndex = argument.indexOf('=');
+            final String argumentName = (separatorIndex < 0 ? argument : argument.substring(0, separatorIndex));
+            if (ServerVariables.normalizeName(argumentName).equals(normalizedName)) {
+                _arguments.remove(i);
+            }
+        }
+    }
+
     public void addConnectionProperty(final String key, final String value) {
         _connectionProperties.put(key, value);
     }
@@ -359,6 +590,35 @@ public class MutableEmbeddedDatabaseProperties extends MutableDatabaseProperties
         _performanceSchemaIsEnabled = performanceSchemaIsEnabled;
     }
 
+    /**
+     * <p>Sizes the InnoDB buffer pool, redo log, IO capacity, IO threads, LRU scan depth, and max connections for the
+     * workload, based upon the host's cores, memory, and the storage backing the data directory (see WorkloadProfile and
+     * HostResources).  Container (cgroup) limits and the JVM's own memory are taken into account.</p>
+     *
+     * <p>Values set via their explicit setters, or configured via addArgument, take precedence over the profile.  The
+     * settings are derived when the arguments are generated, so the profile may be set before the data directory.
+     * Setting the profile to null disables it.</p>
+     */
+    public void setWorkloadProfile(final WorkloadProfile workloadProfile) {
+        _workloadProfile = workloadProfile;
+    }
+
+    public WorkloadProfile getWorkloadProfile() {
+        return _workloadProfile;
+    }
+
+    /**
+     * Overrides the host resources used to derive the workload profile's settings (ex: to size several instances that
+     *  share one host).  When not set, the resources are detected once when first needed.
+     */
+    public synchronized void setHostResources(final HostResources hostResources) {
+        _hostResources = hostResources;
+    }
+
+    public synchronized HostResources getHostResources() {
+        return _getHostResources();
+    }
+
     public void enableRemoteConnections() {
         _remoteConnectionsAreEnabled = true;
     }
@@ -367,8 +627,73 @@ public class MutableEmbeddedDatabaseProperties extends MutableDatabaseProperties
         _remoteConnectionsAreEnabled = false;
     }
 
+    /**
+     * <p>Enables ephemeral mode, which trades crash durability for write throughput and fast initialization.</p>
+     *
+     * <p>If a data directory was not set, a unique data directory is allocated on a memory-backed filesystem (/dev/shm,
+     * when available).  Flushing at commit, the doublewrite buffer, native AIO (which is unsupported on tmpfs), and binlog
+     * syncing are disabled unless explicitly configured, and the data directory is deleted when the database is stopped.
+     * Combining ephemeral mode with data-directory templates avoids bootstrapping each new data directory.</p>
+     */
+    public void enableEphemeralMode() {
+        _isEphemeral = true;
+    }
+
+    public void disableEphemeralMode() {
+        _isEphemeral = false;
+    }
+
+    /**
+     * Enables selecting a free port automatically, rather than requiring an explicit port.
+     *  The port is selected when first requested (and may be retrieved via getPort or EmbeddedMysqlDatabase::getPort), and
+     *  a new port is selected if the server fails to bind the port when it is started.  Any explicitly set port is
+     *  discarded.
+     */
+    public synchronized void enableAutomaticPort() {
+        _portIsAutomatic = true;
+        _port = null;
+    }
+
+    public synchronized void disableAutomaticPort() {
+        _portIsAutomatic = false;
+    }
+
+    /**
+     * Configures the server to listen on a Unix domain socket within the data directory (see UNIX_SOCKET_FILE_NAME),
+     *  and configures the JDBC connections to connect via the socket instead of TCP.  Not supported on Windows.
+     */
+    public void enableUnixSocketConnections() {
+        _unixSocketIsEnabled = true;
+    }
+
+    public void disableUnixSocketConnections() {
+        _unixSocketIsEnabled = false;
+    }
+
+    /**
+     * Disables the server's TCP listener (via skip-networking), which requires Unix socket connections to be enabled.
+     *  Installing or starting the database fails with a DatabaseException if Unix socket connections are not enabled.
+     */
+    public void disableTcpConnections() {
+        _tcpIsEnabled = false;
+    }
+
+    public void enableTcpConnections() {
+        _tcpIsEnabled = true;
+    }
+
+    /**
+     * Returns the JDBC connection properties.  When Unix socket connections are enabled, the socket's path is included
+     *  so that every connection (including the root and maintenance connections) is made via the socket.
+     */
     @Override
     public Properties getConnectionProperties() {
-        return _connectionProperties;
+        final File unixSocketFile = _getUnixSocketFile();
+        if (unixSocketFile == null) { return _connectionProperties; }
+
+        final Properties connectionProperties = new Properties();
+        connectionProperties.putAll(_connectionProperties);
+        connectionProperties.put(UNIX_SOCKET_CONNECTION_PROPERTY, unixSocketFile.getPath());
+        return connectionProperties;
     }
 }
@@ -0,0 +1,113 @@
+package com.softwareverde.database.mysql.embedded.properties;
+
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.mutable.MutableList;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+
+/**
+ * The server variables configured via EmbeddedDatabaseProperties::getCommandlineArguments, keyed by their normalized
+ *  name (ex: "--innodb-buffer-pool-size=128M" is accessible as "innodb_buffer_pool_size").  Arguments without a value
+ *  (ex: "--skip-networking") are boolean flags and have the value "ON"; arguments with an empty value (ex: "--sql_mode=")
+ *  have an empty value.  When an argument is repeated, the last value is used.
+ */
+public class ServerVariables {
+    public static final Long DEFAULT_MAX_CONNECTION_COUNT = 151L;
+    public static final String FLAG_VALUE = "ON";
+
+    public static String normalizeName(final String name) {
+        String normalizedName = name.trim();
+        while (normalizedName.startsWith("-")) {
+            normalizedName = normalizedName.substring(1);
+        }
+        return normalizedName.replace('-', '_').toLowerCase();
+    }
+
+    /**
+     * Parses a numeric value with an optional K/M/G/T (1024-based) suffix.  Returns null if the value is not numeric.
+     */
+    public static Long parseLong(final String value) {
+        if (value == null) { return null; }
+
+        final String trimmedValue = value.trim();
+        if (trimmedValue.isEmpty()) { return null; }
+
+        final char suffix = Character.toUpperCase(trimmedValue.charAt(trimmedValue.length() - 1));
+        final long multiplier;
+        if (suffix == 'K') { multiplier = 1024L; }
+        else if (suffix == 'M') { multiplier = (1024L * 1024L); }
+        else if (suffix == 'G') { multiplier = (1024L * 1024L * 1024L); }
+        else if (suffix == 'T') { multiplier = (1024L * 1024L * 1024L * 1024L); }
+        else { multiplier = 1L; }
+
+        final String numericValue = (multiplier > 1L ? trimmedValue.substring(0, trimmedValue.length() - 1) : trimmedValue);
+        try {
+            return (Long.parseLong(numericValue) * multiplier);
+        }
+        catch (final NumberFormatException exception) {
+            return null;
+        }
+    }
+
+    public static ServerVariables parse(final List<String> commandlineArguments) {
+        final ServerVariables serverVariables = new ServerVariables();
+        for (final String argument : commandlineArguments) {
+            final int separatorIndex = argument.indexOf('=');
+            final String name = (separatorIndex < 0 ? argument : argument.substring(0, separatorIndex));
+            final String normalizedName = ServerVariables.normalizeName(name);
+            if (separatorIndex < 0) {
+                serverVariables._values.put(normalizedName, FLAG_VALUE);
+                serverVariables._flagNames.add(normalizedName);
+            }
+            else {
+                serverVariables._values.put(normalizedName, argument.substring(separatorIndex + 1).trim());
+                serverVariables._flagNames.remove(normalizedName);
+            }
+        }
+        return serverVariables;
+    }
+
+    protected final LinkedHashMap<String, String> _values = new LinkedHashMap<>();
+    protected final HashSet<String> _flagNames = new HashSet<>();
+
+    protected ServerVariables() { }
+
+    public Boolean contains(final String name) {
+        return _values.containsKey(ServerVariables.normalizeName(name));
+    }
+
+    /**
+     * Returns true if the variable was configured as a flag, without a value (ex: "--skip-networking").
+     */
+    public Boolean isFlag(final String name) {
+        return _flagNames.contains(ServerVariables.normalizeName(name));
+    }
+
+    /**
+     * Returns the variable's value, or null if the variable is not configured.  Flags have the value "ON".
+     */
+    public String getString(final String name) {
+        return _values.get(ServerVariables.normalizeName(name));
+    }
+
+    /**
+     * Returns the variable's numeric value, or null if the variable is not configured or is not numeric.
+     */
+    public Long getLong(final String name) {
+        return ServerVariables.parseLong(this.getString(name));
+    }
+
+    public Long getMaxConnectionCount() {
+        final Long maxConnectionCount = this.getLong("max_connections");
+        return (maxConnectionCount != null ? maxConnectionCount : DEFAULT_MAX_CONNECTION_COUNT);
+    }
+
+    public List<String> getNames() {
+        final MutableList<String> names = new MutableList<>();
+        for (final String name : _values.keySet()) {
+            names.add(name);
+        }
+        return names;
+    }
+}
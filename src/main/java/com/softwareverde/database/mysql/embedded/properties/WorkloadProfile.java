@@ -0,0 +1,114 @@
+package com.softwareverde.database.mysql.embedded.properties;
+
+/**
+ * <p>Named sets of InnoDB and IO-thread settings, derived from the host's cores, memory, and data-directory storage.</p>
+ *
+ * <p>OLTP balances reads and writes for many small transactions; BULK_INGEST favors large redo logs and write
+ * throughput; READ_MOSTLY_ANALYTICS favors a large buffer pool and read-ahead; LOW_FOOTPRINT minimizes the server's
+ * memory and thread usage (ex: for tests and CI).</p>
+ *
+ * <p>max_connections is limited to the profile's maximum and to the number of connections whose per-connection
+ * buffers fit within half of the memory remaining after the buffer pool (estimated at PER_CONNECTION_BYTE_COUNT each).</p>
+ *
+ * <p>innodb_buffer_pool_instances and innodb_page_cleaners are not derived: both are ignored as of MariaDB 10.5 and
+ * are unknown (and therefore fatal) options as of MariaDB 10.6.</p>
+ */
+public enum WorkloadProfile {
+    // Sizes are in megabytes:   buffer pool   redo log        log     io      io threads      lru     max
+    //                          %      max    ratio min max   buffer  factor  read write min  depth   connections
+    OLTP                       (0.50F, null,  4,    48, 1024, 16,     1.0F,   0.5F, 0.5F,  4,   1024,   500),
+    BULK_INGEST                (0.50F, null,  2,    256, 4096, 64,    2.0F,   0.25F, 1.0F, 4,   2048,   64),
+    READ_MOSTLY_ANALYTICS      (0.60F, null,  8,    48, 512,   8,     1.0F,   1.0F, 0.25F, 4,   512,    151),
+    LOW_FOOTPRINT              (0.05F, 128,   2,    8,  32,    4,     0.5F,   0.0F, 0.0F,  1,   128,    32);
+
+    protected static final Long BYTES_PER_MEGABYTE = (1024L * 1024L);
+    protected static final Long MIN_BUFFER_POOL_BYTE_COUNT = (32L * 1024L * 1024L);
+    protected static final Integer MAX_IO_THREADS = 64; // The server's maximum for innodb_read_io_threads and innodb_write_io_threads.
+    protected static final Long PER_CONNECTION_BYTE_COUNT = (4L * 1024L * 1024L); // Sort, join, read, and network buffers, and the thread's stack.
+    protected static final Long MIN_CONNECTION_COUNT = 10L;
+    protected static final Long MIN_IO_CAPACITY = 100L;
+    protected static final Long MIN_IO_CAPACITY_MAX = 2000L; // The server's default innodb_io_capacity_max.
+
+    protected static Long _clamp(final Long value, final Long minValue, final Long maxValue) {
+        return Math.max(minValue, Math.min(maxValue, value));
+    }
+
+    /**
+     * Returns the baseline innodb_io_capacity for the storage, or null if the storage type is not known.
+     */
+    protected static Long _getBaseIoCapacity(final HostResources.StorageType storageType) {
+        if (storageType == HostResources.StorageType.MEMORY) { return 10000L; }
+        if (storageType == HostResources.StorageType.SOLID_STATE) { return 2000L; }
+        if (storageType == HostResources.StorageType.ROTATIONAL) { return 200L; }
+        return null;
+    }
+
+    protected final Float _bufferPoolMemoryPercent;
+    protected final Long _maxBufferPoolByteCount;
+    protected final Long _bufferPoolToLogFileRatio;
+    protected final Long _minLogFileByteCount;
+    protected final Long _maxLogFileByteCount;
+    protected final Long _logBufferByteCount;
+    protected final Float _ioCapacityMultiplier;
+    protected final Float _readIoThreadsPerCpu;
+    protected final Float _writeIoThreadsPerCpu;
+    protected final Integer _minIoThreads;
+    protected final Integer _leastRecentlyUsedScanDepth;
+    protected final Long _maxConnectionCount;
+
+    WorkloadProfile(final Float bufferPoolMemoryPercent, final Integer maxBufferPoolMegabytes, final Integer bufferPoolToLogFileRatio, final Integer minLogFileMegabytes, final Integer maxLogFileMegabytes, final Integer logBufferMegabytes, final Float ioCapacityMultiplier, final Float readIoThreadsPerCpu, final Float writeIoThreadsPerCpu, final Integer minIoThreads, final Integer leastRecentlyUsedScanDepth, final Integer maxConnectionCount) {
+        _bufferPoolMemoryPercent = bufferPoolMemoryPercent;
+        _maxBufferPoolByteCount = (maxBufferPoolMegabytes != null ? (maxBufferPoolMegabytes * (1024L * 1024L)) : null);
+        _bufferPoolToLogFileRatio = bufferPoolToLogFileRatio.longValue();
+        _minLogFileByteCount = (minLogFileMegabytes * (1024L * 1024L));
+        _maxLogFileByteCount = (maxLogFileMegabytes * (1024L * 1024L));
+        _logBufferByteCount = (logBufferMegabytes * (1024L * 1024L));
+        _ioCapacityMultiplier = ioCapacityMultiplier;
+        _readIoThreadsPerCpu = readIoThreadsPerCpu;
+        _writeIoThreadsPerCpu = writeIoThreadsPerCpu;
+        _minIoThreads = minIoThreads;
+        _leastRecentlyUsedScanDepth = leastRecentlyUsedScanDepth;
+        _maxConnectionCount = maxConnectionCount.longValue();
+    }
+
+    protected Integer _calculateIoThreadCount(final Integer cpuCount, final Float threadsPerCpu) {
+        final int threadCount = Math.round(cpuCount * threadsPerCpu);
+        return Math.max(_minIoThreads, Math.min(MAX_IO_THREADS, threadCount));
+    }
+
+    public WorkloadSettings calculateSettings(final HostResources hostResources) {
+        final Long memoryByteCount = hostResources.getMemoryByteCount();
+        final Integer cpuCount = hostResources.getCpuCount();
+
+        Long bufferPoolByteCount = null;
+        Long logFileByteCount = null;
+        Long maxConnectionCount = null;
+        if (memoryByteCount != null) {
+            long byteCount = (long) (memoryByteCount * _bufferPoolMemoryPercent);
+            if (_maxBufferPoolByteCount != null) {
+                byteCount = Math.min(_maxBufferPoolByteCount, byteCount);
+            }
+            byteCount = Math.max(MIN_BUFFER_POOL_BYTE_COUNT, byteCount);
+            bufferPoolByteCount = ((byteCount / BYTES_PER_MEGABYTE) * BYTES_PER_MEGABYTE);
+
+            logFileByteCount = _clamp((bufferPoolByteCount / _bufferPoolToLogFileRatio), _minLogFileByteCount, _maxLogFileByteCount);
+            logFileByteCount = ((logFileByteCount / BYTES_PER_MEGABYTE) * BYTES_PER_MEGABYTE);
+
+            final long connectionMemoryByteCount = (Math.max(0L, (memoryByteCount - bufferPoolByteCount)) / 2L);
+            maxConnectionCount = _clamp((connectionMemoryByteCount / PER_CONNECTION_BYTE_COUNT), MIN_CONNECTION_COUNT, _maxConnectionCount);
+        }
+
+        Long ioCapacity = null;
+        Long ioCapacityMax = null;
+        final Long baseIoCapacity = _getBaseIoCapacity(hostResources.getStorageType());
+        if (baseIoCapacity != null) {
+            ioCapacity = Math.max(MIN_IO_CAPACITY, (long) (baseIoCapacity * _ioCapacityMultiplier));
+            ioCapacityMax = Math.max(MIN_IO_CAPACITY_MAX, (ioCapacity * 2L));
+        }
+
+        final Integer readIoThreads = (cpuCount != null ? _calculateIoThreadCount(cpuCount, _readIoThreadsPerCpu) : null);
+        final Integer writeIoThreads = (cpuCount != null ? _calculateIoThreadCount(cpuCount, _writeIoThreadsPerCpu) : null);
+
+        return new WorkloadSettings(bufferPoolByteCount, logFileByteCount, _logBufferByteCount, ioCapacity, ioCapacityMax, readIoThreads, writeIoThreads, _leastRecentlyUsedScanDepth, maxConnectionCount);
+    }
+}
@@ -0,0 +1,73 @@
+package com.softwareverde.database.mysql.embedded.properties;
+
+/**
+ * The server settings derived from a WorkloadProfile for a particular host.
+ *  Values that could not be derived (ex: the host's memory could not be determined) are null, and are left to the
+ *  server's defaults.
+ */
+public class WorkloadSettings {
+    public static final WorkloadSettings EMPTY = new WorkloadSettings(null, null, null, null, null, null, null, null, null);
+
+    protected final Long _innoDbBufferPoolByteCount;
+    protected final Long _innoDbLogFileByteCount;
+    protected final Long _innoDbLogBufferByteCount;
+    protected final Long _innoDbIoCapacity;
+    protected final Long _innoDbIoCapacityMax;
+    protected final Integer _innoDbReadIoThreads;
+    protected final Integer _innoDbWriteIoThreads;
+    protected final Integer _innoDbLeastRecentlyUsedScanDepth;
+    protected final Long _maxConnectionCount;
+
+    public WorkloadSettings(final Long innoDbBufferPoolByteCount, final Long innoDbLogFileByteCount, final Long innoDbLogBufferByteCount, final Long innoDbIoCapacity, final Long innoDbIoCapacityMax, final Integer innoDbReadIoThreads, final Integer innoDbWriteIoThreads, final Integer innoDbLeastRecentlyUsedScanDepth, final Long maxConnectionCount) {
+        _innoDbBufferPoolByteCount = innoDbBufferPoolByteCount;
+        _innoDbLogFileByteCount = innoDbLogFileByteCount;
+        _innoDbLogBufferByteCount = innoDbLogBufferByteCount;
+        _innoDbIoCapacity = innoDbIoCapacity;
+        _innoDbIoCapacityMax = innoDbIoCapacityMax;
+        _innoDbReadIoThreads = innoDbReadIoThreads;
+        _innoDbWriteIoThreads = innoDbWriteIoThreads;
+        _innoDbLeastRecentlyUsedScanDepth = innoDbLeastRecentlyUsedScanDepth;
+        _maxConnectionCount = maxConnectionCount;
+    }
+
+    public Long getInnoDbBufferPoolByteCount() {
+        return _innoDbBufferPoolByteCount;
+    }
+
+    public Long getInnoDbLogFileByteCount() {
+        return _innoDbLogFileByteCount;
+    }
+
+    public Long getInnoDbLogBufferByteCount() {
+        return _innoDbLogBufferByteCount;
+    }
+
+    public Long getInnoDbIoCapacity() {
+        return _innoDbIoCapacity;
+    }
+
+    public Long getInnoDbIoCapacityMax() {
+        return _innoDbIoCapacityMax;
+    }
+
+    public Integer getInnoDbReadIoThreads() {
+        return _innoDbReadIoThreads;
+    }
+
+    public Integer getInnoDbWriteIoThreads() {
+        return _innoDbWriteIoThreads;
+    }
+
+    public Integer getInnoDbLeastRecentlyUsedScanDepth() {
+        return _innoDbLeastRecentlyUsedScanDepth;
+    }
+
+    public Long getMaxConnectionCount() {
+        return _maxConnectionCount;
+    }
+
+    @Override
+    public String toString() {
+        return ("innodb_buffer_pool_size=" + _innoDbBufferPoolByteCount + " innodb_log_file_size=" + _innoDbLogFileByteCount + " innodb_log_buffer_size=" + _innoDbLogBufferByteCount + " innodb_io_capacity=" + _innoDbIoCapacity + " innodb_io_capacity_max=" + _innoDbIoCapacityMax + " innodb_read_io_threads=" + _innoDbReadIoThreads + " innodb_write_io_threads=" + _innoDbWriteIoThreads + " innodb_lru_scan_depth=" + _innoDbLeastRecentlyUsedScanDepth + " max_connections=" + _maxConnectionCount);
+    }
+}
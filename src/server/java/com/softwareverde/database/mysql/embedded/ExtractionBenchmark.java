@@ -0,0 +1,102 @@
+package com.softwareverde.database.mysql.embedded;
+
+import com.softwareverde.database.DatabaseException;
+import com.softwareverde.database.mysql.embedded.installation.DirectoryUtil;
+import com.softwareverde.database.mysql.embedded.properties.MutableEmbeddedDatabaseProperties;
+import com.softwareverde.logging.LineNumberAnnotatedLog;
+import com.softwareverde.logging.LogLevel;
+import com.softwareverde.logging.Logger;
+import com.softwareverde.util.timer.NanoTimer;
+
+import java.io.File;
+
+/**
+ * Measures the time to install the packaged binaries (ex: java-mariadb-linux) into an empty installation directory,
+ *  reading the resources directly from their jar and through the classloader.  The data directory is initialized once
+ *  beforehand, so that only the extraction is timed.  The bundle must be on the classpath as a jar (ex: via the
+ *  server jar's libs directory); resources within exploded class directories are always read through the classloader.
+ */
+public class ExtractionBenchmark {
+    protected static final Integer DEFAULT_ITERATION_COUNT = 5;
+
+    /**
+     * Installs into a new installation directory and returns the elapsed milliseconds.
+     */
+    protected static Double _install(final File installationDirectory, final File dataDirectory, final String rootPassword, final Boolean directJarAccessIsEnabled) throws DatabaseException {
+        final MutableEmbeddedDatabaseProperties databaseProperties = IngestBenchmark._createDatabaseProperties(installationDirectory, rootPassword);
+        databaseProperties.setDataDirectory(dataDirectory);
+
+        final EmbeddedMysqlDatabase embeddedMysqlDatabase = new EmbeddedMysqlDatabase(databaseProperties, IngestBenchmark._createDatabaseInitializer());
+        embeddedMysqlDatabase.setInstallationDirectJarAccessEnabled(directJarAccessIsEnabled);
+
+        final NanoTimer nanoTimer = new NanoTimer();
+        nanoTimer.start();
+        embeddedMysqlDatabase.install();
+        nanoTimer.stop();
+
+        return nanoTimer.getMillisecondsElapsed();
+    }
+
+    public static void main(final String[] parameters) {
+        Logger.setLog(LineNumberAnnotatedLog.getInstance());
+        Logger.setLogLevel(LogLevel.INFO);
+
+        if (parameters.length < 2) {
+            System.err.println("Usage: <scratchDirectory> <mysqlRootPassword> [<iterationCount>]");
+            System.exit(1);
+        }
+
+        final File scratchDirectory = new File(parameters[0]);
+        final String rootPassword = parameters[1];
+        final Integer iterationCount = (parameters.length > 2 ? Integer.valueOf(parameters[2]) : DEFAULT_ITERATION_COUNT);
+
+        final File dataDirectory = new File(scratchDirectory.getPath() + "/data");
+        final File initialInstallationDirectory = new File(scratchDirectory.getPath() + "/installation-initial");
+        final File installationDirectory = new File(scratchDirectory.getPath() + "/installation");
+        try {
+            { // Initialize the data directory so that subsequent installs only extract the binaries...
+                final Double elapsedMs = _install(initialInstallationDirectory, dataDirectory, rootPassword, true);
+                Logger.info("Initial install (including the data directory): " + String.format("%.0f", elapsedMs) + "ms");
+            }
+
+            double directJarElapsedMs = 0D;
+            double classLoaderElapsedMs = 0D;
+            for (int i = 0; i < iterationCount; ++i) {
+                // Alternate which path runs first so that neither consistently benefits from the other warming the page cache.
+                final Boolean directJarAccessRunsFirst = ((i % 2) == 0);
+                for (int j = 0; j < 2; ++j) {
+                    final Boolean directJarAccessIsEnabled = ((j == 0) == directJarAccessRunsFirst);
+
+                    DirectoryUtil.deleteDirectory(installationDirectory);
+                    final Double elapsedMs = _install(installationDirectory, dataDirectory, rootPassword, directJarAccessIsEnabled);
+                    Logger.info((directJarAccessIsEnabled ? "Direct jar access" : "Classloader") + ": " + String.format("%.0f", elapsedMs) + "ms");
+
+                    if (directJarAccessIsEnabled) {
+                        directJarElapsedMs += elapsedMs;
+                    }
+                    else {
+                        classLoaderElapsedMs += elapsedMs;
+                    }
+                }
+            }
+
+            Logger.info("Direct jar access average: " + String.format("%.0f", (directJarElapsedMs / iterationCount)) + "ms (" + iterationCount + " installs)");
+            Logger.info("Classloader average: " + String.format("%.0f", (classLoaderElapsedMs / iterationCount)) + "ms (" + iterationCount + " installs)");
+            Logger.info("Direct jar access speedup: " + String.format("%.2f", (classLoaderElapsedMs / directJarElapsedMs)) + "x");
+        }
+        catch (final Exception exception) {
+            Logger.warn("Benchmark failed.", exception);
+            System.exit(1);
+        }
+        finally {
+            try {
+                DirectoryUtil.deleteDirectory(installationDirectory);
+                DirectoryUtil.deleteDirectory(initialInstallationDirectory);
+                DirectoryUtil.deleteDirectory(dataDirectory);
+            }
+            catch (final Exception exception) {
+                Logger.debug(exception);
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.softwareverde.database.mysql.embedded;
+
+import com.softwareverde.database.DatabaseConnection;
+import com.softwareverde.database.DatabaseException;
+import com.softwareverde.database.DatabaseInitializer;
+import com.softwareverde.database.mysql.MysqlDatabaseConnection;
+import com.softwareverde.database.mysql.MysqlDatabaseInitializer;
+import com.softwareverde.database.mysql.embedded.installation.DirectoryUtil;
+import com.softwareverde.database.mysql.embedded.properties.MutableEmbeddedDatabaseProperties;
+import com.softwareverde.database.query.Query;
+import com.softwareverde.logging.LineNumberAnnotatedLog;
+import com.softwareverde.logging.LogLevel;
+import com.softwareverde.logging.Logger;
+import com.softwareverde.util.timer.NanoTimer;
+
+import java.io.File;
+import java.sql.Connection;
+
+/**
+ * Measures insert throughput (one autocommit transaction per row, so that commit durability dominates) with a durable
+ *  data directory, with a durable data directory in bulk-ingest mode, and with ephemeral mode.
+ */
+public class IngestBenchmark {
+    protected static final Integer DEFAULT_ROW_COUNT = 10000;
+
+    protected static MutableEmbeddedDatabaseProperties _createDatabaseProperties(final File installationDirectory, final String rootPassword) {
+        final MutableEmbeddedDatabaseProperties databaseProperties = new MutableEmbeddedDatabaseProperties();
+        databaseProperties.setHostname("127.0.0.1");
+        databaseProperties.enableAutomaticPort();
+        databaseProperties.setRootPassword(rootPassword);
+        databaseProperties.setUsername("user");
+        databaseProperties.setPassword("password");
+        databaseProperties.setSchema("benchmark");
+        databaseProperties.setInstallationDirectory(installationDirectory);
+        return databaseProperties;
+    }
+
+    protected static DatabaseInitializer<Connection> _createDatabaseInitializer() {
+        final Integer databaseVersion = 1;
+        return new MysqlDatabaseInitializer(null, databaseVersion, new DatabaseInitializer.DatabaseUpgradeHandler<Connection>() {
+            @Override
+            public Boolean onUpgrade(final DatabaseConnection<Connection> maintenanceDatabaseConnection, final Integer previousVersion, final Integer requiredVersion) {
+                return (previousVersion <= databaseVersion);
+            }
+        });
+    }
+
+    /**
+     * Inserts the rows into a new table, each within its own transaction, and returns the number of rows inserted per second.
+     */
+    protected static Double _insertRows(final EmbeddedMysqlDatabase embeddedMysqlDatabase, final Integer rowCount, final Boolean bulkIngestModeIsEnabled) throws DatabaseException {
+        try (final MysqlDatabaseConnection databaseConnection = (bulkIngestModeIsEnabled ? embeddedMysqlDatabase.newBulkIngestConnection() : embeddedMysqlDatabase.newConnection())) {
+            databaseConnection.executeSql(new Query("DROP TABLE IF EXISTS benchmark_rows"));
+            databaseConnection.executeSql(new Query("CREATE TABLE benchmark_rows (id INT UNSIGNED NOT NULL AUTO_INCREMENT PRIMARY KEY, value VARCHAR(255) NOT NULL) ENGINE=InnoDB"));
+
+            final NanoTimer nanoTimer = new NanoTimer();
+            nanoTimer.start();
+            for (int i = 0; i < rowCount; ++i) {
+                databaseConnection.executeSql(new Query("INSERT INTO benchmark_rows (value) VALUES (?)").setParameter("row-" + i));
+            }
+            nanoTimer.stop();
+
+            return (rowCount * 1000D / nanoTimer.getMillisecondsElapsed());
+        }
+    }
+
+    protected static Double _runBenchmark(final String name, final MutableEmbeddedDatabaseProperties databaseProperties, final Integer rowCount, final Boolean bulkIngestModeIsEnabled) throws DatabaseException {
+        final EmbeddedMysqlDatabase embeddedMysqlDatabase = new EmbeddedMysqlDatabase(databaseProperties, _createDatabaseInitializer());
+        embeddedMysqlDatabase.start();
+        try {
+            if (bulkIngestModeIsEnabled) {
+                embeddedMysqlDatabase.enterBulkIngestMode();
+            }
+
+            final Double rowsPerSecond = _insertRows(embeddedMysqlDatabase, rowCount, bulkIngestModeIsEnabled);
+            Logger.info(name + ": " + String.format("%.0f", rowsPerSecond) + " rows/s (" + rowCount + " rows)");
+            return rowsPerSecond;
+        }
+        finally {
+            if (bulkIngestModeIsEnabled) {
+                embeddedMysqlDatabase.exitBulkIngestMode();
+            }
+            embeddedMysqlDatabase.stop();
+        }
+    }
+
+    public static void main(final String[] parameters) {
+        Logger.setLog(LineNumberAnnotatedLog.getInstance());
+        Logger.setLogLevel(LogLevel.INFO);
+
+        if (parameters.length < 3) {
+            System.err.println("Usage: <installationDirectory> <scratchDirectory> <mysqlRootPassword> [<rowCount>]");
+            System.exit(1);
+        }
+
+        final File installationDirectory = new File(parameters[0]);
+        final File scratchDirectory = new File(parameters[1]);
+        final String rootPassword = parameters[2];
+        final Integer rowCount = (parameters.length > 3 ? Integer.valueOf(parameters[3]) : DEFAULT_ROW_COUNT);
+
+        final File durableDataDirectory = new File(scratchDirectory.getPath() + "/durable");
+        final File bulkIngestDataDirectory = new File(scratchDirectory.getPath() + "/bulk-ingest");
+        try {
+            final MutableEmbeddedDatabaseProperties durableDatabaseProperties = _createDatabaseProperties(installationDirectory, rootPassword);
+            durableDatabaseProperties.setDataDirectory(durableDataDirectory);
+            final Double durableRowsPerSecond = _runBenchmark("Durable", durableDatabaseProperties, rowCount, false);
+
+            final MutableEmbeddedDatabaseProperties bulkIngestDatabaseProperties = _createDatabaseProperties(installationDirectory, rootPassword);
+            bulkIngestDatabaseProperties.setDataDirectory(bulkIngestDataDirectory);
+            final Double bulkIngestRowsPerSecond = _runBenchmark("Durable (bulk-ingest mode)", bulkIngestDatabaseProperties, rowCount, true);
+
+            final MutableEmbeddedDatabaseProperties ephemeralDatabaseProperties = _createDatabaseProperties(installationDirectory, rootPassword);
+            ephemeralDatabaseProperties.enableEphemeralMode();
+            final Double ephemeralRowsPerSecond = _runBenchmark("Ephemeral", ephemeralDatabaseProperties, rowCount, false);
+
+            Logger.info("Bulk-ingest speedup: " + String.format("%.2f", (bulkIngestRowsPerSecond / durableRowsPerSecond)) + "x");
+            Logger.info("Ephemeral speedup: " + String.format("%.2f", (ephemeralRowsPerSecond / durableRowsPerSecond)) + "x");
+        }
+        catch (final Exception exception) {
+            Logger.warn("Benchmark failed.", exception);
+            System.exit(1);
+        }
+        finally {
+            try {
+                DirectoryUtil.deleteDirectory(durableDataDirectory);
+                DirectoryUtil.deleteDirectory(bulkIngestDataDirectory);
+            }
+            catch (final Exception exception) {
+                Logger.debug(exception);
+            }
+        }
+    }
+}
@@ -8,6 +8,7 @@ import com.softwareverde.database.mysql.embedded.properties.MutableEmbeddedDatab
 import com.softwareverde.logging.LineNumberAnnotatedLog;
 import com.softwareverde.logging.LogLevel;
 import com.softwareverde.logging.Logger;
+import com.softwareverde.util.Util;
 import com.softwareverde.util.Version;
 
 import java.io.File;
@@ -19,17 +20,23 @@ public class Main {
         Logger.setLogLevel(LogLevel.DEBUG);
 
         if (parameters.length < 3) {
-            System.err.println("Usage: <installationDirectory> <dataDirectory> <mysqlRootPassword>");
+            System.err.println("Usage: <installationDirectory> <dataDirectory> <mysqlRootPassword> [<port>|auto]");
             System.exit(1);
         }
 
         final File installationDirectory = new File(parameters[0]);
         final File dataDirectory = new File(parameters[1]);
         final String mysqlRootPassword = parameters[2];
+        final String portParameter = (parameters.length > 3 ? parameters[3] : null);
 
         final MutableEmbeddedDatabaseProperties databaseProperties = new MutableEmbeddedDatabaseProperties();
         databaseProperties.setHostname("127.0.0.1");
-        databaseProperties.setPort(MysqlDatabase.DEFAULT_PORT);
+        if (Util.areEqual("auto", portParameter)) {
+            databaseProperties.enableAutomaticPort();
+        }
+        else {
+            databaseProperties.setPort(portParameter != null ? Integer.valueOf(portParameter) : MysqlDatabase.DEFAULT_PORT);
+        }
         databaseProperties.setRootPassword(mysqlRootPassword);
         databaseProperties.setUsername("user");
         databaseProperties.setPassword("password");
@@ -60,7 +67,7 @@ public class Main {
             }
 
             embeddedMysqlDatabase.start();
-            Logger.info("Database online.");
+            Logger.info("Database online. (Port: " + embeddedMysqlDatabase.getPort() + ")");
 
             final Thread thread = Thread.currentThread();
             while (! thread.isInterrupted()) {
@@ -0,0 +1,108 @@
+package com.softwareverde.database.mysql.embedded;
+
+import com.softwareverde.database.DatabaseException;
+import com.softwareverde.database.mysql.MysqlDatabaseConnection;
+import com.softwareverde.database.mysql.MysqlDatabaseConnectionFactory;
+import com.softwareverde.database.mysql.embedded.installation.DirectoryUtil;
+import com.softwareverde.database.mysql.embedded.properties.MutableEmbeddedDatabaseProperties;
+import com.softwareverde.database.query.Query;
+import com.softwareverde.logging.LineNumberAnnotatedLog;
+import com.softwareverde.logging.LogLevel;
+import com.softwareverde.logging.Logger;
+import com.softwareverde.util.timer.NanoTimer;
+
+import java.io.File;
+import java.util.Properties;
+
+/**
+ * Measures the round-trip latency of "SELECT 1" via a Unix socket connection and via a TCP connection to the same
+ *  server, which listens on both.  The Unix socket is created within the data directory, so the scratch directory's
+ *  path must be short (see OperatingSystemSpecificMysqlDatabase::validateTransport).
+ */
+public class SocketLatencyBenchmark {
+    protected static final Integer DEFAULT_ROUND_TRIP_COUNT = 10000;
+    protected static final Integer WARM_UP_ROUND_TRIP_COUNT = 1000;
+
+    protected static void _executeRoundTrips(final MysqlDatabaseConnection databaseConnection, final Integer roundTripCount) throws DatabaseException {
+        for (int i = 0; i < roundTripCount; ++i) {
+            databaseConnection.query(new Query("SELECT 1"));
+        }
+    }
+
+    /**
+     * Executes the round trips over a new connection and returns the average round-trip latency, in microseconds.
+     */
+    protected static Double _measureRoundTrips(final String name, final MysqlDatabaseConnectionFactory databaseConnectionFactory, final Integer roundTripCount) throws DatabaseException {
+        try (final MysqlDatabaseConnection databaseConnection = databaseConnectionFactory.newConnection()) {
+            _executeRoundTrips(databaseConnection, WARM_UP_ROUND_TRIP_COUNT);
+
+            final NanoTimer nanoTimer = new NanoTimer();
+            nanoTimer.start();
+            _executeRoundTrips(databaseConnection, roundTripCount);
+            nanoTimer.stop();
+
+            final Double microsecondsPerRoundTrip = (nanoTimer.getMillisecondsElapsed() * 1000D / roundTripCount);
+            Logger.info(name + ": " + String.format("%.1f", microsecondsPerRoundTrip) + "us per round trip (" + roundTripCount + " round trips)");
+            return microsecondsPerRoundTrip;
+        }
+    }
+
+    public static void main(final String[] parameters) {
+        Logger.setLog(LineNumberAnnotatedLog.getInstance());
+        Logger.setLogLevel(LogLevel.INFO);
+
+        if (parameters.length < 3) {
+            System.err.println("Usage: <installationDirectory> <scratchDirectory> <mysqlRootPassword> [<roundTripCount>]");
+            System.exit(1);
+        }
+
+        final File installationDirectory = new File(parameters[0]);
+        final File scratchDirectory = new File(parameters[1]);
+        final String rootPassword = parameters[2];
+        final Integer roundTripCount = (parameters.length > 3 ? Integer.valueOf(parameters[3]) : DEFAULT_ROUND_TRIP_COUNT);
+
+        final File dataDirectory = new File(scratchDirectory.getPath() + "/data");
+        try {
+            final MutableEmbeddedDatabaseProperties databaseProperties = IngestBenchmark._createDatabaseProperties(installationDirectory, rootPassword);
+            databaseProperties.setDataDirectory(dataDirectory);
+            databaseProperties.enableUnixSocketConnections();
+
+            final EmbeddedMysqlDatabase embeddedMysqlDatabase = new EmbeddedMysqlDatabase(databaseProperties, IngestBenchmark._createDatabaseInitializer());
+            embeddedMysqlDatabase.start();
+            try {
+                final Properties unixSocketConnectionProperties = databaseProperties.getConnectionProperties();
+                final Properties tcpConnectionProperties = new Properties();
+                tcpConnectionProperties.putAll(unixSocketConnectionProperties);
+                tcpConnectionProperties.remove(MutableEmbeddedDatabaseProperties.UNIX_SOCKET_CONNECTION_PROPERTY);
+
+                final String hostname = databaseProperties.getHostname();
+                final Integer port = databaseProperties.getPort();
+                final String schema = databaseProperties.getSchema();
+                final String username = databaseProperties.getUsername();
+                final String password = databaseProperties.getPassword();
+                final MysqlDatabaseConnectionFactory unixSocketConnectionFactory = new MysqlDatabaseConnectionFactory(hostname, port, schema, username, password, unixSocketConnectionProperties);
+                final MysqlDatabaseConnectionFactory tcpConnectionFactory = new MysqlDatabaseConnectionFactory(hostname, port, schema, username, password, tcpConnectionProperties);
+
+                final Double unixSocketMicroseconds = _measureRoundTrips("Unix socket", unixSocketConnectionFactory, roundTripCount);
+                final Double tcpMicroseconds = _measureRoundTrips("TCP", tcpConnectionFactory, roundTripCount);
+
+                Logger.info("Unix socket speedup: " + String.format("%.2f", (tcpMicroseconds / unixSocketMicroseconds)) + "x");
+            }
+            finally {
+                embeddedMysqlDatabase.stop();
+            }
+        }
+        catch (final Exception exception) {
+            Logger.warn("Benchmark failed.", exception);
+            System.exit(1);
+        }
+        finally {
+            try {
+                DirectoryUtil.deleteDirectory(dataDirectory);
+            }
+            catch (final Exception exception) {
+                Logger.debug(exception);
+            }
+        }
+    }
+}
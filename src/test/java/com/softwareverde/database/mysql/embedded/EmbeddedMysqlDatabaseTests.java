@@ -0,0 +1,63 @@
+package com.softwareverde.database.mysql.embedded;
+
+import com.softwareverde.constable.list.mutable.MutableList;
+import com.softwareverde.database.mysql.embedded.properties.ServerVariables;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class EmbeddedMysqlDatabaseTests {
+    @Test
+    public void should_normalize_boolean_values() {
+        Assert.assertEquals("1", EmbeddedMysqlDatabase._normalizeVariableValue("ON"));
+        Assert.assertEquals("1", EmbeddedMysqlDatabase._normalizeVariableValue("true"));
+        Assert.assertEquals("0", EmbeddedMysqlDatabase._normalizeVariableValue("off"));
+        Assert.assertEquals("0", EmbeddedMysqlDatabase._normalizeVariableValue("FALSE"));
+        Assert.assertEquals(EmbeddedMysqlDatabase._normalizeVariableValue("1"), EmbeddedMysqlDatabase._normalizeVariableValue("ON"));
+    }
+
+    @Test
+    public void should_normalize_numeric_values() {
+        Assert.assertEquals("134217728", EmbeddedMysqlDatabase._normalizeVariableValue("128M"));
+        Assert.assertEquals("134217728", EmbeddedMysqlDatabase._normalizeVariableValue(" 134217728 "));
+        Assert.assertEquals("1024", EmbeddedMysqlDatabase._normalizeVariableValue("1k"));
+        Assert.assertEquals("0.5", EmbeddedMysqlDatabase._normalizeVariableValue("0.50"));
+    }
+
+    @Test
+    public void should_not_treat_an_empty_value_as_a_boolean() {
+        Assert.assertEquals("", EmbeddedMysqlDatabase._normalizeVariableValue(""));
+        Assert.assertNotEquals(EmbeddedMysqlDatabase._normalizeVariableValue("ON"), EmbeddedMysqlDatabase._normalizeVariableValue(""));
+    }
+
+    @Test
+    public void should_convert_boolean_and_numeric_parameters_to_numbers() {
+        Assert.assertEquals(1L, EmbeddedMysqlDatabase._getVariableParameter("ON"));
+        Assert.assertEquals(0L, EmbeddedMysqlDatabase._getVariableParameter("OFF"));
+        Assert.assertEquals(134217728L, EmbeddedMysqlDatabase._getVariableParameter("128M"));
+        Assert.assertEquals(0.5D, EmbeddedMysqlDatabase._getVariableParameter("0.5"));
+    }
+
+    @Test
+    public void should_pass_string_parameters_through_unchanged() {
+        Assert.assertEquals("", EmbeddedMysqlDatabase._getVariableParameter(""));
+        Assert.assertEquals("STRICT_TRANS_TABLES,NO_ENGINE_SUBSTITUTION", EmbeddedMysqlDatabase._getVariableParameter("STRICT_TRANS_TABLES,NO_ENGINE_SUBSTITUTION"));
+        Assert.assertEquals("utf8mb4_general_ci", EmbeddedMysqlDatabase._getVariableParameter("utf8mb4_general_ci"));
+    }
+
+    @Test
+    public void should_set_an_empty_commandline_value_as_an_empty_string() {
+        // Setup
+        final MutableList<String> commandlineArguments = new MutableList<>();
+        commandlineArguments.add("--skip-networking");
+        commandlineArguments.add("--sql_mode=");
+        final ServerVariables serverVariables = ServerVariables.parse(commandlineArguments);
+
+        // Action
+        final Object flagParameter = EmbeddedMysqlDatabase._getVariableParameter(serverVariables.getString("skip_networking"));
+        final Object emptyParameter = EmbeddedMysqlDatabase._getVariableParameter(serverVariables.getString("sql_mode"));
+
+        // Assert
+        Assert.assertEquals(1L, flagParameter);
+        Assert.assertEquals("", emptyParameter);
+    }
+}
@@ -0,0 +1,26 @@
+package com.softwareverde.database.mysql.embedded;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class NamedThreadFactoryTests {
+    @Test
+    public void should_create_daemon_threads_numbered_from_one() {
+        // Setup
+        final NamedThreadFactory threadFactory = new NamedThreadFactory("Worker");
+        final Runnable runnable = new Runnable() {
+            @Override
+            public void run() { }
+        };
+
+        // Action
+        final Thread thread0 = threadFactory.newThread(runnable);
+        final Thread thread1 = threadFactory.newThread(runnable);
+
+        // Assert
+        Assert.assertEquals("Worker 1", thread0.getName());
+        Assert.assertEquals("Worker 2", thread1.getName());
+        Assert.assertTrue(thread0.isDaemon());
+        Assert.assertTrue(thread1.isDaemon());
+    }
+}
@@ -0,0 +1,57 @@
+package com.softwareverde.database.mysql.embedded;
+
+import com.softwareverde.constable.list.mutable.MutableList;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SqlUtilTests {
+    @Test
+    public void should_escape_backticks_within_an_identifier() {
+        // Action
+        final String quotedIdentifier = SqlUtil.quoteIdentifier("odd`name");
+
+        // Assert
+        Assert.assertEquals("`odd``name`", quotedIdentifier);
+    }
+
+    @Test
+    public void should_not_split_an_unqualified_identifier_on_a_period() {
+        // Action
+        final String quotedIdentifier = SqlUtil.quoteIdentifier("column.name");
+
+        // Assert
+        Assert.assertEquals("`column.name`", quotedIdentifier);
+    }
+
+    @Test
+    public void should_quote_a_qualified_identifier() {
+        // Assert
+        Assert.assertEquals("`schema`.`table`", SqlUtil.quoteIdentifier("schema", "table"));
+        Assert.assertEquals("`schema`.`table`", SqlUtil.quoteQualifiedIdentifier("schema.table"));
+        Assert.assertEquals("`table`", SqlUtil.quoteQualifiedIdentifier("table"));
+        Assert.assertEquals("`schema`.`table.name`", SqlUtil.quoteQualifiedIdentifier("schema.table.name"));
+    }
+
+    @Test
+    public void should_escape_quotes_and_backslashes_within_a_string() {
+        // Action
+        final String quotedString = SqlUtil.quoteString("C:\\it's");
+
+        // Assert
+        Assert.assertEquals("'C:\\\\it\\'s'", quotedString);
+    }
+
+    @Test
+    public void should_join_quoted_column_names() {
+        // Setup
+        final MutableList<String> columnNames = new MutableList<>();
+        columnNames.add("id");
+        columnNames.add("a.b");
+
+        // Action
+        final String columnList = SqlUtil.getColumnList(columnNames);
+
+        // Assert
+        Assert.assertEquals("`id`, `a.b`", columnList);
+    }
+}
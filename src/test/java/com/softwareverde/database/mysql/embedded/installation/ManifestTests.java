@@ -0,0 +1,123 @@
+package com.softwareverde.database.mysql.embedded.installation;
+
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.mutable.MutableList;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ManifestTests {
+    protected static final String RESOURCE_PREFIX = "/mysql/linux/";
+
+    protected static final String MANIFEST_CONTENTS =
+        "/mysql/linux/base/bin/mysqld x\n" +
+        "/mysql/linux/base/share/english/errmsg.sys\n" +
+        "\n" +
+        "/mysql/linux/base/lib/libgalera.so z\n" +
+        "/mysql/linux/base/lib/libssl.so -> libssl.so.1.1 l\n" +
+        "[upgrade]\n" +
+        "/mysql/linux/base/bin/mariadb-upgrade xz\n" +
+        "/mysql/linux/base/bin/mysql_upgrade -> mariadb-upgrade l\n" +
+        "  [ rocksdb ]  \n" +
+        "/mysql/linux/base/lib/plugin/ha_rocksdb.so z\n";
+
+    protected static ManifestEntry _getEntry(final List<ManifestEntry> manifestEntries, final String relativePath) {
+        for (final ManifestEntry manifestEntry : manifestEntries) {
+            if (relativePath.equals(manifestEntry.getRelativePath())) {
+                return manifestEntry;
+            }
+        }
+        return null;
+    }
+
+    @Test
+    public void should_parse_entries_and_flags() {
+        // Action
+        final Manifest manifest = Manifest.parse(MANIFEST_CONTENTS, RESOURCE_PREFIX);
+
+        // Assert
+        final List<ManifestEntry> manifestEntries = manifest.getEntries();
+        Assert.assertEquals(7, manifestEntries.getCount());
+
+        final ManifestEntry mysqld = _getEntry(manifestEntries, "/base/bin/mysqld");
+        Assert.assertEquals("/mysql/linux/base/bin/mysqld", mysqld.getResource());
+        Assert.assertTrue(mysqld.isExecutable());
+        Assert.assertFalse(mysqld.isCompressed());
+        Assert.assertFalse(mysqld.isSymbolicLink());
+
+        final ManifestEntry errorMessages = _getEntry(manifestEntries, "/base/share/english/errmsg.sys");
+        Assert.assertEquals("", errorMessages.getFlags());
+        Assert.assertFalse(errorMessages.isExecutable());
+        Assert.assertFalse(errorMessages.isCompressed());
+
+        final ManifestEntry galera = _getEntry(manifestEntries, "/base/lib/libgalera.so");
+        Assert.assertFalse(galera.isExecutable());
+        Assert.assertTrue(galera.isCompressed());
+
+        final ManifestEntry upgrade = _getEntry(manifestEntries, "/base/bin/mariadb-upgrade");
+        Assert.assertTrue(upgrade.isExecutable());
+        Assert.assertTrue(upgrade.isCompressed());
+    }
+
+    @Test
+    public void should_parse_symbolic_links() {
+        // Action
+        final Manifest manifest = Manifest.parse(MANIFEST_CONTENTS, RESOURCE_PREFIX);
+
+        // Assert
+        final ManifestEntry libssl = _getEntry(manifest.getEntries(), "/base/lib/libssl.so");
+        Assert.assertTrue(libssl.isSymbolicLink());
+        Assert.assertEquals("/mysql/linux/base/lib/libssl.so", libssl.getResource());
+        Assert.assertEquals("libssl.so.1.1", libssl.getLinkTarget());
+        Assert.assertNull(_getEntry(manifest.getEntries(), "/base/bin/mysqld").getLinkTarget());
+    }
+
+    @Test
+    public void should_assign_entries_to_the_preceding_group() {
+        // Action
+        final Manifest manifest = Manifest.parse(MANIFEST_CONTENTS, RESOURCE_PREFIX);
+
+        // Assert
+        final List<ManifestEntry> manifestEntries = manifest.getEntries();
+        Assert.assertNull(_getEntry(manifestEntries, "/base/bin/mysqld").getGroup());
+        Assert.assertNull(_getEntry(manifestEntries, "/base/lib/libssl.so").getGroup());
+        Assert.assertEquals(Manifest.UPGRADE_GROUP, _getEntry(manifestEntries, "/base/bin/mariadb-upgrade").getGroup());
+        Assert.assertEquals(Manifest.UPGRADE_GROUP, _getEntry(manifestEntries, "/base/bin/mysql_upgrade").getGroup());
+        Assert.assertEquals("rocksdb", _getEntry(manifestEntries, "/base/lib/plugin/ha_rocksdb.so").getGroup());
+
+        final List<ManifestEntry> upgradeEntries = manifest.getGroupEntries(Manifest.UPGRADE_GROUP);
+        Assert.assertEquals(2, upgradeEntries.getCount());
+        Assert.assertEquals(0, manifest.getGroupEntries("unknown").getCount());
+    }
+
+    @Test
+    public void should_select_the_always_installed_entries_and_the_requested_groups() {
+        // Setup
+        final Manifest manifest = Manifest.parse(MANIFEST_CONTENTS, RESOURCE_PREFIX);
+
+        final MutableList<String> noGroups = new MutableList<>();
+        final MutableList<String> rocksDbGroup = new MutableList<>();
+        rocksDbGroup.add("rocksdb");
+
+        // Action
+        final List<ManifestEntry> allEntries = manifest.getEntries(null);
+        final List<ManifestEntry> alwaysInstalledEntries = manifest.getEntries(noGroups);
+        final List<ManifestEntry> rocksDbEntries = manifest.getEntries(rocksDbGroup);
+
+        // Assert
+        Assert.assertEquals(7, allEntries.getCount());
+        Assert.assertEquals(4, alwaysInstalledEntries.getCount());
+        Assert.assertEquals(5, rocksDbEntries.getCount());
+        Assert.assertNotNull(_getEntry(rocksDbEntries, "/base/lib/plugin/ha_rocksdb.so"));
+        Assert.assertNull(_getEntry(rocksDbEntries, "/base/bin/mariadb-upgrade"));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void should_reject_an_empty_group_name() {
+        Manifest.parse("/mysql/linux/base/bin/mysqld x\n[ ]\n/mysql/linux/base/bin/mysql x\n", RESOURCE_PREFIX);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void should_reject_a_symbolic_link_without_a_target() {
+        Manifest.parse("/mysql/linux/base/lib/libssl.so l\n", RESOURCE_PREFIX);
+    }
+}
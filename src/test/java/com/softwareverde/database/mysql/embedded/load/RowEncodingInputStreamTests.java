@@ -0,0 +1,118 @@
+package com.softwareverde.database.mysql.embedded.load;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class RowEncodingInputStreamTests {
+    protected static RowEncodingInputStream _newInputStream(final Object[]... rows) {
+        return new RowEncodingInputStream(new ArrayList<>(Arrays.asList(rows)).iterator());
+    }
+
+    protected static byte[] _readAll(final RowEncodingInputStream inputStream, final Integer bufferSize) {
+        final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[bufferSize];
+        int byteCount;
+        while ((byteCount = inputStream.read(buffer, 0, buffer.length)) >= 0) {
+            byteArrayOutputStream.write(buffer, 0, byteCount);
+        }
+        return byteArrayOutputStream.toByteArray();
+    }
+
+    protected static String _encode(final Object[]... rows) {
+        return new String(_readAll(_newInputStream(rows), 4096), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void should_separate_fields_with_tabs_and_rows_with_newlines() {
+        Assert.assertEquals("a\tb\n1\t2.5\n", _encode(new Object[] { "a", "b" }, new Object[] { 1, 2.5D }));
+    }
+
+    @Test
+    public void should_write_null_as_an_escaped_n() {
+        Assert.assertEquals("\\N\t\t\\N\n", _encode(new Object[] { null, "", null }));
+    }
+
+    @Test
+    public void should_write_booleans_as_digits() {
+        Assert.assertEquals("1\t0\n", _encode(new Object[] { true, false }));
+    }
+
+    @Test
+    public void should_escape_special_characters() {
+        Assert.assertEquals("back\\\\slash\ttab\\t\tnew\\nline\tcarriage\\rreturn\tnul\\0\n", _encode(new Object[] { "back\\slash", "tab\t", "new\nline", "carriage\rreturn", "nul\0" }));
+    }
+
+    @Test
+    public void should_not_escape_an_escaped_null_string() {
+        // The literal string "\N" is not null; its backslash is escaped.
+        Assert.assertEquals("\\\\N\n", _encode(new Object[] { "\\N" }));
+    }
+
+    @Test
+    public void should_escape_byte_arrays_without_encoding_them() {
+        // Setup
+        final byte[] value = new byte[] { (byte) 0xFF, '\t', 0x00, 'a' };
+
+        // Action
+        final byte[] encodedRow = _readAll(_newInputStream(new Object[] { value }), 4096);
+
+        // Assert
+        Assert.assertArrayEquals(new byte[] { (byte) 0xFF, '\\', 't', '\\', '0', 'a', '\n' }, encodedRow);
+    }
+
+    @Test
+    public void should_encode_strings_as_utf8() {
+        // Action
+        final byte[] encodedRow = _readAll(_newInputStream(new Object[] { "\u00E9" }), 4096);
+
+        // Assert
+        Assert.assertArrayEquals(new byte[] { (byte) 0xC3, (byte) 0xA9, '\n' }, encodedRow);
+    }
+
+    @Test
+    public void should_produce_the_same_bytes_regardless_of_read_size() {
+        // Setup
+        final Object[][] rows = new Object[100][];
+        for (int i = 0; i < rows.length; ++i) {
+            rows[i] = new Object[] { i, ("value\t" + i), null, (i % 2 == 0) };
+        }
+        final byte[] expectedBytes = _readAll(_newInputStream(rows), 65536);
+
+        // Action
+        final byte[] smallBufferBytes = _readAll(_newInputStream(rows), 3);
+        final ByteArrayOutputStream singleByteOutputStream = new ByteArrayOutputStream();
+        final RowEncodingInputStream singleByteInputStream = _newInputStream(rows);
+        int value;
+        while ((value = singleByteInputStream.read()) >= 0) {
+            singleByteOutputStream.write(value);
+        }
+
+        // Assert
+        Assert.assertArrayEquals(expectedBytes, smallBufferBytes);
+        Assert.assertArrayEquals(expectedBytes, singleByteOutputStream.toByteArray());
+        Assert.assertEquals(Long.valueOf(100L), singleByteInputStream.getRowCount());
+    }
+
+    @Test
+    public void should_end_the_stream_once_the_rows_are_exhausted() {
+        // Setup
+        final RowEncodingInputStream inputStream = _newInputStream();
+        final byte[] buffer = new byte[16];
+
+        // Assert
+        Assert.assertEquals(0, inputStream.read(buffer, 0, 0));
+        Assert.assertEquals(-1, inputStream.read(buffer, 0, buffer.length));
+        Assert.assertEquals(-1, inputStream.read());
+        Assert.assertEquals(Long.valueOf(0L), inputStream.getRowCount());
+    }
+
+    @Test
+    public void should_encode_an_empty_row_as_an_empty_line() {
+        Assert.assertEquals("\n", _encode(new Object[0]));
+    }
+}
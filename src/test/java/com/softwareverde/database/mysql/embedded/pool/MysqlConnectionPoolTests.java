@@ -0,0 +1,309 @@
+package com.softwareverde.database.mysql.embedded.pool;
+
+import com.softwareverde.database.DatabaseException;
+import com.softwareverde.database.mysql.MysqlDatabaseConnection;
+import com.softwareverde.database.mysql.MysqlDatabaseConnectionFactory;
+import com.softwareverde.database.mysql.embedded.properties.MutableEmbeddedDatabaseProperties;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Properties;
+
+public class MysqlConnectionPoolTests {
+    /**
+     * The state of a fake JDBC connection; only the methods used by the pool are implemented.
+     */
+    protected static class FakeConnectionState implements InvocationHandler {
+        public volatile Boolean isValid = true;
+        public volatile Boolean isClosed = false;
+        public volatile Boolean autoCommit = true;
+        public volatile Integer rollbackCount = 0;
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] arguments) {
+            final String methodName = method.getName();
+            if (methodName.equals("isValid")) { return this.isValid; }
+            if (methodName.equals("isClosed")) { return this.isClosed; }
+            if (methodName.equals("close")) { this.isClosed = true; return null; }
+            if (methodName.equals("getAutoCommit")) { return this.autoCommit; }
+            if (methodName.equals("setAutoCommit")) { this.autoCommit = (Boolean) arguments[0]; return null; }
+            if (methodName.equals("rollback")) { this.rollbackCount += 1; return null; }
+            if (methodName.equals("hashCode")) { return System.identityHashCode(proxy); }
+            if (methodName.equals("equals")) { return (proxy == arguments[0]); }
+            throw new UnsupportedOperationException(methodName);
+        }
+    }
+
+    /**
+     * Creates a new fake connection for each request, retaining the state of each.
+     */
+    protected static class FakeDatabaseConnectionFactory extends MysqlDatabaseConnectionFactory {
+        public final ArrayList<FakeConnectionState> connectionStates = new ArrayList<>();
+        public volatile Boolean isAvailable = true;
+
+        public FakeDatabaseConnectionFactory() {
+            super("127.0.0.1", 3306, "test", "user", "password", new Properties());
+        }
+
+        @Override
+        public synchronized MysqlDatabaseConnection newConnection() throws DatabaseException {
+            if (! this.isAvailable) { throw new DatabaseException("Unable to connect."); }
+
+            final FakeConnectionState connectionState = new FakeConnectionState();
+            final Connection connection = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class }, connectionState);
+            this.connectionStates.add(connectionState);
+            return new MysqlDatabaseConnection(connection);
+        }
+    }
+
+    @Test
+    public void should_reuse_a_released_connection() throws Exception {
+        // Setup
+        final FakeDatabaseConnectionFactory databaseConnectionFactory = new FakeDatabaseConnectionFactory();
+        final MysqlConnectionPool connectionPool = new MysqlConnectionPool(databaseConnectionFactory, 4);
+
+        // Action
+        final MysqlDatabaseConnection databaseConnection0 = connectionPool.borrow();
+        final Connection rawConnection0 = databaseConnection0.getRawConnection();
+        databaseConnection0.close();
+
+        final MysqlDatabaseConnection databaseConnection1 = connectionPool.borrow();
+
+        // Assert
+        Assert.assertSame(rawConnection0, databaseConnection1.getRawConnection());
+        Assert.assertEquals(1, databaseConnectionFactory.connectionStates.size());
+
+        final ConnectionPoolMetrics connectionPoolMetrics = connectionPool.getMetrics();
+        Assert.assertEquals(Integer.valueOf(1), connectionPoolMetrics.getActiveConnectionCount());
+        Assert.assertEquals(Integer.valueOf(0), connectionPoolMetrics.getIdleConnectionCount());
+        Assert.assertEquals(Long.valueOf(2L), connectionPoolMetrics.getBorrowCount());
+        Assert.assertEquals(Long.valueOf(1L), connectionPoolMetrics.getCreatedConnectionCount());
+    }
+
+    @Test
+    public void should_reuse_the_most_recently_released_connection_first() throws Exception {
+        // Setup
+        final FakeDatabaseConnectionFactory databaseConnectionFactory = new FakeDatabaseConnectionFactory();
+        final MysqlConnectionPool connectionPool = new MysqlConnectionPool(databaseConnectionFactory, 4);
+
+        final MysqlDatabaseConnection databaseConnection0 = connectionPool.borrow();
+        final MysqlDatabaseConnection databaseConnection1 = connectionPool.borrow();
+        final Connection rawConnection1 = databaseConnection1.getRawConnection();
+
+        // Action
+        databaseConnection0.close();
+        databaseConnection1.close();
+        final MysqlDatabaseConnection databaseConnection2 = connectionPool.borrow();
+
+        // Assert
+        Assert.assertSame(rawConnection1, databaseConnection2.getRawConnection());
+        Assert.assertEquals(Integer.valueOf(1), connectionPool.getMetrics().getIdleConnectionCount());
+    }
+
+    @Test
+    public void should_ignore_a_repeated_close() throws Exception {
+        // Setup
+        final FakeDatabaseConnectionFactory databaseConnectionFactory = new FakeDatabaseConnectionFactory();
+        final MysqlConnectionPool connectionPool = new MysqlConnectionPool(databaseConnectionFactory, 1);
+        final MysqlDatabaseConnection databaseConnection = connectionPool.borrow();
+
+        // Action
+        databaseConnection.close();
+        databaseConnection.close();
+
+        // Assert
+        final ConnectionPoolMetrics connectionPoolMetrics = connectionPool.getMetrics();
+        Assert.assertEquals(Integer.valueOf(0), connectionPoolMetrics.getActiveConnectionCount());
+        Assert.assertEquals(Integer.valueOf(1), connectionPoolMetrics.getIdleConnectionCount());
+        Assert.assertFalse(databaseConnectionFactory.connectionStates.get(0).isClosed);
+    }
+
+    @Test
+    public void should_time_out_when_every_connection_is_borrowed() throws Exception {
+        // Setup
+        final FakeDatabaseConnectionFactory databaseConnectionFactory = new FakeDatabaseConnectionFactory();
+        final MysqlConnectionPool connectionPool = new MysqlConnectionPool(databaseConnectionFactory, 1);
+        connectionPool.setBorrowTimeout(10L);
+        final MysqlDatabaseConnection databaseConnection = connectionPool.borrow();
+
+        // Action
+        try {
+            connectionPool.borrow();
+            Assert.fail("Expected DatabaseException.");
+        }
+        catch (final DatabaseException exception) { }
+
+        databaseConnection.close();
+        final MysqlDatabaseConnection reborrowedDatabaseConnection = connectionPool.borrow();
+
+        // Assert
+        Assert.assertSame(databaseConnection.getRawConnection(), reborrowedDatabaseConnection.getRawConnection());
+    }
+
+    @Test
+    public void should_release_capacity_when_a_connection_cannot_be_created() throws Exception {
+        // Setup
+        final FakeDatabaseConnectionFactory databaseConnectionFactory = new FakeDatabaseConnectionFactory();
+        final MysqlConnectionPool connectionPool = new MysqlConnectionPool(databaseConnectionFactory, 1);
+        connectionPool.setBorrowTimeout(10L);
+        databaseConnectionFactory.isAvailable = false;
+
+        // Action
+        try {
+            connectionPool.borrow();
+            Assert.fail("Expected DatabaseException.");
+        }
+        catch (final DatabaseException exception) { }
+
+        databaseConnectionFactory.isAvailable = true;
+        final MysqlDatabaseConnection databaseConnection = connectionPool.borrow();
+
+        // Assert
+        Assert.assertNotNull(databaseConnection);
+        Assert.assertEquals(Integer.valueOf(1), connectionPool.getMetrics().getActiveConnectionCount());
+    }
+
+    @Test
+    public void should_evict_expired_idle_connections() throws Exception {
+        // Setup
+        final FakeDatabaseConnectionFactory databaseConnectionFactory = new FakeDatabaseConnectionFactory();
+        final MysqlConnectionPool connectionPool = new MysqlConnectionPool(databaseConnectionFactory, 4);
+        connectionPool.setIdleTimeout(0L);
+
+        final MysqlDatabaseConnection databaseConnection0 = connectionPool.borrow();
+        final MysqlDatabaseConnection databaseConnection1 = connectionPool.borrow();
+
+        // Action
+        databaseConnection0.close();
+        Thread.sleep(5L);
+        databaseConnection1.close(); // Evicts the first connection, which is the coldest.
+
+        // Assert
+        final ConnectionPoolMetrics connectionPoolMetrics = connectionPool.getMetrics();
+        Assert.assertEquals(Long.valueOf(1L), connectionPoolMetrics.getEvictedConnectionCount());
+        Assert.assertEquals(Integer.valueOf(1), connectionPoolMetrics.getIdleConnectionCount());
+        Assert.assertTrue(databaseConnectionFactory.connectionStates.get(0).isClosed);
+        Assert.assertFalse(databaseConnectionFactory.connectionStates.get(1).isClosed);
+    }
+
+    @Test
+    public void should_replace_an_expired_connection_when_borrowing() throws Exception {
+        // Setup
+        final FakeDatabaseConnectionFactory databaseConnectionFactory = new FakeDatabaseConnectionFactory();
+        final MysqlConnectionPool connectionPool = new MysqlConnectionPool(databaseConnectionFactory, 4);
+        connectionPool.setIdleTimeout(0L);
+        connectionPool.borrow().close();
+        Thread.sleep(5L);
+
+        // Action
+        final MysqlDatabaseConnection databaseConnection = connectionPool.borrow();
+
+        // Assert
+        Assert.assertNotSame(databaseConnectionFactory.connectionStates.get(0), databaseConnectionFactory.connectionStates.get(1));
+        Assert.assertTrue(databaseConnectionFactory.connectionStates.get(0).isClosed);
+        Assert.assertEquals(Long.valueOf(1L), connectionPool.getMetrics().getEvictedConnectionCount());
+        Assert.assertEquals(Long.valueOf(2L), connectionPool.getMetrics().getCreatedConnectionCount());
+        Assert.assertNotNull(databaseConnection);
+    }
+
+    @Test
+    public void should_replace_an_invalid_connection_when_borrowing() throws Exception {
+        // Setup
+        final FakeDatabaseConnectionFactory databaseConnectionFactory = new FakeDatabaseConnectionFactory();
+        final MysqlConnectionPool connectionPool = new MysqlConnectionPool(databaseConnectionFactory, 4);
+        connectionPool.setValidationInterval(0L);
+        connectionPool.borrow().close();
+        databaseConnectionFactory.connectionStates.get(0).isValid = false;
+        Thread.sleep(1L);
+
+        // Action
+        final MysqlDatabaseConnection databaseConnection = connectionPool.borrow();
+
+        // Assert
+        Assert.assertTrue(databaseConnectionFactory.connectionStates.get(0).isClosed);
+        Assert.assertEquals(2, databaseConnectionFactory.connectionStates.size());
+        Assert.assertEquals(Long.valueOf(1L), connectionPool.getMetrics().getValidationFailureCount());
+        Assert.assertNotNull(databaseConnection);
+    }
+
+    @Test
+    public void should_roll_back_an_open_transaction_when_released() throws Exception {
+        // Setup
+        final FakeDatabaseConnectionFactory databaseConnectionFactory = new FakeDatabaseConnectionFactory();
+        final MysqlConnectionPool connectionPool = new MysqlConnectionPool(databaseConnectionFactory, 4);
+        final MysqlDatabaseConnection databaseConnection = connectionPool.borrow();
+        databaseConnection.getRawConnection().setAutoCommit(false);
+
+        // Action
+        databaseConnection.close();
+
+        // Assert
+        final FakeConnectionState connectionState = databaseConnectionFactory.connectionStates.get(0);
+        Assert.assertEquals(Integer.valueOf(1), connectionState.rollbackCount);
+        Assert.assertTrue(connectionState.autoCommit);
+        Assert.assertEquals(Integer.valueOf(1), connectionPool.getMetrics().getIdleConnectionCount());
+    }
+
+    @Test
+    public void should_discard_a_closed_connection_when_released() throws Exception {
+        // Setup
+        final FakeDatabaseConnectionFactory databaseConnectionFactory = new FakeDatabaseConnectionFactory();
+        final MysqlConnectionPool connectionPool = new MysqlConnectionPool(databaseConnectionFactory, 4);
+        final MysqlDatabaseConnection databaseConnection = connectionPool.borrow();
+        databaseConnectionFactory.connectionStates.get(0).isClosed = true;
+
+        // Action
+        databaseConnection.close();
+
+        // Assert
+        Assert.assertEquals(Integer.valueOf(0), connectionPool.getMetrics().getIdleConnectionCount());
+        Assert.assertEquals(Integer.valueOf(0), connectionPool.getMetrics().getActiveConnectionCount());
+    }
+
+    @Test
+    public void should_close_connections_when_the_pool_is_closed() throws Exception {
+        // Setup
+        final FakeDatabaseConnectionFactory databaseConnectionFactory = new FakeDatabaseConnectionFactory();
+        final MysqlConnectionPool connectionPool = new MysqlConnectionPool(databaseConnectionFactory, 4);
+        final MysqlDatabaseConnection idleDatabaseConnection = connectionPool.borrow();
+        final MysqlDatabaseConnection borrowedDatabaseConnection = connectionPool.borrow();
+        idleDatabaseConnection.close();
+
+        // Action
+        connectionPool.close();
+
+        // Assert
+        Assert.assertTrue(databaseConnectionFactory.connectionStates.get(0).isClosed);
+        Assert.assertFalse(databaseConnectionFactory.connectionStates.get(1).isClosed);
+
+        borrowedDatabaseConnection.close();
+        Assert.assertTrue(databaseConnectionFactory.connectionStates.get(1).isClosed);
+        Assert.assertEquals(Integer.valueOf(0), connectionPool.getMetrics().getIdleConnectionCount());
+
+        try {
+            connectionPool.borrow();
+            Assert.fail("Expected DatabaseException.");
+        }
+        catch (final DatabaseException exception) { }
+    }
+
+    @Test
+    public void should_derive_the_pool_size_from_max_connections() {
+        // Setup
+        final MutableEmbeddedDatabaseProperties defaultDatabaseProperties = new MutableEmbeddedDatabaseProperties();
+        final MutableEmbeddedDatabaseProperties databaseProperties = new MutableEmbeddedDatabaseProperties();
+        databaseProperties.setMaxConnectionCount(10L);
+        final MutableEmbeddedDatabaseProperties smallDatabaseProperties = new MutableEmbeddedDatabaseProperties();
+        smallDatabaseProperties.addArgument("--max_connections=1");
+
+        // Assert
+        Assert.assertEquals(Integer.valueOf(149), MysqlConnectionPool.calculateMaxConnectionCount(defaultDatabaseProperties));
+        Assert.assertEquals(Integer.valueOf(8), MysqlConnectionPool.calculateMaxConnectionCount(databaseProperties));
+        Assert.assertEquals(Integer.valueOf(1), MysqlConnectionPool.calculateMaxConnectionCount(smallDatabaseProperties));
+    }
+}
@@ -0,0 +1,264 @@
+package com.softwareverde.database.mysql.embedded.properties;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MemoryBudgetEstimatorTests {
+    protected static final Long KILOBYTE = 1024L;
+    protected static final Long MEGABYTE = (1024L * 1024L);
+
+    // With the server defaults, the scalable global memory is 401M (innodb_buffer_pool_size, key_buffer_size, and
+    //  aria_pagecache_buffer_size of 128M, query_cache_size of 1M, and one 16M temporary table), the fixed global memory
+    //  is 80M (the 64M server overhead and the 16M innodb_log_buffer_size), the scalable per-connection memory is 2688K
+    //  (sort, join, read, and random-read buffers), and the fixed per-connection memory is 16708K (thread_stack, two
+    //  network buffers, and max_allowed_packet).
+    protected static final Long DEFAULT_GLOBAL_BYTE_COUNT = (481L * MEGABYTE);
+    protected static final Long DEFAULT_PER_CONNECTION_BYTE_COUNT = (19396L * KILOBYTE);
+
+    protected static MutableEmbeddedDatabaseProperties _createDatabaseProperties(final String... arguments) {
+        final MutableEmbeddedDatabaseProperties databaseProperties = new MutableEmbeddedDatabaseProperties();
+        for (final String argument : arguments) {
+            databaseProperties.addArgument(argument);
+        }
+        return databaseProperties;
+    }
+
+    protected static ServerVariables _getServerVariables(final EmbeddedDatabaseProperties databaseProperties) {
+        return ServerVariables.parse(databaseProperties.getCommandlineArguments());
+    }
+
+    protected static String _getArguments(final EmbeddedDatabaseProperties databaseProperties) {
+        final StringBuilder stringBuilder = new StringBuilder();
+        for (final String argument : databaseProperties.getCommandlineArguments()) {
+            stringBuilder.append(argument);
+            stringBuilder.append(' ');
+        }
+        return stringBuilder.toString();
+    }
+
+    protected static Integer _getArgumentCount(final EmbeddedDatabaseProperties databaseProperties, final String variableName) {
+        int argumentCount = 0;
+        for (final String argument : databaseProperties.getCommandlineArguments()) {
+            final int separatorIndex = argument.indexOf('=');
+            final String argumentName = (separatorIndex < 0 ? argument : argument.substring(0, separatorIndex));
+            if (ServerVariables.normalizeName(argumentName).equals(variableName)) {
+                argumentCount += 1;
+            }
+        }
+        return argumentCount;
+    }
+
+    @Test
+    public void should_estimate_the_server_defaults() {
+        // Setup
+        final MemoryBudgetEstimator memoryBudgetEstimator = new MemoryBudgetEstimator();
+
+        // Action
+        final MemoryEstimate memoryEstimate = memoryBudgetEstimator.estimate(_createDatabaseProperties());
+
+        // Assert
+        Assert.assertEquals(DEFAULT_GLOBAL_BYTE_COUNT, memoryEstimate.getGlobalByteCount());
+        Assert.assertEquals(DEFAULT_PER_CONNECTION_BYTE_COUNT, memoryEstimate.getPerConnectionByteCount());
+        Assert.assertEquals(ServerVariables.DEFAULT_MAX_CONNECTION_COUNT, memoryEstimate.getMaxConnectionCount());
+        Assert.assertEquals(Long.valueOf(DEFAULT_GLOBAL_BYTE_COUNT + (DEFAULT_PER_CONNECTION_BYTE_COUNT * 151L)), memoryEstimate.getWorstCaseByteCount());
+        // Each connection's base memory (324K), and the working memory (2688K) of one in ten connections (16).
+        Assert.assertEquals(Long.valueOf(DEFAULT_GLOBAL_BYTE_COUNT + (324L * KILOBYTE * 151L) + (2688L * KILOBYTE * 16L)), memoryEstimate.getExpectedByteCount());
+    }
+
+    @Test
+    public void should_not_modify_a_configuration_within_the_budget() throws Exception {
+        // Setup
+        final MemoryBudgetEstimator memoryBudgetEstimator = new MemoryBudgetEstimator();
+        final MutableEmbeddedDatabaseProperties databaseProperties = _createDatabaseProperties("--max_connections=10");
+        final Long worstCaseByteCount = memoryBudgetEstimator.estimate(databaseProperties).getWorstCaseByteCount();
+        final String arguments = _getArguments(databaseProperties);
+
+        // Action
+        final MemoryEstimate memoryEstimate = memoryBudgetEstimator.enforce(databaseProperties, worstCaseByteCount, MemoryBudgetMode.SHRINK);
+
+        // Assert
+        Assert.assertEquals(worstCaseByteCount, memoryEstimate.getWorstCaseByteCount());
+        Assert.assertEquals(arguments, _getArguments(databaseProperties));
+    }
+
+    @Test
+    public void should_only_warn_when_the_budget_is_exceeded_in_warn_mode() throws Exception {
+        // Setup
+        final MemoryBudgetEstimator memoryBudgetEstimator = new MemoryBudgetEstimator();
+        final MutableEmbeddedDatabaseProperties databaseProperties = _createDatabaseProperties();
+        final MemoryEstimate unenforcedMemoryEstimate = memoryBudgetEstimator.estimate(databaseProperties);
+        final String arguments = _getArguments(databaseProperties);
+
+        // Action
+        final MemoryEstimate memoryEstimate = memoryBudgetEstimator.enforce(databaseProperties, (256L * MEGABYTE), MemoryBudgetMode.WARN);
+
+        // Assert
+        Assert.assertEquals(unenforcedMemoryEstimate.getWorstCaseByteCount(), memoryEstimate.getWorstCaseByteCount());
+        Assert.assertEquals(arguments, _getArguments(databaseProperties));
+    }
+
+    @Test
+    public void should_refuse_a_configuration_exceeding_the_budget_in_refuse_mode() {
+        // Setup
+        final MemoryBudgetEstimator memoryBudgetEstimator = new MemoryBudgetEstimator();
+        final MutableEmbeddedDatabaseProperties databaseProperties = _createDatabaseProperties();
+        final Long budgetByteCount = (256L * MEGABYTE);
+        final String arguments = _getArguments(databaseProperties);
+
+        // Action
+        try {
+            memoryBudgetEstimator.enforce(databaseProperties, budgetByteCount, MemoryBudgetMode.REFUSE);
+            Assert.fail("Expected MemoryBudgetExceededException.");
+        }
+        catch (final MemoryBudgetExceededException exception) {
+            // Assert
+            Assert.assertEquals(budgetByteCount, exception.getBudgetByteCount());
+            Assert.assertEquals(Long.valueOf(DEFAULT_GLOBAL_BYTE_COUNT + (DEFAULT_PER_CONNECTION_BYTE_COUNT * 151L)), exception.getMemoryEstimate().getWorstCaseByteCount());
+        }
+
+        Assert.assertEquals(arguments, _getArguments(databaseProperties));
+    }
+
+    @Test
+    public void should_scale_memory_settings_proportionally_in_shrink_mode() throws Exception {
+        // Setup
+        final MemoryBudgetEstimator memoryBudgetEstimator = new MemoryBudgetEstimator();
+        final MutableEmbeddedDatabaseProperties databaseProperties = _createDatabaseProperties("--max_connections=10");
+
+        // The scalable memory is 401M + (10 * 2688K) = 437504K, and the fixed memory is 80M + (10 * 16708K) = 249000K;
+        //  a budget of 249000K + (437504K / 2) halves every scalable setting.
+        final Long budgetByteCount = ((249000L + 218752L) * KILOBYTE);
+
+        // Action
+        final MemoryEstimate memoryEstimate = memoryBudgetEstimator.enforce(databaseProperties, budgetByteCount, MemoryBudgetMode.SHRINK);
+
+        // Assert
+        final ServerVariables serverVariables = _getServerVariables(databaseProperties);
+        Assert.assertEquals(Long.valueOf(64L * MEGABYTE), serverVariables.getLong("innodb_buffer_pool_size"));
+        Assert.assertEquals(Long.valueOf(64L * MEGABYTE), serverVariables.getLong("key_buffer_size"));
+        Assert.assertEquals(Long.valueOf(64L * MEGABYTE), serverVariables.getLong("aria_pagecache_buffer_size"));
+        Assert.assertEquals(Long.valueOf(512L * KILOBYTE), serverVariables.getLong("query_cache_size"));
+        Assert.assertEquals(Long.valueOf(8L * MEGABYTE), serverVariables.getLong("tmp_table_size"));
+        Assert.assertEquals(Long.valueOf(8L * MEGABYTE), serverVariables.getLong("max_heap_table_size"));
+        Assert.assertEquals(Long.valueOf(1L * MEGABYTE), serverVariables.getLong("sort_buffer_size"));
+        Assert.assertEquals(Long.valueOf(128L * KILOBYTE), serverVariables.getLong("join_buffer_size"));
+        Assert.assertEquals(Long.valueOf(64L * KILOBYTE), serverVariables.getLong("read_buffer_size"));
+        Assert.assertEquals(Long.valueOf(128L * KILOBYTE), serverVariables.getLong("read_rnd_buffer_size"));
+
+        // The fixed settings are not shrunk, and max_connections is not lowered since the scaled settings fit the budget.
+        Assert.assertNull(serverVariables.getString("innodb_log_buffer_size"));
+        Assert.assertNull(serverVariables.getString("max_allowed_packet"));
+        Assert.assertEquals(Long.valueOf(10L), serverVariables.getMaxConnectionCount());
+
+        Assert.assertEquals(budgetByteCount, memoryEstimate.getWorstCaseByteCount());
+        Assert.assertEquals(memoryBudgetEstimator.estimate(databaseProperties).getWorstCaseByteCount(), memoryEstimate.getWorstCaseByteCount());
+    }
+
+    @Test
+    public void should_round_scaled_settings_to_megabytes_or_kilobytes() {
+        // Setup
+        final MutableEmbeddedDatabaseProperties databaseProperties = _createDatabaseProperties();
+        final ServerVariables serverVariables = _getServerVariables(databaseProperties);
+
+        // Action
+        MemoryBudgetEstimator._scaleVariables(databaseProperties, serverVariables, MemoryBudgetEstimator.SCALABLE_GLOBAL_VARIABLES, 0.3D);
+
+        // Assert
+        final ServerVariables scaledServerVariables = _getServerVariables(databaseProperties);
+        Assert.assertEquals(Long.valueOf(38L * MEGABYTE), scaledServerVariables.getLong("innodb_buffer_pool_size")); // 38.4M
+        Assert.assertEquals(Long.valueOf(4L * MEGABYTE), scaledServerVariables.getLong("tmp_table_size")); // 4.8M
+        Assert.assertEquals(Long.valueOf(307L * KILOBYTE), scaledServerVariables.getLong("query_cache_size")); // 307.2K
+    }
+
+    @Test
+    public void should_not_scale_settings_below_their_minimums() {
+        // Setup
+        final MutableEmbeddedDatabaseProperties databaseProperties = _createDatabaseProperties();
+        final ServerVariables serverVariables = _getServerVariables(databaseProperties);
+
+        // Action
+        MemoryBudgetEstimator._scaleVariables(databaseProperties, serverVariables, MemoryBudgetEstimator.SCALABLE_GLOBAL_VARIABLES, 0D);
+        MemoryBudgetEstimator._scaleVariables(databaseProperties, serverVariables, MemoryBudgetEstimator.SCALABLE_CONNECTION_VARIABLES, 0D);
+
+        // Assert
+        final ServerVariables scaledServerVariables = _getServerVariables(databaseProperties);
+        Assert.assertEquals(Long.valueOf(8L * MEGABYTE), scaledServerVariables.getLong("innodb_buffer_pool_size"));
+        Assert.assertEquals(Long.valueOf(64L * KILOBYTE), scaledServerVariables.getLong("key_buffer_size"));
+        Assert.assertEquals(Long.valueOf(0L), scaledServerVariables.getLong("query_cache_size"));
+        Assert.assertEquals(Long.valueOf(1L * KILOBYTE), scaledServerVariables.getLong("tmp_table_size"));
+        Assert.assertEquals(Long.valueOf(32L * KILOBYTE), scaledServerVariables.getLong("sort_buffer_size"));
+        Assert.assertEquals(Long.valueOf(8L * KILOBYTE), scaledServerVariables.getLong("join_buffer_size"));
+    }
+
+    @Test
+    public void should_lower_max_connections_once_settings_reach_their_minimums() throws Exception {
+        // Setup
+        final MemoryBudgetEstimator memoryBudgetEstimator = new MemoryBudgetEstimator();
+        final MutableEmbeddedDatabaseProperties databaseProperties = _createDatabaseProperties();
+        final Long budgetByteCount = (1024L * MEGABYTE);
+
+        // Action
+        final MemoryEstimate memoryEstimate = memoryBudgetEstimator.enforce(databaseProperties, budgetByteCount, MemoryBudgetMode.SHRINK);
+
+        // Assert
+        // At their minimums, the global memory is 80M + 8M + 64K + 128K + 0K + 1K = 90305K, and each connection uses
+        //  16708K + 32K + (3 * 8K) = 16764K; (1048576K - 90305K) / 16764K = 57 connections.
+        Assert.assertEquals(Long.valueOf(90305L * KILOBYTE), memoryEstimate.getGlobalByteCount());
+        Assert.assertEquals(Long.valueOf(16764L * KILOBYTE), memoryEstimate.getPerConnectionByteCount());
+        Assert.assertEquals(Long.valueOf(57L), memoryEstimate.getMaxConnectionCount());
+        Assert.assertEquals(Long.valueOf(57L), _getServerVariables(databaseProperties).getMaxConnectionCount());
+        Assert.assertTrue(memoryEstimate.getWorstCaseByteCount() <= budgetByteCount);
+    }
+
+    @Test
+    public void should_refuse_in_shrink_mode_when_fewer_than_ten_connections_would_fit() {
+        // Setup
+        final MemoryBudgetEstimator memoryBudgetEstimator = new MemoryBudgetEstimator();
+        final MutableEmbeddedDatabaseProperties databaseProperties = _createDatabaseProperties();
+
+        // Action
+        try {
+            memoryBudgetEstimator.enforce(databaseProperties, (128L * MEGABYTE), MemoryBudgetMode.SHRINK);
+            Assert.fail("Expected MemoryBudgetExceededException.");
+        }
+        catch (final MemoryBudgetExceededException exception) {
+            // Assert
+            Assert.assertEquals(Long.valueOf(ServerVariables.DEFAULT_MAX_CONNECTION_COUNT), exception.getMemoryEstimate().getMaxConnectionCount());
+        }
+    }
+
+    @Test
+    public void should_replace_arguments_when_shrinking() throws Exception {
+        // Setup
+        final MemoryBudgetEstimator memoryBudgetEstimator = new MemoryBudgetEstimator();
+        final MutableEmbeddedDatabaseProperties databaseProperties = _createDatabaseProperties("--innodb-buffer-pool-size=1G", "--sort_buffer_size=4M", "--sort-buffer-size=4M", "--max_connections=10");
+
+        // Action
+        memoryBudgetEstimator.enforce(databaseProperties, (512L * MEGABYTE), MemoryBudgetMode.SHRINK);
+
+        // Assert
+        final ServerVariables serverVariables = _getServerVariables(databaseProperties);
+        Assert.assertEquals(Integer.valueOf(1), _getArgumentCount(databaseProperties, "innodb_buffer_pool_size"));
+        Assert.assertEquals(Integer.valueOf(1), _getArgumentCount(databaseProperties, "sort_buffer_size"));
+        Assert.assertTrue(serverVariables.getLong("innodb_buffer_pool_size") < (1024L * MEGABYTE));
+        Assert.assertTrue(serverVariables.getLong("sort_buffer_size") < (4L * MEGABYTE));
+    }
+
+    @Test
+    public void should_lower_max_connections_when_no_settings_are_scalable() throws Exception {
+        // Setup
+        final MemoryBudgetEstimator memoryBudgetEstimator = new MemoryBudgetEstimator();
+        final MutableEmbeddedDatabaseProperties databaseProperties = _createDatabaseProperties(
+            "--innodb_buffer_pool_size=0", "--key_buffer_size=0", "--aria_pagecache_buffer_size=0", "--query_cache_size=0", "--tmp_table_size=0", "--max_heap_table_size=0",
+            "--sort_buffer_size=0", "--join_buffer_size=0", "--read_buffer_size=0", "--read_rnd_buffer_size=0"
+        );
+
+        // Action
+        final MemoryEstimate memoryEstimate = memoryBudgetEstimator.enforce(databaseProperties, (1024L * MEGABYTE), MemoryBudgetMode.SHRINK);
+
+        // Assert
+        // The global memory is 80M, and each connection uses 16708K; (1048576K - 81920K) / 16708K = 57 connections.
+        Assert.assertEquals(Long.valueOf(57L), memoryEstimate.getMaxConnectionCount());
+        Assert.assertEquals(Long.valueOf(0L), _getServerVariables(databaseProperties).getLong("innodb_buffer_pool_size"));
+    }
+}
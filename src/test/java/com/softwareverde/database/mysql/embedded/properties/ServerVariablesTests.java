@@ -0,0 +1,82 @@
+package com.softwareverde.database.mysql.embedded.properties;
+
+import com.softwareverde.constable.list.mutable.MutableList;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ServerVariablesTests {
+    protected static ServerVariables _parse(final String... arguments) {
+        final MutableList<String> commandlineArguments = new MutableList<>();
+        for (final String argument : arguments) {
+            commandlineArguments.add(argument);
+        }
+        return ServerVariables.parse(commandlineArguments);
+    }
+
+    @Test
+    public void should_normalize_variable_names() {
+        // Action
+        final ServerVariables serverVariables = _parse("--innodb-buffer-pool-size=128M", "--Max_Connections=10");
+
+        // Assert
+        Assert.assertEquals("128M", serverVariables.getString("innodb_buffer_pool_size"));
+        Assert.assertEquals("128M", serverVariables.getString("--innodb-buffer-pool-size"));
+        Assert.assertEquals("10", serverVariables.getString("max_connections"));
+    }
+
+    @Test
+    public void should_distinguish_flags_from_empty_values() {
+        // Action
+        final ServerVariables serverVariables = _parse("--skip-networking", "--sql_mode=");
+
+        // Assert
+        Assert.assertTrue(serverVariables.isFlag("skip_networking"));
+        Assert.assertEquals(ServerVariables.FLAG_VALUE, serverVariables.getString("skip_networking"));
+
+        Assert.assertFalse(serverVariables.isFlag("sql_mode"));
+        Assert.assertEquals("", serverVariables.getString("sql_mode"));
+
+        Assert.assertFalse(serverVariables.contains("performance_schema"));
+        Assert.assertNull(serverVariables.getString("performance_schema"));
+    }
+
+    @Test
+    public void should_use_the_last_value_of_a_repeated_argument() {
+        // Action
+        final ServerVariables serverVariables = _parse("--performance_schema", "--performance_schema=OFF", "--sql_mode=ANSI", "--sql_mode");
+
+        // Assert
+        Assert.assertFalse(serverVariables.isFlag("performance_schema"));
+        Assert.assertEquals("OFF", serverVariables.getString("performance_schema"));
+
+        Assert.assertTrue(serverVariables.isFlag("sql_mode"));
+        Assert.assertEquals(ServerVariables.FLAG_VALUE, serverVariables.getString("sql_mode"));
+    }
+
+    @Test
+    public void should_parse_numeric_values_with_suffixes() {
+        Assert.assertEquals(Long.valueOf(123L), ServerVariables.parseLong("123"));
+        Assert.assertEquals(Long.valueOf(1024L), ServerVariables.parseLong("1K"));
+        Assert.assertEquals(Long.valueOf(1024L), ServerVariables.parseLong("1k"));
+        Assert.assertEquals(Long.valueOf(2L * 1024L * 1024L), ServerVariables.parseLong("2M"));
+        Assert.assertEquals(Long.valueOf(3L * 1024L * 1024L * 1024L), ServerVariables.parseLong("3g"));
+        Assert.assertEquals(Long.valueOf(1024L * 1024L * 1024L * 1024L), ServerVariables.parseLong("1T"));
+        Assert.assertEquals(Long.valueOf(5L * 1024L * 1024L), ServerVariables.parseLong(" 5M "));
+    }
+
+    @Test
+    public void should_not_parse_non_numeric_values() {
+        Assert.assertNull(ServerVariables.parseLong(null));
+        Assert.assertNull(ServerVariables.parseLong(""));
+        Assert.assertNull(ServerVariables.parseLong("M"));
+        Assert.assertNull(ServerVariables.parseLong("1.5M"));
+        Assert.assertNull(ServerVariables.parseLong("ON"));
+        Assert.assertNull(ServerVariables.parseLong("1P"));
+    }
+
+    @Test
+    public void should_use_the_default_max_connection_count_when_not_configured() {
+        Assert.assertEquals(ServerVariables.DEFAULT_MAX_CONNECTION_COUNT, _parse().getMaxConnectionCount());
+        Assert.assertEquals(Long.valueOf(10L), _parse("--max-connections=10").getMaxConnectionCount());
+    }
+}
@@ -0,0 +1,128 @@
+package com.softwareverde.database.mysql.embedded.properties;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WorkloadProfileTests {
+    protected static final Long MEGABYTE = (1024L * 1024L);
+    protected static final Long GIGABYTE = (1024L * MEGABYTE);
+
+    @Test
+    public void should_calculate_oltp_settings() {
+        // Setup
+        final HostResources hostResources = new HostResources(8, (16L * GIGABYTE), HostResources.StorageType.SOLID_STATE);
+
+        // Action
+        final WorkloadSettings workloadSettings = WorkloadProfile.OLTP.calculateSettings(hostResources);
+
+        // Assert
+        Assert.assertEquals(Long.valueOf(8L * GIGABYTE), workloadSettings.getInnoDbBufferPoolByteCount());
+        Assert.assertEquals(Long.valueOf(1024L * MEGABYTE), workloadSettings.getInnoDbLogFileByteCount()); // 2G, clamped to 1G.
+        Assert.assertEquals(Long.valueOf(16L * MEGABYTE), workloadSettings.getInnoDbLogBufferByteCount());
+        Assert.assertEquals(Long.valueOf(2000L), workloadSettings.getInnoDbIoCapacity());
+        Assert.assertEquals(Long.valueOf(4000L), workloadSettings.getInnoDbIoCapacityMax());
+        Assert.assertEquals(Integer.valueOf(4), workloadSettings.getInnoDbReadIoThreads());
+        Assert.assertEquals(Integer.valueOf(4), workloadSettings.getInnoDbWriteIoThreads());
+        Assert.assertEquals(Integer.valueOf(1024), workloadSettings.getInnoDbLeastRecentlyUsedScanDepth());
+        Assert.assertEquals(Long.valueOf(500L), workloadSettings.getMaxConnectionCount()); // 1024 connections fit; clamped to 500.
+    }
+
+    @Test
+    public void should_calculate_bulk_ingest_settings() {
+        // Setup
+        final HostResources hostResources = new HostResources(8, (16L * GIGABYTE), HostResources.StorageType.MEMORY);
+
+        // Action
+        final WorkloadSettings workloadSettings = WorkloadProfile.BULK_INGEST.calculateSettings(hostResources);
+
+        // Assert
+        Assert.assertEquals(Long.valueOf(8L * GIGABYTE), workloadSettings.getInnoDbBufferPoolByteCount());
+        Assert.assertEquals(Long.valueOf(4096L * MEGABYTE), workloadSettings.getInnoDbLogFileByteCount());
+        Assert.assertEquals(Long.valueOf(64L * MEGABYTE), workloadSettings.getInnoDbLogBufferByteCount());
+        Assert.assertEquals(Long.valueOf(20000L), workloadSettings.getInnoDbIoCapacity());
+        Assert.assertEquals(Long.valueOf(40000L), workloadSettings.getInnoDbIoCapacityMax());
+        Assert.assertEquals(Integer.valueOf(4), workloadSettings.getInnoDbReadIoThreads()); // 2, raised to the minimum of 4.
+        Assert.assertEquals(Integer.valueOf(8), workloadSettings.getInnoDbWriteIoThreads());
+        Assert.assertEquals(Long.valueOf(64L), workloadSettings.getMaxConnectionCount());
+    }
+
+    @Test
+    public void should_calculate_low_footprint_settings() {
+        // Setup
+        final HostResources hostResources = new HostResources(8, (16L * GIGABYTE), HostResources.StorageType.ROTATIONAL);
+
+        // Action
+        final WorkloadSettings workloadSettings = WorkloadProfile.LOW_FOOTPRINT.calculateSettings(hostResources);
+
+        // Assert
+        Assert.assertEquals(Long.valueOf(128L * MEGABYTE), workloadSettings.getInnoDbBufferPoolByteCount()); // 5% of 16G, capped at 128M.
+        Assert.assertEquals(Long.valueOf(32L * MEGABYTE), workloadSettings.getInnoDbLogFileByteCount());
+        Assert.assertEquals(Long.valueOf(4L * MEGABYTE), workloadSettings.getInnoDbLogBufferByteCount());
+        Assert.assertEquals(Long.valueOf(100L), workloadSettings.getInnoDbIoCapacity()); // 200 * 0.5
+        Assert.assertEquals(Long.valueOf(2000L), workloadSettings.getInnoDbIoCapacityMax());
+        Assert.assertEquals(Integer.valueOf(1), workloadSettings.getInnoDbReadIoThreads());
+        Assert.assertEquals(Integer.valueOf(1), workloadSettings.getInnoDbWriteIoThreads());
+        Assert.assertEquals(Long.valueOf(32L), workloadSettings.getMaxConnectionCount());
+    }
+
+    @Test
+    public void should_round_the_buffer_pool_down_to_whole_megabytes() {
+        // Setup
+        final HostResources hostResources = new HostResources(4, 1000000000L, HostResources.StorageType.SOLID_STATE);
+
+        // Action
+        final WorkloadSettings workloadSettings = WorkloadProfile.OLTP.calculateSettings(hostResources);
+
+        // Assert
+        Assert.assertEquals(Long.valueOf(476L * MEGABYTE), workloadSettings.getInnoDbBufferPoolByteCount()); // 476.8M
+        Assert.assertEquals(Long.valueOf(119L * MEGABYTE), workloadSettings.getInnoDbLogFileByteCount());
+    }
+
+    @Test
+    public void should_apply_the_minimums_on_small_hosts() {
+        // Setup
+        final HostResources hostResources = new HostResources(1, (64L * MEGABYTE), HostResources.StorageType.SOLID_STATE);
+
+        // Action
+        final WorkloadSettings workloadSettings = WorkloadProfile.OLTP.calculateSettings(hostResources);
+
+        // Assert
+        Assert.assertEquals(Long.valueOf(32L * MEGABYTE), workloadSettings.getInnoDbBufferPoolByteCount());
+        Assert.assertEquals(Long.valueOf(48L * MEGABYTE), workloadSettings.getInnoDbLogFileByteCount());
+        Assert.assertEquals(Long.valueOf(10L), workloadSettings.getMaxConnectionCount()); // 4 connections fit; raised to 10.
+        Assert.assertEquals(Integer.valueOf(4), workloadSettings.getInnoDbReadIoThreads());
+    }
+
+    @Test
+    public void should_limit_io_threads_to_the_server_maximum() {
+        // Setup
+        final HostResources hostResources = new HostResources(256, (16L * GIGABYTE), HostResources.StorageType.SOLID_STATE);
+
+        // Action
+        final WorkloadSettings workloadSettings = WorkloadProfile.READ_MOSTLY_ANALYTICS.calculateSettings(hostResources);
+
+        // Assert
+        Assert.assertEquals(Integer.valueOf(64), workloadSettings.getInnoDbReadIoThreads());
+        Assert.assertEquals(Integer.valueOf(64), workloadSettings.getInnoDbWriteIoThreads());
+    }
+
+    @Test
+    public void should_omit_settings_derived_from_unknown_resources() {
+        // Setup
+        final HostResources hostResources = new HostResources(null, null, HostResources.StorageType.UNKNOWN);
+
+        // Action
+        final WorkloadSettings workloadSettings = WorkloadProfile.OLTP.calculateSettings(hostResources);
+
+        // Assert
+        Assert.assertNull(workloadSettings.getInnoDbBufferPoolByteCount());
+        Assert.assertNull(workloadSettings.getInnoDbLogFileByteCount());
+        Assert.assertNull(workloadSettings.getMaxConnectionCount());
+        Assert.assertNull(workloadSettings.getInnoDbIoCapacity());
+        Assert.assertNull(workloadSettings.getInnoDbIoCapacityMax());
+        Assert.assertNull(workloadSettings.getInnoDbReadIoThreads());
+        Assert.assertNull(workloadSettings.getInnoDbWriteIoThreads());
+        Assert.assertEquals(Long.valueOf(16L * MEGABYTE), workloadSettings.getInnoDbLogBufferByteCount());
+        Assert.assertEquals(Integer.valueOf(1024), workloadSettings.getInnoDbLeastRecentlyUsedScanDepth());
+    }
+}